@@ -0,0 +1,358 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseAssertingBatchIterator;
+import io.crate.data.Columns;
+import io.crate.data.Row;
+import io.crate.data.RowBridging;
+import io.crate.data.RowColumns;
+import io.crate.data.RowN;
+import org.apache.lucene.util.LongBitSet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * HashJoin BatchIterator for joins with equality conditions.
+ *
+ * The right side (build side) is fully consumed and materialized into a hash table, keyed by {@code rightKey}.
+ * The left side (probe side) is streamed and each row is looked up using {@code leftKey}:
+ *
+ * <pre>
+ *     for (rightRow in right) {
+ *         table[rightKey(rightRow)].add(rightRow)
+ *     }
+ *
+ *     for (leftRow in left) {
+ *         for (rightRow in table[leftKey(leftRow)]) {
+ *             if (joinCondition) {
+ *                 markMatched(rightRow)
+ *                 onRow
+ *             }
+ *         }
+ *         if (noMatch && emitUnmatchedLeft) {
+ *             onRow (right-side-null)
+ *         }
+ *     }
+ *
+ *     if (emitUnmatchedRight) {
+ *         for (rightRow in right) {
+ *             if (notMatched(rightRow)) {
+ *                 onRow (left-side-null)
+ *             }
+ *         }
+ *     }
+ * </pre>
+ *
+ * Rows with a {@code null} key never match, following SQL equality semantics.
+ *
+ * The output order is the order of the left side; matches of a single left row are emitted in the order of the right
+ * side, so the result is the same as the one of the corresponding {@link NestedLoopBatchIterator}.
+ *
+ * Each materialized build row is passed to {@code buildRowAccounting} which may throw (e.g. if a circuit breaker trips)
+ * to abort the join before the build side exhausts the heap.
+ *
+ * The build side is always {@code right}; it is up to the caller to pass the smaller relation as the right side.
+ */
+public class HashJoinBatchIterator implements BatchIterator {
+
+    private static final int NO_ENTRY = -1;
+
+    /**
+     * Create a BatchIterator that creates the inner-join result of {@code left} and {@code right}.
+     */
+    public static BatchIterator innerJoin(BatchIterator left,
+                                          BatchIterator right,
+                                          Function<Columns, Supplier<Object>> leftKey,
+                                          Function<Columns, Supplier<Object>> rightKey,
+                                          @Nullable Function<Columns, BooleanSupplier> joinCondition,
+                                          Consumer<Row> buildRowAccounting) {
+        return new CloseAssertingBatchIterator(new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, buildRowAccounting, false, false));
+    }
+
+    /**
+     * Create a BatchIterator that creates the left-outer-join result of {@code left} and {@code right}.
+     */
+    public static BatchIterator leftJoin(BatchIterator left,
+                                         BatchIterator right,
+                                         Function<Columns, Supplier<Object>> leftKey,
+                                         Function<Columns, Supplier<Object>> rightKey,
+                                         @Nullable Function<Columns, BooleanSupplier> joinCondition,
+                                         Consumer<Row> buildRowAccounting) {
+        return new CloseAssertingBatchIterator(new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, buildRowAccounting, true, false));
+    }
+
+    /**
+     * Create a BatchIterator that creates the right-outer-join result of {@code left} and {@code right}.
+     */
+    public static BatchIterator rightJoin(BatchIterator left,
+                                          BatchIterator right,
+                                          Function<Columns, Supplier<Object>> leftKey,
+                                          Function<Columns, Supplier<Object>> rightKey,
+                                          @Nullable Function<Columns, BooleanSupplier> joinCondition,
+                                          Consumer<Row> buildRowAccounting) {
+        return new CloseAssertingBatchIterator(new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, buildRowAccounting, false, true));
+    }
+
+    /**
+     * Create a BatchIterator that creates the full-outer-join result of {@code left} and {@code right}.
+     */
+    public static BatchIterator fullOuterJoin(BatchIterator left,
+                                              BatchIterator right,
+                                              Function<Columns, Supplier<Object>> leftKey,
+                                              Function<Columns, Supplier<Object>> rightKey,
+                                              @Nullable Function<Columns, BooleanSupplier> joinCondition,
+                                              Consumer<Row> buildRowAccounting) {
+        return new CloseAssertingBatchIterator(new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, buildRowAccounting, true, true));
+    }
+
+    private final BatchIterator left;
+    private final BatchIterator right;
+    private final CombinedColumn rowData;
+    private final RowColumns buildColumns;
+    private final RowN buildRow;
+    private final Supplier<Object> leftKey;
+    private final Supplier<Object> rightKey;
+    private final BooleanSupplier joinCondition;
+    private final Consumer<Row> buildRowAccounting;
+    private final boolean emitUnmatchedLeft;
+    private final boolean emitUnmatchedRight;
+
+    /**
+     * key -> [head, tail] of the chain of build rows with that key; the chain is linked via {@link #next}
+     */
+    private final HashMap<Object, int[]> table = new HashMap<>();
+    private final ArrayList<Object[]> buildRows = new ArrayList<>();
+    private int[] next = new int[16];
+
+    private CompletableFuture<?> buildFuture;
+    private boolean built = false;
+    private LongBitSet matchedRows;
+
+    private boolean onLeftRow = false;
+    private boolean hadMatch = false;
+    private int position = NO_ENTRY;
+    private boolean postProbe = false;
+    private int postProbePosition = -1;
+
+    private HashJoinBatchIterator(BatchIterator left,
+                                  BatchIterator right,
+                                  Function<Columns, Supplier<Object>> leftKey,
+                                  Function<Columns, Supplier<Object>> rightKey,
+                                  @Nullable Function<Columns, BooleanSupplier> joinCondition,
+                                  Consumer<Row> buildRowAccounting,
+                                  boolean emitUnmatchedLeft,
+                                  boolean emitUnmatchedRight) {
+        this.left = left;
+        this.right = right;
+        this.buildColumns = new RowColumns(right.rowData().size());
+        this.buildRow = new RowN(right.rowData().size());
+        this.rowData = new CombinedColumn(left.rowData(), buildColumns);
+        this.leftKey = leftKey.apply(left.rowData());
+        this.rightKey = rightKey.apply(right.rowData());
+        this.joinCondition = joinCondition == null ? () -> true : joinCondition.apply(rowData);
+        this.buildRowAccounting = buildRowAccounting;
+        this.emitUnmatchedLeft = emitUnmatchedLeft;
+        this.emitUnmatchedRight = emitUnmatchedRight;
+        buildColumns.updateRef(buildRow);
+    }
+
+    @Override
+    public Columns rowData() {
+        return rowData;
+    }
+
+    @Override
+    public void moveToStart() {
+        left.moveToStart();
+        onLeftRow = false;
+        hadMatch = false;
+        position = NO_ENTRY;
+        postProbe = false;
+        postProbePosition = -1;
+        rowData.resetLeft();
+        rowData.resetRight();
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (built == false) {
+            return false;
+        }
+        if (postProbe) {
+            return moveUnmatchedBuildRows();
+        }
+        while (true) {
+            if (onLeftRow == false) {
+                rowData.resetRight();
+                if (left.moveNext() == false) {
+                    if (emitUnmatchedRight && left.allLoaded()) {
+                        postProbe = true;
+                        postProbePosition = -1;
+                        rowData.nullLeft();
+                        return moveUnmatchedBuildRows();
+                    }
+                    return false;
+                }
+                onLeftRow = true;
+                hadMatch = false;
+                Object key = leftKey.get();
+                int[] chain = key == null ? null : table.get(key);
+                position = chain == null ? NO_ENTRY : chain[0];
+            }
+            while (position != NO_ENTRY) {
+                int idx = position;
+                position = next[idx];
+                buildRow.cells(buildRows.get(idx));
+                if (joinCondition.getAsBoolean()) {
+                    hadMatch = true;
+                    if (matchedRows != null) {
+                        matchedRows.set(idx);
+                    }
+                    return true;
+                }
+            }
+            onLeftRow = false;
+            if (hadMatch == false && emitUnmatchedLeft) {
+                rowData.nullRight();
+                return true;
+            }
+        }
+    }
+
+    private boolean moveUnmatchedBuildRows() {
+        while (++postProbePosition < buildRows.size()) {
+            if (matchedRows.get(postProbePosition) == false) {
+                buildRow.cells(buildRows.get(postProbePosition));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        left.close();
+        right.close();
+        table.clear();
+        buildRows.clear();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        if (built) {
+            return left.loadNextBatch();
+        }
+        if (buildFuture != null) {
+            return CompletableFutures.failedFuture(new IllegalStateException("BatchIterator is already loading"));
+        }
+        buildFuture = new CompletableFuture<>();
+        build(buildFuture);
+        return buildFuture;
+    }
+
+    private void build(CompletableFuture<?> future) {
+        Row row = RowBridging.toRow(right.rowData());
+        while (true) {
+            CompletableFuture<?> nextBatch;
+            try {
+                while (right.moveNext()) {
+                    addBuildRow(row);
+                }
+                if (right.allLoaded()) {
+                    if (emitUnmatchedRight) {
+                        matchedRows = new LongBitSet(Math.max(buildRows.size(), 1));
+                    }
+                    built = true;
+                    future.complete(null);
+                    return;
+                }
+                nextBatch = right.loadNextBatch().toCompletableFuture();
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+                return;
+            }
+            // only continue asynchronously if the batch isn't loaded yet; recursing for batches which are loaded
+            // synchronously would grow the stack with every batch of the build side
+            if (nextBatch.isDone() == false || nextBatch.isCompletedExceptionally()) {
+                nextBatch.whenComplete((r, t) -> {
+                    if (t == null) {
+                        build(future);
+                    } else {
+                        future.completeExceptionally(t);
+                    }
+                });
+                return;
+            }
+        }
+    }
+
+    private void addBuildRow(Row row) {
+        buildRowAccounting.accept(row);
+        Object key = rightKey.get();
+        int idx = buildRows.size();
+        buildRows.add(row.materialize());
+        if (idx == next.length) {
+            next = Arrays.copyOf(next, next.length << 1);
+        }
+        next[idx] = NO_ENTRY;
+        if (key == null) {
+            // can never match, but is still required for outer joins
+            return;
+        }
+        int[] chain = table.get(key);
+        if (chain == null) {
+            table.put(key, new int[] { idx, idx });
+        } else {
+            next[chain[1]] = idx;
+            chain[1] = idx;
+        }
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return built && left.allLoaded();
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        left.kill(throwable);
+        right.kill(throwable);
+    }
+}
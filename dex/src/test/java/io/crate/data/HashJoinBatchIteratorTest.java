@@ -0,0 +1,255 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import io.crate.data.join.HashJoinBatchIterator;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.testing.TestingBatchIterators;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class HashJoinBatchIteratorTest {
+
+    private ArrayList<Object[]> innerJoinResult;
+    private ArrayList<Object[]> leftJoinResult;
+    private ArrayList<Object[]> rightJoinResult;
+    private ArrayList<Object[]> fullJoinResult;
+
+    private static Function<Columns, Supplier<Object>> col0Key() {
+        return columns -> {
+            Input<?> input = columns.get(0);
+            return input::value;
+        };
+    }
+
+    private static BatchIterator batched(BatchIterator it) {
+        return new BatchSimulatingIterator(it, 2, 2, null);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        innerJoinResult = new ArrayList<>();
+        innerJoinResult.add(new Object[] { 2, 2 });
+        innerJoinResult.add(new Object[] { 3, 3 });
+
+        leftJoinResult = new ArrayList<>();
+        leftJoinResult.add(new Object[] { 0, null });
+        leftJoinResult.add(new Object[] { 1, null });
+        leftJoinResult.add(new Object[] { 2, 2, });
+        leftJoinResult.add(new Object[] { 3, 3, });
+
+        rightJoinResult = new ArrayList<>();
+        rightJoinResult.add(new Object[] { 2, 2, });
+        rightJoinResult.add(new Object[] { 3, 3, });
+        rightJoinResult.add(new Object[] { null, 4 });
+        rightJoinResult.add(new Object[] { null, 5 });
+
+        fullJoinResult = new ArrayList<>();
+        fullJoinResult.add(new Object[] { 0, null });
+        fullJoinResult.add(new Object[] { 1, null });
+        fullJoinResult.add(new Object[] { 2, 2, });
+        fullJoinResult.add(new Object[] { 3, 3, });
+        fullJoinResult.add(new Object[] { null, 4 });
+        fullJoinResult.add(new Object[] { null, 5 });
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(innerJoinResult);
+    }
+
+    @Test
+    public void testInnerJoinBatchedSource() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.innerJoin(
+            batched(TestingBatchIterators.range(0, 4)),
+            batched(TestingBatchIterators.range(2, 6)),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(innerJoinResult);
+    }
+
+    @Test
+    public void testBuildSideWithManySynchronouslyLoadedBatches() throws Exception {
+        BatchIterator right = new BatchSimulatingIterator(TestingBatchIterators.range(0, 100_000), 1, 1, null);
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(99_999, 100_001), right, col0Key(), col0Key(), null, row -> {}), null);
+
+        assertThat(consumer.getResult(), contains(new Object[] { 99_999, 99_999 }));
+    }
+
+    @Test
+    public void testInnerJoinWithDuplicateKeysKeepsOrderOfBothSides() throws Exception {
+        BatchIterator left = RowsBatchIterator.newInstance(
+            Arrays.asList(new RowN(new Object[] { 1, "a" }), new RowN(new Object[] { 1, "b" })), 2);
+        BatchIterator right = RowsBatchIterator.newInstance(
+            Arrays.asList(new RowN(new Object[] { 1, "x" }), new RowN(new Object[] { 2, "y" }), new RowN(new Object[] { 1, "z" })), 2);
+
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(HashJoinBatchIterator.innerJoin(left, right, col0Key(), col0Key(), null, row -> {}), null);
+
+        assertThat(consumer.getResult(), contains(
+            new Object[] { 1, "a", 1, "x" },
+            new Object[] { 1, "a", 1, "z" },
+            new Object[] { 1, "b", 1, "x" },
+            new Object[] { 1, "b", 1, "z" }));
+    }
+
+    @Test
+    public void testInnerJoinWithAdditionalJoinCondition() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            col0Key(),
+            col0Key(),
+            columns -> () -> ((Integer) columns.get(1).value()) > 2,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(innerJoinResult.subList(1, 2));
+    }
+
+    @Test
+    public void testLeftJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.leftJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(leftJoinResult);
+    }
+
+    @Test
+    public void testLeftJoinBatchedSource() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.leftJoin(
+            batched(TestingBatchIterators.range(0, 4)),
+            batched(TestingBatchIterators.range(2, 6)),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(leftJoinResult);
+    }
+
+    @Test
+    public void testRightJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.rightJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(rightJoinResult);
+    }
+
+    @Test
+    public void testRightJoinBatchedSource() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.rightJoin(
+            batched(TestingBatchIterators.range(0, 4)),
+            batched(TestingBatchIterators.range(2, 6)),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(rightJoinResult);
+    }
+
+    @Test
+    public void testFullOuterJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.fullOuterJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(fullJoinResult);
+    }
+
+    @Test
+    public void testFullOuterJoinBatchedSource() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.fullOuterJoin(
+            batched(TestingBatchIterators.range(0, 4)),
+            batched(TestingBatchIterators.range(2, 6)),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {}
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(fullJoinResult);
+    }
+
+    @Test
+    public void testFailureDuringBuildIsPropagated() throws Exception {
+        BatchIterator iterator = HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            col0Key(),
+            col0Key(),
+            null,
+            row -> {
+                throw new IllegalStateException("breaker tripped");
+            }
+        );
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(iterator, null);
+        try {
+            consumer.getResult();
+            fail("getResult must fail if the build side fails");
+        } catch (Exception e) {
+            assertThat(e, instanceOf(IllegalStateException.class));
+            assertThat(e.getMessage(), is("breaker tripped"));
+        }
+    }
+}
@@ -21,6 +21,8 @@ package io.crate.beans;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import io.crate.operation.collect.stats.JobsLogs;
+import io.crate.operation.collect.stats.LatencyHistogram;
+import io.crate.operation.collect.stats.StatementLatencies;
 import io.crate.operation.reference.sys.job.JobContextLog;
 
 import java.util.HashMap;
@@ -91,6 +93,7 @@ public class QueryStats implements QueryStatsMBean {
     };
 
     private final Supplier<Map<String, Metric>> metricByCommand;
+    private final Supplier<Map<String, LatencyHistogram.Snapshot>> latencyByCommand;
 
     private volatile long lastUpdateTsInMillis = System.currentTimeMillis();
 
@@ -105,6 +108,27 @@ public class QueryStats implements QueryStatsMBean {
             1,
             TimeUnit.SECONDS
         );
+        latencyByCommand = Suppliers.memoizeWithExpiration(
+            () -> createLatencyMap(jobsLogs.statementLatencies()),
+            1,
+            TimeUnit.SECONDS
+        );
+    }
+
+    static Map<String, LatencyHistogram.Snapshot> createLatencyMap(StatementLatencies statementLatencies) {
+        Map<String, LatencyHistogram.Snapshot> latencyByCommand = new HashMap<>();
+        for (StatementLatencies.TypedSnapshot typedSnapshot : statementLatencies.snapshots()) {
+            String command = typedSnapshot.type() == StatementLatencies.StatementType.OTHER
+                ? Commands.UNCLASSIFIED
+                : typedSnapshot.type().displayName();
+            latencyByCommand.put(command, typedSnapshot.snapshot());
+        }
+        latencyByCommand.put(Commands.TOTAL, statementLatencies.overallSnapshot());
+        return latencyByCommand;
+    }
+
+    private LatencyHistogram.Snapshot latency(String command) {
+        return latencyByCommand.get().get(command);
     }
 
     static Map<String, Metric> createMetricsMap(Iterable<JobContextLog> logEntries, long currentTs, long lastUpdateTs) {
@@ -189,4 +213,129 @@ public class QueryStats implements QueryStatsMBean {
     public double getOverallQueryAverageDuration() {
         return metricByCommand.get().getOrDefault(Commands.TOTAL, DEFAULT_METRIC).avgDurationInMs();
     }
+
+    @Override
+    public double getSelectQueryLatencyP50() {
+        return latency(Commands.SELECT).percentileMs(50.0);
+    }
+
+    @Override
+    public double getSelectQueryLatencyP95() {
+        return latency(Commands.SELECT).percentileMs(95.0);
+    }
+
+    @Override
+    public double getSelectQueryLatencyP99() {
+        return latency(Commands.SELECT).percentileMs(99.0);
+    }
+
+    @Override
+    public double getSelectQueryLatencyP999() {
+        return latency(Commands.SELECT).percentileMs(99.9);
+    }
+
+    @Override
+    public double getSelectQueryLatencyMax() {
+        return latency(Commands.SELECT).maxMs();
+    }
+
+    @Override
+    public double getInsertQueryLatencyP50() {
+        return latency(Commands.INSERT).percentileMs(50.0);
+    }
+
+    @Override
+    public double getInsertQueryLatencyP95() {
+        return latency(Commands.INSERT).percentileMs(95.0);
+    }
+
+    @Override
+    public double getInsertQueryLatencyP99() {
+        return latency(Commands.INSERT).percentileMs(99.0);
+    }
+
+    @Override
+    public double getInsertQueryLatencyP999() {
+        return latency(Commands.INSERT).percentileMs(99.9);
+    }
+
+    @Override
+    public double getInsertQueryLatencyMax() {
+        return latency(Commands.INSERT).maxMs();
+    }
+
+    @Override
+    public double getUpdateQueryLatencyP50() {
+        return latency(Commands.UPDATE).percentileMs(50.0);
+    }
+
+    @Override
+    public double getUpdateQueryLatencyP95() {
+        return latency(Commands.UPDATE).percentileMs(95.0);
+    }
+
+    @Override
+    public double getUpdateQueryLatencyP99() {
+        return latency(Commands.UPDATE).percentileMs(99.0);
+    }
+
+    @Override
+    public double getUpdateQueryLatencyP999() {
+        return latency(Commands.UPDATE).percentileMs(99.9);
+    }
+
+    @Override
+    public double getUpdateQueryLatencyMax() {
+        return latency(Commands.UPDATE).maxMs();
+    }
+
+    @Override
+    public double getDeleteQueryLatencyP50() {
+        return latency(Commands.DELETE).percentileMs(50.0);
+    }
+
+    @Override
+    public double getDeleteQueryLatencyP95() {
+        return latency(Commands.DELETE).percentileMs(95.0);
+    }
+
+    @Override
+    public double getDeleteQueryLatencyP99() {
+        return latency(Commands.DELETE).percentileMs(99.0);
+    }
+
+    @Override
+    public double getDeleteQueryLatencyP999() {
+        return latency(Commands.DELETE).percentileMs(99.9);
+    }
+
+    @Override
+    public double getDeleteQueryLatencyMax() {
+        return latency(Commands.DELETE).maxMs();
+    }
+
+    @Override
+    public double getOverallQueryLatencyP50() {
+        return latency(Commands.TOTAL).percentileMs(50.0);
+    }
+
+    @Override
+    public double getOverallQueryLatencyP95() {
+        return latency(Commands.TOTAL).percentileMs(95.0);
+    }
+
+    @Override
+    public double getOverallQueryLatencyP99() {
+        return latency(Commands.TOTAL).percentileMs(99.0);
+    }
+
+    @Override
+    public double getOverallQueryLatencyP999() {
+        return latency(Commands.TOTAL).percentileMs(99.9);
+    }
+
+    @Override
+    public double getOverallQueryLatencyMax() {
+        return latency(Commands.TOTAL).maxMs();
+    }
 }
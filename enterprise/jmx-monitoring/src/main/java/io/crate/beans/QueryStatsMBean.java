@@ -40,4 +40,34 @@ public interface QueryStatsMBean {
     double getUpdateQueryAverageDuration();
     double getDeleteQueryAverageDuration();
     double getOverallQueryAverageDuration();
+
+    double getSelectQueryLatencyP50();
+    double getSelectQueryLatencyP95();
+    double getSelectQueryLatencyP99();
+    double getSelectQueryLatencyP999();
+    double getSelectQueryLatencyMax();
+
+    double getInsertQueryLatencyP50();
+    double getInsertQueryLatencyP95();
+    double getInsertQueryLatencyP99();
+    double getInsertQueryLatencyP999();
+    double getInsertQueryLatencyMax();
+
+    double getUpdateQueryLatencyP50();
+    double getUpdateQueryLatencyP95();
+    double getUpdateQueryLatencyP99();
+    double getUpdateQueryLatencyP999();
+    double getUpdateQueryLatencyMax();
+
+    double getDeleteQueryLatencyP50();
+    double getDeleteQueryLatencyP95();
+    double getDeleteQueryLatencyP99();
+    double getDeleteQueryLatencyP999();
+    double getDeleteQueryLatencyMax();
+
+    double getOverallQueryLatencyP50();
+    double getOverallQueryLatencyP95();
+    double getOverallQueryLatencyP99();
+    double getOverallQueryLatencyP999();
+    double getOverallQueryLatencyMax();
 }
@@ -20,6 +20,7 @@ package io.crate.beans;
 
 import com.google.common.collect.ImmutableList;
 import io.crate.operation.collect.stats.JobsLogs;
+import io.crate.operation.collect.stats.LatencyHistogram;
 import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
 import org.junit.Test;
@@ -72,5 +73,24 @@ public class QueryStatsTest {
         QueryStats queryStats = new QueryStats(new JobsLogs(() -> true));
         assertThat(queryStats.getSelectQueryFrequency(), is(0.0));
         assertThat(queryStats.getSelectQueryAverageDuration(), is(0.0));
+        assertThat(queryStats.getSelectQueryLatencyP99(), is(0.0));
+        assertThat(queryStats.getSelectQueryLatencyMax(), is(0.0));
+    }
+
+    @Test
+    public void testCreateLatencyMapWithStatsDisabled() throws Exception {
+        JobsLogs jobsLogs = new JobsLogs(() -> false);
+        for (String stmt : new String[] { "select name", "select 1", "create table t1 (x int)" }) {
+            UUID jobId = UUID.randomUUID();
+            jobsLogs.logExecutionStart(jobId, stmt, null);
+            jobsLogs.logExecutionEnd(jobId, null);
+        }
+        Map<String, LatencyHistogram.Snapshot> latencyByCommand =
+            QueryStats.createLatencyMap(jobsLogs.statementLatencies());
+
+        assertThat(latencyByCommand.get(QueryStats.Commands.SELECT).count(), is(2L));
+        assertThat(latencyByCommand.get(QueryStats.Commands.INSERT).count(), is(0L));
+        assertThat(latencyByCommand.get(QueryStats.Commands.UNCLASSIFIED).count(), is(1L));
+        assertThat(latencyByCommand.get(QueryStats.Commands.TOTAL).count(), is(3L));
     }
 }
@@ -24,6 +24,7 @@ import io.crate.analyze.AlterBlobTableAnalyzedStatement;
 import io.crate.analyze.AlterTableAnalyzedStatement;
 import io.crate.analyze.AlterTableOpenCloseAnalyzedStatement;
 import io.crate.analyze.AlterTableRenameAnalyzedStatement;
+import io.crate.analyze.AnalyzeAnalyzedStatement;
 import io.crate.analyze.AnalyzedBegin;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.AnalyzedStatementVisitor;
@@ -276,6 +277,12 @@ class StatementPrivilegeValidator implements StatementAuthorizedValidator {
             return null;
         }
 
+        @Override
+        public Void visitAnalyzeStatement(AnalyzeAnalyzedStatement analysis, User user) {
+            throwUnauthorized(user);
+            return null;
+        }
+
         @Override
         public Void visitRefreshTableStatement(RefreshTableAnalyzedStatement analysis, User user) {
             for (String indexName : analysis.indexNames()) {
@@ -33,7 +33,8 @@ singleExpression
 statement
     : query                                                                          #default
     | BEGIN                                                                          #begin
-    | EXPLAIN statement                                                              #explain
+    | EXPLAIN ANALYZE? statement                                                     #explain
+    | ANALYZE                                                                        #analyze
     | OPTIMIZE TABLE tableWithPartitions withProperties?                             #optimize
     | REFRESH TABLE tableWithPartitions                                              #refreshTable
     | UPDATE aliasedRelation SET assignment (',' assignment)* where?                 #update
@@ -60,7 +61,7 @@ statement
     | INSERT INTO table ('(' ident (',' ident)* ')')? insertSource
         (ON DUPLICATE KEY UPDATE assignment (',' assignment)*)?                      #insert
     | RESTORE SNAPSHOT qname (ALL | TABLE tableWithPartitions) withProperties?       #restore
-    | COPY tableWithPartition FROM path=expr withProperties?                         #copyFrom
+    | COPY tableWithPartition FROM (STDIN | path=expr) withProperties?               #copyFrom
     | COPY tableWithPartition columns? where?
         TO DIRECTORY? path=expr withProperties?                                      #copyTo
     | DROP BLOB TABLE (IF EXISTS)? table                                             #dropBlobTable
@@ -580,7 +581,7 @@ clazz
     ;
 
 nonReserved
-    : ALIAS | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
+    : ALIAS | ANALYZE | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
     | COLUMNS | COPY | CURRENT | DATE | DAY | DISTRIBUTED | DUPLICATE | DYNAMIC | EXPLAIN
     | EXTENDS | FOLLOWING | FORMAT | FULLTEXT | FUNCTIONS | GEO_POINT | GEO_SHAPE | GLOBAL
     | GRAPHVIZ | HOUR | IGNORED | KEY | KILL | LOGICAL | LOCAL | MATERIALIZED | MINUTE
@@ -590,7 +591,7 @@ nonReserved
     | TIMESTAMP | TO | TOKENIZER | TOKEN_FILTERS | TYPE | VALUES | VIEW | YEAR
     | REPOSITORY | SNAPSHOT | RESTORE | GENERATED | ALWAYS | BEGIN
     | ISOLATION | TRANSACTION | LEVEL | LANGUAGE | OPEN | CLOSE | RENAME 
-    | PRIVILEGES | SCHEMA
+    | PRIVILEGES | SCHEMA | STDIN
     ;
 
 SELECT: 'SELECT';
@@ -745,6 +746,7 @@ UNION: 'UNION';
 EXCEPT: 'EXCEPT';
 INTERSECT: 'INTERSECT';
 SYSTEM: 'SYSTEM';
+STDIN: 'STDIN';
 BERNOULLI: 'BERNOULLI';
 TABLESAMPLE: 'TABLESAMPLE';
 STRATIFY: 'STRATIFY';
@@ -773,6 +775,7 @@ IGNORED: 'IGNORED';
 
 ARRAY: 'ARRAY';
 
+ANALYZE: 'ANALYZE';
 ANALYZER: 'ANALYZER';
 EXTENDS: 'EXTENDS';
 TOKENIZER: 'TOKENIZER';
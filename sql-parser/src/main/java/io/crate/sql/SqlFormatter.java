@@ -122,7 +122,11 @@ public final class SqlFormatter {
             append(indent, "COPY ");
             process(node.table(), indent);
             append(indent, " FROM ");
-            process(node.path(), indent);
+            if (node.fromStdin()) {
+                append(indent, "STDIN");
+            } else {
+                process(node.path(), indent);
+            }
             if (node.genericProperties().isPresent()) {
                 append(indent, " ");
                 process(node.genericProperties().get(), indent);
@@ -140,6 +144,9 @@ public final class SqlFormatter {
         @Override
         protected Void visitExplain(Explain node, Integer indent) {
             append(indent, "EXPLAIN ");
+            if (node.isAnalyze()) {
+                builder.append("ANALYZE ");
+            }
             process(node.getStatement(), indent);
             return null;
         }
@@ -38,6 +38,7 @@ import io.crate.sql.tree.AlterTableOpenClose;
 import io.crate.sql.tree.AlterTableRename;
 import io.crate.sql.tree.AnalyzerElement;
 import io.crate.sql.tree.ArithmeticExpression;
+import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.ArrayComparisonExpression;
 import io.crate.sql.tree.ArrayLikePredicate;
 import io.crate.sql.tree.ArrayLiteral;
@@ -196,6 +197,11 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
         return new BeginStatement();
     }
 
+    @Override
+    public Node visitAnalyze(SqlBaseParser.AnalyzeContext context) {
+        return new AnalyzeStatement();
+    }
+
     @Override
     public Node visitOptimize(SqlBaseParser.OptimizeContext context) {
         return new OptimizeStatement(
@@ -369,7 +375,7 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
     public Node visitCopyFrom(SqlBaseParser.CopyFromContext context) {
         return new CopyFrom(
             (Table) visit(context.tableWithPartition()),
-            (Expression) visit(context.path),
+            context.STDIN() == null ? (Expression) visit(context.path) : null,
             visitIfPresent(context.withProperties(), GenericProperties.class));
     }
 
@@ -468,7 +474,7 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
 
     @Override
     public Node visitExplain(SqlBaseParser.ExplainContext context) {
-        return new Explain((Statement) visit(context.statement()));
+        return new Explain((Statement) visit(context.statement()), context.ANALYZE() != null);
     }
 
     @Override
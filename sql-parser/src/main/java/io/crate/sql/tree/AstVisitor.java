@@ -525,6 +525,10 @@ public abstract class AstVisitor<R, C> {
         return visitStatement(node, context);
     }
 
+    public R visitAnalyze(AnalyzeStatement node, C context) {
+        return visitStatement(node, context);
+    }
+
     public R visitShowTransaction(ShowTransaction showTransaction, C context) {
         return visitStatement(showTransaction, context);
     }
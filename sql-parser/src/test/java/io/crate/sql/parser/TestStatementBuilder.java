@@ -139,6 +139,20 @@ public class TestStatementBuilder {
     @Test
     public void testExplainStmtBuilder() {
         printStatement("explain drop table foo");
+        printStatement("explain analyze select * from foo");
+    }
+
+    @Test
+    public void testExplainAnalyze() {
+        Explain explain = (Explain) SqlParser.createStatement("explain analyze select * from foo");
+        assertThat(explain.isAnalyze(), is(true));
+        explain = (Explain) SqlParser.createStatement("explain select * from foo");
+        assertThat(explain.isAnalyze(), is(false));
+    }
+
+    @Test
+    public void testAnalyzeIsNotReserved() {
+        printStatement("select analyze from foo");
     }
 
     @Test
@@ -195,6 +209,12 @@ public class TestStatementBuilder {
         assertTrue(stmt.equals(new KillStatement()));
     }
 
+    @Test
+    public void testAnalyzeStmtBuilder() {
+        printStatement("analyze");
+        assertThat(SqlParser.createStatement("analyze"), instanceOf(AnalyzeStatement.class));
+    }
+
     @Test
     public void testRefreshStmtBuilder() {
         printStatement("refresh table t");
@@ -678,6 +698,8 @@ public class TestStatementBuilder {
         printStatement("copy foo from ?");
         printStatement("copy foo from ? with (some_property=1)");
         printStatement("copy foo from ? with (some_property=false)");
+        printStatement("copy foo from stdin");
+        printStatement("copy foo partition (a='x') from stdin with (compression='gzip')");
         printStatement("copy schemah.foo from '/folder/file.extension'");
 
         printStatement("copy foo (nae) to '/folder/file.extension'");
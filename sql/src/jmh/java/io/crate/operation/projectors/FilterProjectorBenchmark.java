@@ -0,0 +1,112 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectionBucket;
+import io.crate.data.Row;
+import io.crate.data.RowsBatchIterator;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Functions;
+import io.crate.operation.InputFactory;
+import io.crate.operation.RowFilter;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.OperatorModule;
+import io.crate.operation.scalar.ScalarFunctionModule;
+import io.crate.operation.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.operation.vector.ColumnBatch;
+import io.crate.operation.vector.ColumnVector;
+import io.crate.operation.vector.VectorExpression;
+import io.crate.operation.vector.VectorExpressionCompiler;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the row-at-a-time and the vectorized evaluation of {@code price * qty > 1000}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FilterProjectorBenchmark {
+
+    private final List<Object[]> rows = IntStream.range(0, 100_000)
+        .mapToObj(i -> new Object[]{(i % 100) * 1.5, i % 20})
+        .collect(Collectors.toList());
+
+    private FilterProjector rowFilterProjector;
+    private FilterProjector vectorizedFilterProjector;
+
+    @Setup
+    public void setup() {
+        Functions functions = new ModulesBuilder()
+            .add(new OperatorModule())
+            .add(new ScalarFunctionModule())
+            .createInjector().getInstance(Functions.class);
+        InputFactory inputFactory = new InputFactory(functions);
+
+        Function multiply = ArithmeticFunctions.of(
+            ArithmeticFunctions.Names.MULTIPLY,
+            new InputColumn(0, DataTypes.DOUBLE),
+            new InputColumn(1, DataTypes.INTEGER),
+            FunctionInfo.DETERMINISTIC_ONLY
+        );
+        FunctionInfo gtInfo = functions.getBuiltin(GtOperator.NAME, Arrays.asList(DataTypes.DOUBLE, DataTypes.DOUBLE)).info();
+        Function condition = new Function(gtInfo, Arrays.asList(multiply, Literal.of(1000.0)));
+
+        Predicate<Row> rowFilter = RowFilter.create(inputFactory, condition);
+        VectorExpression<ColumnVector.Booleans> vectorizedFilter =
+            new VectorExpressionCompiler(inputFactory, ColumnBatch.DEFAULT_CAPACITY).compileCondition(condition);
+        rowFilterProjector = new FilterProjector(rowFilter, null);
+        vectorizedFilterProjector = new FilterProjector(rowFilter, vectorizedFilter);
+    }
+
+    private int consume(FilterProjector projector) {
+        BatchIterator it = projector.apply(RowsBatchIterator.newInstance(new CollectionBucket(rows), 2));
+        int numRows = 0;
+        while (it.moveNext()) {
+            numRows++;
+        }
+        return numRows;
+    }
+
+    @Benchmark
+    public int measureRowFilter() {
+        return consume(rowFilterProjector);
+    }
+
+    @Benchmark
+    public int measureVectorizedFilter() {
+        return consume(vectorizedFilterProjector);
+    }
+}
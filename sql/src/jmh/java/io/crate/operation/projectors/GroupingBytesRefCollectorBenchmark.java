@@ -90,7 +90,8 @@ public class GroupingBytesRefCollectorBenchmark {
             new Input[][] { new Input[] { keyInput }},
             RAM_ACCOUNTING_CONTEXT,
             keyInputs.get(0),
-            DataTypes.STRING
+            DataTypes.STRING,
+            null
         );
     }
 
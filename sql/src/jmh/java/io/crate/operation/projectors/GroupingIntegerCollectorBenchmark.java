@@ -82,7 +82,8 @@ public class GroupingIntegerCollectorBenchmark {
             new Input[][] { new Input[] { keyInput }},
             RAM_ACCOUNTING_CONTEXT,
             keyInputs.get(0),
-            DataTypes.INTEGER
+            DataTypes.INTEGER,
+            null
         );
     }
 
@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ResultSetReceiverBenchmark {
+
+    private static final int NUM_ROWS = 100_000;
+    private static final List<DataType> COLUMN_TYPES = Arrays.asList(DataTypes.LONG, DataTypes.STRING, DataTypes.DOUBLE);
+
+    private final List<Row> rows = new ArrayList<>(NUM_ROWS);
+    private EmbeddedChannel channel;
+
+    @Setup
+    public void createRows() {
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows.add(new RowN(new Object[]{(long) i, new BytesRef("name-" + i), i * 0.5d}));
+        }
+        channel = new EmbeddedChannel();
+    }
+
+    @TearDown
+    public void closeChannel() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int measureResultSetReceiver() {
+        ResultSetReceiver receiver = new ResultSetReceiver("select", channel, t -> {}, COLUMN_TYPES, null);
+        for (Row row : rows) {
+            receiver.setNextRow(row);
+        }
+        receiver.allFinished(false);
+        return releaseOutbound();
+    }
+
+    @Benchmark
+    public int measureSendDataRowPerRow() {
+        for (Row row : rows) {
+            Messages.sendDataRow(channel, row, COLUMN_TYPES, null);
+        }
+        channel.flush();
+        return releaseOutbound();
+    }
+
+    private int releaseOutbound() {
+        int bytes = 0;
+        ByteBuf buffer;
+        while ((buffer = channel.readOutbound()) != null) {
+            bytes += buffer.readableBytes();
+            buffer.release();
+        }
+        return bytes;
+    }
+}
@@ -48,6 +48,8 @@ import io.crate.jobs.ExecutionSubContext;
 import io.crate.jobs.JobExecutionContext;
 import io.crate.jobs.NestedLoopContext;
 import io.crate.jobs.PageDownstreamContext;
+import io.crate.jobs.PhaseProfile;
+import io.crate.jobs.ProfilingContext;
 import io.crate.metadata.Functions;
 import io.crate.metadata.ReplaceMode;
 import io.crate.metadata.Routing;
@@ -59,6 +61,7 @@ import io.crate.operation.RowFilter;
 import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.MapSideDataCollectOperation;
 import io.crate.operation.collect.sources.SystemCollectSource;
+import io.crate.operation.compiler.ExpressionCompiler;
 import io.crate.operation.count.CountOperation;
 import io.crate.operation.fetch.FetchContext;
 import io.crate.operation.join.NestedLoopOperation;
@@ -139,7 +142,7 @@ public class ContextPreparer extends AbstractComponent {
         circuitBreaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
         this.distributingDownstreamFactory = distributingDownstreamFactory;
         innerPreparer = new InnerPreparer();
-        inputFactory = new InputFactory(functions);
+        inputFactory = new InputFactory(functions, ExpressionCompiler.COMPILE_EXPRESSIONS_SETTING.get(settings));
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions, ReplaceMode.COPY);
         this.projectorFactory = new ProjectionToProjectorVisitor(
             clusterService,
@@ -495,6 +498,15 @@ public class ContextPreparer extends AbstractComponent {
             contextBuilder.addSubContext(subContext);
         }
 
+        @Nullable
+        PhaseProfile phaseProfile(ExecutionPhase phase) {
+            ProfilingContext profilingContext = contextBuilder.profilingContext();
+            if (profilingContext == null) {
+                return null;
+            }
+            return profilingContext.phase(phase.phaseId(), phase.name());
+        }
+
         void registerLeaf(ExecutionPhase phase, BatchConsumer consumer) {
             handlerConsumersByPhaseId.put(phase.phaseId(), consumer);
             leafs.add(phase);
@@ -536,7 +548,8 @@ public class ContextPreparer extends AbstractComponent {
                 phase.projections(),
                 phase.jobId(),
                 ramAccountingContext,
-                projectorFactory
+                projectorFactory,
+                context.phaseProfile(phase)
             );
 
             if (upstreamOnSameNode) {
@@ -574,7 +587,8 @@ public class ContextPreparer extends AbstractComponent {
                 collectOperation,
                 ramAccountingContext,
                 consumer,
-                context.sharedShardContexts
+                context.sharedShardContexts,
+                context.phaseProfile(phase)
             ));
             return true;
         }
@@ -588,7 +602,8 @@ public class ContextPreparer extends AbstractComponent {
                 collectOperation,
                 ramAccountingContext,
                 consumer,
-                context.sharedShardContexts
+                context.sharedShardContexts,
+                context.phaseProfile(phase)
             ));
             return true;
         }
@@ -627,13 +642,29 @@ public class ContextPreparer extends AbstractComponent {
             BatchConsumer lastConsumer = context.getBatchConsumer(phase, Paging.PAGE_SIZE);
 
             BatchConsumer firstConsumer = ProjectingBatchConsumer.create(
-                lastConsumer, phase.projections(), phase.jobId(), ramAccountingContext, projectorFactory);
+                lastConsumer,
+                phase.projections(),
+                phase.jobId(),
+                ramAccountingContext,
+                projectorFactory,
+                context.phaseProfile(phase));
             Predicate<Row> joinCondition = RowFilter.create(inputFactory, phase.joinCondition());
+            NestedLoopOperation.HashJoinKeys hashJoinKeys = null;
+            if (phase.isHashJoin()) {
+                RowAccounting rowAccounting = new RowAccounting(phase.rightInputTypes(), ramAccountingContext);
+                hashJoinKeys = new NestedLoopOperation.HashJoinKeys(
+                    inputFactory,
+                    phase.leftJoinKeys(),
+                    phase.rightJoinKeys(),
+                    rowAccounting::accountForAndMaybeBreak
+                );
+            }
 
             NestedLoopOperation nestedLoopOperation = new NestedLoopOperation(
                 firstConsumer,
                 joinCondition,
-                phase.joinType()
+                phase.joinType(),
+                hashJoinKeys
             );
             PageDownstreamContext left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
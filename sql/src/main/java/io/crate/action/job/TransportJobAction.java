@@ -75,6 +75,9 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
     @Override
     public CompletableFuture<JobResponse> nodeOperation(final JobRequest request) {
         JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(request.jobId(), request.coordinatorNodeId());
+        if (request.profile()) {
+            contextBuilder.enableProfiling();
+        }
 
         SharedShardContexts sharedShardContexts = new SharedShardContexts(indicesService);
         List<CompletableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnRemote(
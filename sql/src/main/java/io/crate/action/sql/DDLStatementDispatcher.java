@@ -27,6 +27,7 @@ import io.crate.analyze.AlterBlobTableAnalyzedStatement;
 import io.crate.analyze.AlterTableAnalyzedStatement;
 import io.crate.analyze.AlterTableOpenCloseAnalyzedStatement;
 import io.crate.analyze.AlterTableRenameAnalyzedStatement;
+import io.crate.analyze.AnalyzeAnalyzedStatement;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.AnalyzedStatementVisitor;
 import io.crate.analyze.CreateBlobTableAnalyzedStatement;
@@ -52,6 +53,7 @@ import io.crate.executor.transport.SnapshotRestoreDDLDispatcher;
 import io.crate.executor.transport.TableCreator;
 import io.crate.operation.udf.UserDefinedFunctionDDLClient;
 import io.crate.operation.user.UserManager;
+import io.crate.statistics.ColumnStatsService;
 import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequest;
 import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeResponse;
 import org.elasticsearch.action.admin.indices.forcemerge.TransportForceMergeAction;
@@ -88,6 +90,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
     private final Provider<TransportUpgradeAction> transportUpgradeActionProvider;
     private final Provider<TransportForceMergeAction> transportForceMergeActionProvider;
     private final Provider<TransportRefreshAction> transportRefreshActionProvider;
+    private final Provider<ColumnStatsService> columnStatsServiceProvider;
     private final UserManager userManager;
 
     private final InnerVisitor innerVisitor = new InnerVisitor();
@@ -103,7 +106,8 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
                                   Provider<UserManager> userManagerProvider,
                                   Provider<TransportUpgradeAction> transportUpgradeActionProvider,
                                   Provider<TransportForceMergeAction> transportForceMergeActionProvider,
-                                  Provider<TransportRefreshAction> transportRefreshActionProvider) {
+                                  Provider<TransportRefreshAction> transportRefreshActionProvider,
+                                  Provider<ColumnStatsService> columnStatsServiceProvider) {
         this.blobAdminClient = blobAdminClient;
         this.tableCreator = tableCreator;
         this.alterTableOperation = alterTableOperation;
@@ -113,6 +117,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
         this.transportUpgradeActionProvider = transportUpgradeActionProvider;
         this.transportForceMergeActionProvider = transportForceMergeActionProvider;
         this.transportRefreshActionProvider = transportRefreshActionProvider;
+        this.columnStatsServiceProvider = columnStatsServiceProvider;
         this.userManager = userManagerProvider.get();
     }
 
@@ -178,6 +183,11 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
             return listener;
         }
 
+        @Override
+        public CompletableFuture<Long> visitAnalyzeStatement(AnalyzeAnalyzedStatement analysis, Row parameters) {
+            return columnStatsServiceProvider.get().analyze();
+        }
+
 
         @Override
         public CompletableFuture<Long> visitCreateBlobTableStatement(CreateBlobTableAnalyzedStatement analysis,
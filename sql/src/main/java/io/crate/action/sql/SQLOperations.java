@@ -27,6 +27,8 @@ import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.symbol.Field;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.executor.Executor;
+import io.crate.operation.collect.files.CopyInStream;
+import io.crate.operation.collect.files.CopyInStreams;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.user.User;
 import io.crate.operation.user.UserManager;
@@ -56,6 +58,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 
 @Singleton
@@ -78,6 +81,8 @@ public class SQLOperations {
     private final ClusterService clusterService;
     private final UserManager userManager;
     private final boolean isReadOnly;
+    private final StatementCache statementCache = new StatementCache();
+    private final CopyInStreams copyInStreams;
     private volatile boolean disabled;
 
     @Inject
@@ -87,7 +92,8 @@ public class SQLOperations {
                          JobsLogs jobsLogs,
                          Settings settings,
                          ClusterService clusterService,
-                         Provider<UserManager> userManagerProvider) {
+                         Provider<UserManager> userManagerProvider,
+                         CopyInStreams copyInStreams) {
         this.analyzer = analyzer;
         this.planner = planner;
         this.executorProvider = executorProvider;
@@ -95,6 +101,8 @@ public class SQLOperations {
         this.clusterService = clusterService;
         this.userManager = userManagerProvider.get();
         this.isReadOnly = NODE_READ_ONLY_SETTING.get(settings);
+        this.copyInStreams = copyInStreams;
+        clusterService.addListener(statementCache);
     }
 
     private Session createSession(SessionContext sessionContext) {
@@ -216,7 +224,7 @@ public class SQLOperations {
 
             Statement statement;
             try {
-                statement = SqlParser.createStatement(query);
+                statement = statementCache.parse(query);
             } catch (Throwable t) {
                 if ("".equals(query)) {
                     statement = EMPTY_STMT;
@@ -288,7 +296,8 @@ public class SQLOperations {
                         analyzedRelation = preparedStmt.relation();
                     } else {
                         try {
-                            analyzedRelation = analyzer.unboundAnalyze(statement, sessionContext, preparedStmt.paramTypes());
+                            analyzedRelation = statementCache.unboundAnalyze(
+                                analyzer, preparedStmt.query(), statement, sessionContext, preparedStmt.rawParamTypes());
                             preparedStmt.relation(analyzedRelation);
                         } catch (Throwable t) {
                             throw SQLExceptions.createSQLActionException(t, sessionContext);
@@ -333,6 +342,15 @@ public class SQLOperations {
                 "Shouldn't have more than 1 pending execution. Got: " + pendingExecutions);
         }
 
+        /**
+         * Resumes the execution of a synced portal which was suspended after pushing {@code maxRows} rows.
+         * Unlike executing and syncing the portal again, this doesn't start a new job.
+         */
+        public void resume(String portalName) {
+            LOGGER.debug("method=resume portalName={}", portalName);
+            getSafePortal(portalName).resume();
+        }
+
         public void clearState() {
             portals.remove(UNNAMED);
             preparedStatements.remove(UNNAMED);
@@ -351,6 +369,28 @@ public class SQLOperations {
             return getSafePortal(portalName).getLastQuery();
         }
 
+        /**
+         * @return true if the statement bound to the portal is a COPY FROM STDIN statement
+         */
+        public boolean isCopyFromStdin(String portalName) {
+            Portal portal = portals.get(portalName);
+            return portal != null && portal.getCopyInStreamId() != null;
+        }
+
+        /**
+         * Creates the stream a COPY FROM STDIN statement bound to the portal reads its rows from.
+         * The stream must be created before the portal is synced and must be closed if the execution fails.
+         *
+         * @param autoRead see {@link CopyInStreams#create(String, Consumer)}
+         */
+        public CopyInStream createCopyInStream(String portalName, Consumer<Boolean> autoRead) {
+            String streamId = getSafePortal(portalName).getCopyInStreamId();
+            if (streamId == null) {
+                throw new IllegalArgumentException("Portal " + portalName + " is not a COPY FROM STDIN statement");
+            }
+            return copyInStreams.create(streamId, autoRead);
+        }
+
         public DataType getParamType(String statementName, int idx) {
             PreparedStmt stmt = getSafeStmt(statementName);
             return stmt.paramTypes().getType(idx);
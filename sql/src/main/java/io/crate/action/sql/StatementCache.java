@@ -0,0 +1,222 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.analyze.Analyzer;
+import io.crate.analyze.ParamTypeHints;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.operation.user.User;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-wide cache shared by all sessions for the parts of statement processing which don't depend on parameter values:
+ *
+ *  - the parsed {@link Statement} of a query string.
+ *  - the unbound {@link AnalyzedRelation} of a prepared statement, used to describe it.
+ *    The relation depends on the default schema, the user and the parameter types of the session and on the table
+ *    definitions, so these relations are invalidated on every metadata change.
+ *
+ * Bound analysis and plans are not cached because parameter values are bound into the analyzed statement
+ * and plans contain the job id and the routing of the execution.
+ *
+ * Entries are keyed by the query string with its whitespace normalized and weighed by its length.
+ * Queries longer than {@link #MAX_QUERY_LENGTH}, typically inserts with many literal values, are never cached.
+ */
+class StatementCache implements ClusterStateListener {
+
+    @VisibleForTesting
+    static final int MAX_QUERY_LENGTH = 4096;
+
+    /**
+     * Upper bound of the summed length of the cached queries, per cache
+     */
+    private static final long MAX_WEIGHT = 1024 * MAX_QUERY_LENGTH;
+
+    private final Cache<String, Statement> statements = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_WEIGHT)
+        .<String, Statement>weigher((query, statement) -> query.length())
+        .build();
+
+    private final Cache<RelationKey, Optional<AnalyzedRelation>> relations = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_WEIGHT)
+        .<RelationKey, Optional<AnalyzedRelation>>weigher((key, relation) -> key.query.length())
+        .build();
+
+    /**
+     * Incremented on every metadata change; relations are only looked up under the version they were analyzed at.
+     */
+    private final AtomicLong metaDataVersion = new AtomicLong();
+
+    /**
+     * @throws io.crate.sql.parser.ParsingException if the query is invalid. Invalid queries are not cached.
+     */
+    Statement parse(String query) {
+        if (query.length() > MAX_QUERY_LENGTH) {
+            return SqlParser.createStatement(query);
+        }
+        String key = normalize(query);
+        Statement statement = statements.getIfPresent(key);
+        if (statement == null) {
+            statement = SqlParser.createStatement(query);
+            statements.put(key, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * @return the relation of the statement or null if the statement doesn't have a result set.
+     */
+    @Nullable
+    AnalyzedRelation unboundAnalyze(Analyzer analyzer,
+                                    String query,
+                                    Statement statement,
+                                    SessionContext sessionContext,
+                                    List<DataType> paramTypes) {
+        if (query.length() > MAX_QUERY_LENGTH) {
+            return analyzer.unboundAnalyze(statement, sessionContext, new ParamTypeHints(paramTypes));
+        }
+        // the version is read before the analysis: a relation analyzed while the metadata changes is stored under
+        // the outdated version and never looked up again.
+        RelationKey key = new RelationKey(normalize(query), metaDataVersion.get(), sessionContext, paramTypes);
+        Optional<AnalyzedRelation> relation = relations.getIfPresent(key);
+        if (relation == null) {
+            relation = Optional.ofNullable(
+                analyzer.unboundAnalyze(statement, sessionContext, new ParamTypeHints(paramTypes)));
+            relations.put(key, relation);
+        }
+        return relation.orElse(null);
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.metaDataChanged()) {
+            metaDataVersion.incrementAndGet();
+            relations.invalidateAll();
+        }
+    }
+
+    @VisibleForTesting
+    long numStatements() {
+        return statements.size();
+    }
+
+    @VisibleForTesting
+    long numRelations() {
+        return relations.size();
+    }
+
+    /**
+     * Strips leading and trailing whitespace and collapses any other whitespace to a single char.
+     * Whitespace within quotes and comments is kept as is, and a whitespace run containing a line break is collapsed
+     * to a line break, so that it still ends a {@code --} comment.
+     */
+    @VisibleForTesting
+    static String normalize(String query) {
+        String trimmed = query.trim();
+        StringBuilder sb = new StringBuilder(trimmed.length());
+        int i = 0;
+        while (i < trimmed.length()) {
+            char c = trimmed.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = trimmed.indexOf(c, i + 1);
+                i = copyUntil(trimmed, i, end == -1 ? trimmed.length() : end + 1, sb);
+            } else if (trimmed.startsWith("--", i)) {
+                int end = trimmed.indexOf('\n', i);
+                i = copyUntil(trimmed, i, end == -1 ? trimmed.length() : end, sb);
+            } else if (trimmed.startsWith("/*", i)) {
+                int end = trimmed.indexOf("*/", i + 2);
+                i = copyUntil(trimmed, i, end == -1 ? trimmed.length() : end + 2, sb);
+            } else if (Character.isWhitespace(c)) {
+                boolean lineBreak = false;
+                while (i < trimmed.length() && Character.isWhitespace(trimmed.charAt(i))) {
+                    lineBreak |= trimmed.charAt(i) == '\n' || trimmed.charAt(i) == '\r';
+                    i++;
+                }
+                sb.append(lineBreak ? '\n' : ' ');
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int copyUntil(String query, int start, int end, StringBuilder sb) {
+        sb.append(query, start, end);
+        return end;
+    }
+
+    private static class RelationKey {
+
+        private final String query;
+        private final long metaDataVersion;
+        private final String defaultSchema;
+        @Nullable
+        private final String userName;
+        private final List<DataType> paramTypes;
+
+        RelationKey(String query, long metaDataVersion, SessionContext sessionContext, List<DataType> paramTypes) {
+            this.query = query;
+            this.metaDataVersion = metaDataVersion;
+            this.defaultSchema = sessionContext.defaultSchema();
+            User user = sessionContext.user();
+            this.userName = user == null ? null : user.name();
+            this.paramTypes = new ArrayList<>(paramTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RelationKey that = (RelationKey) o;
+            return metaDataVersion == that.metaDataVersion &&
+                   query.equals(that.query) &&
+                   Objects.equals(defaultSchema, that.defaultSchema) &&
+                   Objects.equals(userName, that.userName) &&
+                   paramTypes.equals(that.paramTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, metaDataVersion, defaultSchema, userName, paramTypes);
+        }
+    }
+}
@@ -113,6 +113,10 @@ public class AnalyzedStatementVisitor<C, R> {
         return visitDDLStatement(analysis, context);
     }
 
+    public R visitAnalyzeStatement(AnalyzeAnalyzedStatement analysis, C context) {
+        return visitDDLStatement(analysis, context);
+    }
+
     public R visitAlterTableStatement(AlterTableAnalyzedStatement analysis, C context) {
         return visitDDLStatement(analysis, context);
     }
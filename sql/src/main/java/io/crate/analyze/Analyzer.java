@@ -34,6 +34,7 @@ import io.crate.sql.tree.AlterTable;
 import io.crate.sql.tree.AlterTableAddColumn;
 import io.crate.sql.tree.AlterTableOpenClose;
 import io.crate.sql.tree.AlterTableRename;
+import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.AstVisitor;
 import io.crate.sql.tree.BeginStatement;
 import io.crate.sql.tree.CopyFrom;
@@ -392,6 +393,11 @@ public class Analyzer {
             return new AnalyzedBegin();
         }
 
+        @Override
+        public AnalyzedStatement visitAnalyze(AnalyzeStatement node, Analysis context) {
+            return new AnalyzeAnalyzedStatement();
+        }
+
         @Override
         protected AnalyzedStatement visitNode(Node node, Analysis context) {
             throw new UnsupportedOperationException(String.format(Locale.ENGLISH, "cannot analyze statement: '%s'", node));
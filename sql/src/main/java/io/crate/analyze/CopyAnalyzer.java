@@ -31,6 +31,7 @@ import io.crate.analyze.expressions.ExpressionToObjectVisitor;
 import io.crate.analyze.relations.DocTableRelation;
 import io.crate.analyze.relations.NameFieldProvider;
 import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
 import io.crate.analyze.symbol.format.SymbolPrinter;
@@ -46,6 +47,7 @@ import io.crate.metadata.settings.SettingsAppliers;
 import io.crate.metadata.settings.StringSetting;
 import io.crate.metadata.table.Operation;
 import io.crate.metadata.table.TableInfo;
+import io.crate.operation.collect.files.CopyInStreams;
 import io.crate.planner.projection.WriterProjection;
 import io.crate.sql.tree.*;
 import io.crate.types.CollectionType;
@@ -110,6 +112,15 @@ class CopyAnalyzer {
             nodeFilters = discoveryNodePredicate(analysis.parameterContext().parameters(), properties.remove(NodeFilters.NAME));
             settings = settingsFromProperties(properties, expressionAnalyzer, expressionAnalysisContext);
         }
+        if (node.fromStdin()) {
+            if (settings.get(COMPRESSION_SETTINGS.name()) != null) {
+                throw new IllegalArgumentException("Setting \"compression\" is not supported for COPY FROM STDIN");
+            }
+            // the rows are streamed by the client into a stream which is registered under this id on the handler node
+            String copyInStreamId = UUID.randomUUID().toString();
+            Symbol uri = Literal.of(CopyInStreams.uri(copyInStreamId));
+            return new CopyFromAnalyzedStatement(tableInfo, settings, uri, partitionIdent, nodeFilters, copyInStreamId);
+        }
         Symbol uri = expressionAnalyzer.convert(node.path(), expressionAnalysisContext);
         uri = normalizer.normalize(uri, analysis.transactionContext());
 
@@ -118,8 +129,11 @@ class CopyAnalyzer {
               ((CollectionType) uri.valueType()).innerType() == DataTypes.STRING)) {
             throw CopyFromAnalyzedStatement.raiseInvalidType(uri.valueType());
         }
+        if (CopyFromAnalyzedStatement.SPLIT_SIZE_SETTING.extractBytes(settings) < 0) {
+            throw new IllegalArgumentException("Setting \"split_size\" must not be negative");
+        }
 
-        return new CopyFromAnalyzedStatement(tableInfo, settings, uri, partitionIdent, nodeFilters);
+        return new CopyFromAnalyzedStatement(tableInfo, settings, uri, partitionIdent, nodeFilters, null);
     }
 
 
@@ -24,29 +24,41 @@ package io.crate.analyze;
 
 import io.crate.analyze.symbol.Symbol;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.settings.ByteSizeSetting;
 import io.crate.types.DataType;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import javax.annotation.Nullable;
 import java.util.function.Predicate;
 
 public class CopyFromAnalyzedStatement extends AbstractCopyAnalyzedStatement {
 
+    /**
+     * Files on shared storage which are larger than this are split into byte ranges that are read in parallel.
+     * 0 disables splitting.
+     */
+    public static final ByteSizeSetting SPLIT_SIZE_SETTING = new ByteSizeSetting("split_size", new ByteSizeValue(0));
+
     private final DocTableInfo table;
     @Nullable
     private final String partitionIdent;
     private final Predicate<DiscoveryNode> nodePredicate;
+    @Nullable
+    private final String copyInStreamId;
 
     public CopyFromAnalyzedStatement(DocTableInfo table,
                                      Settings settings,
                                      Symbol uri,
                                      @Nullable String partitionIdent,
-                                     Predicate<DiscoveryNode> nodePredicate) {
+                                     Predicate<DiscoveryNode> nodePredicate,
+                                     @Nullable String copyInStreamId) {
         super(settings, uri);
         this.table = table;
         this.partitionIdent = partitionIdent;
         this.nodePredicate = nodePredicate;
+        this.copyInStreamId = copyInStreamId;
     }
 
     public DocTableInfo table() {
@@ -71,6 +83,14 @@ public class CopyFromAnalyzedStatement extends AbstractCopyAnalyzedStatement {
         return nodePredicate;
     }
 
+    /**
+     * @return the id of the stream the rows are read from if the statement is a COPY FROM STDIN, otherwise null.
+     */
+    @Nullable
+    public String copyInStreamId() {
+        return copyInStreamId;
+    }
+
     @Override
     public boolean isWriteOperation() {
         return true;
@@ -40,9 +40,11 @@ public class ExplainAnalyzedStatement implements AnalyzedStatement, AnalyzedRela
 
     final AnalyzedStatement statement;
     private final List<Field> fields;
+    private final boolean isAnalyze;
 
-    public ExplainAnalyzedStatement(String columnName, AnalyzedStatement statement) {
+    public ExplainAnalyzedStatement(String columnName, AnalyzedStatement statement, boolean isAnalyze) {
         this.statement = statement;
+        this.isAnalyze = isAnalyze;
         this.fields = Collections.singletonList(new Field(this, new OutputName(columnName), DataTypes.OBJECT));
     }
 
@@ -55,6 +57,13 @@ public class ExplainAnalyzedStatement implements AnalyzedStatement, AnalyzedRela
         return statement;
     }
 
+    /**
+     * @return true if the statement must be executed to collect execution statistics (EXPLAIN ANALYZE)
+     */
+    public boolean isAnalyze() {
+        return isAnalyze;
+    }
+
     @Override
     public <C, R> R accept(AnalyzedRelationVisitor<C, R> visitor, C context) {
         return visitor.visitExplain(this, context);
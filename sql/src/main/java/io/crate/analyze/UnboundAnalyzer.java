@@ -105,7 +105,7 @@ class UnboundAnalyzer {
 
             // this only works because the result here is only used for the Describe message.
             // Once this analysis is used for more this has to be extended
-            return new ExplainAnalyzedStatement(SqlFormatter.formatSql(node), null);
+            return new ExplainAnalyzedStatement(SqlFormatter.formatSql(node), null, node.isAnalyze());
         }
     }
 }
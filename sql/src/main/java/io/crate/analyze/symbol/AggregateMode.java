@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -44,6 +45,11 @@ public enum AggregateMode {
         public <TP, TF> TF finishCollect(RamAccountingContext ramAccounting, AggregationFunction<TP, TF> function, TP state) {
             return (TF) state;
         }
+
+        @Override
+        public Object finishCollect(RamAccountingContext ramAccounting, ColumnarStates states, int groupId) {
+            return states.partialState(groupId);
+        }
     },
     ITER_FINAL,
     PARTIAL_FINAL {
@@ -51,6 +57,11 @@ public enum AggregateMode {
         public <T> T onRow(RamAccountingContext ramAccounting, AggregationFunction<T, ?> function, T state, Input[] inputs) {
             return function.reduce(ramAccounting, state, ((T) inputs[0].value()));
         }
+
+        @Override
+        public void onRow(RamAccountingContext ramAccounting, ColumnarStates states, int groupId, Input[] inputs) {
+            states.reduce(ramAccounting, groupId, inputs[0].value());
+        }
     };
 
     private static final List<AggregateMode> VALUES = ImmutableList.copyOf(values());
@@ -67,6 +78,14 @@ public enum AggregateMode {
         return function.terminatePartial(ramAccounting, state);
     }
 
+    public void onRow(RamAccountingContext ramAccounting, ColumnarStates states, int groupId, Input... inputs) {
+        states.iterate(ramAccounting, groupId, inputs);
+    }
+
+    public Object finishCollect(RamAccountingContext ramAccounting, ColumnarStates states, int groupId) {
+        return states.terminatePartial(ramAccounting, groupId);
+    }
+
     public static void writeTo(AggregateMode mode, StreamOutput out) throws IOException {
         out.writeVInt(mode.ordinal());
     }
@@ -78,4 +78,17 @@ public class ParameterSymbol extends Symbol {
     public String representation() {
         return "$" + Integer.toString(index + 1);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ParameterSymbol that = (ParameterSymbol) o;
+        return index == that.index && type.equals(that.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * index + type.hashCode();
+    }
 }
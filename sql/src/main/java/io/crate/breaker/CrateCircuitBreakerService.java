@@ -60,6 +60,12 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
     public static final CrateSetting<Double> OPERATIONS_LOG_CIRCUIT_BREAKER_OVERHEAD_SETTING = CrateSetting.of(Setting.doubleSetting(
         "stats.breaker.log.operations.overhead", 1.0d, 0.0d, Setting.Property.Dynamic, Setting.Property.NodeScope), DataTypes.DOUBLE);
 
+    /**
+     * Breaker of the shard result cache. It has no limit of its own, the cache is bounded by its size setting,
+     * but the cached results count towards the limit of the parent breaker.
+     */
+    public static final String RESULT_CACHE = "result_cache";
+
     static final String BREAKING_EXCEPTION_MESSAGE =
         "[query] Data too large, data for [%s] would be larger than limit of [%d/%s]";
 
@@ -94,6 +100,7 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
         registerBreaker(queryBreakerSettings);
         registerBreaker(logJobsBreakerSettings);
         registerBreaker(logOperationsBreakerSettings);
+        registerBreaker(new BreakerSettings(RESULT_CACHE, -1L, 1.0d, CircuitBreaker.Type.MEMORY));
 
         clusterSettings.addSettingsUpdateConsumer(QUERY_CIRCUIT_BREAKER_LIMIT_SETTING.setting(), QUERY_CIRCUIT_BREAKER_OVERHEAD_SETTING.setting(),
             (newLimit, newOverhead) ->
@@ -27,6 +27,7 @@ import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.logging.Loggers;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.util.Locale;
 import java.util.concurrent.atomic.AtomicLong;
@@ -39,9 +40,12 @@ public class RamAccountingContext {
 
     private final String contextId;
     private final CircuitBreaker breaker;
+    @Nullable
+    private final RamAccountingContext parent;
 
     private final AtomicLong totalBytes = new AtomicLong(0);
     private final AtomicLong flushBuffer = new AtomicLong(0);
+    private final AtomicLong peakBytes = new AtomicLong(0);
     private volatile boolean closed = false;
     private volatile boolean tripped = false;
 
@@ -54,8 +58,22 @@ public class RamAccountingContext {
     }
 
     public RamAccountingContext(String contextId, CircuitBreaker breaker) {
+        this(contextId, breaker, null);
+    }
+
+    private RamAccountingContext(String contextId, CircuitBreaker breaker, @Nullable RamAccountingContext parent) {
         this.contextId = contextId;
         this.breaker = breaker;
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a context which adds and releases its bytes on this context, but keeps its own count of them.
+     * An operation which shares a context with other operations can use it to release exactly the bytes it accounted.
+     * Closing the child releases its remaining bytes from this context.
+     */
+    public RamAccountingContext newChild() {
+        return new RamAccountingContext(contextId, breaker, this);
     }
 
     /**
@@ -81,7 +99,14 @@ public class RamAccountingContext {
         if (closed || bytes == 0) {
             return;
         }
+        if (parent != null) {
+            // counted first, the parent keeps the bytes even if its breaker trips
+            peakBytes.accumulateAndGet(totalBytes.addAndGet(bytes), Math::max);
+            parent.addBytes(bytes, shouldBreak);
+            return;
+        }
         long currentFlushBuffer = flushBuffer.addAndGet(bytes);
+        peakBytes.accumulateAndGet(currentFlushBuffer + totalBytes.get(), Math::max);
         if (currentFlushBuffer >= FLUSH_BUFFER_SIZE) {
             if (shouldBreak) {
                 flush(currentFlushBuffer);
@@ -91,6 +116,29 @@ public class RamAccountingContext {
         }
     }
 
+    /**
+     * Release bytes which have been added before, e.g. because the data was written to disk.
+     * The released bytes are immediately subtracted from the breaker.
+     *
+     * @param bytes bytes to be released
+     */
+    public void releaseBytes(long bytes) {
+        if (closed || bytes == 0) {
+            return;
+        }
+        if (parent != null) {
+            totalBytes.addAndGet(-bytes);
+            parent.releaseBytes(bytes);
+            return;
+        }
+        long currentFlushBuffer = flushBuffer.addAndGet(-bytes);
+        if (currentFlushBuffer < 0) {
+            breaker.addWithoutBreaking(currentFlushBuffer);
+            totalBytes.addAndGet(currentFlushBuffer);
+            flushBuffer.addAndGet(-currentFlushBuffer);
+        }
+    }
+
     /**
      * Flush the {@code bytes} to the breaker, incrementing the total
      * bytes and adjusting the buffer.
@@ -143,6 +191,14 @@ public class RamAccountingContext {
         return flushBuffer.get() + totalBytes.get();
     }
 
+    /**
+     * Returns the highest value {@link #totalBytes()} reached so far.
+     * Unlike {@link #totalBytes()} it isn't lowered by {@link #releaseBytes(long)}.
+     */
+    public long peakBytes() {
+        return peakBytes.get();
+    }
+
     /**
      * Close the context and adjust the breaker.
      * A remaining flush buffer will not be flushed to avoid breaking on close.
@@ -153,6 +209,10 @@ public class RamAccountingContext {
             return;
         }
         closed = true;
+        if (parent != null) {
+            parent.releaseBytes(totalBytes.get());
+            return;
+        }
         if (totalBytes.get() != 0) {
             if (logger.isTraceEnabled() && totalBytes() > FLUSH_BUFFER_SIZE) {
                 logger.trace("context: {} bytes; breaker: {} of {} bytes", totalBytes(), breaker.getUsed(), breaker.getLimit());
@@ -166,6 +226,9 @@ public class RamAccountingContext {
      * Returns true if the limit of the breaker was already reached
      */
     public boolean trippedBreaker() {
+        if (parent != null) {
+            return parent.trippedBreaker();
+        }
         return tripped;
     }
 
@@ -177,6 +240,18 @@ public class RamAccountingContext {
         return breaker.getUsed() >= breaker.getLimit();
     }
 
+    /**
+     * Returns true if the bytes used by the breaker (including the not yet flushed bytes of this context)
+     * reached the given ratio of the limit of the breaker.
+     */
+    public boolean reachedLimitRatio(double ratio) {
+        if (parent != null) {
+            return parent.reachedLimitRatio(ratio);
+        }
+        long limit = breaker.getLimit();
+        return limit > 0 && breaker.getUsed() + flushBuffer.get() >= limit * ratio;
+    }
+
     /**
      * Returns the configured bytes limit of the breaker
      */
@@ -77,6 +77,13 @@ public class StreamBucket implements Bucket, Streamable {
             }
         }
 
+        /**
+         * @return the number of bytes of the rows added so far
+         */
+        public int bytesSize() {
+            return out.size();
+        }
+
         public void writeToStream(StreamOutput output) throws IOException {
             output.writeVInt(size);
             if (size > 0) {
@@ -102,6 +109,16 @@ public class StreamBucket implements Bucket, Streamable {
         this.streamers = streamers;
     }
 
+    /**
+     * Creates a bucket of {@code size} rows which have already been serialized into {@code bytes}
+     * using the given streamers. The bytes are used as they are, without copying them.
+     */
+    public StreamBucket(Streamer<?>[] streamers, int size, BytesReference bytes) {
+        this(streamers);
+        this.size = size;
+        this.bytes = bytes;
+    }
+
     @Override
     public int size() {
         return size;
@@ -56,6 +56,7 @@ public class TransportActionProvider {
     private final Provider<TransportJobAction> transportJobInitActionProvider;
     private final Provider<TransportKillAllNodeAction> transportKillAllNodeActionProvider;
     private final Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider;
+    private final Provider<TransportCollectProfileNodeAction> transportCollectProfileNodeActionProvider;
 
     private final Provider<TransportCreateSnapshotAction> transportCreateSnapshotActionProvider;
     private final Provider<TransportDeleteSnapshotAction> transportDeleteSnapshotActionProvider;
@@ -76,6 +77,7 @@ public class TransportActionProvider {
                                    Provider<TransportJobAction> transportJobInitActionProvider,
                                    Provider<TransportBulkCreateIndicesAction> transportBulkCreateIndicesActionProvider,
                                    Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider,
+                                   Provider<TransportCollectProfileNodeAction> transportCollectProfileNodeActionProvider,
                                    Provider<TransportDeleteSnapshotAction> transportDeleteSnapshotActionProvider,
                                    Provider<TransportCreateSnapshotAction> transportCreateSnapshotActionProvider,
                                    Provider<TransportRestoreSnapshotAction> transportRestoreSnapshotActionProvider,
@@ -93,6 +95,7 @@ public class TransportActionProvider {
         this.transportJobInitActionProvider = transportJobInitActionProvider;
         this.transportBulkCreateIndicesActionProvider = transportBulkCreateIndicesActionProvider;
         this.transportKillJobsNodeActionProvider = transportKillJobsNodeActionProvider;
+        this.transportCollectProfileNodeActionProvider = transportCollectProfileNodeActionProvider;
         this.transportDeleteSnapshotActionProvider = transportDeleteSnapshotActionProvider;
         this.transportCreateSnapshotActionProvider = transportCreateSnapshotActionProvider;
         this.transportRestoreSnapshotActionProvider = transportRestoreSnapshotActionProvider;
@@ -151,6 +154,10 @@ public class TransportActionProvider {
         return transportKillJobsNodeActionProvider.get();
     }
 
+    public TransportCollectProfileNodeAction transportCollectProfileNodeAction() {
+        return transportCollectProfileNodeActionProvider.get();
+    }
+
     public TransportDeleteSnapshotAction transportDeleteSnapshotAction() {
         return transportDeleteSnapshotActionProvider.get();
     }
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.jobs.JobContextService;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Retrieves the execution statistics of a profiled job (EXPLAIN ANALYZE) from a node.
+ * The response is sent once the job finished on that node.
+ */
+@Singleton
+public class TransportCollectProfileNodeAction implements NodeAction<NodeCollectProfileRequest, NodeCollectProfileResponse> {
+
+    private static final String ACTION_NAME = "crate/sql/node/collect_profile";
+    private static final String EXECUTOR = ThreadPool.Names.SEARCH;
+
+    private final Transports transports;
+    private final JobContextService jobContextService;
+
+    @Inject
+    public TransportCollectProfileNodeAction(TransportService transportService,
+                                             Transports transports,
+                                             JobContextService jobContextService) {
+        this.transports = transports;
+        this.jobContextService = jobContextService;
+        transportService.registerRequestHandler(
+            ACTION_NAME,
+            NodeCollectProfileRequest::new,
+            EXECUTOR,
+            new NodeActionRequestHandler<>(this)
+        );
+    }
+
+    public void execute(String nodeId,
+                        NodeCollectProfileRequest request,
+                        ActionListener<NodeCollectProfileResponse> listener) {
+        transports.sendRequest(
+            ACTION_NAME,
+            nodeId,
+            request,
+            listener,
+            new ActionListenerResponseHandler<>(listener, NodeCollectProfileResponse::new)
+        );
+    }
+
+    @Override
+    public CompletableFuture<NodeCollectProfileResponse> nodeOperation(NodeCollectProfileRequest request) {
+        return jobContextService.finishProfiling(request.jobId()).thenApply(NodeCollectProfileResponse::new);
+    }
+}
@@ -38,6 +38,7 @@ import io.crate.executor.task.NoopTask;
 import io.crate.executor.task.SetSessionTask;
 import io.crate.executor.transport.executionphases.ExecutionPhasesTask;
 import io.crate.executor.transport.task.DropTableTask;
+import io.crate.executor.transport.task.ExplainAnalyzeTask;
 import io.crate.executor.transport.task.KillJobTask;
 import io.crate.executor.transport.task.KillTask;
 import io.crate.executor.transport.task.ShowCreateTableTask;
@@ -54,6 +55,7 @@ import io.crate.operation.InputFactory;
 import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.NodeOperationTree;
 import io.crate.operation.collect.sources.SystemCollectSource;
+import io.crate.operation.compiler.ExpressionCompiler;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.user.UserManager;
 import io.crate.planner.Merge;
@@ -101,6 +103,7 @@ public class TransportExecutor implements Executor {
     private final ThreadPool threadPool;
     private final Functions functions;
     private final TaskCollectingVisitor plan2TaskVisitor;
+    private final TaskCollectingVisitor profilingPlan2TaskVisitor;
     private final DCLStatementDispatcher dclStatementDispatcher;
     private final DDLStatementDispatcher ddlAnalysisDispatcherProvider;
 
@@ -113,6 +116,7 @@ public class TransportExecutor implements Executor {
 
     private final ProjectionToProjectorVisitor globalProjectionToProjectionVisitor;
     private final MultiPhaseExecutor multiPhaseExecutor = new MultiPhaseExecutor();
+    private final ProfilingExecutor profilingExecutor = new ProfilingExecutor();
 
     private final static BulkNodeOperationTreeGenerator BULK_NODE_OPERATION_VISITOR = new BulkNodeOperationTreeGenerator();
 
@@ -142,7 +146,8 @@ public class TransportExecutor implements Executor {
         this.indicesService = indicesService;
         this.dclStatementDispatcher = dclStatementDispatcher;
         this.userManager = userManager;
-        plan2TaskVisitor = new TaskCollectingVisitor();
+        plan2TaskVisitor = new TaskCollectingVisitor(false);
+        profilingPlan2TaskVisitor = new TaskCollectingVisitor(true);
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions, ReplaceMode.COPY);
         globalProjectionToProjectionVisitor = new ProjectionToProjectorVisitor(
             clusterService,
@@ -151,7 +156,7 @@ public class TransportExecutor implements Executor {
             threadPool,
             settings,
             transportActionProvider,
-            new InputFactory(functions),
+            new InputFactory(functions, ExpressionCompiler.COMPILE_EXPRESSIONS_SETTING.get(settings)),
             normalizer,
             systemCollectSource::getRowUpdater,
             systemCollectSource::tableDefinition
@@ -172,8 +177,34 @@ public class TransportExecutor implements Executor {
         return task.executeBulk();
     }
 
+    /**
+     * Executes plans like {@link #execute(Plan, BatchConsumer, Row)} but records execution statistics
+     * of the phases on all involved nodes. Used by EXPLAIN ANALYZE.
+     */
+    private class ProfilingExecutor implements Executor {
+
+        @Override
+        public void execute(Plan plan, BatchConsumer consumer, Row parameters) {
+            CompletableFuture<Plan> planFuture = multiPhaseExecutor.process(plan, null);
+            planFuture
+                .thenAccept(p -> profilingPlan2TaskVisitor.process(p, null).execute(consumer, parameters))
+                .exceptionally(t -> { consumer.accept(null, t); return null; });
+        }
+
+        @Override
+        public List<CompletableFuture<Long>> executeBulk(Plan plan) {
+            throw new UnsupportedOperationException("Profiling is not supported for bulk operations");
+        }
+    }
+
     private class TaskCollectingVisitor extends PlanVisitor<Void, Task> {
 
+        private final boolean profile;
+
+        TaskCollectingVisitor(boolean profile) {
+            this.profile = profile;
+        }
+
         @Override
         public Task visitNoopPlan(NoopPlan plan, Void context) {
             return NoopTask.INSTANCE;
@@ -186,6 +217,13 @@ public class TransportExecutor implements Executor {
 
         @Override
         public Task visitExplainPlan(ExplainPlan explainPlan, Void context) {
+            if (explainPlan.doAnalyze()) {
+                return new ExplainAnalyzeTask(
+                    explainPlan,
+                    profilingExecutor,
+                    clusterService,
+                    transportActionProvider.transportCollectProfileNodeAction());
+            }
             return new ExplainTask(explainPlan);
         }
 
@@ -206,7 +244,8 @@ public class TransportExecutor implements Executor {
                 indicesService,
                 transportActionProvider.transportJobInitAction(),
                 transportActionProvider.transportKillJobsNodeAction(),
-                nodeOperationTrees
+                nodeOperationTrees,
+                profile
             );
         }
 
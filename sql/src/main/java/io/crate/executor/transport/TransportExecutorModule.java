@@ -48,6 +48,7 @@ public class TransportExecutorModule extends AbstractModule {
         bind(TransportKillAllNodeAction.class).asEagerSingleton();
         bind(TransportKillJobsNodeAction.class).asEagerSingleton();
         bind(TransportNodeStatsAction.class).asEagerSingleton();
+        bind(TransportCollectProfileNodeAction.class).asEagerSingleton();
         bind(TransportRenameTableAction.class).asEagerSingleton();
     }
 }
@@ -30,6 +30,8 @@ import io.crate.jobs.DownstreamExecutionSubContext;
 import io.crate.jobs.JobContextService;
 import io.crate.jobs.JobExecutionContext;
 import io.crate.jobs.PageBucketReceiver;
+import io.crate.jobs.PhaseProfile;
+import io.crate.jobs.ProfilingContext;
 import io.crate.operation.PageResultListener;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
@@ -112,6 +114,13 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
         Throwable throwable = request.throwable();
         if (throwable == null) {
             request.streamers(pageBucketReceiver.streamers());
+            ProfilingContext profilingContext = context.profilingContext();
+            if (profilingContext != null) {
+                PhaseProfile phaseProfile = profilingContext.phaseOrNull(request.executionPhaseId());
+                if (phaseProfile != null) {
+                    phaseProfile.onPageReceived(request.rows().size());
+                }
+            }
             SendResponsePageResultListener pageResultListener = new SendResponsePageResultListener();
             try {
                 executor.execute(() -> pageBucketReceiver.setBucket(
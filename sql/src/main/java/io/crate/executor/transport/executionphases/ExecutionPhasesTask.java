@@ -99,6 +99,7 @@ public class ExecutionPhasesTask extends JobTask {
     private ContextPreparer contextPreparer;
     private final JobContextService jobContextService;
     private final IndicesService indicesService;
+    private final boolean profile;
 
     private boolean hasDirectResponse;
 
@@ -109,8 +110,10 @@ public class ExecutionPhasesTask extends JobTask {
                                IndicesService indicesService,
                                TransportJobAction transportJobAction,
                                TransportKillJobsNodeAction transportKillJobsNodeAction,
-                               List<NodeOperationTree> nodeOperationTrees) {
+                               List<NodeOperationTree> nodeOperationTrees,
+                               boolean profile) {
         super(jobId);
+        this.profile = profile;
         this.clusterService = clusterService;
         this.contextPreparer = contextPreparer;
         this.jobContextService = jobContextService;
@@ -191,6 +194,9 @@ public class ExecutionPhasesTask extends JobTask {
             handlerPhases, handlerConsumers, initializationTracker);
 
         JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId(), localNodeId, operationByServer.keySet());
+        if (profile) {
+            builder.enableProfiling();
+        }
         List<CompletableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnHandler(
             localNodeOperations, builder, handlerPhaseAndReceiver, new SharedShardContexts(indicesService));
         JobExecutionContext localJobContext = jobContextService.createContext(builder);
@@ -266,7 +272,7 @@ public class ExecutionPhasesTask extends JobTask {
                                  InitializationTracker initializationTracker) {
         for (Map.Entry<String, Collection<NodeOperation>> entry : operationByServer.entrySet()) {
             String serverNodeId = entry.getKey();
-            JobRequest request = new JobRequest(jobId(), localNodeId, entry.getValue());
+            JobRequest request = new JobRequest(jobId(), localNodeId, entry.getValue(), profile);
             if (hasDirectResponse) {
                 transportJobAction.execute(serverNodeId, request,
                     new SetBucketActionListener(pageBucketReceivers, bucketIdx, initializationTracker));
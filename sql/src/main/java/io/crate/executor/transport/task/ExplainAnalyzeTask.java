@@ -0,0 +1,146 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport.task;
+
+import io.crate.action.FutureActionListener;
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.BatchConsumer;
+import io.crate.data.CollectingBatchConsumer;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowsBatchIterator;
+import io.crate.executor.Executor;
+import io.crate.executor.JobTask;
+import io.crate.executor.transport.NodeCollectProfileRequest;
+import io.crate.executor.transport.NodeCollectProfileResponse;
+import io.crate.executor.transport.TransportCollectProfileNodeAction;
+import io.crate.planner.PlanPrinter;
+import io.crate.planner.node.management.ExplainPlan;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Executes the plan of an EXPLAIN ANALYZE statement with profiling enabled and returns the plan together with the
+ * execution statistics of each phase on each node.
+ */
+public class ExplainAnalyzeTask extends JobTask {
+
+    private static final Comparator<Map<String, Object>> PHASE_ORDER = Comparator
+        .comparing((Map<String, Object> m) -> (Integer) m.get("id"))
+        .thenComparing(m -> (String) m.get("node"));
+
+    private final ExplainPlan explainPlan;
+    private final Executor profilingExecutor;
+    private final ClusterService clusterService;
+    private final TransportCollectProfileNodeAction collectProfileNodeAction;
+
+    public ExplainAnalyzeTask(ExplainPlan explainPlan,
+                              Executor profilingExecutor,
+                              ClusterService clusterService,
+                              TransportCollectProfileNodeAction collectProfileNodeAction) {
+        super(explainPlan.jobId());
+        this.explainPlan = explainPlan;
+        this.profilingExecutor = profilingExecutor;
+        this.clusterService = clusterService;
+        this.collectProfileNodeAction = collectProfileNodeAction;
+    }
+
+    @Override
+    public void execute(BatchConsumer consumer, Row parameters) {
+        CollectingBatchConsumer<?, Long> rowCountConsumer = new CollectingBatchConsumer<>(Collectors.counting());
+        long startNanos = System.nanoTime();
+        profilingExecutor.execute(explainPlan.subPlan(), rowCountConsumer, parameters);
+
+        rowCountConsumer.resultFuture().whenComplete((rowCount, failure) -> {
+            long durationNanos = System.nanoTime() - startNanos;
+            // always collect, the nodes keep the statistics until they're retrieved
+            collectPhaseProfiles().whenComplete((phases, collectFailure) -> {
+                if (failure != null) {
+                    consumer.accept(null, failure);
+                } else if (collectFailure != null) {
+                    consumer.accept(null, collectFailure);
+                } else {
+                    Map<String, Object> result;
+                    try {
+                        result = toMap(rowCount, durationNanos, phases);
+                    } catch (Throwable t) {
+                        consumer.accept(null, t);
+                        return;
+                    }
+                    consumer.accept(RowsBatchIterator.newInstance(new Row1(result)), null);
+                }
+            });
+        });
+    }
+
+    private CompletableFuture<List<Map<String, Object>>> collectPhaseProfiles() {
+        NodeCollectProfileRequest request = new NodeCollectProfileRequest(jobId());
+        List<CompletableFuture<List<Map<String, Object>>>> futures = new ArrayList<>();
+        for (DiscoveryNode node : clusterService.state().nodes()) {
+            String nodeName = node.getName();
+            FutureActionListener<NodeCollectProfileResponse, List<Map<String, Object>>> listener =
+                new FutureActionListener<>(response -> withNodeName(response.phases(), nodeName));
+            collectProfileNodeAction.execute(node.getId(), request, listener);
+            futures.add(listener);
+        }
+        return CompletableFutures.allAsList(futures).thenApply(phasesByNode -> {
+            List<Map<String, Object>> phases = new ArrayList<>();
+            for (List<Map<String, Object>> nodePhases : phasesByNode) {
+                phases.addAll(nodePhases);
+            }
+            phases.sort(PHASE_ORDER);
+            return phases;
+        });
+    }
+
+    private static List<Map<String, Object>> withNodeName(List<Map<String, Object>> phases, String nodeName) {
+        List<Map<String, Object>> result = new ArrayList<>(phases.size());
+        for (Map<String, Object> phase : phases) {
+            Map<String, Object> phaseWithNode = new HashMap<>(phase);
+            phaseWithNode.put("node", nodeName);
+            result.add(phaseWithNode);
+        }
+        return result;
+    }
+
+    private Map<String, Object> toMap(long rowCount, long durationNanos, List<Map<String, Object>> phases) {
+        Map<String, Object> analyze = new HashMap<>();
+        analyze.put("durationMs", TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        analyze.put("rowCount", rowCount);
+        analyze.put("phases", phases);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("plan", PlanPrinter.objectMap(explainPlan.subPlan()));
+        result.put("analyze", analyze);
+        return result;
+    }
+}
@@ -31,6 +31,7 @@ import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.reference.ReferenceResolver;
+import io.crate.operation.reference.doc.lucene.SourceParser;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 
@@ -46,6 +47,10 @@ public class GetResponseRefResolver implements ReferenceResolver<CollectExpressi
     private final Consumer<ColumnIdent> columnConsumer;
     private final DocTableInfo docTableInfo;
     private final Map<String, DocKeys.DocKey> ids2Keys;
+    private final SourceParser sourceParser = new SourceParser();
+
+    private GetResponse lastResponse;
+    private Map<String, Object> lastSource;
 
     GetResponseRefResolver(Consumer<ColumnIdent> columnConsumer,
                            DocTableInfo docTableInfo,
@@ -82,9 +87,19 @@ public class GetResponseRefResolver implements ReferenceResolver<CollectExpressi
             }
         }
 
-        return RowContextCollectorExpression.forFunction(response -> {
-            Map<String, Object> sourceAsMap = response.getSourceAsMap();
-            return ref.valueType().value(XContentMapValues.extractValue(fqn, sourceAsMap));
-        });
+        sourceParser.register(fqn);
+        return RowContextCollectorExpression.forFunction(
+            response -> ref.valueType().value(XContentMapValues.extractValue(fqn, source(response))));
+    }
+
+    /**
+     * Parses the registered columns out of the source; the result is shared by all expressions for the same response.
+     */
+    private Map<String, Object> source(GetResponse response) {
+        if (response != lastResponse) {
+            lastSource = sourceParser.parse(response.getSourceAsBytesRef());
+            lastResponse = response;
+        }
+        return lastSource;
     }
 }
@@ -22,6 +22,7 @@
 
 package io.crate.jobs;
 
+import io.crate.breaker.RamAccountingContext;
 import io.crate.exceptions.JobKilledException;
 import org.apache.logging.log4j.Logger;
 
@@ -141,8 +142,9 @@ public abstract class AbstractExecutionSubContext implements ExecutionSubContext
         return future;
     }
 
-    protected void setBytesUsed(long bytesUsed) {
-        completionState.bytesUsed(bytesUsed);
+    protected void setBytesUsed(RamAccountingContext ramAccountingContext) {
+        completionState.bytesUsed(ramAccountingContext.totalBytes());
+        completionState.peakBytesUsed(ramAccountingContext.peakBytes());
     }
 
     protected synchronized boolean isClosed() {
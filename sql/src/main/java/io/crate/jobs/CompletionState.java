@@ -25,6 +25,7 @@ package io.crate.jobs;
 class CompletionState {
 
     private long bytesUsed = -1;
+    private long peakBytesUsed = -1;
 
     void bytesUsed(long bytesUsed) {
         this.bytesUsed = bytesUsed;
@@ -33,4 +34,12 @@ class CompletionState {
     long bytesUsed() {
         return bytesUsed;
     }
+
+    void peakBytesUsed(long peakBytesUsed) {
+        this.peakBytesUsed = peakBytesUsed;
+    }
+
+    long peakBytesUsed() {
+        return peakBytesUsed;
+    }
 }
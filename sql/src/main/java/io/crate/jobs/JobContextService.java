@@ -21,6 +21,8 @@
 
 package io.crate.jobs;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import io.crate.concurrent.CountdownFutureCallback;
 import io.crate.exceptions.ContextMissingException;
@@ -37,6 +39,7 @@ import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
@@ -48,6 +51,15 @@ public class JobContextService extends AbstractLifecycleComponent {
     private final ConcurrentMap<UUID, JobExecutionContext> activeContexts =
         ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
+    /**
+     * Profiles of jobs which finished on this node before the coordinator collected them.
+     * They expire if they are never collected, e.g. because the coordinator failed or collected before the job
+     * was created on this node.
+     */
+    private final Cache<UUID, ProfilingContext> finishedProfiles = CacheBuilder.newBuilder()
+        .expireAfterWrite(5, TimeUnit.MINUTES)
+        .build();
+
     private final List<KillAllListener> killAllListeners = Collections.synchronizedList(new ArrayList<KillAllListener>());
 
     @Inject
@@ -121,7 +133,7 @@ public class JobContextService extends AbstractLifecycleComponent {
         final UUID jobId = contextBuilder.jobId();
         JobExecutionContext newContext = contextBuilder.build();
 
-        JobContextCallback jobContextCallback = new JobContextCallback(jobId);
+        JobContextCallback jobContextCallback = new JobContextCallback(jobId, newContext.profilingContext());
         newContext.completionFuture().whenComplete(jobContextCallback);
 
         JobExecutionContext existing = activeContexts.putIfAbsent(jobId, newContext);
@@ -137,6 +149,27 @@ public class JobContextService extends AbstractLifecycleComponent {
     }
 
 
+    /**
+     * Waits for the job to finish on this node and returns the statistics of its phases if the job was profiled.
+     * The statistics are removed, so they can be retrieved only once.
+     */
+    public CompletableFuture<List<Map<String, Object>>> finishProfiling(UUID jobId) {
+        JobExecutionContext context = activeContexts.get(jobId);
+        if (context == null) {
+            ProfilingContext profilingContext = finishedProfiles.asMap().remove(jobId);
+            return CompletableFuture.completedFuture(
+                profilingContext == null ? Collections.<Map<String, Object>>emptyList() : profilingContext.collect());
+        }
+        ProfilingContext profilingContext = context.profilingContext();
+        return context.completionFuture().handle((r, t) -> {
+            if (profilingContext == null) {
+                return Collections.<Map<String, Object>>emptyList();
+            }
+            finishedProfiles.invalidate(jobId);
+            return profilingContext.collect();
+        });
+    }
+
     /**
      * kills all contexts which are active at the time of the call of this method.
      *
@@ -193,13 +226,19 @@ public class JobContextService extends AbstractLifecycleComponent {
     private class JobContextCallback implements BiConsumer<Void, Throwable> {
 
         private final UUID jobId;
+        @Nullable
+        private final ProfilingContext profilingContext;
 
-        JobContextCallback(UUID jobId) {
+        JobContextCallback(UUID jobId, @Nullable ProfilingContext profilingContext) {
             this.jobId = jobId;
+            this.profilingContext = profilingContext;
         }
 
         @Override
         public void accept(Void aVoid, Throwable throwable) {
+            if (profilingContext != null && profilingContext.isCollected() == false) {
+                finishedProfiles.put(jobId, profilingContext);
+            }
             activeContexts.remove(jobId);
             if (logger.isTraceEnabled()) {
                 logger.trace("JobExecutionContext closed for job {} removed it -" +
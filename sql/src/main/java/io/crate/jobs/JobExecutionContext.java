@@ -57,6 +57,8 @@ public class JobExecutionContext implements CompletionListenable {
     private final CompletableFuture<Void> finishedFuture = new CompletableFuture<>();
     private final AtomicBoolean killSubContextsOngoing = new AtomicBoolean(false);
     private final Collection<String> participatedNodes;
+    @Nullable
+    private final ProfilingContext profilingContext;
     private volatile Throwable failure;
 
 
@@ -67,6 +69,7 @@ public class JobExecutionContext implements CompletionListenable {
         private final JobsLogs jobsLogs;
         private final List<ExecutionSubContext> subContexts = new ArrayList<>();
         private final Collection<String> participatingNodes;
+        private ProfilingContext profilingContext = null;
 
         Builder(UUID jobId, String coordinatorNode, Collection<String> participatingNodes, JobsLogs jobsLogs) {
             this.jobId = jobId;
@@ -83,12 +86,25 @@ public class JobExecutionContext implements CompletionListenable {
             return subContexts.isEmpty();
         }
 
+        /**
+         * Record execution statistics of the subContexts of this job (used by EXPLAIN ANALYZE)
+         */
+        public void enableProfiling() {
+            profilingContext = new ProfilingContext();
+        }
+
+        @Nullable
+        public ProfilingContext profilingContext() {
+            return profilingContext;
+        }
+
         public UUID jobId() {
             return jobId;
         }
 
         JobExecutionContext build() throws Exception {
-            return new JobExecutionContext(jobId, coordinatorNode, participatingNodes, jobsLogs, subContexts);
+            return new JobExecutionContext(
+                jobId, coordinatorNode, participatingNodes, jobsLogs, subContexts, profilingContext);
         }
     }
 
@@ -97,8 +113,10 @@ public class JobExecutionContext implements CompletionListenable {
                                 String coordinatorNodeId,
                                 Collection<String> participatingNodes,
                                 JobsLogs jobsLogs,
-                                List<ExecutionSubContext> orderedContexts) throws Exception {
+                                List<ExecutionSubContext> orderedContexts,
+                                @Nullable ProfilingContext profilingContext) throws Exception {
         this.coordinatorNodeId = coordinatorNodeId;
+        this.profilingContext = profilingContext;
         this.participatedNodes = participatingNodes;
         orderedContextIds = new IntArrayList(orderedContexts.size());
         this.jobId = jobId;
@@ -112,7 +130,11 @@ public class JobExecutionContext implements CompletionListenable {
             int subContextId = context.id();
             orderedContextIds.add(subContextId);
 
-            context.completionFuture().whenComplete(new RemoveSubContextListener(subContextId));
+            PhaseProfile phaseProfile = null;
+            if (profilingContext != null) {
+                phaseProfile = profilingContext.phase(subContextId, context.name());
+            }
+            context.completionFuture().whenComplete(new RemoveSubContextListener(subContextId, phaseProfile));
 
             ExecutionSubContext existingContext = subContexts.put(subContextId, context);
             if (existingContext != null) {
@@ -137,6 +159,11 @@ public class JobExecutionContext implements CompletionListenable {
         return participatedNodes;
     }
 
+    @Nullable
+    public ProfilingContext profilingContext() {
+        return profilingContext;
+    }
+
     private void prepare(List<ExecutionSubContext> orderedContexts) throws Exception {
         for (int i = 0; i < orderedContextIds.size(); i++) {
             int id = orderedContextIds.get(i);
@@ -162,6 +189,9 @@ public class JobExecutionContext implements CompletionListenable {
             if (subContext == null || closed.get()) {
                 break; // got killed before start was called
             }
+            if (profilingContext != null) {
+                profilingContext.phase(id.value, subContext.name()).start();
+            }
             subContext.start();
         }
         if (failure != null) {
@@ -232,9 +262,12 @@ public class JobExecutionContext implements CompletionListenable {
     private class RemoveSubContextListener implements BiConsumer<CompletionState, Throwable> {
 
         private final int id;
+        @Nullable
+        private final PhaseProfile phaseProfile;
 
-        private RemoveSubContextListener(int id) {
+        private RemoveSubContextListener(int id, @Nullable PhaseProfile phaseProfile) {
             this.id = id;
+            this.phaseProfile = phaseProfile;
         }
 
         private RemoveSubContextPosition remove() {
@@ -250,12 +283,18 @@ public class JobExecutionContext implements CompletionListenable {
         public void onSuccess(@Nullable CompletionState state) {
             assert state != null : "state must not be null";
             jobsLogs.operationFinished(id, jobId, null, state.bytesUsed());
+            if (phaseProfile != null) {
+                phaseProfile.finish(state.peakBytesUsed(), null);
+            }
             remove();
         }
 
         public void onFailure(@Nonnull Throwable t) {
             failure = t;
             jobsLogs.operationFinished(id, jobId, SQLExceptions.messageOf(t), -1);
+            if (phaseProfile != null) {
+                phaseProfile.finish(-1, SQLExceptions.messageOf(t));
+            }
             if (remove() == RemoveSubContextPosition.LAST) {
                 return;
             }
@@ -306,7 +306,7 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
 
     @Override
     public void cleanup() {
-        setBytesUsed(ramAccountingContext.totalBytes());
+        setBytesUsed(ramAccountingContext);
         ramAccountingContext.close();
     }
 
@@ -0,0 +1,131 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.jobs;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution statistics of a single {@link io.crate.planner.node.ExecutionPhase} on one node.
+ * Instances are created by {@link ProfilingContext} and are only used if a job is profiled (EXPLAIN ANALYZE).
+ */
+public class PhaseProfile {
+
+    private final int phaseId;
+    private final String name;
+    private final AtomicLong pagesReceived = new AtomicLong();
+    private final AtomicLong rowsReceived = new AtomicLong();
+    private final List<ProjectorProfile> projectors = new CopyOnWriteArrayList<>();
+
+    private volatile long startNanos = -1;
+    private volatile long durationNanos = -1;
+    private volatile long peakBytesUsed = -1;
+    private volatile String failure = null;
+
+    PhaseProfile(int phaseId, String name) {
+        this.phaseId = phaseId;
+        this.name = name;
+    }
+
+    public int phaseId() {
+        return phaseId;
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void finish(long peakBytesUsed, @Nullable String failure) {
+        if (startNanos != -1) {
+            durationNanos = System.nanoTime() - startNanos;
+        }
+        this.peakBytesUsed = peakBytesUsed;
+        this.failure = failure;
+    }
+
+    /**
+     * Accounts a page of a distributed result which was received for this phase.
+     */
+    public void onPageReceived(int numRows) {
+        pagesReceived.incrementAndGet();
+        rowsReceived.addAndGet(numRows);
+    }
+
+    public ProjectorProfile addProjector(String type) {
+        ProjectorProfile projectorProfile = new ProjectorProfile(type);
+        projectors.add(projectorProfile);
+        return projectorProfile;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", phaseId);
+        map.put("name", name);
+        map.put("durationMs", durationNanos == -1 ? null : TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        map.put("peakBytesUsed", peakBytesUsed == -1 ? null : peakBytesUsed);
+        map.put("pagesReceived", pagesReceived.get());
+        map.put("rowsReceived", rowsReceived.get());
+        if (failure != null) {
+            map.put("failure", failure);
+        }
+        List<Map<String, Object>> projectorMaps = new ArrayList<>(projectors.size());
+        for (ProjectorProfile projector : projectors) {
+            projectorMaps.add(projector.toMap());
+        }
+        map.put("projections", projectorMaps);
+        return map;
+    }
+
+    public static class ProjectorProfile {
+
+        private final String type;
+        private final AtomicLong rowsIn = new AtomicLong();
+        private final AtomicLong rowsOut = new AtomicLong();
+
+        private ProjectorProfile(String type) {
+            this.type = type;
+        }
+
+        public AtomicLong rowsIn() {
+            return rowsIn;
+        }
+
+        public AtomicLong rowsOut() {
+            return rowsOut;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("type", type);
+            map.put("rowsIn", rowsIn.get());
+            map.put("rowsOut", rowsOut.get());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.jobs;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the {@link PhaseProfile}s of a profiled job on the local node.
+ * <p>
+ * The context outlives the {@link JobExecutionContext}; it is kept in the {@link JobContextService}
+ * until the coordinator collects it or it expires.
+ */
+public class ProfilingContext {
+
+    private final ConcurrentMap<Integer, PhaseProfile> phases = new ConcurrentHashMap<>();
+    private volatile boolean collected = false;
+
+    public PhaseProfile phase(int phaseId, String name) {
+        return phases.computeIfAbsent(phaseId, id -> new PhaseProfile(id, name));
+    }
+
+    @Nullable
+    public PhaseProfile phaseOrNull(int phaseId) {
+        return phases.get(phaseId);
+    }
+
+    /**
+     * Same as {@link #toList()}, but marks the profile as collected by the coordinator.
+     */
+    List<Map<String, Object>> collect() {
+        collected = true;
+        return toList();
+    }
+
+    boolean isCollected() {
+        return collected;
+    }
+
+    public List<Map<String, Object>> toList() {
+        List<PhaseProfile> profiles = new ArrayList<>(phases.values());
+        profiles.sort(Comparator.comparingInt(PhaseProfile::phaseId));
+        List<Map<String, Object>> result = new ArrayList<>(profiles.size());
+        for (PhaseProfile profile : profiles) {
+            result.add(profile.toMap());
+        }
+        return result;
+    }
+}
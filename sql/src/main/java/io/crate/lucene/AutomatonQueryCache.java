@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.AutomatonQuery;
+import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Objects;
+
+/**
+ * Node-wide cache of queries which match terms using an automaton.
+ *
+ * <p>
+ * An {@link AutomatonQuery} determinizes and compiles its automaton when it is created, which is expensive for
+ * patterns with many wildcards. The queries are immutable, so the same instance can be used by all shards
+ * and by repeated executions of a query, e.g. of a parameterized {@code LIKE}.
+ * </p>
+ *
+ * <p>
+ * The size of a compiled automaton depends on the pattern, so the cache is bounded by the memory used by the
+ * queries rather than by their number.
+ * </p>
+ */
+final class AutomatonQueryCache {
+
+    private static final long MAX_BYTES = 16 * 1024 * 1024;
+
+    private static final Cache<Key, AutomatonQuery> QUERIES = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_BYTES)
+        .<Key, AutomatonQuery>weigher((key, query) -> (int) Math.min(Integer.MAX_VALUE, query.ramBytesUsed()))
+        .build();
+
+    private AutomatonQueryCache() {
+    }
+
+    static AutomatonQuery wildcard(Term term) {
+        Key key = new Key(WildcardQuery.class, term, 0);
+        AutomatonQuery query = QUERIES.getIfPresent(key);
+        if (query == null) {
+            Term copy = copy(term);
+            query = new WildcardQuery(copy);
+            QUERIES.put(new Key(WildcardQuery.class, copy, 0), query);
+        }
+        return query;
+    }
+
+    static AutomatonQuery regexp(Term term, int flags) {
+        Key key = new Key(RegexpQuery.class, term, flags);
+        AutomatonQuery query = QUERIES.getIfPresent(key);
+        if (query == null) {
+            Term copy = copy(term);
+            query = new RegexpQuery(copy, flags);
+            QUERIES.put(new Key(RegexpQuery.class, copy, flags), query);
+        }
+        return query;
+    }
+
+    /**
+     * Cached entries must not share the bytes of the term with the caller.
+     */
+    private static Term copy(Term term) {
+        return new Term(term.field(), BytesRef.deepCopyOf(term.bytes()));
+    }
+
+    private static final class Key {
+
+        private final Class<? extends AutomatonQuery> queryClass;
+        private final Term term;
+        private final int flags;
+
+        Key(Class<? extends AutomatonQuery> queryClass, Term term, int flags) {
+            this.queryClass = queryClass;
+            this.term = term;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return flags == key.flags && queryClass.equals(key.queryClass) && term.equals(key.term);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(queryClass, term, flags);
+        }
+    }
+}
@@ -61,6 +61,10 @@ class GenericFunctionQuery extends Query {
         this.condition = condition;
     }
 
+    Function function() {
+        return function;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -168,8 +172,10 @@ class GenericFunctionQuery extends Query {
 
         @Override
         public float matchCost() {
-            // Arbitrary number, we don't have a way to get the cost of the condition
-            return 10;
+            // Arbitrary numbers, we don't have a way to get the cost of the condition.
+            // Loading and parsing the source is a lot more expensive than reading doc values,
+            // so conditions on doc values should be checked first.
+            return fieldsVisitorEnabled ? 10 : 2;
         }
     }
 }
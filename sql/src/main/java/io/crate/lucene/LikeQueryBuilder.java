@@ -4,7 +4,6 @@ import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.WildcardQuery;
 import org.elasticsearch.common.lucene.BytesRefs;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -22,7 +21,7 @@ public final class LikeQueryBuilder {
             return Queries.newMatchNoDocsQuery("column does not exist in this index");
         }
         if (dataType.equals(DataTypes.STRING)) {
-            return new WildcardQuery(new Term(
+            return AutomatonQueryCache.wildcard(new Term(
                 fieldType.name(),
                 LuceneQueryBuilder.convertSqlLikeToLuceneWildcard(BytesRefs.toString(value))));
         }
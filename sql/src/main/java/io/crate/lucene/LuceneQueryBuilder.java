@@ -31,8 +31,10 @@ import com.vividsolutions.jts.geom.Geometry;
 import io.crate.Constants;
 import io.crate.analyze.MatchOptionsAnalysis;
 import io.crate.analyze.WhereClause;
+import io.crate.analyze.symbol.DynamicReference;
 import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.RefReplacer;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.SymbolType;
 import io.crate.analyze.symbol.SymbolVisitor;
@@ -49,6 +51,7 @@ import io.crate.metadata.DocReferences;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
+import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.operation.InputFactory;
 import io.crate.operation.collect.DocInputFactory;
@@ -92,7 +95,6 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.RegexpQuery;
 import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.spatial.geopoint.document.GeoPointField;
 import org.apache.lucene.spatial.geopoint.search.GeoPointInPolygonQuery;
@@ -454,7 +456,7 @@ public class LuceneQueryBuilder {
                 regexString = regexString.substring(1, regexString.length() - 1);
                 String notLike = negateWildcard(regexString);
 
-                return new RegexpQuery(new Term(
+                return AutomatonQueryCache.regexp(new Term(
                     arrayReference.ident().columnIdent().fqn(),
                     notLike),
                     RegexpFlag.COMPLEMENT.value()
@@ -952,7 +954,7 @@ public class LuceneQueryBuilder {
 
             private Query toLuceneRegexpQuery(String fieldName, BytesRef value) {
                 return new ConstantScoreQuery(
-                    new RegexpQuery(new Term(fieldName, value), RegExp.ALL));
+                    AutomatonQueryCache.regexp(new Term(fieldName, value), RegExp.ALL));
             }
 
             @Override
@@ -1342,11 +1344,12 @@ public class LuceneQueryBuilder {
             if (function.valueType() != DataTypes.BOOLEAN) {
                 raiseUnsupported(function);
             }
-            // avoid field-cache
-            // reason1: analyzed columns or columns with index off wouldn't work
+            // columns with doc values are read from them, which is a lot cheaper than loading and parsing the source.
+            // all other columns are read from the source:
+            //   analyzed columns or columns with index off don't have doc values
             //   substr(n, 1, 1) in the case of n => analyzed would throw an error because n would be an array
-            // reason2: would have to load each value into the field cache
-            function = (Function) DocReferences.toSourceLookup(function);
+            function = (Function) RefReplacer.replaceRefs(
+                function, ref -> hasDocValues(ref, context) ? ref : DocReferences.toSourceLookup(ref));
 
             final InputFactory.Context<? extends LuceneCollectorExpression<?>> ctx = context.docInputFactory.getCtx();
             @SuppressWarnings("unchecked")
@@ -1364,6 +1367,18 @@ public class LuceneQueryBuilder {
             return new GenericFunctionQuery(function, expressions, collectorContext, condition);
         }
 
+        private static boolean hasDocValues(Reference ref, Context context) {
+            if (ref instanceof DynamicReference
+                || ref.granularity() != RowGranularity.DOC
+                || ref.indexType() != Reference.IndexType.NOT_ANALYZED
+                || ref.ident().columnIdent().isSystemColumn()
+                || !DataTypes.PRIMITIVE_TYPES.contains(ref.valueType())) {
+                return false;
+            }
+            MappedFieldType fieldType = context.getFieldTypeOrNull(ref.ident().columnIdent().fqn());
+            return fieldType != null && fieldType.hasDocValues();
+        }
+
         private static Query raiseUnsupported(Function function) {
             throw new UnsupportedOperationException(
                 SymbolFormatter.format("Cannot convert function %s into a query", function));
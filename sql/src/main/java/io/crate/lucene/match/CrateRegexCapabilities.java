@@ -22,6 +22,7 @@
 
 package io.crate.lucene.match;
 
+import io.crate.operation.scalar.regex.PatternCache;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRefBuilder;
 
@@ -46,7 +47,7 @@ public final class CrateRegexCapabilities {
         private final CharsRefBuilder utf16 = new CharsRefBuilder();
 
         JavaUtilRegexMatcher(String regex, int flags) {
-            this.pattern = Pattern.compile(regex, flags);
+            this.pattern = PatternCache.compile(regex, flags);
             this.matcher = this.pattern.matcher(utf16.get());
         }
 
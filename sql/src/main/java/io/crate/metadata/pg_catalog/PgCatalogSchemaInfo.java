@@ -40,6 +40,7 @@ public class PgCatalogSchemaInfo implements SchemaInfo {
     @Inject
     public PgCatalogSchemaInfo(ClusterService clusterService) {
         this.tableInfoMap = ImmutableSortedMap.<String, TableInfo>naturalOrder()
+            .put(PgStatsTable.IDENT.name(), new PgStatsTable(clusterService))
             .put(PgTypeTable.IDENT.name(), new PgTypeTable(clusterService))
             .build();
     }
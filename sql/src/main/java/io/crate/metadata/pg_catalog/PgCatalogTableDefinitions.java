@@ -24,7 +24,10 @@ package io.crate.metadata.pg_catalog;
 
 import io.crate.metadata.TableIdent;
 import io.crate.operation.reference.StaticTableDefinition;
+import io.crate.planner.TableStats;
 import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.statistics.ColumnStatsEntry;
+import org.elasticsearch.common.inject.Inject;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,13 +38,18 @@ public class PgCatalogTableDefinitions {
 
     private final Map<TableIdent, StaticTableDefinition<?>> tableDefinitions;
 
-    public PgCatalogTableDefinitions() {
-        tableDefinitions = new HashMap<>(1);
+    @Inject
+    public PgCatalogTableDefinitions(TableStats tableStats) {
+        tableDefinitions = new HashMap<>(2);
 
         tableDefinitions.put(PgTypeTable.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(PGTypes.pgTypes()),
             PgTypeTable.expressions()
         ));
+        tableDefinitions.put(PgStatsTable.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(ColumnStatsEntry.entries(tableStats.columnStats())),
+            PgStatsTable.expressions()
+        ));
     }
 
     public StaticTableDefinition<?> get(TableIdent tableIdent) {
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.pg_catalog;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.statistics.ColumnStatsEntry;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.lucene.BytesRefs;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class PgStatsTable extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(PgCatalogSchemaInfo.NAME, "pg_stats");
+
+    static class Columns {
+        static final ColumnIdent SCHEMANAME = new ColumnIdent("schemaname");
+        static final ColumnIdent TABLENAME = new ColumnIdent("tablename");
+        static final ColumnIdent ATTNAME = new ColumnIdent("attname");
+        static final ColumnIdent NULL_FRAC = new ColumnIdent("null_frac");
+        static final ColumnIdent N_DISTINCT = new ColumnIdent("n_distinct");
+        static final ColumnIdent HISTOGRAM_BOUNDS = new ColumnIdent("histogram_bounds");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<ColumnStatsEntry>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<ColumnStatsEntry>>builder()
+            .put(PgStatsTable.Columns.SCHEMANAME,
+                () -> RowContextCollectorExpression.objToBytesRef(e -> e.tableIdent().schema()))
+            .put(PgStatsTable.Columns.TABLENAME,
+                () -> RowContextCollectorExpression.objToBytesRef(e -> e.tableIdent().name()))
+            .put(PgStatsTable.Columns.ATTNAME,
+                () -> RowContextCollectorExpression.objToBytesRef(e -> e.columnIdent().fqn()))
+            .put(PgStatsTable.Columns.NULL_FRAC,
+                () -> RowContextCollectorExpression.forFunction(e -> (float) e.stats().nullFraction()))
+            .put(PgStatsTable.Columns.N_DISTINCT,
+                () -> RowContextCollectorExpression.forFunction(e -> (float) e.stats().approxDistinct()))
+            .put(PgStatsTable.Columns.HISTOGRAM_BOUNDS,
+                () -> RowContextCollectorExpression.forFunction((ColumnStatsEntry e) -> {
+                    List<Object> histogram = e.stats().histogram();
+                    BytesRef[] bounds = new BytesRef[histogram.size()];
+                    for (int i = 0; i < histogram.size(); i++) {
+                        bounds[i] = BytesRefs.toBytesRef(histogram.get(i));
+                    }
+                    return bounds;
+                }))
+            .build();
+    }
+
+    private final ClusterService clusterService;
+
+    PgStatsTable(ClusterService clusterService) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register("schemaname", DataTypes.STRING, null)
+                .register("tablename", DataTypes.STRING, null)
+                .register("attname", DataTypes.STRING, null)
+                .register("null_frac", DataTypes.FLOAT, null)
+                .register("n_distinct", DataTypes.FLOAT, null)
+                .register("histogram_bounds", new ArrayType(DataTypes.STRING), null),
+            Collections.emptyList());
+        this.clusterService = clusterService;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference, SessionContext sessionContext) {
+        return Routing.forTableOnSingleNode(IDENT, clusterService.localNode().getId());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.operation.collect.stats.StatementLatencies.TypedSnapshot;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.service.ClusterService;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+public class SysJobsMetricsTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "jobs_metrics");
+    private final ClusterService clusterService;
+
+    public static class Columns {
+        public final static ColumnIdent STATEMENT_TYPE = new ColumnIdent("statement_type");
+        final static ColumnIdent COUNT = new ColumnIdent("count");
+        final static ColumnIdent P50 = new ColumnIdent("p50");
+        final static ColumnIdent P95 = new ColumnIdent("p95");
+        final static ColumnIdent P99 = new ColumnIdent("p99");
+        final static ColumnIdent P999 = new ColumnIdent("p999");
+        final static ColumnIdent MAX = new ColumnIdent("max");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<TypedSnapshot>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<TypedSnapshot>>builder()
+            .put(SysJobsMetricsTableInfo.Columns.STATEMENT_TYPE,
+                () -> RowContextCollectorExpression.objToBytesRef(r -> r.type().displayName()))
+            .put(SysJobsMetricsTableInfo.Columns.COUNT,
+                () -> RowContextCollectorExpression.forFunction(r -> r.snapshot().count()))
+            .put(SysJobsMetricsTableInfo.Columns.P50,
+                () -> RowContextCollectorExpression.forFunction(r -> r.snapshot().percentileMs(50.0)))
+            .put(SysJobsMetricsTableInfo.Columns.P95,
+                () -> RowContextCollectorExpression.forFunction(r -> r.snapshot().percentileMs(95.0)))
+            .put(SysJobsMetricsTableInfo.Columns.P99,
+                () -> RowContextCollectorExpression.forFunction(r -> r.snapshot().percentileMs(99.0)))
+            .put(SysJobsMetricsTableInfo.Columns.P999,
+                () -> RowContextCollectorExpression.forFunction(r -> r.snapshot().percentileMs(99.9)))
+            .put(SysJobsMetricsTableInfo.Columns.MAX,
+                () -> RowContextCollectorExpression.forFunction(r -> r.snapshot().maxMs()))
+            .build();
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    SysJobsMetricsTableInfo(ClusterService clusterService, SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.STATEMENT_TYPE, DataTypes.STRING)
+                .register(Columns.COUNT, DataTypes.LONG)
+                .register(Columns.P50, DataTypes.DOUBLE)
+                .register(Columns.P95, DataTypes.DOUBLE)
+                .register(Columns.P99, DataTypes.DOUBLE)
+                .register(Columns.P999, DataTypes.DOUBLE)
+                .register(Columns.MAX, DataTypes.DOUBLE)
+                .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+            Collections.<ColumnIdent>emptyList());
+        this.clusterService = clusterService;
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public Reference getReference(ColumnIdent columnIdent) {
+        Reference info = super.getReference(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReference(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference, SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterService.state().nodes());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.operation.collect.ShardResultCache;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.service.ClusterService;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+public class SysResultCacheTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "result_cache");
+    private final ClusterService clusterService;
+
+    public static class Columns {
+        final static ColumnIdent ENABLED = new ColumnIdent("enabled");
+        final static ColumnIdent HITS = new ColumnIdent("hits");
+        final static ColumnIdent MISSES = new ColumnIdent("misses");
+        final static ColumnIdent EVICTIONS = new ColumnIdent("evictions");
+        final static ColumnIdent ENTRIES = new ColumnIdent("entries");
+        final static ColumnIdent SIZE = new ColumnIdent("size");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<ShardResultCache.Stats>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<ShardResultCache.Stats>>builder()
+            .put(SysResultCacheTableInfo.Columns.ENABLED,
+                () -> RowContextCollectorExpression.forFunction(ShardResultCache.Stats::enabled))
+            .put(SysResultCacheTableInfo.Columns.HITS,
+                () -> RowContextCollectorExpression.forFunction(ShardResultCache.Stats::hits))
+            .put(SysResultCacheTableInfo.Columns.MISSES,
+                () -> RowContextCollectorExpression.forFunction(ShardResultCache.Stats::misses))
+            .put(SysResultCacheTableInfo.Columns.EVICTIONS,
+                () -> RowContextCollectorExpression.forFunction(ShardResultCache.Stats::evictions))
+            .put(SysResultCacheTableInfo.Columns.ENTRIES,
+                () -> RowContextCollectorExpression.forFunction(ShardResultCache.Stats::entries))
+            .put(SysResultCacheTableInfo.Columns.SIZE,
+                () -> RowContextCollectorExpression.forFunction(ShardResultCache.Stats::sizeInBytes))
+            .build();
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    SysResultCacheTableInfo(ClusterService clusterService, SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.ENABLED, DataTypes.BOOLEAN)
+                .register(Columns.HITS, DataTypes.LONG)
+                .register(Columns.MISSES, DataTypes.LONG)
+                .register(Columns.EVICTIONS, DataTypes.LONG)
+                .register(Columns.ENTRIES, DataTypes.LONG)
+                .register(Columns.SIZE, DataTypes.LONG)
+                .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+            Collections.<ColumnIdent>emptyList());
+        this.clusterService = clusterService;
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public Reference getReference(ColumnIdent columnIdent) {
+        Reference info = super.getReference(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReference(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference, SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterService.state().nodes());
+    }
+}
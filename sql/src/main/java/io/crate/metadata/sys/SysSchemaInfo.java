@@ -52,6 +52,8 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysJobsLogTableInfo.IDENT.name(), new SysJobsLogTableInfo(clusterService));
         tableInfos.put(SysOperationsTableInfo.IDENT.name(), new SysOperationsTableInfo(clusterService, sysNodesTableInfo));
         tableInfos.put(SysOperationsLogTableInfo.IDENT.name(), new SysOperationsLogTableInfo(clusterService));
+        tableInfos.put(SysJobsMetricsTableInfo.IDENT.name(), new SysJobsMetricsTableInfo(clusterService, sysNodesTableInfo));
+        tableInfos.put(SysResultCacheTableInfo.IDENT.name(), new SysResultCacheTableInfo(clusterService, sysNodesTableInfo));
         tableInfos.put(SysChecksTableInfo.IDENT.name(), new SysChecksTableInfo(clusterService));
         tableInfos.put(SysNodeChecksTableInfo.IDENT.name(), new SysNodeChecksTableInfo(clusterService));
         tableInfos.put(SysRepositoriesTableInfo.IDENT.name(), new SysRepositoriesTableInfo(clusterService));
@@ -26,13 +26,16 @@ import com.google.common.annotations.VisibleForTesting;
 import io.crate.metadata.TableIdent;
 import io.crate.metadata.sys.SysChecksTableInfo;
 import io.crate.metadata.sys.SysJobsLogTableInfo;
+import io.crate.metadata.sys.SysJobsMetricsTableInfo;
 import io.crate.metadata.sys.SysJobsTableInfo;
 import io.crate.metadata.sys.SysNodeChecksTableInfo;
 import io.crate.metadata.sys.SysOperationsLogTableInfo;
 import io.crate.metadata.sys.SysOperationsTableInfo;
 import io.crate.metadata.sys.SysRepositoriesTableInfo;
+import io.crate.metadata.sys.SysResultCacheTableInfo;
 import io.crate.metadata.sys.SysSnapshotsTableInfo;
 import io.crate.metadata.sys.SysSummitsTableInfo;
+import io.crate.operation.collect.ShardResultCache;
 import io.crate.operation.collect.files.SummitsIterable;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.reference.StaticTableDefinition;
@@ -44,6 +47,7 @@ import io.crate.operation.reference.sys.snapshot.SysSnapshots;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.repositories.RepositoriesService;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -61,7 +65,8 @@ public class SysTableDefinitions {
                                Set<SysCheck> sysChecks,
                                SysNodeChecks sysNodeChecks,
                                RepositoriesService repositoriesService,
-                               SysSnapshots sysSnapshots) {
+                               SysSnapshots sysSnapshots,
+                               ShardResultCache shardResultCache) {
         tableDefinitions.put(SysJobsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(jobsLogs.activeJobs()),
             SysJobsTableInfo.expressions()
@@ -78,6 +83,14 @@ public class SysTableDefinitions {
             () -> completedFuture(jobsLogs.operationsLog()),
             SysOperationsLogTableInfo.expressions()
         ));
+        tableDefinitions.put(SysJobsMetricsTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(jobsLogs.statementLatencies().snapshots()),
+            SysJobsMetricsTableInfo.expressions()
+        ));
+        tableDefinitions.put(SysResultCacheTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(Collections.singletonList(shardResultCache.stats())),
+            SysResultCacheTableInfo.expressions()
+        ));
 
         SysChecker<SysCheck> sysChecker = new SysChecker<>(sysChecks);
         tableDefinitions.put(SysChecksTableInfo.IDENT, new StaticTableDefinition<>(
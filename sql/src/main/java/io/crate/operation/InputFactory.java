@@ -25,6 +25,7 @@ package io.crate.operation;
 import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.IntObjectMap;
 import io.crate.analyze.symbol.Aggregation;
+import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.SymbolVisitor;
@@ -36,6 +37,7 @@ import io.crate.metadata.Reference;
 import io.crate.operation.aggregation.AggregationFunction;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.collect.InputCollectExpression;
+import io.crate.operation.compiler.ExpressionCompiler;
 import io.crate.operation.reference.ReferenceResolver;
 
 import java.util.ArrayList;
@@ -64,13 +66,24 @@ import java.util.List;
  *      This is due to the fact that References will result in a different kind of Expression class than InputColumns do.
  *      The expression class for references depends on the used ReferenceResolver.
  * </p>
+ *
+ * <p>
+ *     If {@code compileExpressions} is enabled, functions of inputs created for InputColumns are compiled by the
+ *     {@link ExpressionCompiler} where possible.
+ * </p>
  */
 public class InputFactory {
 
     private final Functions functions;
+    private final boolean compileExpressions;
 
     public InputFactory(Functions functions) {
+        this(functions, false);
+    }
+
+    public InputFactory(Functions functions, boolean compileExpressions) {
         this.functions = functions;
+        this.compileExpressions = compileExpressions;
     }
 
     public <T extends Input<?>> Context<T> ctxForRefs(ReferenceResolver<? extends T> referenceResolver) {
@@ -81,7 +94,7 @@ public class InputFactory {
 
     public Context<CollectExpression<Row, ?>> ctxForInputColumns() {
         List<CollectExpression<Row, ?>> expressions = new ArrayList<>();
-        return new Context<>(expressions, new InputColumnVisitor(functions, expressions));
+        return new Context<>(expressions, new InputColumnVisitor(functions, expressions, compileExpressions));
     }
 
     public Context<CollectExpression<Row, ?>> ctxForInputColumns(Iterable<? extends Symbol> symbols) {
@@ -96,7 +109,7 @@ public class InputFactory {
         return new Context<>(
             expressions,
             aggregationContexts,
-            new AggregationVisitor(functions, expressions, aggregationContexts));
+            new AggregationVisitor(functions, expressions, aggregationContexts, compileExpressions));
     }
 
     public static class Context<T extends Input<?>> {
@@ -159,10 +172,25 @@ public class InputFactory {
 
         private final List<CollectExpression<Row, ?>> expressions;
         private final IntObjectMap<InputCollectExpression> inputCollectExpressions = new IntObjectHashMap<>();
+        private final boolean compileExpressions;
 
-        InputColumnVisitor(Functions functions, List<CollectExpression<Row, ?>> expressions) {
+        InputColumnVisitor(Functions functions,
+                           List<CollectExpression<Row, ?>> expressions,
+                           boolean compileExpressions) {
             super(functions);
             this.expressions = expressions;
+            this.compileExpressions = compileExpressions;
+        }
+
+        @Override
+        public Input<?> visitFunction(Function function, Void context) {
+            if (compileExpressions) {
+                Input<?> compiled = ExpressionCompiler.compile(function, symbol -> process(symbol, context));
+                if (compiled != null) {
+                    return compiled;
+                }
+            }
+            return super.visitFunction(function, context);
         }
 
         @Override
@@ -184,8 +212,9 @@ public class InputFactory {
 
         AggregationVisitor(Functions functions,
                            List<CollectExpression<Row, ?>> expressions,
-                           List<AggregationContext> aggregationContexts) {
-            super(functions, expressions);
+                           List<AggregationContext> aggregationContexts,
+                           boolean compileExpressions) {
+            super(functions, expressions, compileExpressions);
             this.aggregationContexts = aggregationContexts;
         }
 
@@ -75,4 +75,15 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
     public abstract TFinal terminatePartial(RamAccountingContext ramAccountingContext, TPartial state);
 
     public abstract DataType partialType();
+
+    /**
+     * Called once per grouped "aggregation cycle" to create the states of all groups.
+     *
+     * @return states stored in arrays indexed by group id, or null if the states of this aggregation can only
+     *         be represented by {@code TPartial} objects.
+     */
+    @Nullable
+    public ColumnarStates newColumnarStates() {
+        return null;
+    }
 }
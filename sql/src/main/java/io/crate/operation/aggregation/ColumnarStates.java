@@ -0,0 +1,139 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.aggregation;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.Arrays;
+
+/**
+ * The aggregation states of all groups of a grouped aggregation, indexed by consecutive group ids.
+ *
+ * Aggregations with fixed-width states (like count, sum or avg) store them in primitive arrays, which avoids
+ * allocating a state object per group. See {@link AggregationFunction#newColumnarStates()}.
+ * All other aggregations fall back to storing the state objects of {@link AggregationFunction}.
+ */
+public abstract class ColumnarStates {
+
+    /**
+     * @return the columnar states of the aggregation, or object states if the aggregation doesn't support them.
+     */
+    public static ColumnarStates of(AggregationFunction function) {
+        ColumnarStates states = function.newColumnarStates();
+        if (states == null) {
+            //noinspection unchecked
+            return new ObjectStates(function);
+        }
+        return states;
+    }
+
+    /**
+     * Add the initial state of a new group. The id of the new group is the number of previously added groups.
+     */
+    public abstract void addGroup(RamAccountingContext ramAccountingContext);
+
+    /**
+     * Equivalent to {@link AggregationFunction#iterate(RamAccountingContext, Object, Input[])}
+     */
+    public abstract void iterate(RamAccountingContext ramAccountingContext, int groupId, Input... args);
+
+    /**
+     * Equivalent to {@link AggregationFunction#reduce(RamAccountingContext, Object, Object)}
+     *
+     * @param partialState a state as returned by {@link #partialState(int)}, or by a non-columnar aggregation.
+     */
+    public abstract void reduce(RamAccountingContext ramAccountingContext, int groupId, Object partialState);
+
+    /**
+     * @return the state of the group as object of the {@link AggregationFunction#partialType()}
+     */
+    public abstract Object partialState(int groupId);
+
+    /**
+     * Equivalent to {@link AggregationFunction#terminatePartial(RamAccountingContext, Object)}
+     */
+    public abstract Object terminatePartial(RamAccountingContext ramAccountingContext, int groupId);
+
+    /**
+     * @return {@code array} if it can hold {@code size + 1} elements, otherwise a copy with more capacity
+     */
+    protected static long[] grow(long[] array, int size) {
+        if (size < array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, ArrayUtil.oversize(size + 1, Long.BYTES));
+    }
+
+    protected static double[] grow(double[] array, int size) {
+        if (size < array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, ArrayUtil.oversize(size + 1, Double.BYTES));
+    }
+
+    private static class ObjectStates<T> extends ColumnarStates {
+
+        private final AggregationFunction<T, ?> function;
+        private Object[] states = new Object[16];
+        private int size = 0;
+
+        ObjectStates(AggregationFunction<T, ?> function) {
+            this.function = function;
+        }
+
+        @Override
+        public void addGroup(RamAccountingContext ramAccountingContext) {
+            if (size == states.length) {
+                states = Arrays.copyOf(states, ArrayUtil.oversize(size + 1, RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+            }
+            states[size] = function.newState(ramAccountingContext);
+            size++;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void iterate(RamAccountingContext ramAccountingContext, int groupId, Input... args) {
+            states[groupId] = function.iterate(ramAccountingContext, (T) states[groupId], args);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void reduce(RamAccountingContext ramAccountingContext, int groupId, Object partialState) {
+            states[groupId] = function.reduce(ramAccountingContext, (T) states[groupId], (T) partialState);
+        }
+
+        @Override
+        public Object partialState(int groupId) {
+            return states[groupId];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object terminatePartial(RamAccountingContext ramAccountingContext, int groupId) {
+            return function.terminatePartial(ramAccountingContext, (T) states[groupId]);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.metadata.BaseFunctionResolver;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Signature;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import java.util.List;
+
+/**
+ * Estimates the number of distinct values using a {@link HyperLogLogState}.
+ * Unlike {@code count(distinct x)}, which collects all distinct values in a set,
+ * the memory used per group is fixed and only depends on the precision (optional second argument).
+ */
+class ApproxCountDistinctAggregation extends AggregationFunction<HyperLogLogState, Long> {
+
+    static final String NAME = "approx_count_distinct";
+
+    static {
+        DataTypes.register(HyperLogLogStateType.ID, HyperLogLogStateType.INSTANCE);
+    }
+
+    public static void register(AggregationImplModule mod) {
+        mod.register(NAME, new Resolver());
+    }
+
+    private static class Resolver extends BaseFunctionResolver {
+
+        private static final Signature.ArgMatcher PRIMITIVE = Signature.ArgMatcher.of(DataTypes.PRIMITIVE_TYPES::contains);
+        private static final Signature.SignatureOperator WITHOUT_PRECISION = Signature.of(PRIMITIVE);
+        private static final Signature.SignatureOperator WITH_PRECISION = Signature.of(PRIMITIVE, Signature.ArgMatcher.INTEGER);
+
+        Resolver() {
+            super(Signature.numArgs(1, 2).and(
+                dataTypes -> dataTypes.size() == 1 ? WITHOUT_PRECISION.apply(dataTypes) : WITH_PRECISION.apply(dataTypes)));
+        }
+
+        @Override
+        public FunctionImplementation getForTypes(List<DataType> dataTypes) throws IllegalArgumentException {
+            return new ApproxCountDistinctAggregation(
+                new FunctionInfo(new FunctionIdent(NAME, dataTypes), DataTypes.LONG, FunctionInfo.Type.AGGREGATE));
+        }
+    }
+
+    private final FunctionInfo info;
+
+    private ApproxCountDistinctAggregation(FunctionInfo info) {
+        this.info = info;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+
+    @Override
+    public HyperLogLogState newState(RamAccountingContext ramAccountingContext) {
+        // the registers are allocated on the first value as the precision is an argument
+        return new HyperLogLogState();
+    }
+
+    @Override
+    public HyperLogLogState iterate(RamAccountingContext ramAccountingContext, HyperLogLogState state, Input... args) {
+        Object value = args[0].value();
+        if (value == null) {
+            return state;
+        }
+        if (!state.isInitialized()) {
+            int precision = HyperLogLogState.DEFAULT_PRECISION;
+            if (args.length > 1) {
+                Integer precisionValue = DataTypes.INTEGER.value(args[1].value());
+                if (precisionValue == null) {
+                    throw new IllegalArgumentException("precision must not be null");
+                }
+                precision = precisionValue;
+            }
+            state.init(precision);
+            ramAccountingContext.addBytes(HyperLogLogState.sizeInBytes(precision));
+        }
+        state.add(value);
+        return state;
+    }
+
+    @Override
+    public HyperLogLogState reduce(RamAccountingContext ramAccountingContext,
+                                   HyperLogLogState state1,
+                                   HyperLogLogState state2) {
+        if (!state1.isInitialized()) {
+            return state2;
+        }
+        if (state2.isInitialized()) {
+            state1.merge(state2);
+        }
+        return state1;
+    }
+
+    @Override
+    public Long terminatePartial(RamAccountingContext ramAccountingContext, HyperLogLogState state) {
+        if (!state.isInitialized()) {
+            return 0L;
+        }
+        return state.cardinality();
+    }
+
+    @Override
+    public DataType partialType() {
+        return HyperLogLogStateType.INSTANCE;
+    }
+}
@@ -28,6 +28,7 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.data.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypeFactory;
 import io.crate.types.DataTypes;
@@ -193,6 +194,11 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
         return new AverageState();
     }
 
+    @Override
+    public ColumnarStates newColumnarStates() {
+        return new AverageStates();
+    }
+
     @Override
     public DataType partialType() {
         return AverageStateType.INSTANCE;
@@ -202,4 +208,56 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
     public FunctionInfo info() {
         return info;
     }
+
+    private static class AverageStates extends ColumnarStates {
+
+        private double[] sums = new double[16];
+        private long[] counts = new long[16];
+        private int size = 0;
+
+        @Override
+        public void addGroup(RamAccountingContext ramAccountingContext) {
+            ramAccountingContext.addBytes(AverageStateType.INSTANCE.fixedSize());
+            sums = grow(sums, size);
+            counts = grow(counts, size);
+            sums[size] = 0d;
+            counts[size] = 0L;
+            size++;
+        }
+
+        @Override
+        public void iterate(RamAccountingContext ramAccountingContext, int groupId, Input... args) {
+            Number value = (Number) args[0].value();
+            if (value != null) {
+                counts[groupId]++;
+                sums[groupId] += value.doubleValue();
+            }
+        }
+
+        @Override
+        public void reduce(RamAccountingContext ramAccountingContext, int groupId, Object partialState) {
+            AverageState state = (AverageState) partialState;
+            if (state != null) {
+                counts[groupId] += state.count;
+                sums[groupId] += state.sum;
+            }
+        }
+
+        @Override
+        public Object partialState(int groupId) {
+            AverageState state = new AverageState();
+            state.sum = sums[groupId];
+            state.count = counts[groupId];
+            return state;
+        }
+
+        @Override
+        public Object terminatePartial(RamAccountingContext ramAccountingContext, int groupId) {
+            long count = counts[groupId];
+            if (count > 0) {
+                return sums[groupId] / count;
+            }
+            return null;
+        }
+    }
 }
@@ -31,6 +31,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.metadata.*;
 import io.crate.data.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypeFactory;
 import io.crate.types.DataTypes;
@@ -121,6 +122,11 @@ public class CountAggregation extends AggregationFunction<CountAggregation.LongS
         return LongStateType.INSTANCE;
     }
 
+    @Override
+    public ColumnarStates newColumnarStates() {
+        return new CountStates(hasArgs);
+    }
+
     @Override
     public LongState reduce(RamAccountingContext ramAccountingContext, LongState state1, LongState state2) {
         return state1.merge(state2);
@@ -131,6 +137,47 @@ public class CountAggregation extends AggregationFunction<CountAggregation.LongS
         return state.value;
     }
 
+    private static class CountStates extends ColumnarStates {
+
+        private final boolean hasArgs;
+        private long[] counts = new long[16];
+        private int size = 0;
+
+        CountStates(boolean hasArgs) {
+            this.hasArgs = hasArgs;
+        }
+
+        @Override
+        public void addGroup(RamAccountingContext ramAccountingContext) {
+            ramAccountingContext.addBytes(LongStateType.INSTANCE.fixedSize());
+            counts = grow(counts, size);
+            counts[size] = 0L;
+            size++;
+        }
+
+        @Override
+        public void iterate(RamAccountingContext ramAccountingContext, int groupId, Input... args) {
+            if (!hasArgs || args[0].value() != null) {
+                counts[groupId]++;
+            }
+        }
+
+        @Override
+        public void reduce(RamAccountingContext ramAccountingContext, int groupId, Object partialState) {
+            counts[groupId] += ((LongState) partialState).value;
+        }
+
+        @Override
+        public Object partialState(int groupId) {
+            return new LongState(counts[groupId]);
+        }
+
+        @Override
+        public Object terminatePartial(RamAccountingContext ramAccountingContext, int groupId) {
+            return counts[groupId];
+        }
+    }
+
     public static class LongState implements Comparable<CountAggregation.LongState> {
 
         long value = 0L;
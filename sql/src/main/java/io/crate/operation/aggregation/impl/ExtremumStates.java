@@ -0,0 +1,184 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.operation.aggregation.ColumnarStates;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FixedWidthType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+
+import javax.annotation.Nullable;
+import java.util.BitSet;
+import java.util.function.DoubleFunction;
+import java.util.function.LongFunction;
+
+/**
+ * Columnar states for {@link MinimumAggregation} and {@link MaximumAggregation} of numeric types.
+ * Integral values are stored as long, floating point values as double.
+ */
+abstract class ExtremumStates extends ColumnarStates {
+
+    /**
+     * @param max true to keep the greatest value, false to keep the smallest value
+     * @return the states or null if the type isn't numeric
+     */
+    @Nullable
+    static ColumnarStates forType(DataType type, boolean max) {
+        switch (type.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+                return new LongStates(type, max, v -> v);
+            case IntegerType.ID:
+                return new LongStates(type, max, v -> (int) v);
+            case ShortType.ID:
+                return new LongStates(type, max, v -> (short) v);
+            case ByteType.ID:
+                return new LongStates(type, max, v -> (byte) v);
+            case DoubleType.ID:
+                return new DoubleStates(type, max, v -> v);
+            case FloatType.ID:
+                return new DoubleStates(type, max, v -> (float) v);
+
+            default:
+                return null;
+        }
+    }
+
+    private final int fixedSize;
+    private final boolean max;
+    final BitSet hasValue = new BitSet();
+    int size = 0;
+
+    private ExtremumStates(DataType type, boolean max) {
+        this.fixedSize = ((FixedWidthType) type).fixedSize();
+        this.max = max;
+    }
+
+    @Override
+    public void addGroup(RamAccountingContext ramAccountingContext) {
+        ramAccountingContext.addBytes(fixedSize);
+        growValues();
+        size++;
+    }
+
+    abstract void growValues();
+
+    abstract void update(int groupId, Number value);
+
+    @Override
+    public void iterate(RamAccountingContext ramAccountingContext, int groupId, Input... args) {
+        reduce(ramAccountingContext, groupId, args[0].value());
+    }
+
+    @Override
+    public void reduce(RamAccountingContext ramAccountingContext, int groupId, Object partialState) {
+        if (partialState != null) {
+            update(groupId, (Number) partialState);
+        }
+    }
+
+    @Override
+    public Object terminatePartial(RamAccountingContext ramAccountingContext, int groupId) {
+        return partialState(groupId);
+    }
+
+    /**
+     * @return true if {@code compare} (the result of comparing the new value with the current value) means that
+     *         the new value must replace the current value.
+     */
+    boolean replaces(int compare) {
+        return max ? compare > 0 : compare < 0;
+    }
+
+    private static class LongStates extends ExtremumStates {
+
+        private final LongFunction<Object> fromLong;
+        private long[] values = new long[16];
+
+        LongStates(DataType type, boolean max, LongFunction<Object> fromLong) {
+            super(type, max);
+            this.fromLong = fromLong;
+        }
+
+        @Override
+        void growValues() {
+            values = grow(values, size);
+        }
+
+        @Override
+        void update(int groupId, Number value) {
+            long longValue = value.longValue();
+            if (!hasValue.get(groupId)) {
+                values[groupId] = longValue;
+                hasValue.set(groupId);
+            } else if (replaces(Long.compare(longValue, values[groupId]))) {
+                values[groupId] = longValue;
+            }
+        }
+
+        @Override
+        public Object partialState(int groupId) {
+            return hasValue.get(groupId) ? fromLong.apply(values[groupId]) : null;
+        }
+    }
+
+    private static class DoubleStates extends ExtremumStates {
+
+        private final DoubleFunction<Object> fromDouble;
+        private double[] values = new double[16];
+
+        DoubleStates(DataType type, boolean max, DoubleFunction<Object> fromDouble) {
+            super(type, max);
+            this.fromDouble = fromDouble;
+        }
+
+        @Override
+        void growValues() {
+            values = grow(values, size);
+        }
+
+        @Override
+        void update(int groupId, Number value) {
+            double doubleValue = value.doubleValue();
+            if (!hasValue.get(groupId)) {
+                values[groupId] = doubleValue;
+                hasValue.set(groupId);
+            } else if (replaces(Double.compare(doubleValue, values[groupId]))) {
+                values[groupId] = doubleValue;
+            }
+        }
+
+        @Override
+        public Object partialState(int groupId) {
+            return hasValue.get(groupId) ? fromDouble.apply(values[groupId]) : null;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * HyperLogLog sketch using 64 bit hashes (as HyperLogLog++ does), so no large range correction is necessary.
+ * Small cardinalities are estimated using linear counting.
+ * <p>
+ * The sketch has a fixed size of 2^precision bytes. Sketches of the same precision are merged by taking
+ * the maximum of each register, so the states can be reduced across nodes without loss.
+ */
+class HyperLogLogState {
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+    static final int DEFAULT_PRECISION = 14;
+
+    private static final long SEED = 0;
+
+    private final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+    private int precision;
+    private byte[] registers;
+
+    /**
+     * Creates an empty state; it must be initialized using {@link #init(int)} before values can be added.
+     */
+    HyperLogLogState() {
+    }
+
+    HyperLogLogState(int precision) {
+        init(precision);
+    }
+
+    void init(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "precision must be >= %d and <= %d, got %d", MIN_PRECISION, MAX_PRECISION, precision));
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    boolean isInitialized() {
+        return registers != null;
+    }
+
+    int precision() {
+        return precision;
+    }
+
+    /**
+     * @return the number of bytes used by the registers of a state with the given precision
+     */
+    static long sizeInBytes(int precision) {
+        return 1L << precision;
+    }
+
+    void add(Object value) {
+        if (value instanceof BytesRef) {
+            BytesRef bytes = (BytesRef) value;
+            MurmurHash3.hash128(bytes.bytes, bytes.offset, bytes.length, SEED, hash);
+            addHash(hash.h1);
+        } else if (value instanceof Double) {
+            addHash(mix64(Double.doubleToLongBits((Double) value)));
+        } else if (value instanceof Float) {
+            addHash(mix64(Float.floatToIntBits((Float) value)));
+        } else if (value instanceof Number) {
+            addHash(mix64(((Number) value).longValue()));
+        } else if (value instanceof Boolean) {
+            addHash(mix64((Boolean) value ? 1L : 0L));
+        } else {
+            throw new IllegalArgumentException("Cannot count distinct values of type " + value.getClass().getSimpleName());
+        }
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the bit set at (precision - 1) limits the rank to 64 - precision + 1
+        long w = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(w) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merges the other state into this state; both states must have the same precision.
+     */
+    void merge(HyperLogLogState other) {
+        if (precision != other.precision) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Cannot merge states with different precisions: %d and %d", precision, other.precision));
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * Finalization mix of MurmurHash3 to spread the bits of numeric values
+     */
+    private static long mix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    static void write(HyperLogLogState state, StreamOutput out) throws IOException {
+        if (state.isInitialized()) {
+            out.writeVInt(state.precision);
+            out.writeBytes(state.registers);
+        } else {
+            out.writeVInt(0);
+        }
+    }
+
+    static HyperLogLogState read(StreamInput in) throws IOException {
+        int precision = in.readVInt();
+        if (precision == 0) {
+            return new HyperLogLogState();
+        }
+        HyperLogLogState state = new HyperLogLogState(precision);
+        in.readBytes(state.registers, 0, state.registers.length);
+        return state;
+    }
+}
@@ -30,6 +30,7 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.data.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.FixedWidthType;
@@ -101,6 +102,11 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
             return null;
         }
 
+        @Override
+        public ColumnarStates newColumnarStates() {
+            return ExtremumStates.forType(partialType(), false);
+        }
+
         @Override
         public Comparable reduce(RamAccountingContext ramAccountingContext, Comparable state1, Comparable state2) {
             if (state1 == null) {
@@ -27,10 +27,12 @@ import io.crate.data.Input;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 
+import java.util.BitSet;
 import java.util.Collections;
 
 public class SumAggregation extends AggregationFunction<Double, Double> {
@@ -81,6 +83,11 @@ public class SumAggregation extends AggregationFunction<Double, Double> {
         return null;
     }
 
+    @Override
+    public ColumnarStates newColumnarStates() {
+        return new SumStates();
+    }
+
     @Override
     public DataType partialType() {
         return info.returnType();
@@ -90,4 +97,51 @@ public class SumAggregation extends AggregationFunction<Double, Double> {
     public FunctionInfo info() {
         return info;
     }
+
+    private static class SumStates extends ColumnarStates {
+
+        private final BitSet hasValue = new BitSet();
+        private double[] sums = new double[16];
+        private int size = 0;
+
+        @Override
+        public void addGroup(RamAccountingContext ramAccountingContext) {
+            ramAccountingContext.addBytes(DataTypes.DOUBLE.fixedSize());
+            sums = grow(sums, size);
+            sums[size] = 0d;
+            size++;
+        }
+
+        @Override
+        public void iterate(RamAccountingContext ramAccountingContext, int groupId, Input... args) {
+            add(groupId, DataTypes.DOUBLE.value(args[0].value()));
+        }
+
+        @Override
+        public void reduce(RamAccountingContext ramAccountingContext, int groupId, Object partialState) {
+            add(groupId, (Double) partialState);
+        }
+
+        private void add(int groupId, Double value) {
+            if (value == null) {
+                return;
+            }
+            if (hasValue.get(groupId)) {
+                sums[groupId] += value;
+            } else {
+                sums[groupId] = value;
+                hasValue.set(groupId);
+            }
+        }
+
+        @Override
+        public Object partialState(int groupId) {
+            return hasValue.get(groupId) ? sums[groupId] : null;
+        }
+
+        @Override
+        public Object terminatePartial(RamAccountingContext ramAccountingContext, int groupId) {
+            return partialState(groupId);
+        }
+    }
 }
@@ -37,6 +37,7 @@ public class CollectOperationModule extends AbstractModule {
         bind(JobsLogService.class).asEagerSingleton();
         bind(JobsLogs.class).toProvider(JobsLogService.class);
         bind(ShardCollectSource.class).asEagerSingleton();
+        bind(ShardResultCache.class).asEagerSingleton();
         bind(SystemCollectSource.class).asEagerSingleton();
     }
 }
@@ -29,6 +29,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchConsumer;
 import io.crate.data.ListenableBatchConsumer;
 import io.crate.jobs.AbstractExecutionSubContext;
+import io.crate.jobs.PhaseProfile;
 import io.crate.metadata.RowGranularity;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.RoutedCollectPhase;
@@ -52,6 +53,8 @@ public class JobCollectContext extends AbstractExecutionSubContext {
     private final RamAccountingContext queryPhaseRamAccountingContext;
     private final ListenableBatchConsumer consumer;
     private final SharedShardContexts sharedShardContexts;
+    @Nullable
+    private final PhaseProfile phaseProfile;
 
     private final IntObjectHashMap<Engine.Searcher> searchers = new IntObjectHashMap<>();
     private final Object subContextLock = new Object();
@@ -63,8 +66,10 @@ public class JobCollectContext extends AbstractExecutionSubContext {
                              MapSideDataCollectOperation collectOperation,
                              RamAccountingContext queryPhaseRamAccountingContext,
                              BatchConsumer consumer,
-                             SharedShardContexts sharedShardContexts) {
+                             SharedShardContexts sharedShardContexts,
+                             @Nullable PhaseProfile phaseProfile) {
         super(collectPhase.phaseId(), LOGGER);
+        this.phaseProfile = phaseProfile;
         this.collectPhase = collectPhase;
         this.collectOperation = collectOperation;
         this.queryPhaseRamAccountingContext = queryPhaseRamAccountingContext;
@@ -92,6 +97,16 @@ public class JobCollectContext extends AbstractExecutionSubContext {
         }
     }
 
+    /**
+     * @return the searcher added with {@code searcherId} or null if there is none
+     */
+    @Nullable
+    public Engine.Searcher searcher(int searcherId) {
+        synchronized (subContextLock) {
+            return searchers.get(searcherId);
+        }
+    }
+
     @Override
     public void cleanup() {
         closeSearchContexts();
@@ -100,7 +115,7 @@ public class JobCollectContext extends AbstractExecutionSubContext {
 
     @Override
     protected void innerClose(@Nullable Throwable throwable) {
-        setBytesUsed(queryPhaseRamAccountingContext.totalBytes());
+        setBytesUsed(queryPhaseRamAccountingContext);
     }
 
     private void closeSearchContexts() {
@@ -117,7 +132,7 @@ public class JobCollectContext extends AbstractExecutionSubContext {
         if (collector != null) {
             collector.kill(throwable);
         }
-        setBytesUsed(queryPhaseRamAccountingContext.totalBytes());
+        setBytesUsed(queryPhaseRamAccountingContext);
     }
 
     @Override
@@ -125,6 +140,14 @@ public class JobCollectContext extends AbstractExecutionSubContext {
         return collectPhase.name();
     }
 
+    /**
+     * @return the profile of the collect phase if the job is profiled, otherwise null
+     */
+    @Nullable
+    public PhaseProfile phaseProfile() {
+        return phaseProfile;
+    }
+
 
     @Override
     public String toString() {
@@ -21,6 +21,7 @@
 
 package io.crate.operation.collect;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.crate.action.job.SharedShardContext;
 import io.crate.action.sql.query.LuceneSortGenerator;
 import io.crate.analyze.symbol.Symbols;
@@ -43,6 +44,7 @@ import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.planner.node.dql.RoutedCollectPhase;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
@@ -52,6 +54,10 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Supplier;
 
 public class LuceneShardCollectorProvider extends ShardCollectorProvider {
@@ -88,38 +94,89 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     protected CrateCollector.Builder getBuilder(RoutedCollectPhase collectPhase,
                                                 boolean requiresScroll,
                                                 JobCollectContext jobCollectContext) {
+        return getBuilders(collectPhase, requiresScroll, jobCollectContext, 1).get(0);
+    }
+
+    /**
+     * Splits the segments of the shard into up to {@code maxConcurrency} slices of about the same number of docs.
+     * All slices share the same searcher but use their own query, expressions and collector context,
+     * as those are stateful.
+     */
+    @Override
+    protected List<CrateCollector.Builder> getBuilders(RoutedCollectPhase collectPhase,
+                                                       boolean requiresScroll,
+                                                       JobCollectContext jobCollectContext,
+                                                       int maxConcurrency) {
         ShardId shardId = indexShard.shardId();
         SharedShardContext sharedShardContext = jobCollectContext.sharedShardContexts().getOrCreateContext(shardId);
         Engine.Searcher searcher = sharedShardContext.acquireSearcher();
         IndexShard indexShard = sharedShardContext.indexShard();
         try {
-            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
-                collectPhase.whereClause(),
-                indexShard.mapperService(),
-                sharedShardContext.indexService().newQueryShardContext(shardId.getId(), searcher.reader(), System::currentTimeMillis),
-                indexShard.indexFieldDataService(),
-                sharedShardContext.indexService().cache()
-            );
-            jobCollectContext.addSearcher(sharedShardContext.readerId(), searcher);
-            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
-                docInputFactory.extractImplementations(collectPhase);
+            List<LeafReaderContext> leaves = searcher.searcher().getTopReaderContext().leaves();
+            List<List<LeafReaderContext>> slices = slices(leaves, maxConcurrency);
+            List<CrateCollector.Builder> builders = new ArrayList<>(slices.size());
+            for (List<LeafReaderContext> slice : slices) {
+                LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+                    collectPhase.whereClause(),
+                    indexShard.mapperService(),
+                    sharedShardContext.indexService().newQueryShardContext(
+                        shardId.getId(), searcher.reader(), System::currentTimeMillis),
+                    indexShard.indexFieldDataService(),
+                    sharedShardContext.indexService().cache()
+                );
+                InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+                    docInputFactory.extractImplementations(collectPhase);
 
-            return new CrateDocCollectorBuilder(
-                searcher.searcher(),
-                queryContext.query(),
-                queryContext.minScore(),
-                Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
-                getCollectorContext(sharedShardContext.readerId(), docCtx),
-                jobCollectContext.queryPhaseRamAccountingContext(),
-                docCtx.topLevelInputs(),
-                docCtx.expressions()
-            );
+                builders.add(new CrateDocCollectorBuilder(
+                    searcher.searcher(),
+                    queryContext.query(),
+                    queryContext.minScore(),
+                    Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
+                    getCollectorContext(sharedShardContext.readerId(), docCtx),
+                    jobCollectContext.queryPhaseRamAccountingContext(),
+                    docCtx.topLevelInputs(),
+                    docCtx.expressions(),
+                    slice
+                ));
+            }
+            jobCollectContext.addSearcher(sharedShardContext.readerId(), searcher);
+            return builders;
         } catch (Throwable t) {
             searcher.close();
             throw t;
         }
     }
 
+    /**
+     * Distributes the leaves to up to {@code maxSlices} slices, always adding the next largest leaf to the
+     * slice with the least docs. The result contains at least one, possibly empty, slice.
+     */
+    @VisibleForTesting
+    static List<List<LeafReaderContext>> slices(List<LeafReaderContext> leaves, int maxSlices) {
+        int numSlices = Math.max(1, Math.min(maxSlices, leaves.size()));
+        if (numSlices == 1) {
+            return Collections.singletonList(leaves);
+        }
+        List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
+        sortedLeaves.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+        List<List<LeafReaderContext>> slices = new ArrayList<>(numSlices);
+        long[] sliceDocs = new long[numSlices];
+        for (int i = 0; i < numSlices; i++) {
+            slices.add(new ArrayList<>());
+        }
+        for (LeafReaderContext leaf : sortedLeaves) {
+            int smallest = 0;
+            for (int i = 1; i < numSlices; i++) {
+                if (sliceDocs[i] < sliceDocs[smallest]) {
+                    smallest = i;
+                }
+            }
+            slices.get(smallest).add(leaf);
+            sliceDocs[smallest] += leaf.reader().maxDoc();
+        }
+        return slices;
+    }
+
     @Override
     public OrderedDocCollector getOrderedCollector(RoutedCollectPhase phase,
                                                    SharedShardContext sharedShardContext,
@@ -35,6 +35,7 @@ import io.crate.metadata.RowGranularity;
 import io.crate.operation.InputFactory;
 import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.compiler.ExpressionCompiler;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
@@ -48,7 +49,9 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class ShardCollectorProvider {
@@ -65,7 +68,7 @@ public abstract class ShardCollectorProvider {
                            Settings settings,
                            TransportActionProvider transportActionProvider,
                            IndexShard indexShard) {
-        this.inputFactory = new InputFactory(functions);
+        this.inputFactory = new InputFactory(functions, ExpressionCompiler.COMPILE_EXPRESSIONS_SETTING.get(settings));
         this.shardNormalizer = new EvaluatingNormalizer(
             functions,
             RowGranularity.SHARD,
@@ -120,23 +123,39 @@ public abstract class ShardCollectorProvider {
     public CrateCollector.Builder getCollectorBuilder(RoutedCollectPhase collectPhase,
                                                       boolean requiresScroll,
                                                       JobCollectContext jobCollectContext) throws Exception {
+        return getCollectorBuilders(collectPhase, requiresScroll, jobCollectContext, 1).get(0);
+    }
+
+    /**
+     * Create up to {@code maxConcurrency} CrateCollector.Builders which collect disjoint parts of the shard and
+     * can be consumed concurrently. Each of them has its own shard-level projectors, so the shard-level
+     * projections must produce partial results which are merged by the node-level projections.
+     *
+     * @see #getCollectorBuilder(RoutedCollectPhase, boolean, JobCollectContext)
+     */
+    public List<CrateCollector.Builder> getCollectorBuilders(RoutedCollectPhase collectPhase,
+                                                             boolean requiresScroll,
+                                                             JobCollectContext jobCollectContext,
+                                                             int maxConcurrency) throws Exception {
         assert collectPhase.orderBy() ==
                null : "getDocCollector shouldn't be called if there is an orderBy on the collectPhase";
         RoutedCollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer, null);
 
-        final CrateCollector.Builder builder;
+        final List<CrateCollector.Builder> builders;
         if (normalizedCollectNode.whereClause().noMatch()) {
-            builder = RowsCollector.emptyBuilder(collectPhase.toCollect().size());
+            builders = Collections.singletonList(RowsCollector.emptyBuilder(collectPhase.toCollect().size()));
         } else {
             assert normalizedCollectNode.maxRowGranularity() == RowGranularity.DOC : "granularity must be DOC";
-            builder = getBuilder(normalizedCollectNode, requiresScroll, jobCollectContext);
+            builders = getBuilders(normalizedCollectNode, requiresScroll, jobCollectContext, maxConcurrency);
         }
 
         Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
         if (shardProjections.isEmpty()) {
-            return builder;
-        } else {
-            return new CrateCollector.Builder() {
+            return builders;
+        }
+        List<CrateCollector.Builder> projectingBuilders = new ArrayList<>(builders.size());
+        for (CrateCollector.Builder builder : builders) {
+            projectingBuilders.add(new CrateCollector.Builder() {
                 @Override
                 public CrateCollector build(BatchConsumer batchConsumer) {
                     return builder.build(batchConsumer);
@@ -152,8 +171,20 @@ public abstract class ShardCollectorProvider {
                         projectorFactory
                     );
                 }
-            };
+            });
         }
+        return projectingBuilders;
+    }
+
+    /**
+     * Create builders for collectors which collect disjoint parts of the shard.
+     * By default the shard isn't split and a single builder is returned.
+     */
+    protected List<CrateCollector.Builder> getBuilders(RoutedCollectPhase collectPhase,
+                                                       boolean requiresScroll,
+                                                       JobCollectContext jobCollectContext,
+                                                       int maxConcurrency) {
+        return Collections.singletonList(getBuilder(collectPhase, requiresScroll, jobCollectContext));
     }
 
     protected abstract CrateCollector.Builder getBuilder(RoutedCollectPhase collectPhase,
@@ -0,0 +1,427 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.analyze.symbol.Symbols;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.data.BatchConsumer;
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowBridging;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.doc.DocSysColumns;
+import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.projection.AggregationProjection;
+import io.crate.planner.projection.GroupProjection;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.projection.Projections;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.ShardId;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Node-wide cache for the results of the shard-level projections of collect phases.
+ * <p>
+ * Only phases which aggregate on shard level are cached, their results are small compared to the number of
+ * collected documents. Entries are keyed by a fingerprint of the phase and by the version of the index reader
+ * of the shard, so a cached result is only used as long as the shard hasn't been refreshed.
+ * Outdated entries are not invalidated explicitly but evicted once the size limit is reached.
+ * <p>
+ * The results are stored in serialized form because the rows of partial aggregations contain mutable states.
+ * Their size is bounded by {@link #RESULT_CACHE_SIZE_SETTING} and accounted on the dedicated
+ * {@link CrateCircuitBreakerService#RESULT_CACHE} breaker, so that cached results count towards the memory limit
+ * of the node without taking up the limit of the query breaker. Results which would trip the breaker are not cached.
+ */
+@Singleton
+public class ShardResultCache {
+
+    private static final Logger LOGGER = Loggers.getLogger(ShardResultCache.class);
+
+    public static final Setting<Boolean> RESULT_CACHE_ENABLED_SETTING = Setting.boolSetting(
+        "node.sql.result_cache.enabled",
+        false,
+        Setting.Property.NodeScope);
+
+    public static final Setting<ByteSizeValue> RESULT_CACHE_SIZE_SETTING = Setting.memorySizeSetting(
+        "node.sql.result_cache.size",
+        "1%",
+        Setting.Property.NodeScope);
+
+    private static final Predicate<Symbol> IS_NON_DETERMINISTIC = s -> s instanceof Function &&
+        !((Function) s).info().features().contains(FunctionInfo.Feature.DETERMINISTIC);
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final CircuitBreaker breaker;
+    private final Cache<Key, CachedResult> cache;
+
+    @Inject
+    public ShardResultCache(Settings settings, CrateCircuitBreakerService breakerService) {
+        this(RESULT_CACHE_ENABLED_SETTING.get(settings),
+            RESULT_CACHE_SIZE_SETTING.get(settings).getBytes(),
+            breakerService.getBreaker(CrateCircuitBreakerService.RESULT_CACHE));
+    }
+
+    @VisibleForTesting
+    ShardResultCache(boolean enabled, long maxBytes, CircuitBreaker breaker) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.breaker = breaker;
+        RemovalListener<Key, CachedResult> onRemoval =
+            notification -> breaker.addWithoutBreaking(-notification.getValue().weight);
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .<Key, CachedResult>weigher((key, value) -> value.weight)
+            .removalListener(onRemoval)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns true if the result of the shard-level projections of the given phase would be cached.
+     */
+    public boolean caches(RoutedCollectPhase collectPhase) {
+        return enabled && isCacheable(collectPhase);
+    }
+
+    /**
+     * Returns a builder which serves the result of the shard-level projections from the cache
+     * or which adds the result to the cache once it has been consumed completely.
+     * If the phase can't be cached the given builder is returned as is.
+     *
+     * @param searcher the searcher used by {@code builder}; its reader version is part of the key, so the result
+     *                 is cached under the version of the snapshot it was actually collected from.
+     *                 If null (no searcher has been acquired) the result is not cached.
+     */
+    public CrateCollector.Builder cachingBuilder(ShardId shardId,
+                                                 @Nullable Engine.Searcher searcher,
+                                                 RoutedCollectPhase collectPhase,
+                                                 CrateCollector.Builder builder) throws IOException {
+        if (searcher == null || !caches(collectPhase)) {
+            return builder;
+        }
+        return cachingBuilder(shardId, searcher.getDirectoryReader().getVersion(), collectPhase, builder);
+    }
+
+    @VisibleForTesting
+    CrateCollector.Builder cachingBuilder(ShardId shardId,
+                                          long readerVersion,
+                                          RoutedCollectPhase collectPhase,
+                                          CrateCollector.Builder builder) throws IOException {
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
+        List<? extends Symbol> outputs = lastOf(shardProjections).outputs();
+        Key key = new Key(shardId, readerVersion, fingerprint(collectPhase, shardProjections));
+        CachedResult cachedResult = cache.getIfPresent(key);
+        if (cachedResult != null) {
+            return RowsCollector.builder(cachedResult.bucket, outputs.size());
+        }
+        Streamer<?>[] streamers = Symbols.streamerArray(outputs);
+        return new CrateCollector.Builder() {
+            @Override
+            public CrateCollector build(BatchConsumer batchConsumer) {
+                return builder.build(batchConsumer);
+            }
+
+            @Override
+            public BatchConsumer applyProjections(BatchConsumer consumer) {
+                return builder.applyProjections(new RecordingConsumer(consumer, key, streamers));
+            }
+        };
+    }
+
+    @VisibleForTesting
+    static boolean isCacheable(RoutedCollectPhase collectPhase) {
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
+        if (shardProjections.isEmpty()) {
+            return false;
+        }
+        for (Projection projection : shardProjections) {
+            if (!(projection instanceof GroupProjection || projection instanceof AggregationProjection)) {
+                return false;
+            }
+        }
+        if (Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.FETCHID)) {
+            return false;
+        }
+        for (Symbol symbol : collectPhase.toCollect()) {
+            if (SymbolVisitors.any(IS_NON_DETERMINISTIC, symbol)) {
+                return false;
+            }
+        }
+        return !collectPhase.whereClause().hasQuery() ||
+               !SymbolVisitors.any(IS_NON_DETERMINISTIC, collectPhase.whereClause().query());
+    }
+
+    private static Projection lastOf(Collection<? extends Projection> projections) {
+        Projection last = null;
+        for (Projection projection : projections) {
+            last = projection;
+        }
+        return last;
+    }
+
+    /**
+     * The parts of the phase which determine the result of the shard-level projections;
+     * the job id and the routing differ between executions of the same statement.
+     */
+    private static BytesRef fingerprint(RoutedCollectPhase collectPhase,
+                                        Collection<? extends Projection> shardProjections) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        Symbols.toStream(collectPhase.toCollect(), out);
+        collectPhase.whereClause().writeTo(out);
+        out.writeVInt(shardProjections.size());
+        for (Projection projection : shardProjections) {
+            Projection.toStream(projection, out);
+        }
+        return out.bytes().toBytesRef();
+    }
+
+    private void put(Key key, StreamBucket bucket, int bytesSize) {
+        int weight = bytesSize + key.fingerprint.length;
+        if (weight > maxBytes) {
+            LOGGER.debug("Result of shard {} not cached: {} bytes exceed the size of the cache", key.shardId, weight);
+            return;
+        }
+        try {
+            breaker.addEstimateBytesAndMaybeBreak(weight, CrateCircuitBreakerService.RESULT_CACHE);
+        } catch (CircuitBreakingException e) {
+            LOGGER.debug("Result of shard {} not cached: {}", key.shardId, e.getMessage());
+            return;
+        }
+        cache.put(key, new CachedResult(bucket, weight));
+    }
+
+    public Stats stats() {
+        CacheStats stats = cache.stats();
+        long sizeInBytes = 0L;
+        for (CachedResult result : new ArrayList<>(cache.asMap().values())) {
+            sizeInBytes += result.weight;
+        }
+        return new Stats(
+            enabled, stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.size(), sizeInBytes);
+    }
+
+    @VisibleForTesting
+    void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Serializes the rows which pass through the iterator and adds them to the cache once the iterator is exhausted.
+     * Results of iterators which are only partially consumed, scrolled or killed are discarded.
+     */
+    private class RecordingConsumer implements BatchConsumer {
+
+        private final BatchConsumer delegate;
+        private final Key key;
+        private final Streamer<?>[] streamers;
+
+        RecordingConsumer(BatchConsumer delegate, Key key, Streamer<?>[] streamers) {
+            this.delegate = delegate;
+            this.key = key;
+            this.streamers = streamers;
+        }
+
+        @Override
+        public void accept(BatchIterator iterator, @Nullable Throwable failure) {
+            if (failure == null) {
+                delegate.accept(new RecordingBatchIterator(iterator, key, streamers), null);
+            } else {
+                delegate.accept(iterator, failure);
+            }
+        }
+
+        @Override
+        public boolean requiresScroll() {
+            return delegate.requiresScroll();
+        }
+    }
+
+    private class RecordingBatchIterator extends ForwardingBatchIterator {
+
+        private final BatchIterator delegate;
+        private final Key key;
+        private final StreamBucket.Builder builder;
+        private final Row row;
+        private boolean recording = true;
+
+        RecordingBatchIterator(BatchIterator delegate, Key key, Streamer<?>[] streamers) {
+            this.delegate = delegate;
+            this.key = key;
+            this.builder = new StreamBucket.Builder(streamers, null);
+            this.row = RowBridging.toRow(delegate.rowData());
+        }
+
+        @Override
+        protected BatchIterator delegate() {
+            return delegate;
+        }
+
+        @Override
+        public boolean moveNext() {
+            boolean hasNext = delegate.moveNext();
+            if (recording) {
+                try {
+                    if (hasNext) {
+                        builder.add(row);
+                    } else if (delegate.allLoaded()) {
+                        recording = false;
+                        put(key, builder.build(), builder.bytesSize());
+                    }
+                } catch (IOException e) {
+                    recording = false;
+                    LOGGER.debug("Couldn't record the result of shard " + key.shardId, e);
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public void moveToStart() {
+            recording = false;
+            delegate.moveToStart();
+        }
+
+        @Override
+        public void kill(@Nonnull Throwable throwable) {
+            recording = false;
+            delegate.kill(throwable);
+        }
+    }
+
+    private static class CachedResult {
+
+        private final StreamBucket bucket;
+        private final int weight;
+
+        CachedResult(StreamBucket bucket, int weight) {
+            this.bucket = bucket;
+            this.weight = weight;
+        }
+    }
+
+    private static class Key {
+
+        private final ShardId shardId;
+        private final long readerVersion;
+        private final BytesRef fingerprint;
+
+        Key(ShardId shardId, long readerVersion, BytesRef fingerprint) {
+            this.shardId = shardId;
+            this.readerVersion = readerVersion;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return readerVersion == key.readerVersion &&
+                   shardId.equals(key.shardId) &&
+                   fingerprint.equals(key.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shardId, readerVersion, fingerprint);
+        }
+    }
+
+    public static class Stats {
+
+        private final boolean enabled;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long entries;
+        private final long sizeInBytes;
+
+        Stats(boolean enabled, long hits, long misses, long evictions, long entries, long sizeInBytes) {
+            this.enabled = enabled;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        public boolean enabled() {
+            return enabled;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        public long misses() {
+            return misses;
+        }
+
+        public long evictions() {
+            return evictions;
+        }
+
+        public long entries() {
+            return entries;
+        }
+
+        public long sizeInBytes() {
+            return sizeInBytes;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import io.crate.operation.collect.BatchIteratorCollectorBridge;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 
@@ -45,6 +46,7 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
     private final RamAccountingContext ramAccountingContext;
     private final List<Input<?>> inputs;
     private final Collection<? extends LuceneCollectorExpression<?>> expressions;
+    private final List<LeafReaderContext> leaves;
 
     public CrateDocCollectorBuilder(IndexSearcher indexSearcher,
                                     Query query,
@@ -54,6 +56,22 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
                                     RamAccountingContext ramAccountingContext,
                                     List<Input<?>> inputs,
                                     Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher, query, minScore, doScores, collectorContext, ramAccountingContext, inputs, expressions,
+            indexSearcher.getTopReaderContext().leaves());
+    }
+
+    /**
+     * Creates a builder for a collector which only collects the given leaves of the reader of the indexSearcher.
+     */
+    public CrateDocCollectorBuilder(IndexSearcher indexSearcher,
+                                    Query query,
+                                    Float minScore,
+                                    boolean doScores,
+                                    CollectorContext collectorContext,
+                                    RamAccountingContext ramAccountingContext,
+                                    List<Input<?>> inputs,
+                                    Collection<? extends LuceneCollectorExpression<?>> expressions,
+                                    List<LeafReaderContext> leaves) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.minScore = minScore;
@@ -62,6 +80,7 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
         this.ramAccountingContext = ramAccountingContext;
         this.inputs = inputs;
         this.expressions = expressions;
+        this.leaves = leaves;
     }
 
     @Override
@@ -74,7 +93,8 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
             collectorContext,
             ramAccountingContext,
             inputs,
-            expressions
+            expressions,
+            leaves
         );
         return BatchIteratorCollectorBridge.newInstance(batchIterator, consumer);
     }
@@ -80,6 +80,23 @@ public class LuceneBatchIterator implements BatchIterator {
                         RamAccountingContext ramAccountingContext,
                         List<? extends Input<?>> inputs,
                         Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher, query, minScore, doScores, collectorContext, ramAccountingContext, inputs, expressions,
+            indexSearcher.getTopReaderContext().leaves());
+    }
+
+    /**
+     * @param leaves the leaves of the reader of the indexSearcher which should be iterated,
+     *               this allows to collect different leaves of one reader concurrently.
+     */
+    LuceneBatchIterator(IndexSearcher indexSearcher,
+                        Query query,
+                        @Nullable Float minScore,
+                        boolean doScores,
+                        CollectorContext collectorContext,
+                        RamAccountingContext ramAccountingContext,
+                        List<? extends Input<?>> inputs,
+                        Collection<? extends LuceneCollectorExpression<?>> expressions,
+                        List<LeafReaderContext> leaves) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.doScores = doScores || minScore != null;
@@ -89,7 +106,7 @@ public class LuceneBatchIterator implements BatchIterator {
         this.ramAccountingContext = ramAccountingContext;
         this.inputs = Columns.wrap(inputs);
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
-        leaves = indexSearcher.getTopReaderContext().leaves();
+        this.leaves = leaves;
         leavesIt = leaves.iterator();
     }
 
@@ -0,0 +1,117 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseAssertingBatchIterator;
+import io.crate.data.Columns;
+import io.crate.data.Input;
+import io.crate.operation.reference.file.LineContext;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * BatchIterator over the lines a client streams using COPY FROM STDIN.
+ * <p>
+ * Unlike {@link FileReadingIterator} it never blocks: {@link #moveNext()} only returns the lines which have already
+ * been received and {@link #loadNextBatch()} completes once more lines are available.
+ */
+public class CopyInBatchIterator implements BatchIterator {
+
+    private final CopyInStream stream;
+    private final Columns inputs;
+    private final Iterable<LineCollectorExpression<?>> collectorExpressions;
+    private final Executor executor;
+    private final LineContext lineContext = new LineContext();
+
+    private CopyInBatchIterator(CopyInStream stream,
+                                List<? extends Input<?>> inputs,
+                                Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                Executor executor) {
+        this.stream = stream;
+        this.inputs = Columns.wrap(inputs);
+        this.collectorExpressions = collectorExpressions;
+        this.executor = executor;
+        for (LineCollectorExpression<?> collectorExpression : collectorExpressions) {
+            collectorExpression.startCollect(lineContext);
+        }
+    }
+
+    /**
+     * @param executor used to continue the consumption of the iterator once more lines are available,
+     *                 so that the consumer doesn't run on the thread which receives the data.
+     */
+    public static BatchIterator newInstance(CopyInStream stream,
+                                            List<? extends Input<?>> inputs,
+                                            Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                            Executor executor) {
+        return new CloseAssertingBatchIterator(new CopyInBatchIterator(stream, inputs, collectorExpressions, executor));
+    }
+
+    @Override
+    public Columns rowData() {
+        return inputs;
+    }
+
+    @Override
+    public void moveToStart() {
+        throw new UnsupportedOperationException("COPY FROM STDIN cannot be repeated");
+    }
+
+    @Override
+    public boolean moveNext() {
+        byte[] line = stream.pollLine();
+        if (line == null) {
+            return false;
+        }
+        lineContext.rawSource(line);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        if (allLoaded()) {
+            return CompletableFutures.failedFuture(new IllegalStateException("All batches already loaded"));
+        }
+        return stream.awaitLines().thenApplyAsync(r -> r, executor);
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return stream.isExhausted();
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        stream.fail(throwable);
+    }
+}
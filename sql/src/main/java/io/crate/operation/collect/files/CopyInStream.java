@@ -0,0 +1,242 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import io.crate.concurrent.CompletableFutures;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static io.crate.exceptions.Exceptions.rethrowUnchecked;
+
+/**
+ * Buffer for the data a client sends as part of a COPY FROM STDIN statement.
+ * <p>
+ * The producer (the network thread) adds chunks of data using {@link #write(byte[])}, which are split into lines,
+ * and signals the end of the data with {@link #finish()} or {@link #fail(Throwable)}.
+ * The consumer retrieves the lines using {@link #pollLine()} and waits for more lines using {@link #awaitLines()};
+ * it never blocks.
+ * <p>
+ * If more than {@code maxBufferedBytes} are buffered, {@code autoRead} is called with {@code false} so that the
+ * producer stops reading from the network. Once the consumer has drained the buffer to less than half of the limit
+ * {@code autoRead} is called with {@code true}.
+ */
+public class CopyInStream {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ArrayDeque<byte[]> lines = new ArrayDeque<>();
+    private final long maxBufferedBytes;
+    private final Consumer<Boolean> autoRead;
+    private final Runnable onClose;
+
+    private byte[] partialLine = EMPTY;
+    /**
+     * number of bytes of the complete lines in {@link #lines}
+     */
+    private long bufferedBytes = 0;
+    private boolean paused = false;
+    private boolean finished = false;
+    private boolean closed = false;
+    @Nullable
+    private Throwable failure = null;
+    @Nullable
+    private CompletableFuture<Void> linesAvailable = null;
+
+    CopyInStream(long maxBufferedBytes, Consumer<Boolean> autoRead, Runnable onClose) {
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.autoRead = autoRead;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Adds a chunk of data. Lines may span several chunks.
+     * Chunks written after the stream has been finished or closed are discarded.
+     */
+    public void write(byte[] chunk) {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (closed || finished || failure != null) {
+                return;
+            }
+            int lineStart = 0;
+            for (int i = 0; i < chunk.length; i++) {
+                if (chunk[i] == '\n') {
+                    addLine(concat(partialLine, chunk, lineStart, i));
+                    partialLine = EMPTY;
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < chunk.length) {
+                partialLine = concat(partialLine, chunk, lineStart, chunk.length);
+            }
+            // only pause if the consumer is able to drain the buffer; a single line may exceed the limit
+            if (!paused && !lines.isEmpty() && bufferedBytes + partialLine.length >= maxBufferedBytes) {
+                paused = true;
+                autoRead.accept(false);
+            }
+            toComplete = lines.isEmpty() ? null : takeLinesAvailableFuture();
+        }
+        if (toComplete != null) {
+            toComplete.complete(null);
+        }
+    }
+
+    /**
+     * Marks the end of the data
+     */
+    public void finish() {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (partialLine.length > 0) {
+                addLine(partialLine);
+                partialLine = EMPTY;
+            }
+            finished = true;
+            toComplete = takeLinesAvailableFuture();
+        }
+        if (toComplete != null) {
+            toComplete.complete(null);
+        }
+    }
+
+    /**
+     * Fails the stream; the consumer receives the failure on the next {@link #pollLine()}
+     */
+    public void fail(Throwable t) {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (failure == null) {
+                failure = t;
+            }
+            discardBuffered();
+            toComplete = takeLinesAvailableFuture();
+        }
+        if (toComplete != null) {
+            toComplete.complete(null);
+        }
+    }
+
+    /**
+     * @return the next non-empty line or null if no complete line is buffered
+     */
+    @Nullable
+    public synchronized byte[] pollLine() {
+        if (failure != null) {
+            rethrowUnchecked(failure);
+        }
+        byte[] line = lines.poll();
+        if (line != null) {
+            bufferedBytes -= line.length;
+            if (lines.isEmpty() || bufferedBytes + partialLine.length < maxBufferedBytes / 2) {
+                resume();
+            }
+        }
+        return line;
+    }
+
+    /**
+     * @return true if all data has been received and consumed or if the stream failed
+     */
+    public synchronized boolean isExhausted() {
+        return failure != null || (finished && lines.isEmpty());
+    }
+
+    /**
+     * @return a future which is completed once a line can be polled or the stream is exhausted
+     */
+    public synchronized CompletableFuture<Void> awaitLines() {
+        if (closed) {
+            return CompletableFutures.failedFuture(new IllegalStateException("COPY FROM STDIN stream is closed"));
+        }
+        if (!lines.isEmpty() || finished || failure != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (linesAvailable == null) {
+            linesAvailable = new CompletableFuture<>();
+        }
+        return linesAvailable;
+    }
+
+    /**
+     * Discards all buffered data and unregisters the stream.
+     */
+    public void close() {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            discardBuffered();
+            toComplete = takeLinesAvailableFuture();
+        }
+        if (toComplete != null) {
+            toComplete.completeExceptionally(new IllegalStateException("COPY FROM STDIN stream is closed"));
+        }
+        onClose.run();
+    }
+
+    private void addLine(byte[] line) {
+        int length = line.length;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            return;
+        }
+        lines.add(length == line.length ? line : Arrays.copyOf(line, length));
+        bufferedBytes += length;
+    }
+
+    private void discardBuffered() {
+        lines.clear();
+        partialLine = EMPTY;
+        bufferedBytes = 0;
+        resume();
+    }
+
+    private void resume() {
+        if (paused) {
+            paused = false;
+            autoRead.accept(true);
+        }
+    }
+
+    @Nullable
+    private CompletableFuture<Void> takeLinesAvailableFuture() {
+        CompletableFuture<Void> future = linesAvailable;
+        linesAvailable = null;
+        return future;
+    }
+
+    private static byte[] concat(byte[] prefix, byte[] chunk, int from, int to) {
+        byte[] result = new byte[prefix.length + to - from];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        System.arraycopy(chunk, from, result, prefix.length, to - from);
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import org.elasticsearch.common.inject.Singleton;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the {@link CopyInStream}s of the COPY FROM STDIN statements running on this node.
+ * <p>
+ * A COPY FROM STDIN statement reads from the uri {@code stdin:///<streamId>}. The stream is registered
+ * by the session which receives the data from the client, using {@link #create(String, Consumer)},
+ * and is looked up by the collector using {@link #get(URI)}.
+ */
+@Singleton
+public class CopyInStreams {
+
+    public static final String SCHEME = "stdin";
+    private static final long MAX_BUFFERED_BYTES = 8 * 1024 * 1024;
+
+    private final Map<String, CopyInStream> streams = new ConcurrentHashMap<>();
+
+    public static String uri(String streamId) {
+        return SCHEME + ":///" + streamId;
+    }
+
+    public static boolean isCopyInUri(String uri) {
+        return uri.startsWith(SCHEME + ":");
+    }
+
+    /**
+     * Creates and registers a stream. It is unregistered once it's closed.
+     *
+     * @param autoRead called with false if the producer should stop sending data and with true if it can resume
+     */
+    public CopyInStream create(String streamId, Consumer<Boolean> autoRead) {
+        CopyInStream stream = new CopyInStream(MAX_BUFFERED_BYTES, autoRead, () -> streams.remove(streamId));
+        if (streams.putIfAbsent(streamId, stream) != null) {
+            throw new IllegalStateException("COPY FROM STDIN stream " + streamId + " is already registered");
+        }
+        return stream;
+    }
+
+    public CopyInStream get(URI uri) {
+        CopyInStream stream = streams.get(uri.getPath().substring(1));
+        if (stream == null) {
+            throw new IllegalStateException("No COPY FROM STDIN stream found for " + uri);
+        }
+        return stream;
+    }
+}
@@ -29,6 +29,7 @@ public class FileCollectModule extends AbstractModule {
 
     @Override
     protected void configure() {
+        bind(CopyInStreams.class).asEagerSingleton();
         MapBinder<String, FileInputFactory> binder = MapBinder.newMapBinder(binder(), String.class, FileInputFactory.class);
 
         binder.addBinding(LocalFsFileInputFactory.NAME).to(LocalFsFileInputFactory.class).asEagerSingleton();
@@ -43,5 +43,21 @@ public interface FileInput {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * @return the size of the file in bytes or -1 if the size is unknown.
+     *         Files of unknown size are never split into byte ranges and always read as a whole.
+     */
+    default long getSize(URI uri) throws IOException {
+        return -1L;
+    }
+
+    /**
+     * Returns a stream which starts at the given byte position of the file.
+     * Only called for files for which {@link #getSize(URI)} returned a size.
+     */
+    default InputStream getStream(URI uri, long position) throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support positional reads");
+    }
+
     boolean sharedStorageDefault();
 }
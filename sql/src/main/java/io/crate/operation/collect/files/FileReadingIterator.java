@@ -65,6 +65,7 @@ public class FileReadingIterator implements BatchIterator {
     private final int numReaders;
     private final int readerNumber;
     private final boolean compressed;
+    private final long splitSize;
 
     private static final Pattern HAS_GLOBS_PATTERN = Pattern.compile("(.*)[^\\\\]\\*.*");
     private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
@@ -73,7 +74,8 @@ public class FileReadingIterator implements BatchIterator {
     private final Iterable<LineCollectorExpression<?>> collectorExpressions;
     private Iterator<Tuple<FileInput, UriWithGlob>> fileInputsIterator = null;
     private Tuple<FileInput, UriWithGlob> currentInput = null;
-    private Iterator<URI> currentInputIterator = null;
+    private Iterator<FileSplit> currentInputIterator = null;
+    private FileSplit currentSplit;
     private URI currentUri;
     private BufferedReader currentReader = null;
     private long currentLineNumber;
@@ -87,8 +89,10 @@ public class FileReadingIterator implements BatchIterator {
                                 Map<String, FileInputFactory> fileInputFactories,
                                 Boolean shared,
                                 int numReaders,
-                                int readerNumber) {
+                                int readerNumber,
+                                long splitSize) {
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
+        this.splitSize = splitSize;
         this.inputs = Columns.wrap(inputs.stream().map(ExceptionHandlingInputProxy::new).collect(Collectors.toList()));
         this.fileInputFactories = fileInputFactories;
         this.shared = shared;
@@ -137,8 +141,26 @@ public class FileReadingIterator implements BatchIterator {
                                             Boolean shared,
                                             int numReaders,
                                             int readerNumber) {
+        return newInstance(fileUris, inputs, collectorExpressions, compression, fileInputFactories, shared,
+            numReaders, readerNumber, 0L);
+    }
+
+    /**
+     * @param splitSize if &gt; 0, uncompressed files on shared storage which are larger than splitSize are split into
+     *                  byte ranges of splitSize which are distributed among the readers.
+     *                  Otherwise files are distributed as a whole.
+     */
+    public static BatchIterator newInstance(Collection<String> fileUris,
+                                            List<Input<?>> inputs,
+                                            Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                            String compression,
+                                            Map<String, FileInputFactory> fileInputFactories,
+                                            Boolean shared,
+                                            int numReaders,
+                                            int readerNumber,
+                                            long splitSize) {
         return new CloseAssertingBatchIterator(new FileReadingIterator(fileUris, inputs, collectorExpressions,
-            compression, fileInputFactories, shared, numReaders, readerNumber));
+            compression, fileInputFactories, shared, numReaders, readerNumber, splitSize));
     }
 
     private void initCollectorState() {
@@ -192,24 +214,61 @@ public class FileReadingIterator implements BatchIterator {
     }
 
     private void advanceToNextUri(FileInput fileInput) throws IOException {
-        currentUri = currentInputIterator.next();
-        initCurrentReader(fileInput, currentUri);
+        currentSplit = currentInputIterator.next();
+        currentUri = currentSplit.uri;
+        initCurrentReader(fileInput, currentSplit);
     }
 
     private void advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
         FileInput fileInput = currentInput.v1();
         UriWithGlob fileUri = currentInput.v2();
-        Predicate<URI> uriPredicate = generateUriPredicate(fileInput, fileUri.globPredicate);
+        boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
+        boolean splitFiles = sharedStorage && splitSize > 0 && !compressed;
+        Predicate<URI> uriPredicate = generateUriPredicate(sharedStorage && !splitFiles, fileUri.globPredicate);
         List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
-        if (uris.size() > 0) {
-            currentInputIterator = uris.iterator();
+        List<FileSplit> splits = splitFiles ? getSplits(fileInput, uris) : FileSplit.wholeFiles(uris);
+        if (splits.size() > 0) {
+            currentInputIterator = splits.iterator();
             advanceToNextUri(fileInput);
         }
     }
 
-    private void initCurrentReader(FileInput fileInput, URI uri) throws IOException {
-        InputStream stream = fileInput.getStream(uri);
+    /**
+     * Splits the files into byte ranges of {@link #splitSize} and returns the ranges assigned to this reader.
+     * Consecutive ranges of a file are assigned to different readers.
+     */
+    private List<FileSplit> getSplits(FileInput fileInput, List<URI> uris) throws IOException {
+        List<FileSplit> splits = new ArrayList<>();
+        for (URI uri : uris) {
+            long size = fileInput.getSize(uri);
+            if (size <= splitSize) {
+                if (isAssignedToReader(uri.hashCode())) {
+                    splits.add(new FileSplit(uri, 0L, -1L));
+                }
+                continue;
+            }
+            int hash = uri.hashCode();
+            int i = 0;
+            for (long start = 0; start < size; start += splitSize, i++) {
+                if (isAssignedToReader(hash + i)) {
+                    splits.add(new FileSplit(uri, start, Math.min(start + splitSize, size)));
+                }
+            }
+        }
+        return splits;
+    }
+
+    private void initCurrentReader(FileInput fileInput, FileSplit split) throws IOException {
+        InputStream stream;
+        if (split.isWholeFile()) {
+            stream = fileInput.getStream(split.uri);
+        } else {
+            stream = fileInput.getStream(split.uri, Math.max(0L, split.start - 1));
+            if (stream != null) {
+                stream = new LineRangeInputStream(stream, split.start, split.end);
+            }
+        }
         if (stream != null) {
             currentReader = createBufferedReader(stream);
             currentLineNumber = 0;
@@ -248,7 +307,7 @@ public class FileReadingIterator implements BatchIterator {
             } else {
                 long startLine = currentLineNumber + 1;
                 closeCurrentReader();
-                initCurrentReader(currentInput.v1(), currentUri);
+                initCurrentReader(currentInput.v1(), currentSplit);
                 return getLine(currentReader, startLine, retry + 1);
             }
         } catch (Exception e) {
@@ -271,6 +330,7 @@ public class FileReadingIterator implements BatchIterator {
         fileInputsIterator = null;
         currentInputIterator = null;
         currentInput = null;
+        currentSplit = null;
         currentUri = null;
     }
 
@@ -284,6 +344,33 @@ public class FileReadingIterator implements BatchIterator {
         return true;
     }
 
+    /**
+     * The byte range {@code [start, end)} of a file, or the whole file if {@code end} is -1.
+     */
+    private static class FileSplit {
+        final URI uri;
+        final long start;
+        final long end;
+
+        FileSplit(URI uri, long start, long end) {
+            this.uri = uri;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean isWholeFile() {
+            return end == -1L;
+        }
+
+        static List<FileSplit> wholeFiles(List<URI> uris) {
+            List<FileSplit> splits = new ArrayList<>(uris.size());
+            for (URI uri : uris) {
+                splits.add(new FileSplit(uri, 0L, -1L));
+            }
+            return splits;
+        }
+    }
+
     private static class UriWithGlob {
         final URI uri;
         final URI preGlobUri;
@@ -389,17 +476,17 @@ public class FileReadingIterator implements BatchIterator {
         return uris;
     }
 
-    private Predicate<URI> generateUriPredicate(FileInput fileInput, @Nullable Predicate<URI> globPredicate) {
+    private boolean isAssignedToReader(int hash) {
+        if (hash == Integer.MIN_VALUE) {
+            hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
+        }
+        return Math.abs(hash) % numReaders == readerNumber;
+    }
+
+    private Predicate<URI> generateUriPredicate(boolean distributeFiles, @Nullable Predicate<URI> globPredicate) {
         Predicate<URI> moduloPredicate;
-        boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
-        if (sharedStorage) {
-            moduloPredicate = input -> {
-                int hash = input.hashCode();
-                if (hash == Integer.MIN_VALUE) {
-                    hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
-                }
-                return Math.abs(hash) % numReaders == readerNumber;
-            };
+        if (distributeFiles) {
+            moduloPredicate = input -> isAssignedToReader(input.hashCode());
         } else {
             moduloPredicate = MATCH_ALL_PREDICATE;
         }
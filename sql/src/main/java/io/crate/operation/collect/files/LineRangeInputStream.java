@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Restricts a stream to the lines which start within the byte range {@code [start, end)} of a file.
+ * <p>
+ * A line belongs to the range it starts in:
+ * <ul>
+ *     <li>If {@code start > 0} the partial line before the first newline is skipped,
+ *     it is read by the preceding range.</li>
+ *     <li>The line which straddles {@code end} is read until its newline (or EOF).</li>
+ * </ul>
+ * The delegate must be positioned at {@code start - 1} (or {@code 0} if {@code start == 0}) so that a line which
+ * starts exactly at {@code start} is detected.
+ */
+class LineRangeInputStream extends InputStream {
+
+    private final InputStream delegate;
+    private final long end;
+    private long position;
+    private boolean done = false;
+
+    LineRangeInputStream(InputStream delegate, long start, long end) throws IOException {
+        assert start >= 0 && start < end : "start must be >= 0 and < end";
+        this.delegate = new BufferedInputStream(delegate);
+        this.end = end;
+        if (start == 0) {
+            position = 0;
+        } else {
+            position = start - 1;
+            skipPartialLine();
+        }
+    }
+
+    private void skipPartialLine() throws IOException {
+        int b;
+        while ((b = delegate.read()) != -1) {
+            position++;
+            if (b == '\n') {
+                // no line starts within the range if the skipped line extends beyond it
+                done = position >= end;
+                return;
+            }
+        }
+        done = true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (done) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (position < end) {
+            int read = delegate.read(b, off, (int) Math.min(len, end - position));
+            if (read == -1) {
+                done = true;
+                return -1;
+            }
+            position += read;
+            if (position == end && b[off + read - 1] == '\n') {
+                // range ends on a line boundary; the next line belongs to the next range
+                done = true;
+            }
+            return read;
+        }
+        // beyond the range: finish the line which started within it
+        int read = 0;
+        while (read < len) {
+            int c = delegate.read();
+            if (c == -1) {
+                done = true;
+                break;
+            }
+            b[off + read] = (byte) c;
+            read++;
+            position++;
+            if (c == '\n') {
+                done = true;
+                break;
+            }
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -25,6 +25,8 @@ import com.google.common.collect.ImmutableList;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
@@ -81,6 +83,23 @@ public class LocalFsFileInput implements FileInput {
         }
     }
 
+    @Override
+    public long getSize(URI uri) throws IOException {
+        return Files.size(Paths.get(uri));
+    }
+
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+        try {
+            channel.position(position);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return Channels.newInputStream(channel);
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return false;
@@ -41,6 +41,7 @@ import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.RowsCollector;
+import io.crate.operation.compiler.ExpressionCompiler;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.planner.node.ExecutionPhaseVisitor;
@@ -96,7 +97,7 @@ public class CollectSourceResolver {
             threadPool,
             settings,
             transportActionProvider,
-            new InputFactory(functions),
+            new InputFactory(functions, ExpressionCompiler.COMPILE_EXPRESSIONS_SETTING.get(settings)),
             normalizer,
             systemCollectSource::getRowUpdater,
             systemCollectSource::tableDefinition
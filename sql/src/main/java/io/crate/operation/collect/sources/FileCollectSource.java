@@ -31,6 +31,8 @@ import io.crate.operation.InputFactory;
 import io.crate.operation.collect.BatchIteratorCollectorBridge;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.collect.JobCollectContext;
+import io.crate.operation.collect.files.CopyInBatchIterator;
+import io.crate.operation.collect.files.CopyInStreams;
 import io.crate.operation.collect.files.FileInputFactory;
 import io.crate.operation.collect.files.FileReadingIterator;
 import io.crate.operation.collect.files.LineCollectorExpression;
@@ -42,7 +44,9 @@ import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -54,12 +58,20 @@ public class FileCollectSource implements CollectSource {
     private final ClusterService clusterService;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
     private final InputFactory inputFactory;
+    private final CopyInStreams copyInStreams;
+    private final ThreadPool threadPool;
 
     @Inject
-    public FileCollectSource(Functions functions, ClusterService clusterService, Map<String, FileInputFactory> fileInputFactoryMap) {
+    public FileCollectSource(Functions functions,
+                             ClusterService clusterService,
+                             Map<String, FileInputFactory> fileInputFactoryMap,
+                             CopyInStreams copyInStreams,
+                             ThreadPool threadPool) {
         this.fileInputFactoryMap = fileInputFactoryMap;
         inputFactory = new InputFactory(functions);
         this.clusterService = clusterService;
+        this.copyInStreams = copyInStreams;
+        this.threadPool = threadPool;
     }
 
     @Override
@@ -75,6 +87,15 @@ public class FileCollectSource implements CollectSource {
 
         List<String> fileUris;
         fileUris = targetUriToStringList(fileUriCollectPhase.targetUri());
+        if (fileUris.size() == 1 && CopyInStreams.isCopyInUri(fileUris.get(0))) {
+            BatchIterator copyInIterator = CopyInBatchIterator.newInstance(
+                copyInStreams.get(URI.create(fileUris.get(0))),
+                ctx.topLevelInputs(),
+                ctx.expressions(),
+                threadPool.executor(ThreadPool.Names.SEARCH)
+            );
+            return BatchIteratorCollectorBridge.newInstance(copyInIterator, consumer);
+        }
         BatchIterator fileReadingIterator = FileReadingIterator.newInstance(
             fileUris,
             ctx.topLevelInputs(),
@@ -83,7 +104,8 @@ public class FileCollectSource implements CollectSource {
             fileInputFactoryMap,
             fileUriCollectPhase.sharedStorage(),
             readers.length,
-            Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId())
+            Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId()),
+            fileUriCollectPhase.splitSize()
         );
 
         return BatchIteratorCollectorBridge.newInstance(fileReadingIterator, consumer);
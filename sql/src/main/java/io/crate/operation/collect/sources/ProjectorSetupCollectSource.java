@@ -47,7 +47,8 @@ public class ProjectorSetupCollectSource implements CollectSource {
                 collectPhase.projections(),
                 collectPhase.jobId(),
                 jobCollectContext.queryPhaseRamAccountingContext(),
-                projectorFactory),
+                projectorFactory,
+                jobCollectContext.phaseProfile()),
             jobCollectContext
         );
     }
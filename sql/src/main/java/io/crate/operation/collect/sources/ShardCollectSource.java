@@ -21,12 +21,14 @@
 
 package io.crate.operation.collect.sources;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.Iterables;
 import io.crate.action.job.SharedShardContext;
 import io.crate.action.job.SharedShardContexts;
 import io.crate.analyze.EvaluatingNormalizer;
 import io.crate.analyze.OrderBy;
+import io.crate.analyze.symbol.AggregateMode;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.blob.v2.BlobShard;
@@ -58,9 +60,11 @@ import io.crate.operation.collect.LuceneShardCollectorProvider;
 import io.crate.operation.collect.RemoteCollectorFactory;
 import io.crate.operation.collect.RowsCollector;
 import io.crate.operation.collect.ShardCollectorProvider;
+import io.crate.operation.collect.ShardResultCache;
 import io.crate.operation.collect.collectors.CompositeCollector;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
 import io.crate.operation.collect.collectors.OrderedLuceneBatchIteratorFactory;
+import io.crate.operation.compiler.ExpressionCompiler;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
@@ -71,6 +75,9 @@ import io.crate.operation.reference.sys.node.local.NodeSysReferenceResolver;
 import io.crate.planner.consumer.OrderByPositionVisitor;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.projection.AggregationProjection;
+import io.crate.planner.projection.GroupProjection;
+import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.Projections;
 import io.crate.plugin.IndexEventListenerProxy;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -81,6 +88,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.Index;
@@ -155,6 +163,15 @@ import static io.crate.blob.v2.BlobIndex.isBlobIndex;
 @Singleton
 public class ShardCollectSource extends AbstractComponent implements CollectSource {
 
+    /**
+     * The maximum number of threads which collect from the segments of a single shard concurrently.
+     */
+    public static final Setting<Integer> SEGMENT_CONCURRENCY_SETTING = Setting.intSetting(
+        "node.sql.collect.segment_concurrency",
+        1,
+        1,
+        Setting.Property.NodeScope);
+
     private static final StaticTableReferenceResolver<UnassignedShard> UNASSIGNED_SHARD_SREFERENCE_RESOLVER =
         new StaticTableReferenceResolver<>(SysShardsTableInfo.unassignedShardsExpressions());
 
@@ -174,6 +191,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
     private final Functions functions;
     private final LuceneQueryBuilder luceneQueryBuilder;
     private final NodeJobsCounter nodeJobsCounter;
+    private final ShardResultCache shardResultCache;
+    private final int segmentConcurrency;
 
     @Inject
     public ShardCollectSource(Settings settings,
@@ -189,7 +208,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                               SystemCollectSource systemCollectSource,
                               NodeSysExpression nodeSysExpression,
                               IndexEventListenerProxy indexEventListenerProxy,
-                              BlobIndicesService blobIndicesService) {
+                              BlobIndicesService blobIndicesService,
+                              ShardResultCache shardResultCache) {
         super(settings);
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.schemas = schemas;
@@ -203,6 +223,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         this.executor = new DirectFallbackExecutor(threadPool.executor(ThreadPool.Names.SEARCH));
         this.blobIndicesService = blobIndicesService;
         this.functions = functions;
+        this.shardResultCache = shardResultCache;
+        this.segmentConcurrency = SEGMENT_CONCURRENCY_SETTING.get(settings);
         NodeSysReferenceResolver referenceResolver = new NodeSysReferenceResolver(nodeSysExpression);
         nodeNormalizer = new EvaluatingNormalizer(
             functions,
@@ -218,7 +240,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
             threadPool,
             settings,
             transportActionProvider,
-            new InputFactory(functions),
+            new InputFactory(functions, ExpressionCompiler.COMPILE_EXPRESSIONS_SETTING.get(settings)),
             nodeNormalizer,
             systemCollectSource::getRowUpdater,
             systemCollectSource::tableDefinition
@@ -311,7 +333,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
             Projections.nodeProjections(normalizedPhase.projections()),
             collectPhase.jobId(),
             jobCollectContext.queryPhaseRamAccountingContext(),
-            sharedProjectorFactory
+            sharedProjectorFactory,
+            jobCollectContext.phaseProfile()
         );
         if (normalizedPhase.maxRowGranularity() == RowGranularity.SHARD) {
             // it's possible to use FlatProjectorChain instead of ShardProjectorChain as a shortcut because
@@ -458,12 +481,32 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                 ShardId shardId = new ShardId(index, shardNum);
                 try {
                     ShardCollectorProvider shardCollectorProvider = getCollectorProviderSafe(shardId);
-                    CrateCollector.Builder collector = shardCollectorProvider.getCollectorBuilder(
-                        collectPhase,
-                        requiresScroll,
-                        jobCollectContext
-                    );
-                    crateCollectors.add(collector);
+                    if (shardCollectorProvider instanceof LuceneShardCollectorProvider
+                        && collectSegmentsConcurrently(collectPhase, requiresScroll)) {
+                        crateCollectors.addAll(shardCollectorProvider.getCollectorBuilders(
+                            collectPhase,
+                            false,
+                            jobCollectContext,
+                            segmentConcurrency
+                        ));
+                    } else {
+                        CrateCollector.Builder collector = shardCollectorProvider.getCollectorBuilder(
+                            collectPhase,
+                            requiresScroll,
+                            jobCollectContext
+                        );
+                        if (shardCollectorProvider instanceof LuceneShardCollectorProvider) {
+                            // the key must use the reader version of the searcher the collector was built with
+                            SharedShardContext sharedShardContext =
+                                jobCollectContext.sharedShardContexts().getOrCreateContext(shardId);
+                            collector = shardResultCache.cachingBuilder(
+                                shardId,
+                                jobCollectContext.searcher(sharedShardContext.readerId()),
+                                collectPhase,
+                                collector);
+                        }
+                        crateCollectors.add(collector);
+                    }
                 } catch (ShardNotFoundException | IllegalIndexShardStateException e) {
                     // If toCollect contains a docId it means that this is a QueryThenFetch operation.
                     // In such a case RemoteCollect cannot be used because on that node the FetchContext is missing
@@ -483,6 +526,40 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         return crateCollectors;
     }
 
+    /**
+     * The segments of a shard can be collected concurrently if the shard-level projections are pre-aggregations
+     * whose partial results are merged on the node-level anyway. A cached result is preferred over a concurrent
+     * collect.
+     */
+    private boolean collectSegmentsConcurrently(RoutedCollectPhase collectPhase, boolean requiresScroll) {
+        return segmentConcurrency > 1
+               && !requiresScroll
+               && supportsConcurrentCollect(collectPhase)
+               && !shardResultCache.caches(collectPhase);
+    }
+
+    @VisibleForTesting
+    static boolean supportsConcurrentCollect(RoutedCollectPhase collectPhase) {
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
+        if (shardProjections.isEmpty() || collectPhase.orderBy() != null) {
+            return false;
+        }
+        for (Projection projection : shardProjections) {
+            AggregateMode mode;
+            if (projection instanceof GroupProjection) {
+                mode = ((GroupProjection) projection).mode();
+            } else if (projection instanceof AggregationProjection) {
+                mode = ((AggregationProjection) projection).mode();
+            } else {
+                return false;
+            }
+            if (mode != AggregateMode.ITER_PARTIAL) {
+                return false;
+            }
+        }
+        return !Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.FETCHID);
+    }
+
     private CrateCollector getShardsCollector(RoutedCollectPhase collectPhase,
                                               RoutedCollectPhase normalizedPhase,
                                               String localNodeId,
@@ -22,6 +22,7 @@
 
 package io.crate.operation.collect.stats;
 
+import io.crate.operation.collect.stats.StatementLatencies.StatementType;
 import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
 import io.crate.operation.reference.sys.operation.OperationContext;
@@ -67,6 +68,9 @@ public class JobsLogs {
     private final LongAdder activeRequests = new LongAdder();
     private final BooleanSupplier enabled;
 
+    private final Map<UUID, StartedStatement> startedStatements = new ConcurrentHashMap<>();
+    private final StatementLatencies statementLatencies = new StatementLatencies();
+
     public JobsLogs(BooleanSupplier enabled) {
         this.enabled = enabled;
     }
@@ -90,10 +94,11 @@ public class JobsLogs {
      * Track a job. If the job has finished {@link #logExecutionEnd(java.util.UUID, String)}
      * must be called.
      * <p>
-     * If {@link #isEnabled()} is false this method won't do anything.
+     * If {@link #isEnabled()} is false only the latency of the statement is tracked.
      */
     public void logExecutionStart(UUID jobId, String statement, @Nullable User user) {
         activeRequests.increment();
+        startedStatements.put(jobId, new StartedStatement(StatementType.classify(statement), System.nanoTime()));
         if (!isEnabled()) {
             return;
         }
@@ -103,10 +108,14 @@ public class JobsLogs {
     /**
      * mark a job as finished.
      * <p>
-     * If {@link #isEnabled()} is false this method won't do anything.
+     * If {@link #isEnabled()} is false only the latency of the statement is recorded.
      */
     public void logExecutionEnd(UUID jobId, @Nullable String errorMessage) {
         activeRequests.decrement();
+        StartedStatement startedStatement = startedStatements.remove(jobId);
+        if (startedStatement != null) {
+            statementLatencies.record(startedStatement.type, System.nanoTime() - startedStatement.startNanos);
+        }
         JobContext jobContext = jobsTable.remove(jobId);
         if (!isEnabled() || jobContext == null) {
             return;
@@ -171,6 +180,13 @@ public class JobsLogs {
         return activeRequests.longValue();
     }
 
+    /**
+     * Latencies of the statements finished within the last minute; recorded regardless of {@link #isEnabled()}.
+     */
+    public StatementLatencies statementLatencies() {
+        return statementLatencies;
+    }
+
     void updateOperationsLog(LogSink<OperationContextLog> sink) {
         operationsLog.set(sink);
     }
@@ -179,4 +195,15 @@ public class JobsLogs {
         jobsLog.set(sink);
     }
 
+    private static class StartedStatement {
+
+        private final StatementType type;
+        private final long startNanos;
+
+        StartedStatement(StatementType type, long startNanos) {
+            this.type = type;
+            this.startNanos = startNanos;
+        }
+    }
+
 }
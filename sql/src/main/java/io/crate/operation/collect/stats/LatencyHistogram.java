@@ -0,0 +1,190 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free histogram of latencies over a sliding time window.
+ * <p>
+ * Latencies are recorded in microseconds into log-linear buckets; each power of two is split
+ * into {@link #SUB_BUCKETS} linear buckets, so percentiles have a relative error of less than 1/16.
+ * <p>
+ * The window is divided into slices which are reset once they're reused; recordings which race with the
+ * reset of a slice may be lost, which is acceptable for monitoring purposes.
+ */
+@ThreadSafe
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40; // ~12 days in microseconds
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    @VisibleForTesting
+    static final int NUM_BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private static final long DEFAULT_WINDOW_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final int DEFAULT_NUM_SLICES = 6;
+
+    private final Slice[] slices;
+    private final long sliceDurationMs;
+    private final LongSupplier clockMs;
+
+    public LatencyHistogram() {
+        this(DEFAULT_WINDOW_MS, DEFAULT_NUM_SLICES, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    LatencyHistogram(long windowMs, int numSlices, LongSupplier clockMs) {
+        assert windowMs % numSlices == 0 : "window must be divisible by the number of slices";
+        this.sliceDurationMs = windowMs / numSlices;
+        this.clockMs = clockMs;
+        this.slices = new Slice[numSlices];
+        for (int i = 0; i < numSlices; i++) {
+            slices[i] = new Slice();
+        }
+    }
+
+    public void record(long latencyNanos) {
+        long micros = Math.min(Math.max(0L, TimeUnit.NANOSECONDS.toMicros(latencyNanos)), MAX_VALUE);
+        long epoch = clockMs.getAsLong() / sliceDurationMs;
+        Slice slice = slices[(int) (epoch % slices.length)];
+        long sliceEpoch = slice.epoch.get();
+        if (sliceEpoch < epoch && slice.epoch.compareAndSet(sliceEpoch, epoch)) {
+            slice.reset();
+        }
+        slice.counts.incrementAndGet(bucketIndex(micros));
+        slice.max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * @return a snapshot of the latencies which were recorded within the window
+     */
+    public Snapshot snapshot() {
+        long currentEpoch = clockMs.getAsLong() / sliceDurationMs;
+        long[] counts = new long[NUM_BUCKETS];
+        long total = 0L;
+        long max = 0L;
+        for (Slice slice : slices) {
+            long sliceEpoch = slice.epoch.get();
+            if (sliceEpoch <= currentEpoch - slices.length || sliceEpoch > currentEpoch) {
+                continue;
+            }
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                long count = slice.counts.get(i);
+                counts[i] += count;
+                total += count;
+            }
+            max = Math.max(max, slice.max.get());
+        }
+        return new Snapshot(counts, total, max);
+    }
+
+    @VisibleForTesting
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value (in microseconds) which falls into the bucket
+     */
+    @VisibleForTesting
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = ((long) (SUB_BUCKETS + index % SUB_BUCKETS)) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    private static class Slice {
+
+        private final AtomicLong epoch = new AtomicLong(-1L);
+        private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+        private final AtomicLong max = new AtomicLong();
+
+        private void reset() {
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                counts.set(i, 0L);
+            }
+            max.set(0L);
+        }
+    }
+
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long count, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.maxMicros = maxMicros;
+        }
+
+        /**
+         * @return the number of recorded latencies
+         */
+        public long count() {
+            return count;
+        }
+
+        public double maxMs() {
+            return maxMicros / 1000.0;
+        }
+
+        /**
+         * @param percentile a value between 0 and 100
+         * @return the latency in milliseconds below which the given percentage of latencies fall
+         */
+        public double percentileMs(double percentile) {
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros) / 1000.0;
+                }
+            }
+            return maxMs();
+        }
+    }
+}
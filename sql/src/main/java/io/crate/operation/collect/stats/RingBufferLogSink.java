@@ -0,0 +1,174 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import io.crate.breaker.SizeEstimator;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded {@link LogSink} backed by a preallocated ring buffer.
+ * <p>
+ * Writers claim a slot with a single atomic increment and never block each other;
+ * once the buffer is full the oldest entry is overwritten.
+ * Every slot carries the sequence number of its entry (similar to a seqlock), so that readers
+ * can take a consistent snapshot without locking and skip slots which are being written concurrently.
+ * <p>
+ * The estimated size of the entries is accounted on the given breaker. Unlike {@link RamAccountingQueue}
+ * the log isn't cleared if the breaker limit is exceeded, instead the oldest entries are evicted until the
+ * memory usage is below the limit again. The sink compares the limit with the bytes of its own entries rather
+ * than with the used bytes of the breaker, so that it isn't emptied because of bytes accounted by other sinks
+ * on the same breaker, e.g. the previous sink of the log while the log is resized.
+ */
+@ThreadSafe
+public class RingBufferLogSink<T> implements LogSink<T> {
+
+    private static final Logger LOGGER = Loggers.getLogger(RingBufferLogSink.class);
+    private static final long WRITING = -1L;
+
+    private final int capacity;
+    private final AtomicReferenceArray<T> entries;
+    private final AtomicLongArray sequences;
+    private final AtomicLong nextSequence = new AtomicLong(0L);
+    private final AtomicLong head = new AtomicLong(0L);
+    private final AtomicBoolean exceeded = new AtomicBoolean(false);
+    private final SizeEstimator<T> sizeEstimator;
+    private final CircuitBreaker breaker;
+    private final AtomicLong usedBytes = new AtomicLong(0L);
+    private final String sinkId;
+
+    public RingBufferLogSink(int capacity, CircuitBreaker breaker, SizeEstimator<T> sizeEstimator) {
+        assert capacity > 0 : "capacity must be greater than 0";
+        this.capacity = capacity;
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, WRITING);
+        }
+        this.sizeEstimator = sizeEstimator;
+        this.breaker = breaker;
+        this.sinkId = String.format(Locale.ENGLISH, "RingBufferLogSink[%s]", UUID.randomUUID().toString());
+    }
+
+    @Override
+    public void add(T item) {
+        long sequence = nextSequence.getAndIncrement();
+        int idx = (int) (sequence % capacity);
+        sequences.set(idx, WRITING);
+        T evicted = entries.getAndSet(idx, item);
+        sequences.set(idx, sequence);
+
+        account(sizeEstimator.estimateSize(item));
+        if (evicted != null) {
+            account(-sizeEstimator.estimateSize(evicted));
+        }
+        if (exceedsLimit()) {
+            if (exceeded.compareAndSet(false, true) && LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Memory limit for breaker [{}] was exceeded. Evicting the oldest entries of [{}].",
+                    breaker.getName(), sinkId);
+            }
+            evictUntilBelowLimit(sequence);
+        } else if (exceeded.get()) {
+            exceeded.set(false);
+        }
+    }
+
+    /**
+     * Accounts the bytes on the breaker right away (released bytes too), without breaking.
+     */
+    private void account(long bytes) {
+        usedBytes.addAndGet(bytes);
+        breaker.addWithoutBreaking(bytes);
+    }
+
+    private boolean exceedsLimit() {
+        long limit = breaker.getLimit();
+        return limit >= 0 && usedBytes.get() > limit;
+    }
+
+    private void evictUntilBelowLimit(long newest) {
+        while (exceedsLimit()) {
+            long currentHead = head.get();
+            long oldest = Math.max(currentHead, newest - capacity + 1);
+            if (oldest >= newest) {
+                return;
+            }
+            if (!head.compareAndSet(currentHead, oldest + 1)) {
+                continue;
+            }
+            int idx = (int) (oldest % capacity);
+            if (sequences.get(idx) == oldest) {
+                T item = entries.get(idx);
+                // a concurrent writer may already have replaced the entry, it accounts the eviction itself then
+                if (item != null && entries.compareAndSet(idx, item, null)) {
+                    account(-sizeEstimator.estimateSize(item));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addAll(Iterable<T> iterable) {
+        for (T t : iterable) {
+            add(t);
+        }
+    }
+
+    /**
+     * @return an iterator over a snapshot of the entries, from the oldest to the newest.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        long end = nextSequence.get();
+        long start = Math.max(head.get(), end - capacity);
+        List<T> snapshot = new ArrayList<>((int) Math.max(0L, end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            int idx = (int) (sequence % capacity);
+            if (sequences.get(idx) != sequence) {
+                continue;
+            }
+            T item = entries.get(idx);
+            if (item != null && sequences.get(idx) == sequence) {
+                snapshot.add(item);
+            }
+        }
+        return snapshot.iterator();
+    }
+
+    @Override
+    public void close() {
+        breaker.addWithoutBreaking(-usedBytes.getAndSet(0L));
+    }
+}
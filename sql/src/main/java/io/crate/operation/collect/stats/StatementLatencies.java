@@ -0,0 +1,130 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency histograms of the statements executed on this node, grouped by {@link StatementType}.
+ */
+@ThreadSafe
+public class StatementLatencies {
+
+    public enum StatementType {
+        SELECT,
+        INSERT,
+        UPDATE,
+        DELETE,
+        OTHER;
+
+        private static final StatementType[] CLASSIFIED = {SELECT, INSERT, UPDATE, DELETE};
+
+        /**
+         * Cheap classification based on the first keyword of the statement;
+         * leading whitespace and opening parentheses are skipped.
+         */
+        public static StatementType classify(String statement) {
+            int start = 0;
+            int length = statement.length();
+            while (start < length) {
+                char c = statement.charAt(start);
+                if (c != '(' && !Character.isWhitespace(c)) {
+                    break;
+                }
+                start++;
+            }
+            for (StatementType type : CLASSIFIED) {
+                String keyword = type.name();
+                if (statement.regionMatches(true, start, keyword, 0, keyword.length())) {
+                    return type;
+                }
+            }
+            return OTHER;
+        }
+
+        public String displayName() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    private final Map<StatementType, LatencyHistogram> histograms = new EnumMap<>(StatementType.class);
+    private final LatencyHistogram overall;
+
+    public StatementLatencies() {
+        for (StatementType type : StatementType.values()) {
+            histograms.put(type, new LatencyHistogram());
+        }
+        overall = new LatencyHistogram();
+    }
+
+    public void record(StatementType type, long latencyNanos) {
+        histograms.get(type).record(latencyNanos);
+        overall.record(latencyNanos);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(StatementType type) {
+        return histograms.get(type).snapshot();
+    }
+
+    /**
+     * @return one snapshot per statement type, used as rows of {@code sys.jobs_metrics}
+     */
+    public List<TypedSnapshot> snapshots() {
+        List<TypedSnapshot> snapshots = new ArrayList<>(histograms.size());
+        for (Map.Entry<StatementType, LatencyHistogram> entry : histograms.entrySet()) {
+            snapshots.add(new TypedSnapshot(entry.getKey(), entry.getValue().snapshot()));
+        }
+        return snapshots;
+    }
+
+    /**
+     * @return a snapshot of the latencies of all statements, regardless of their type
+     */
+    public LatencyHistogram.Snapshot overallSnapshot() {
+        return overall.snapshot();
+    }
+
+    public static class TypedSnapshot {
+
+        private final StatementType type;
+        private final LatencyHistogram.Snapshot snapshot;
+
+        TypedSnapshot(StatementType type, LatencyHistogram.Snapshot snapshot) {
+            this.type = type;
+            this.snapshot = snapshot;
+        }
+
+        public StatementType type() {
+            return type;
+        }
+
+        public LatencyHistogram.Snapshot snapshot() {
+            return snapshot;
+        }
+    }
+}
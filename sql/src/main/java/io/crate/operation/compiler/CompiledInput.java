@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import io.crate.data.Input;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Input which evaluates a compiled expression tree and boxes the result according to the type of the expression.
+ */
+final class CompiledInput implements Input<Object> {
+
+    private final Node node;
+    private final Kind kind;
+    private final DataType type;
+    private final Node.Frame frame = new Node.Frame();
+
+    CompiledInput(Node node, Kind kind, DataType type) {
+        this.node = node;
+        this.kind = kind;
+        this.type = type;
+    }
+
+    @Override
+    public Object value() {
+        switch (kind) {
+            case LONG:
+                long longValue = node.evalLong(frame);
+                return frame.wasNull ? null : box(type, longValue);
+            case DOUBLE:
+                double doubleValue = node.evalDouble(frame);
+                return frame.wasNull ? null : box(type, doubleValue);
+            case BOOLEAN:
+                boolean boolValue = node.evalBool(frame);
+                return frame.wasNull ? null : boolValue;
+            default:
+                throw new IllegalStateException("Unsupported kind " + kind);
+        }
+    }
+
+    private static Object box(DataType type, long value) {
+        if (type.equals(DataTypes.INTEGER)) {
+            return (int) value;
+        }
+        if (type.equals(DataTypes.SHORT)) {
+            return (short) value;
+        }
+        if (type.equals(DataTypes.BYTE)) {
+            return (byte) value;
+        }
+        return value;
+    }
+
+    private static Object box(DataType type, double value) {
+        if (type.equals(DataTypes.FLOAT)) {
+            return (float) value;
+        }
+        return value;
+    }
+}
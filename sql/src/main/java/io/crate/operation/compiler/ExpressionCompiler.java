@@ -0,0 +1,482 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.ParameterSymbol;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Input;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.GteOperator;
+import io.crate.operation.operator.LtOperator;
+import io.crate.operation.operator.LteOperator;
+import io.crate.operation.operator.OrOperator;
+import io.crate.operation.predicate.IsNullPredicate;
+import io.crate.operation.predicate.NotPredicate;
+import io.crate.operation.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.operation.scalar.cast.CastFunctionResolver.FunctionNames;
+import io.crate.operation.scalar.conditional.CoalesceFunction;
+import io.crate.operation.scalar.conditional.IfFunction;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.Setting;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Compiles function symbols into trees of {@link Node}s which evaluate to primitives.
+ *
+ * <p>
+ * Interpreted functions box every intermediate result and evaluate their arguments through varargs arrays of
+ * {@link Input}s. A compiled expression like {@code if(a > 0, a * 2 + b, coalesce(c, 0))} instead passes
+ * primitives between its nodes and only boxes the final result.
+ * </p>
+ *
+ * <p>
+ * Supported are arithmetic, comparisons, boolean logic, {@code IS NULL}, {@code if}/{@code CASE},
+ * {@code coalesce} and widening casts on numeric, timestamp and boolean values.
+ * Any other symbol becomes a leaf of the tree which is evaluated as usual.
+ * </p>
+ *
+ * <p>
+ * The analysis of an expression is cached by its shape: literals are replaced by typed placeholders, so that the
+ * same expression with other literal values, e.g. of a parameterized query, uses the same template.
+ * Creating the inputs for a cached expression only binds the leaves and the literal values.
+ * </p>
+ */
+public final class ExpressionCompiler {
+
+    public static final Setting<Boolean> COMPILE_EXPRESSIONS_SETTING = Setting.boolSetting(
+        "node.sql.compile_expressions", false, Setting.Property.NodeScope);
+
+    private static final int MAX_CACHED_TEMPLATES = 1000;
+
+    private static final Cache<Symbol, Optional<Compiled>> TEMPLATES = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_TEMPLATES)
+        .build();
+
+    /**
+     * Creates the inputs for the leaves of a compiled expression.
+     */
+    public interface LeafResolver {
+        Input<?> resolve(Symbol symbol);
+    }
+
+    /**
+     * @see #bind(Symbol, Object[])
+     */
+    private interface Template {
+        Node bind(LeafResolver resolver, Object[] literals);
+    }
+
+    private static final class Compiled {
+
+        private final Kind kind;
+        private final Template template;
+        private final boolean isLeaf;
+
+        Compiled(Kind kind, Template template, boolean isLeaf) {
+            this.kind = kind;
+            this.template = template;
+            this.isLeaf = isLeaf;
+        }
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Returns a compiled input for the function or null if the function can't be compiled.
+     *
+     * @param resolver used to create the inputs of all symbols which aren't part of the compiled expression.
+     */
+    @Nullable
+    public static Input<?> compile(Function function, LeafResolver resolver) {
+        List<Object> literals = new ArrayList<>();
+        Function shape = (Function) shape(function, literals);
+        Optional<Compiled> compiled = TEMPLATES.getIfPresent(shape);
+        if (compiled == null) {
+            Compiled analyzed = compileFunction(shape);
+            compiled = Optional.ofNullable(analyzed == null || analyzed.isLeaf ? null : analyzed);
+            TEMPLATES.put(shape, compiled);
+        }
+        if (compiled.isPresent()) {
+            Compiled c = compiled.get();
+            return new CompiledInput(c.template.bind(resolver, literals.toArray()), c.kind, function.valueType());
+        }
+        return null;
+    }
+
+    @VisibleForTesting
+    static long numCachedTemplates() {
+        return TEMPLATES.size();
+    }
+
+    /**
+     * Replaces the non-null literals which can be compiled to constants by placeholders,
+     * whose index refers to the value added to {@code literals}.
+     */
+    private static Symbol shape(Symbol symbol, List<Object> literals) {
+        if (symbol instanceof Literal) {
+            Object value = ((Literal) symbol).value();
+            if (value == null || Kind.of(symbol.valueType()) == null) {
+                return symbol;
+            }
+            literals.add(value);
+            return new ParameterSymbol(literals.size() - 1, symbol.valueType());
+        }
+        if (symbol instanceof Function) {
+            Function function = (Function) symbol;
+            List<Symbol> arguments = new ArrayList<>(function.arguments().size());
+            boolean changed = false;
+            for (Symbol argument : function.arguments()) {
+                Symbol shaped = shape(argument, literals);
+                changed |= shaped != argument;
+                arguments.add(shaped);
+            }
+            return changed ? new Function(function.info(), arguments) : function;
+        }
+        return symbol;
+    }
+
+    /**
+     * Replaces the placeholders of a shape by the literal values, reverting {@link #shape(Symbol, List)}.
+     * Used for the symbols which are resolved as leaves.
+     */
+    private static Symbol bind(Symbol symbol, Object[] literals) {
+        if (symbol instanceof ParameterSymbol) {
+            return Literal.of(symbol.valueType(), literals[((ParameterSymbol) symbol).index()]);
+        }
+        if (symbol instanceof Function) {
+            Function function = (Function) symbol;
+            List<Symbol> arguments = new ArrayList<>(function.arguments().size());
+            boolean changed = false;
+            for (Symbol argument : function.arguments()) {
+                Symbol bound = bind(argument, literals);
+                changed |= bound != argument;
+                arguments.add(bound);
+            }
+            return changed ? new Function(function.info(), arguments) : function;
+        }
+        return symbol;
+    }
+
+    @Nullable
+    private static Compiled compile(Symbol symbol) {
+        if (symbol instanceof Function) {
+            Compiled compiled = compileFunction((Function) symbol);
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+        Kind kind = Kind.of(symbol.valueType());
+        if (kind == null) {
+            return null;
+        }
+        if (symbol instanceof ParameterSymbol) {
+            int index = ((ParameterSymbol) symbol).index();
+            return new Compiled(kind, (r, v) -> Nodes.constant(kind, v[index]), true);
+        }
+        if (symbol instanceof Literal) {
+            Object value = ((Literal) symbol).value();
+            return new Compiled(kind, (r, v) -> Nodes.constant(kind, value), true);
+        }
+        return new Compiled(kind, (r, v) -> Nodes.leaf(r.resolve(bind(symbol, v))), true);
+    }
+
+    /**
+     * Compiles a symbol which must be of the given type, null literals of any type are accepted.
+     */
+    @Nullable
+    private static Compiled compile(Symbol symbol, DataType type) {
+        Kind kind = Kind.of(type);
+        if (kind == null) {
+            return null;
+        }
+        if (symbol instanceof Literal && ((Literal) symbol).value() == null) {
+            return new Compiled(kind, (r, v) -> Nodes.constant(kind, null), true);
+        }
+        if (!symbol.valueType().equals(type)) {
+            return null;
+        }
+        return compile(symbol);
+    }
+
+    @Nullable
+    private static Compiled compileFunction(Function function) {
+        List<Symbol> arguments = function.arguments();
+        switch (function.info().ident().name()) {
+            case ArithmeticFunctions.Names.ADD:
+                return arithmetic(function, Long::sum, Double::sum);
+            case ArithmeticFunctions.Names.SUBTRACT:
+                return arithmetic(function, (a, b) -> a - b, (a, b) -> a - b);
+            case ArithmeticFunctions.Names.MULTIPLY:
+                return arithmetic(function, (a, b) -> a * b, (a, b) -> a * b);
+            case ArithmeticFunctions.Names.DIVIDE:
+                return arithmetic(function, (a, b) -> a / b, (a, b) -> a / b);
+            case ArithmeticFunctions.Names.MODULUS:
+                return arithmetic(function, (a, b) -> a % b, (a, b) -> a % b);
+
+            case EqOperator.NAME:
+                return compare(arguments, c -> c == 0, true);
+            case GtOperator.NAME:
+                return compare(arguments, c -> c > 0, false);
+            case GteOperator.NAME:
+                return compare(arguments, c -> c >= 0, false);
+            case LtOperator.NAME:
+                return compare(arguments, c -> c < 0, false);
+            case LteOperator.NAME:
+                return compare(arguments, c -> c <= 0, false);
+
+            case AndOperator.NAME:
+                return logical(arguments, true);
+            case OrOperator.NAME:
+                return logical(arguments, false);
+            case NotPredicate.NAME:
+                return not(arguments);
+            case IsNullPredicate.NAME:
+                return isNull(arguments);
+
+            case IfFunction.NAME:
+                return ifThenElse(function);
+            case CoalesceFunction.NAME:
+                return coalesce(function);
+
+            case FunctionNames.TO_LONG:
+            case FunctionNames.TO_TIMESTAMP:
+            case FunctionNames.TO_INTEGER:
+            case FunctionNames.TO_SHORT:
+            case FunctionNames.TO_BYTE:
+            case FunctionNames.TO_DOUBLE:
+            case FunctionNames.TO_FLOAT:
+                return cast(function);
+
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static Compiled arithmetic(Function function,
+                                       LongBinaryOperator longOperator,
+                                       DoubleBinaryOperator doubleOperator) {
+        List<Symbol> arguments = function.arguments();
+        if (arguments.size() != 2) {
+            return null;
+        }
+        Compiled left = compile(arguments.get(0));
+        Compiled right = compile(arguments.get(1));
+        if (left == null || right == null || left.kind == Kind.BOOLEAN || right.kind == Kind.BOOLEAN) {
+            return null;
+        }
+        DataType returnType = function.info().returnType();
+        if (returnType.equals(DataTypes.LONG)) {
+            if (left.kind != Kind.LONG || right.kind != Kind.LONG) {
+                return null;
+            }
+            return new Compiled(Kind.LONG, (r, v) -> Nodes.longArithmetic(
+                longOperator, left.template.bind(r, v), right.template.bind(r, v)), false);
+        }
+        boolean toFloat = returnType.equals(DataTypes.FLOAT);
+        if (!toFloat && !returnType.equals(DataTypes.DOUBLE)) {
+            return null;
+        }
+        Template leftDouble = toDouble(left, toFloat);
+        Template rightDouble = toDouble(right, toFloat);
+        return new Compiled(Kind.DOUBLE, (r, v) -> Nodes.doubleArithmetic(
+            doubleOperator, leftDouble.bind(r, v), rightDouble.bind(r, v), toFloat), false);
+    }
+
+    private static Template toDouble(Compiled compiled, boolean toFloat) {
+        if (compiled.kind == Kind.DOUBLE) {
+            return compiled.template;
+        }
+        return (r, v) -> Nodes.longToDouble(compiled.template.bind(r, v), toFloat);
+    }
+
+    @Nullable
+    private static Compiled compare(List<Symbol> arguments, IntPredicate predicate, boolean nullIfLeftIsNull) {
+        if (arguments.size() != 2 || !arguments.get(0).valueType().equals(arguments.get(1).valueType())) {
+            return null;
+        }
+        Compiled left = compile(arguments.get(0));
+        Compiled right = compile(arguments.get(1));
+        if (left == null || right == null || left.kind != right.kind || left.kind == Kind.BOOLEAN) {
+            return null;
+        }
+        Kind kind = left.kind;
+        return new Compiled(Kind.BOOLEAN, (r, v) -> Nodes.compare(
+            kind, predicate, left.template.bind(r, v), right.template.bind(r, v), nullIfLeftIsNull), false);
+    }
+
+    @Nullable
+    private static Compiled logical(List<Symbol> arguments, boolean isAnd) {
+        if (arguments.size() != 2) {
+            return null;
+        }
+        Compiled left = compile(arguments.get(0), DataTypes.BOOLEAN);
+        Compiled right = compile(arguments.get(1), DataTypes.BOOLEAN);
+        if (left == null || right == null) {
+            return null;
+        }
+        if (isAnd) {
+            return new Compiled(Kind.BOOLEAN, (r, v) -> Nodes.and(
+                left.template.bind(r, v), right.template.bind(r, v)), false);
+        }
+        return new Compiled(Kind.BOOLEAN, (r, v) -> Nodes.or(
+            left.template.bind(r, v), right.template.bind(r, v)), false);
+    }
+
+    @Nullable
+    private static Compiled not(List<Symbol> arguments) {
+        if (arguments.size() != 1) {
+            return null;
+        }
+        Compiled argument = compile(arguments.get(0), DataTypes.BOOLEAN);
+        if (argument == null) {
+            return null;
+        }
+        return new Compiled(Kind.BOOLEAN, (r, v) -> Nodes.not(argument.template.bind(r, v)), false);
+    }
+
+    @Nullable
+    private static Compiled isNull(List<Symbol> arguments) {
+        if (arguments.size() != 1) {
+            return null;
+        }
+        Symbol argument = arguments.get(0);
+        Compiled compiled = compile(argument);
+        if (compiled == null) {
+            return new Compiled(Kind.BOOLEAN, (r, v) -> Nodes.isNull(r.resolve(bind(argument, v))), false);
+        }
+        return new Compiled(Kind.BOOLEAN, (r, v) -> Nodes.isNull(compiled.kind, compiled.template.bind(r, v)), false);
+    }
+
+    @Nullable
+    private static Compiled ifThenElse(Function function) {
+        List<Symbol> arguments = function.arguments();
+        if (arguments.size() != 2 && arguments.size() != 3) {
+            return null;
+        }
+        DataType returnType = function.info().returnType();
+        Compiled condition = compile(arguments.get(0), DataTypes.BOOLEAN);
+        Compiled then = compile(arguments.get(1), returnType);
+        Compiled otherwise = arguments.size() == 3 ? compile(arguments.get(2), returnType) : null;
+        if (condition == null || then == null || (arguments.size() == 3 && otherwise == null)) {
+            return null;
+        }
+        return new Compiled(then.kind, (r, v) -> Nodes.ifThenElse(
+            condition.template.bind(r, v),
+            then.template.bind(r, v),
+            otherwise == null ? null : otherwise.template.bind(r, v)), false);
+    }
+
+    @Nullable
+    private static Compiled coalesce(Function function) {
+        DataType returnType = function.info().returnType();
+        Kind kind = Kind.of(returnType);
+        if (kind == null) {
+            return null;
+        }
+        List<Compiled> arguments = new ArrayList<>(function.arguments().size());
+        for (Symbol argument : function.arguments()) {
+            Compiled compiled = compile(argument, returnType);
+            if (compiled == null) {
+                return null;
+            }
+            arguments.add(compiled);
+        }
+        return new Compiled(kind, (r, v) -> {
+            List<Node> nodes = new ArrayList<>(arguments.size());
+            for (Compiled argument : arguments) {
+                nodes.add(argument.template.bind(r, v));
+            }
+            return Nodes.coalesce(nodes);
+        }, false);
+    }
+
+    /**
+     * Compiles casts which can't fail. Casts which narrow a value are left to the cast functions,
+     * as those check the range of the value.
+     */
+    @Nullable
+    private static Compiled cast(Function function) {
+        if (function.arguments().size() != 1) {
+            return null;
+        }
+        Symbol argument = function.arguments().get(0);
+        DataType sourceType = argument.valueType();
+        DataType targetType = function.info().returnType();
+        Compiled compiled = compile(argument);
+        if (compiled == null) {
+            return null;
+        }
+        if (compiled.kind == Kind.LONG) {
+            if (targetType.equals(DataTypes.DOUBLE) || targetType.equals(DataTypes.FLOAT)) {
+                boolean toFloat = targetType.equals(DataTypes.FLOAT);
+                return new Compiled(Kind.DOUBLE, (r, v) -> Nodes.longToDouble(
+                    compiled.template.bind(r, v), toFloat), false);
+            }
+            if (integerRank(sourceType) <= integerRank(targetType)) {
+                return new Compiled(Kind.LONG, compiled.template, compiled.isLeaf);
+            }
+        } else if (compiled.kind == Kind.DOUBLE) {
+            if (targetType.equals(DataTypes.DOUBLE)
+                || (targetType.equals(DataTypes.FLOAT) && sourceType.equals(DataTypes.FLOAT))) {
+                return new Compiled(Kind.DOUBLE, compiled.template, compiled.isLeaf);
+            }
+            if (targetType.equals(DataTypes.LONG)) {
+                return new Compiled(Kind.LONG, (r, v) -> Nodes.doubleToLong(compiled.template.bind(r, v)), false);
+            }
+        }
+        return null;
+    }
+
+    private static int integerRank(DataType type) {
+        if (type.equals(DataTypes.BYTE)) {
+            return 0;
+        }
+        if (type.equals(DataTypes.SHORT)) {
+            return 1;
+        }
+        if (type.equals(DataTypes.INTEGER)) {
+            return 2;
+        }
+        if (type.equals(DataTypes.LONG) || type.equals(DataTypes.TIMESTAMP)) {
+            return 3;
+        }
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+
+/**
+ * The primitive representation of values within a compiled expression.
+ */
+enum Kind {
+
+    /**
+     * byte, short, integer, long and timestamp values
+     */
+    LONG,
+
+    /**
+     * float and double values. Float values are rounded to float precision after every operation.
+     */
+    DOUBLE,
+
+    BOOLEAN;
+
+    @Nullable
+    static Kind of(DataType type) {
+        if (type.equals(DataTypes.BYTE)
+            || type.equals(DataTypes.SHORT)
+            || type.equals(DataTypes.INTEGER)
+            || type.equals(DataTypes.LONG)
+            || type.equals(DataTypes.TIMESTAMP)) {
+            return LONG;
+        }
+        if (type.equals(DataTypes.FLOAT) || type.equals(DataTypes.DOUBLE)) {
+            return DOUBLE;
+        }
+        if (type.equals(DataTypes.BOOLEAN)) {
+            return BOOLEAN;
+        }
+        return null;
+    }
+}
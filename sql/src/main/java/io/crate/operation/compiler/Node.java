@@ -0,0 +1,54 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.compiler;
+
+/**
+ * A node of a compiled expression tree.
+ *
+ * <p>
+ * Nodes evaluate to primitives. Whether the result is actually {@code NULL} is signaled via {@link Frame#wasNull},
+ * which every node sets before it returns. Depending on the {@link Kind} of the node only one of the
+ * {@code eval} methods is supported.
+ * </p>
+ */
+abstract class Node {
+
+    /**
+     * Holds the null flag of an evaluation. A frame belongs to a single compiled input and is not thread-safe.
+     */
+    static final class Frame {
+        boolean wasNull;
+    }
+
+    long evalLong(Frame frame) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be evaluated to a long");
+    }
+
+    double evalDouble(Frame frame) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be evaluated to a double");
+    }
+
+    boolean evalBool(Frame frame) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be evaluated to a boolean");
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import io.crate.data.Input;
+import io.crate.operation.compiler.Node.Frame;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * The implementations of {@link Node}.
+ *
+ * The null handling and the conversion of arguments mirror the corresponding scalar implementations,
+ * so that a compiled expression returns exactly the same values as the interpreted one.
+ */
+final class Nodes {
+
+    private Nodes() {
+    }
+
+    /**
+     * Reads the value of an input which is not compiled itself, e.g. an input column or an unsupported function.
+     */
+    static Node leaf(Input<?> input) {
+        return new Leaf(input);
+    }
+
+    static Node constant(Kind kind, @Nullable Object value) {
+        if (value == null) {
+            return NullConstant.INSTANCE;
+        }
+        switch (kind) {
+            case LONG:
+                return new LongConstant(((Number) value).longValue());
+            case DOUBLE:
+                return new DoubleConstant(((Number) value).doubleValue());
+            case BOOLEAN:
+                return new BoolConstant((Boolean) value);
+            default:
+                throw new IllegalArgumentException("Unsupported kind " + kind);
+        }
+    }
+
+    static Node longArithmetic(LongBinaryOperator operator, Node left, Node right) {
+        return new LongArithmetic(operator, left, right);
+    }
+
+    static Node doubleArithmetic(DoubleBinaryOperator operator, Node left, Node right, boolean toFloat) {
+        return new DoubleArithmetic(operator, left, right, toFloat);
+    }
+
+    static Node longToDouble(Node node, boolean toFloat) {
+        return new LongToDouble(node, toFloat);
+    }
+
+    static Node doubleToLong(Node node) {
+        return new DoubleToLong(node);
+    }
+
+    /**
+     * @param nullIfLeftIsNull if true the right side isn't evaluated if the left side is null.
+     */
+    static Node compare(Kind kind, IntPredicate predicate, Node left, Node right, boolean nullIfLeftIsNull) {
+        if (kind == Kind.LONG) {
+            return new LongCompare(predicate, left, right, nullIfLeftIsNull);
+        }
+        return new DoubleCompare(predicate, left, right, nullIfLeftIsNull);
+    }
+
+    static Node and(Node left, Node right) {
+        return new And(left, right);
+    }
+
+    static Node or(Node left, Node right) {
+        return new Or(left, right);
+    }
+
+    static Node not(Node node) {
+        return new Not(node);
+    }
+
+    static Node isNull(Kind kind, Node node) {
+        return new IsNull(kind, node);
+    }
+
+    static Node isNull(Input<?> input) {
+        return new IsNullLeaf(input);
+    }
+
+    static Node ifThenElse(Node condition, Node then, @Nullable Node otherwise) {
+        return new IfThenElse(condition, then, otherwise);
+    }
+
+    static Node coalesce(List<Node> nodes) {
+        return new Coalesce(nodes.toArray(new Node[0]));
+    }
+
+    private static final class Leaf extends Node {
+
+        private final Input<?> input;
+
+        Leaf(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        long evalLong(Frame frame) {
+            Object value = input.value();
+            if (value == null) {
+                frame.wasNull = true;
+                return 0L;
+            }
+            frame.wasNull = false;
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+            return DataTypes.LONG.value(value);
+        }
+
+        @Override
+        double evalDouble(Frame frame) {
+            Object value = input.value();
+            if (value == null) {
+                frame.wasNull = true;
+                return 0.0d;
+            }
+            frame.wasNull = false;
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            return DataTypes.DOUBLE.value(value);
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            Boolean value = (Boolean) input.value();
+            if (value == null) {
+                frame.wasNull = true;
+                return false;
+            }
+            frame.wasNull = false;
+            return value;
+        }
+    }
+
+    private static final class NullConstant extends Node {
+
+        private static final NullConstant INSTANCE = new NullConstant();
+
+        @Override
+        long evalLong(Frame frame) {
+            frame.wasNull = true;
+            return 0L;
+        }
+
+        @Override
+        double evalDouble(Frame frame) {
+            frame.wasNull = true;
+            return 0.0d;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            frame.wasNull = true;
+            return false;
+        }
+    }
+
+    private static final class LongConstant extends Node {
+
+        private final long value;
+
+        LongConstant(long value) {
+            this.value = value;
+        }
+
+        @Override
+        long evalLong(Frame frame) {
+            frame.wasNull = false;
+            return value;
+        }
+    }
+
+    private static final class DoubleConstant extends Node {
+
+        private final double value;
+
+        DoubleConstant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double evalDouble(Frame frame) {
+            frame.wasNull = false;
+            return value;
+        }
+    }
+
+    private static final class BoolConstant extends Node {
+
+        private final boolean value;
+
+        BoolConstant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            frame.wasNull = false;
+            return value;
+        }
+    }
+
+    private static final class LongArithmetic extends Node {
+
+        private final LongBinaryOperator operator;
+        private final Node left;
+        private final Node right;
+
+        LongArithmetic(LongBinaryOperator operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long evalLong(Frame frame) {
+            long leftValue = left.evalLong(frame);
+            boolean leftIsNull = frame.wasNull;
+            long rightValue = right.evalLong(frame);
+            if (leftIsNull || frame.wasNull) {
+                frame.wasNull = true;
+                return 0L;
+            }
+            return operator.applyAsLong(leftValue, rightValue);
+        }
+    }
+
+    private static final class DoubleArithmetic extends Node {
+
+        private final DoubleBinaryOperator operator;
+        private final Node left;
+        private final Node right;
+        private final boolean toFloat;
+
+        DoubleArithmetic(DoubleBinaryOperator operator, Node left, Node right, boolean toFloat) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+            this.toFloat = toFloat;
+        }
+
+        @Override
+        double evalDouble(Frame frame) {
+            double leftValue = left.evalDouble(frame);
+            boolean leftIsNull = frame.wasNull;
+            double rightValue = right.evalDouble(frame);
+            if (leftIsNull || frame.wasNull) {
+                frame.wasNull = true;
+                return 0.0d;
+            }
+            if (toFloat) {
+                // a single operation on doubles rounded to float precision equals the operation on floats
+                return (float) operator.applyAsDouble((float) leftValue, (float) rightValue);
+            }
+            return operator.applyAsDouble(leftValue, rightValue);
+        }
+    }
+
+    private static final class LongToDouble extends Node {
+
+        private final Node node;
+        private final boolean toFloat;
+
+        LongToDouble(Node node, boolean toFloat) {
+            this.node = node;
+            this.toFloat = toFloat;
+        }
+
+        @Override
+        double evalDouble(Frame frame) {
+            long value = node.evalLong(frame);
+            if (toFloat) {
+                return (float) value;
+            }
+            return (double) value;
+        }
+    }
+
+    private static final class DoubleToLong extends Node {
+
+        private final Node node;
+
+        DoubleToLong(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        long evalLong(Frame frame) {
+            return (long) node.evalDouble(frame);
+        }
+    }
+
+    private static final class LongCompare extends Node {
+
+        private final IntPredicate predicate;
+        private final Node left;
+        private final Node right;
+        private final boolean nullIfLeftIsNull;
+
+        LongCompare(IntPredicate predicate, Node left, Node right, boolean nullIfLeftIsNull) {
+            this.predicate = predicate;
+            this.left = left;
+            this.right = right;
+            this.nullIfLeftIsNull = nullIfLeftIsNull;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            long leftValue = left.evalLong(frame);
+            boolean leftIsNull = frame.wasNull;
+            if (leftIsNull && nullIfLeftIsNull) {
+                return false;
+            }
+            long rightValue = right.evalLong(frame);
+            if (leftIsNull || frame.wasNull) {
+                frame.wasNull = true;
+                return false;
+            }
+            return predicate.test(Long.compare(leftValue, rightValue));
+        }
+    }
+
+    private static final class DoubleCompare extends Node {
+
+        private final IntPredicate predicate;
+        private final Node left;
+        private final Node right;
+        private final boolean nullIfLeftIsNull;
+
+        DoubleCompare(IntPredicate predicate, Node left, Node right, boolean nullIfLeftIsNull) {
+            this.predicate = predicate;
+            this.left = left;
+            this.right = right;
+            this.nullIfLeftIsNull = nullIfLeftIsNull;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            double leftValue = left.evalDouble(frame);
+            boolean leftIsNull = frame.wasNull;
+            if (leftIsNull && nullIfLeftIsNull) {
+                return false;
+            }
+            double rightValue = right.evalDouble(frame);
+            if (leftIsNull || frame.wasNull) {
+                frame.wasNull = true;
+                return false;
+            }
+            // same semantics as Double.compareTo, which is used for boxed values
+            return predicate.test(Double.compare(leftValue, rightValue));
+        }
+    }
+
+    private static final class And extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        And(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            boolean leftValue = left.evalBool(frame);
+            boolean leftIsNull = frame.wasNull;
+            boolean rightValue = right.evalBool(frame);
+            boolean rightIsNull = frame.wasNull;
+            if ((!leftIsNull && !leftValue) || (!rightIsNull && !rightValue)) {
+                frame.wasNull = false;
+                return false;
+            }
+            frame.wasNull = leftIsNull || rightIsNull;
+            return !frame.wasNull;
+        }
+    }
+
+    private static final class Or extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        Or(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            boolean leftValue = left.evalBool(frame);
+            boolean leftIsNull = frame.wasNull;
+            boolean rightValue = right.evalBool(frame);
+            boolean rightIsNull = frame.wasNull;
+            if ((!leftIsNull && leftValue) || (!rightIsNull && rightValue)) {
+                frame.wasNull = false;
+                return true;
+            }
+            frame.wasNull = leftIsNull || rightIsNull;
+            return false;
+        }
+    }
+
+    private static final class Not extends Node {
+
+        private final Node node;
+
+        Not(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            return !node.evalBool(frame);
+        }
+    }
+
+    private static final class IsNull extends Node {
+
+        private final Kind kind;
+        private final Node node;
+
+        IsNull(Kind kind, Node node) {
+            this.kind = kind;
+            this.node = node;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            switch (kind) {
+                case LONG:
+                    node.evalLong(frame);
+                    break;
+                case DOUBLE:
+                    node.evalDouble(frame);
+                    break;
+                default:
+                    node.evalBool(frame);
+            }
+            boolean isNull = frame.wasNull;
+            frame.wasNull = false;
+            return isNull;
+        }
+    }
+
+    private static final class IsNullLeaf extends Node {
+
+        private final Input<?> input;
+
+        IsNullLeaf(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            frame.wasNull = false;
+            return input.value() == null;
+        }
+    }
+
+    private static final class IfThenElse extends Node {
+
+        private final Node condition;
+        private final Node then;
+        @Nullable
+        private final Node otherwise;
+
+        IfThenElse(Node condition, Node then, @Nullable Node otherwise) {
+            this.condition = condition;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Nullable
+        private Node branch(Frame frame) {
+            boolean value = condition.evalBool(frame);
+            if (value && !frame.wasNull) {
+                return then;
+            }
+            if (otherwise == null) {
+                frame.wasNull = true;
+            }
+            return otherwise;
+        }
+
+        @Override
+        long evalLong(Frame frame) {
+            Node branch = branch(frame);
+            return branch == null ? 0L : branch.evalLong(frame);
+        }
+
+        @Override
+        double evalDouble(Frame frame) {
+            Node branch = branch(frame);
+            return branch == null ? 0.0d : branch.evalDouble(frame);
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            Node branch = branch(frame);
+            return branch != null && branch.evalBool(frame);
+        }
+    }
+
+    private static final class Coalesce extends Node {
+
+        private final Node[] nodes;
+
+        Coalesce(Node[] nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        long evalLong(Frame frame) {
+            for (Node node : nodes) {
+                long value = node.evalLong(frame);
+                if (!frame.wasNull) {
+                    return value;
+                }
+            }
+            return 0L;
+        }
+
+        @Override
+        double evalDouble(Frame frame) {
+            for (Node node : nodes) {
+                double value = node.evalDouble(frame);
+                if (!frame.wasNull) {
+                    return value;
+                }
+            }
+            return 0.0d;
+        }
+
+        @Override
+        boolean evalBool(Frame frame) {
+            for (Node node : nodes) {
+                boolean value = node.evalBool(frame);
+                if (!frame.wasNull) {
+                    return value;
+                }
+            }
+            return false;
+        }
+    }
+}
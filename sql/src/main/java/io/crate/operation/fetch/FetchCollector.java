@@ -22,17 +22,15 @@
 
 package io.crate.operation.fetch;
 
-import com.carrotsearch.hppc.IntContainer;
-import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
-import io.crate.executor.transport.StreamBucket;
 import io.crate.operation.InputRow;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 
@@ -41,6 +39,8 @@ import java.util.List;
 
 class FetchCollector {
 
+    private static final int INITIAL_PAGE_SIZE = 1024;
+
     private final CollectorFieldsVisitor fieldsVisitor;
     private final boolean visitorEnabled;
     private final LuceneCollectorExpression[] collectorExpressions;
@@ -76,20 +76,40 @@ class FetchCollector {
             readerContext.reader().document(doc, fieldsVisitor);
         }
         for (LuceneCollectorExpression e : collectorExpressions) {
-            e.setNextReader(readerContext);
             e.setNextDocId(doc);
         }
     }
 
-    public StreamBucket collect(IntContainer docIds) throws IOException {
-        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccountingContext);
-        for (IntCursor cursor : docIds) {
-            int docId = cursor.value;
-            int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
-            LeafReaderContext subReaderContext = readerContexts.get(readerIndex);
+    /**
+     * Collects the rows of {@code docs[from, to)} which must be sorted by docId, see {@link FetchedRows#sortByDocId}.
+     * Visiting the documents in docId order lets consecutive documents share the decompressed stored fields block
+     * and the per segment state of the expressions.
+     *
+     * @return true if this was the last pending part of {@code fetchedRows}
+     */
+    boolean collect(long[] docs, int from, int to, int part, FetchedRows fetchedRows) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
+        LeafReaderContext subReaderContext = null;
+        int subReaderEnd = -1;
+        for (int i = from; i < to; i++) {
+            int docId = FetchedRows.docId(docs[i]);
+            if (docId >= subReaderEnd) {
+                subReaderContext = readerContexts.get(ReaderUtil.subIndex(docId, readerContexts));
+                subReaderEnd = subReaderContext.docBase + subReaderContext.reader().maxDoc();
+                for (LuceneCollectorExpression e : collectorExpressions) {
+                    e.setNextReader(subReaderContext);
+                }
+            }
             setNextDocId(subReaderContext, docId - subReaderContext.docBase);
-            builder.add(row);
+
+            int offset = out.size();
+            for (int c = 0; c < streamers.length; c++) {
+                streamers[c].writeValueTo(out, row.get(c));
+            }
+            int length = out.size() - offset;
+            ramAccountingContext.addBytes(length);
+            fetchedRows.setRow(FetchedRows.position(docs[i]), part, offset, length);
         }
-        return builder.build();
+        return fetchedRows.finishPart(part, out.bytes());
     }
 }
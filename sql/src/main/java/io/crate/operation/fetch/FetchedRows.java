@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.fetch;
+
+import com.carrotsearch.hppc.IntContainer;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import io.crate.Streamer;
+import io.crate.executor.transport.StreamBucket;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The rows fetched for a single reader.
+ * <p>
+ * Documents are read in docId order, possibly split into several parts which are collected concurrently,
+ * but the rows must be returned in the order in which the docIds were requested.
+ * Each part serializes its rows into its own buffer and registers where each row is located;
+ * {@link #toBucket()} assembles the rows in the requested order from slices of these buffers, without copying them.
+ */
+class FetchedRows {
+
+    private final Streamer<?>[] streamers;
+    private final int[] partOfRow;
+    private final int[] rowOffsets;
+    private final int[] rowLengths;
+    private final BytesReference[] parts;
+    private final AtomicInteger pendingParts;
+
+    FetchedRows(Streamer<?>[] streamers, int numRows, int numParts) {
+        this.streamers = streamers;
+        this.partOfRow = new int[numRows];
+        this.rowOffsets = new int[numRows];
+        this.rowLengths = new int[numRows];
+        this.parts = new BytesReference[numParts];
+        this.pendingParts = new AtomicInteger(numParts);
+    }
+
+    /**
+     * Sorts the docIds ascending; each entry holds the docId in the upper and the position
+     * of the docId within {@code docIds} in the lower 32 bits.
+     */
+    static long[] sortByDocId(IntContainer docIds) {
+        long[] docs = new long[docIds.size()];
+        int position = 0;
+        for (IntCursor cursor : docIds) {
+            docs[position] = ((long) cursor.value << 32) | position;
+            position++;
+        }
+        Arrays.sort(docs);
+        return docs;
+    }
+
+    static int docId(long doc) {
+        return (int) (doc >>> 32);
+    }
+
+    static int position(long doc) {
+        return (int) doc;
+    }
+
+    void setRow(int position, int part, int offset, int length) {
+        partOfRow[position] = part;
+        rowOffsets[position] = offset;
+        rowLengths[position] = length;
+    }
+
+    /**
+     * @return true if this was the last pending part
+     */
+    boolean finishPart(int part, BytesReference bytes) {
+        parts[part] = bytes;
+        return pendingParts.decrementAndGet() == 0;
+    }
+
+    StreamBucket toBucket() {
+        int numRows = partOfRow.length;
+        if (numRows == 0) {
+            return new StreamBucket(streamers, 0, BytesArray.EMPTY);
+        }
+        List<BytesReference> slices = new ArrayList<>();
+        int i = 0;
+        while (i < numRows) {
+            int part = partOfRow[i];
+            int offset = rowOffsets[i];
+            int length = rowLengths[i];
+            i++;
+            // rows which follow each other within a part are handed over as a single slice
+            while (i < numRows && partOfRow[i] == part && rowOffsets[i] == offset + length) {
+                length += rowLengths[i];
+                i++;
+            }
+            slices.add(parts[part].slice(offset, length));
+        }
+        BytesReference bytes = slices.size() == 1
+            ? slices.get(0)
+            : new CompositeBytesReference(slices.toArray(new BytesReference[0]));
+        return new StreamBucket(streamers, numRows, bytes);
+    }
+}
@@ -52,6 +52,12 @@ import java.util.concurrent.atomic.AtomicReference;
 
 public class NodeFetchOperation {
 
+    /**
+     * Fetches of a single reader are only split into several parts if each part fetches at least this many docs.
+     */
+    private static final int MIN_DOCS_PER_PART = 2048;
+    private static final int MAX_PARTS_PER_READER = 4;
+
     private final Executor executor;
     private final JobsLogs jobsLogs;
     private final JobContextService jobContextService;
@@ -156,6 +162,13 @@ public class NodeFetchOperation {
         return result;
     }
 
+    /**
+     * @return the number of parts the fetch of {@code numDocs} documents of a single reader is split into
+     */
+    static int numParts(int numDocs) {
+        return Math.max(1, Math.min(numDocs / MIN_DOCS_PER_PART, MAX_PARTS_PER_READER));
+    }
+
     private void doFetch(FetchContext fetchContext,
                          CompletableFuture<IntObjectMap<StreamBucket>> resultFuture,
                          IntObjectMap<? extends IntContainer> toFetch) throws Exception {
@@ -163,42 +176,59 @@ public class NodeFetchOperation {
         final IntObjectHashMap<StreamBucket> fetched = new IntObjectHashMap<>(toFetch.size());
         HashMap<TableIdent, TableFetchInfo> tableFetchInfos = getTableFetchInfos(fetchContext);
         final AtomicReference<Throwable> lastThrowable = new AtomicReference<>(null);
-        final AtomicInteger threadLatch = new AtomicInteger(toFetch.size());
 
         // RamAccountingContext is per doFetch call instead of per FetchContext/fetchPhase
         // To be able to free up the memory count when the operation is complete
         RamAccountingContext ramAccountingContext = new RamAccountingContext("fetch-" + fetchContext.id(), circuitBreaker);
         resultFuture.whenComplete((r, f) -> ramAccountingContext.close());
 
+        int numRunnables = 0;
+        for (IntObjectCursor<? extends IntContainer> toFetchCursor : toFetch) {
+            numRunnables += numParts(toFetchCursor.value.size());
+        }
+        final AtomicInteger threadLatch = new AtomicInteger(numRunnables);
+
         for (IntObjectCursor<? extends IntContainer> toFetchCursor : toFetch) {
             final int readerId = toFetchCursor.key;
-            final IntContainer docIds = toFetchCursor.value;
+            final long[] docs = FetchedRows.sortByDocId(toFetchCursor.value);
 
             TableIdent ident = fetchContext.tableIdent(readerId);
             final TableFetchInfo tfi = tableFetchInfos.get(ident);
             assert tfi != null : "tfi must not be null";
 
-            CollectRunnable runnable = new CollectRunnable(
-                tfi.createCollector(readerId, ramAccountingContext),
-                docIds,
-                fetched,
-                readerId,
-                lastThrowable,
-                threadLatch,
-                resultFuture,
-                fetchContext.isKilled()
-            );
-            try {
-                executor.execute(runnable);
-            } catch (EsRejectedExecutionException | RejectedExecutionException e) {
-                runnable.run();
+            int numParts = numParts(docs.length);
+            FetchedRows fetchedRows = new FetchedRows(tfi.streamers, docs.length, numParts);
+            for (int part = 0; part < numParts; part++) {
+                CollectRunnable runnable = new CollectRunnable(
+                    tfi.createCollector(readerId, ramAccountingContext),
+                    docs,
+                    (int) ((long) docs.length * part / numParts),
+                    (int) ((long) docs.length * (part + 1) / numParts),
+                    part,
+                    fetchedRows,
+                    fetched,
+                    readerId,
+                    lastThrowable,
+                    threadLatch,
+                    resultFuture,
+                    fetchContext.isKilled()
+                );
+                try {
+                    executor.execute(runnable);
+                } catch (EsRejectedExecutionException | RejectedExecutionException e) {
+                    runnable.run();
+                }
             }
         }
     }
 
     private static class CollectRunnable implements Runnable {
         private final FetchCollector collector;
-        private final IntContainer docIds;
+        private final long[] docs;
+        private final int from;
+        private final int to;
+        private final int part;
+        private final FetchedRows fetchedRows;
         private final IntObjectHashMap<StreamBucket> fetched;
         private final int readerId;
         private final AtomicReference<Throwable> lastThrowable;
@@ -207,7 +237,11 @@ public class NodeFetchOperation {
         private final AtomicBoolean contextKilledRef;
 
         CollectRunnable(FetchCollector collector,
-                        IntContainer docIds,
+                        long[] docs,
+                        int from,
+                        int to,
+                        int part,
+                        FetchedRows fetchedRows,
                         IntObjectHashMap<StreamBucket> fetched,
                         int readerId,
                         AtomicReference<Throwable> lastThrowable,
@@ -215,7 +249,11 @@ public class NodeFetchOperation {
                         CompletableFuture<IntObjectMap<StreamBucket>> resultFuture,
                         AtomicBoolean contextKilledRef) {
             this.collector = collector;
-            this.docIds = docIds;
+            this.docs = docs;
+            this.from = from;
+            this.to = to;
+            this.part = part;
+            this.fetchedRows = fetchedRows;
             this.fetched = fetched;
             this.readerId = readerId;
             this.lastThrowable = lastThrowable;
@@ -227,9 +265,11 @@ public class NodeFetchOperation {
         @Override
         public void run() {
             try {
-                StreamBucket bucket = collector.collect(docIds);
-                synchronized (fetched) {
-                    fetched.put(readerId, bucket);
+                if (collector.collect(docs, from, to, part, fetchedRows)) {
+                    StreamBucket bucket = fetchedRows.toBucket();
+                    synchronized (fetched) {
+                        fetched.put(readerId, bucket);
+                    }
                 }
             } catch (Exception e) {
                 lastThrowable.set(e);
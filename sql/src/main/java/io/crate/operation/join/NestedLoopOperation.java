@@ -21,16 +21,24 @@
 
 package io.crate.operation.join;
 
+import io.crate.analyze.symbol.Symbol;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.*;
+import io.crate.data.join.HashJoinBatchIterator;
 import io.crate.data.join.NestedLoopBatchIterator;
+import io.crate.operation.InputFactory;
+import io.crate.operation.collect.CollectExpression;
 import io.crate.planner.node.dql.join.JoinType;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 
 public class NestedLoopOperation implements CompletionListenable {
@@ -39,19 +47,45 @@ public class NestedLoopOperation implements CompletionListenable {
     private final CompletableFuture<BatchIterator> rightBatchIterator = new CompletableFuture<>();
     private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
 
+    private final boolean isHashJoin;
+
     public NestedLoopOperation(BatchConsumer nlResultConsumer,
                                Predicate<Row> joinPredicate,
                                JoinType joinType) {
+        this(nlResultConsumer, joinPredicate, joinType, null);
+    }
+
+    /**
+     * @param hashJoinKeys if not null a hash join is used instead of a nested loop (if the joinType allows it)
+     *                     and {@code joinPredicate} is only the remaining condition that isn't covered by the keys.
+     */
+    public NestedLoopOperation(BatchConsumer nlResultConsumer,
+                               Predicate<Row> joinPredicate,
+                               JoinType joinType,
+                               @Nullable HashJoinKeys hashJoinKeys) {
+        this.isHashJoin = hashJoinKeys != null && joinType != JoinType.CROSS;
 
         CompletableFuture.allOf(leftBatchIterator, rightBatchIterator)
             .whenComplete((result, failure) -> {
                 if (failure == null) {
-                    BatchIterator nlIterator = new ListenableBatchIterator(createNestedLoopIterator(
-                        leftBatchIterator.join(),
-                        rightBatchIterator.join(),
-                        joinType,
-                        joinPredicate
-                    ), completionFuture);
+                    BatchIterator joinIterator;
+                    if (isHashJoin) {
+                        joinIterator = createHashJoinIterator(
+                            leftBatchIterator.join(),
+                            rightBatchIterator.join(),
+                            joinType,
+                            joinPredicate,
+                            hashJoinKeys
+                        );
+                    } else {
+                        joinIterator = createNestedLoopIterator(
+                            leftBatchIterator.join(),
+                            rightBatchIterator.join(),
+                            joinType,
+                            joinPredicate
+                        );
+                    }
+                    BatchIterator nlIterator = new ListenableBatchIterator(joinIterator, completionFuture);
                     nlResultConsumer.accept(nlIterator, null);
                 } else {
                     nlResultConsumer.accept(null, failure);
@@ -83,6 +117,31 @@ public class NestedLoopOperation implements CompletionListenable {
         throw new AssertionError("Invalid joinType: " + joinType);
     }
 
+    private static BatchIterator createHashJoinIterator(BatchIterator left,
+                                                       BatchIterator right,
+                                                       JoinType joinType,
+                                                       Predicate<Row> joinCondition,
+                                                       HashJoinKeys keys) {
+        switch (joinType) {
+            case INNER:
+                return HashJoinBatchIterator.innerJoin(
+                    left, right, keys.left, keys.right, getJoinCondition(joinCondition), keys.buildRowAccounting);
+
+            case LEFT:
+                return HashJoinBatchIterator.leftJoin(
+                    left, right, keys.left, keys.right, getJoinCondition(joinCondition), keys.buildRowAccounting);
+
+            case RIGHT:
+                return HashJoinBatchIterator.rightJoin(
+                    left, right, keys.left, keys.right, getJoinCondition(joinCondition), keys.buildRowAccounting);
+
+            case FULL:
+                return HashJoinBatchIterator.fullOuterJoin(
+                    left, right, keys.left, keys.right, getJoinCondition(joinCondition), keys.buildRowAccounting);
+        }
+        throw new AssertionError("Invalid joinType for hash join: " + joinType);
+    }
+
     private static Function<Columns, BooleanSupplier> getJoinCondition(Predicate<Row> joinCondition) {
         return columns -> {
             final Row row = RowBridging.toRow(columns);
@@ -95,7 +154,8 @@ public class NestedLoopOperation implements CompletionListenable {
     }
 
     public BatchConsumer rightConsumer() {
-        return getBatchConsumer(rightBatchIterator, true);
+        // the hash join consumes the right side only once to build the hash table
+        return getBatchConsumer(rightBatchIterator, isHashJoin == false);
     }
 
     private BatchConsumer getBatchConsumer(CompletableFuture<BatchIterator> future, boolean requiresRepeat) {
@@ -121,4 +181,67 @@ public class NestedLoopOperation implements CompletionListenable {
         return completionFuture;
     }
 
+    /**
+     * Key extractors used to build and probe the hash table of a hash join.
+     */
+    public static class HashJoinKeys {
+
+        private final Function<Columns, Supplier<Object>> left;
+        private final Function<Columns, Supplier<Object>> right;
+        private final Consumer<Row> buildRowAccounting;
+
+        /**
+         * @param buildRowAccounting invoked for each row of the right side that is put into the hash table.
+         *                           Can throw to abort the join. (E.g. if the circuit breaker trips)
+         */
+        public HashJoinKeys(InputFactory inputFactory,
+                            List<Symbol> leftKeys,
+                            List<Symbol> rightKeys,
+                            Consumer<Row> buildRowAccounting) {
+            this.left = keyExtractor(inputFactory, leftKeys);
+            this.right = keyExtractor(inputFactory, rightKeys);
+            this.buildRowAccounting = buildRowAccounting;
+        }
+
+        /**
+         * Create a function which evaluates {@code keys} against the given columns.
+         * The resulting key is null if any of the key values is null, as null never matches in a equi-join.
+         * Multiple keys are combined into a list as it implements equals/hashCode based on the elements.
+         */
+        private static Function<Columns, Supplier<Object>> keyExtractor(InputFactory inputFactory, List<Symbol> keys) {
+            return columns -> {
+                Row row = RowBridging.toRow(columns);
+                InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(keys);
+                List<Input<?>> inputs = ctx.topLevelInputs();
+                List<CollectExpression<Row, ?>> expressions = ctx.expressions();
+                if (inputs.size() == 1) {
+                    Input<?> input = inputs.get(0);
+                    return () -> {
+                        setNextRow(expressions, row);
+                        return input.value();
+                    };
+                }
+                return () -> {
+                    setNextRow(expressions, row);
+                    Object[] values = new Object[inputs.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        Object value = inputs.get(i).value();
+                        if (value == null) {
+                            return null;
+                        }
+                        values[i] = value;
+                    }
+                    return Arrays.asList(values);
+                };
+            };
+        }
+
+        private static void setNextRow(List<CollectExpression<Row, ?>> expressions, Row row) {
+            //noinspection ForLoopReplaceableByForEach // avoids iterator allocation - invoked per row
+            for (int i = 0; i < expressions.size(); i++) {
+                expressions.get(i).setNextRow(row);
+            }
+        }
+    }
+
 }
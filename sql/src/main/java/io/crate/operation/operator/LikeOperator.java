@@ -25,6 +25,7 @@ import io.crate.analyze.symbol.Symbol;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Scalar;
 import io.crate.data.Input;
+import io.crate.operation.scalar.regex.PatternCache;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 
@@ -80,7 +81,7 @@ public class LikeOperator extends Operator<BytesRef> {
     }
 
     private boolean matches(String expression, String pattern) {
-        return Pattern.compile(
+        return PatternCache.compile(
             patternToRegex(pattern, DEFAULT_ESCAPE, true), Pattern.DOTALL).matcher(expression).matches();
     }
 
@@ -142,7 +143,7 @@ public class LikeOperator extends Operator<BytesRef> {
 
         CompiledLike(FunctionInfo info, String pattern) {
             this.info = info;
-            this.pattern = Pattern.compile(patternToRegex(pattern, DEFAULT_ESCAPE, true), Pattern.DOTALL);
+            this.pattern = PatternCache.compile(patternToRegex(pattern, DEFAULT_ESCAPE, true), Pattern.DOTALL);
         }
 
         @Override
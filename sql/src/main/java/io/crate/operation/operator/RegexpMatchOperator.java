@@ -23,10 +23,9 @@ package io.crate.operation.operator;
 
 import io.crate.metadata.FunctionInfo;
 import io.crate.data.Input;
+import io.crate.operation.scalar.regex.PatternCache;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
-import org.apache.lucene.util.automaton.ByteRunAutomaton;
-import org.apache.lucene.util.automaton.RegExp;
 
 import static io.crate.operation.scalar.regex.RegexMatcher.isPcrePattern;
 
@@ -54,11 +53,9 @@ public class RegexpMatchOperator extends Operator<BytesRef> {
         }
         String sPattern = pattern.utf8ToString();
         if (isPcrePattern(sPattern)) {
-            return source.utf8ToString().matches(sPattern);
+            return PatternCache.compile(sPattern, 0).matcher(source.utf8ToString()).matches();
         } else {
-            RegExp regexp = new RegExp(sPattern);
-            ByteRunAutomaton regexpRunAutomaton = new ByteRunAutomaton(regexp.toAutomaton());
-            return regexpRunAutomaton.run(source.bytes, source.offset, source.length);
+            return PatternCache.runAutomaton(sPattern).run(source.bytes, source.offset, source.length);
         }
     }
 
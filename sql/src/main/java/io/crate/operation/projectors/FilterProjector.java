@@ -22,19 +22,35 @@
 package io.crate.operation.projectors;
 
 import io.crate.data.*;
+import io.crate.operation.vector.ColumnBatch;
+import io.crate.operation.vector.ColumnVector;
+import io.crate.operation.vector.VectorExpression;
+import io.crate.operation.vector.VectorizedFilteringBatchIterator;
 
+import javax.annotation.Nullable;
 import java.util.function.Predicate;
 
 class FilterProjector implements Projector {
 
     private final Predicate<Row> rowFilterPredicate;
+    @Nullable
+    private final VectorExpression<ColumnVector.Booleans> vectorizedFilter;
 
-    FilterProjector(Predicate<Row> rowFilterPredicate) {
+    /**
+     * @param vectorizedFilter if not null it is used instead of rowFilterPredicate to evaluate the filter on batches
+     *                         of rows.
+     */
+    FilterProjector(Predicate<Row> rowFilterPredicate,
+                    @Nullable VectorExpression<ColumnVector.Booleans> vectorizedFilter) {
         this.rowFilterPredicate = rowFilterPredicate;
+        this.vectorizedFilter = vectorizedFilter;
     }
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
+        if (vectorizedFilter != null) {
+            return new VectorizedFilteringBatchIterator(batchIterator, vectorizedFilter, ColumnBatch.DEFAULT_CAPACITY);
+        }
         return new FilteringBatchIterator(
             batchIterator,
             inputs -> {
@@ -0,0 +1,515 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import io.crate.data.Input;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hash table which assigns consecutive ids (starting at 0) to the distinct group keys.
+ *
+ * The key of the current row is read directly from the key inputs, so looking up an existing group
+ * doesn't allocate a key object. Keys are only materialized once a new group is added.
+ *
+ * Implementations are open-addressing hash tables:
+ *  - {@link #forLongKey(Input, DataType)}: numeric keys, stored as primitive longs.
+ *  - {@link #forObjectKey(Input)}: any other single key (e.g. BytesRef).
+ *  - {@link #forPackedKeys(List, List)}: composite keys of numeric columns, packed into a shared long array
+ *    without an object per group.
+ *  - {@link #forManyKeys(List)}: any other composite keys, probed with a reused key instance.
+ */
+abstract class GroupIdTable {
+
+    static final int NO_GROUP = -1;
+
+    /**
+     * @return true if a single key of the given type can be stored by {@link #forLongKey(Input, DataType)}
+     */
+    static boolean supportsLongKey(DataType type) {
+        switch (type.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+            case IntegerType.ID:
+            case ShortType.ID:
+            case ByteType.ID:
+            case DoubleType.ID:
+            case FloatType.ID:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Create the table which fits best for the given keys
+     */
+    static GroupIdTable create(List<? extends Input<?>> keyInputs, List<? extends DataType> keyTypes) {
+        assert keyInputs.size() == keyTypes.size() : "number of key types must match with number of key inputs";
+        if (keyInputs.size() == 1) {
+            DataType keyType = keyTypes.get(0);
+            if (supportsLongKey(keyType)) {
+                return forLongKey(keyInputs.get(0), keyType);
+            }
+            return forObjectKey(keyInputs.get(0));
+        }
+        if (keyTypes.size() <= PackedKeys.MAX_KEYS && keyTypes.stream().allMatch(GroupIdTable::supportsLongKey)) {
+            return forPackedKeys(keyInputs, keyTypes);
+        }
+        return forManyKeys(keyInputs);
+    }
+
+    static GroupIdTable forLongKey(Input<?> keyInput, DataType keyType) {
+        return new LongKeys(keyInput, toLong(keyType), fromLong(keyType));
+    }
+
+    private static ToLongFunction<Object> toLong(DataType keyType) {
+        switch (keyType.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+            case IntegerType.ID:
+            case ShortType.ID:
+            case ByteType.ID:
+                return v -> ((Number) v).longValue();
+            case DoubleType.ID:
+                // using the bits keeps the semantics of Double.equals (as used by a HashMap)
+                return v -> Double.doubleToLongBits(((Number) v).doubleValue());
+            case FloatType.ID:
+                return v -> Float.floatToIntBits(((Number) v).floatValue());
+
+            default:
+                throw new IllegalArgumentException("Type " + keyType + " is not supported as long key");
+        }
+    }
+
+    private static LongFunction<Object> fromLong(DataType keyType) {
+        switch (keyType.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+                return k -> k;
+            case IntegerType.ID:
+                return k -> (int) k;
+            case ShortType.ID:
+                return k -> (short) k;
+            case ByteType.ID:
+                return k -> (byte) k;
+            case DoubleType.ID:
+                return Double::longBitsToDouble;
+            case FloatType.ID:
+                return k -> Float.intBitsToFloat((int) k);
+
+            default:
+                throw new IllegalArgumentException("Type " + keyType + " is not supported as long key");
+        }
+    }
+
+    static GroupIdTable forObjectKey(Input<?> keyInput) {
+        return new ObjectKeys(keyInput);
+    }
+
+    static GroupIdTable forPackedKeys(List<? extends Input<?>> keyInputs, List<? extends DataType> keyTypes) {
+        return new PackedKeys(keyInputs, keyTypes);
+    }
+
+    static GroupIdTable forManyKeys(List<? extends Input<?>> keyInputs) {
+        return new ManyKeys(keyInputs);
+    }
+
+    /**
+     * Id of the group with the null key. Null is stored outside of the hash tables
+     */
+    private int nullGroupId = NO_GROUP;
+
+    private int size = 0;
+
+    /**
+     * Look up the group of the key of the current row.
+     * A new group is added if the key wasn't seen before; the id of the new group is the previous {@link #size()}.
+     */
+    abstract int add();
+
+    /**
+     * @return the key of the group as it should be accounted for. Multiple keys are returned as List.
+     */
+    abstract Object key(int groupId);
+
+    /**
+     * Write the key(s) of the group to {@code cells}, starting at position 0
+     */
+    abstract void writeKey(int groupId, Object[] cells);
+
+    /**
+     * @return the number of groups
+     */
+    int size() {
+        return size;
+    }
+
+    int nullGroupId() {
+        return nullGroupId;
+    }
+
+    int addNullGroup() {
+        if (nullGroupId == NO_GROUP) {
+            nullGroupId = addGroup(null);
+        }
+        return nullGroupId;
+    }
+
+    /**
+     * Adds a new group with the given key
+     *
+     * @return the id of the new group
+     */
+    final int addGroup(Object key) {
+        onNewGroup(key);
+        return size++;
+    }
+
+    /**
+     * Called for each new group with the key which must be stored for the new group id ({@link #size()})
+     */
+    abstract void onNewGroup(Object key);
+
+
+    private static class LongKeys extends GroupIdTable {
+
+        private final LongIntHashMap groupIds = new LongIntHashMap();
+        private final Input<?> keyInput;
+        private final ToLongFunction<Object> toLong;
+        private final LongFunction<Object> fromLong;
+
+        private long[] keys = new long[16];
+
+        LongKeys(Input<?> keyInput, ToLongFunction<Object> toLong, LongFunction<Object> fromLong) {
+            this.keyInput = keyInput;
+            this.toLong = toLong;
+            this.fromLong = fromLong;
+        }
+
+        @Override
+        int add() {
+            Object value = keyInput.value();
+            if (value == null) {
+                return addNullGroup();
+            }
+            long key = toLong.applyAsLong(value);
+            int groupId = groupIds.getOrDefault(key, NO_GROUP);
+            if (groupId == NO_GROUP) {
+                groupId = addGroup(value);
+                groupIds.put(key, groupId);
+            }
+            return groupId;
+        }
+
+        @Override
+        void onNewGroup(Object key) {
+            int size = size();
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+            }
+            keys[size] = key == null ? 0L : toLong.applyAsLong(key);
+        }
+
+        @Override
+        Object key(int groupId) {
+            if (groupId == nullGroupId()) {
+                return null;
+            }
+            return fromLong.apply(keys[groupId]);
+        }
+
+        @Override
+        void writeKey(int groupId, Object[] cells) {
+            cells[0] = key(groupId);
+        }
+    }
+
+    private static class ObjectKeys extends GroupIdTable {
+
+        private final ObjectIntHashMap<Object> groupIds = new ObjectIntHashMap<>();
+        private final ArrayList<Object> keys = new ArrayList<>();
+        private final Input<?> keyInput;
+
+        ObjectKeys(Input<?> keyInput) {
+            this.keyInput = keyInput;
+        }
+
+        @Override
+        int add() {
+            Object key = keyInput.value();
+            if (key == null) {
+                return addNullGroup();
+            }
+            int groupId = groupIds.getOrDefault(key, NO_GROUP);
+            if (groupId == NO_GROUP) {
+                groupId = addGroup(key);
+                groupIds.put(key, groupId);
+            }
+            return groupId;
+        }
+
+        @Override
+        void onNewGroup(Object key) {
+            keys.add(key);
+        }
+
+        @Override
+        Object key(int groupId) {
+            return keys.get(groupId);
+        }
+
+        @Override
+        void writeKey(int groupId, Object[] cells) {
+            cells[0] = keys.get(groupId);
+        }
+    }
+
+    private static class ManyKeys extends GroupIdTable {
+
+        private final ObjectIntHashMap<CompositeKey> groupIds = new ObjectIntHashMap<>();
+        private final ArrayList<Object[]> keys = new ArrayList<>();
+        private final List<? extends Input<?>> keyInputs;
+
+        /**
+         * Re-used to look up the keys of the current row, only copied if a new group is added.
+         */
+        private final CompositeKey probe;
+
+        ManyKeys(List<? extends Input<?>> keyInputs) {
+            this.keyInputs = keyInputs;
+            this.probe = new CompositeKey(new Object[keyInputs.size()]);
+        }
+
+        @Override
+        int add() {
+            Object[] values = probe.values;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = keyInputs.get(i).value();
+            }
+            probe.updateHash();
+            int groupId = groupIds.getOrDefault(probe, NO_GROUP);
+            if (groupId == NO_GROUP) {
+                CompositeKey key = new CompositeKey(values.clone());
+                key.updateHash();
+                groupId = addGroup(key.values);
+                groupIds.put(key, groupId);
+            }
+            return groupId;
+        }
+
+        @Override
+        void onNewGroup(Object key) {
+            keys.add((Object[]) key);
+        }
+
+        @Override
+        Object key(int groupId) {
+            return Arrays.asList(keys.get(groupId));
+        }
+
+        @Override
+        void writeKey(int groupId, Object[] cells) {
+            Object[] values = keys.get(groupId);
+            System.arraycopy(values, 0, cells, 0, values.length);
+        }
+    }
+
+    /**
+     * Composite keys of numeric columns. The key of each group is stored as {@code numKeys} longs followed by a
+     * bitmask of the null columns, in a single array shared by all groups. The hash table holds the group ids.
+     */
+    private static class PackedKeys extends GroupIdTable {
+
+        static final int MAX_KEYS = Long.SIZE;
+
+        private final List<? extends Input<?>> keyInputs;
+        private final ToLongFunction<Object>[] toLong;
+        private final LongFunction<Object>[] fromLong;
+        private final int width;
+
+        /**
+         * The key of the current row, in the same layout as the keys of the groups
+         */
+        private final long[] probe;
+
+        private long[] keys;
+
+        /**
+         * Open-addressing table of group id + 1, 0 marks an empty slot
+         */
+        private int[] slots = new int[32];
+
+        @SuppressWarnings("unchecked")
+        PackedKeys(List<? extends Input<?>> keyInputs, List<? extends DataType> keyTypes) {
+            assert keyInputs.size() <= MAX_KEYS : "the null bitmask can't hold more than " + MAX_KEYS + " keys";
+            this.keyInputs = keyInputs;
+            int numKeys = keyTypes.size();
+            this.toLong = new ToLongFunction[numKeys];
+            this.fromLong = new LongFunction[numKeys];
+            for (int i = 0; i < numKeys; i++) {
+                toLong[i] = toLong(keyTypes.get(i));
+                fromLong[i] = fromLong(keyTypes.get(i));
+            }
+            this.width = numKeys + 1;
+            this.probe = new long[width];
+            this.keys = new long[16 * width];
+        }
+
+        @Override
+        int add() {
+            long nulls = 0L;
+            for (int i = 0; i < toLong.length; i++) {
+                Object value = keyInputs.get(i).value();
+                if (value == null) {
+                    nulls |= 1L << i;
+                    probe[i] = 0L;
+                } else {
+                    probe[i] = toLong[i].applyAsLong(value);
+                }
+            }
+            probe[toLong.length] = nulls;
+
+            int mask = slots.length - 1;
+            int slot = hash(probe, 0) & mask;
+            int entry;
+            while ((entry = slots[slot]) != 0) {
+                if (equalsProbe(entry - 1)) {
+                    return entry - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int groupId = addGroup(probe);
+            slots[slot] = groupId + 1;
+            if (size() << 1 > slots.length) {
+                rehash();
+            }
+            return groupId;
+        }
+
+        private boolean equalsProbe(int groupId) {
+            int offset = groupId * width;
+            for (int i = 0; i < width; i++) {
+                if (keys[offset + i] != probe[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int hash(long[] words, int offset) {
+            long hash = 1L;
+            for (int i = offset; i < offset + width; i++) {
+                hash = 31 * hash + words[i];
+            }
+            // murmur3 finalizer, spreads the bits of keys which only differ in their high bits
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return (int) hash;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length << 1];
+            int mask = slots.length - 1;
+            for (int groupId = 0; groupId < size(); groupId++) {
+                int slot = hash(keys, groupId * width) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = groupId + 1;
+            }
+        }
+
+        @Override
+        void onNewGroup(Object key) {
+            int offset = size() * width;
+            if (offset + width > keys.length) {
+                keys = Arrays.copyOf(keys, keys.length << 1);
+            }
+            System.arraycopy((long[]) key, 0, keys, offset, width);
+        }
+
+        @Override
+        Object key(int groupId) {
+            Object[] cells = new Object[toLong.length];
+            writeKey(groupId, cells);
+            return Arrays.asList(cells);
+        }
+
+        @Override
+        void writeKey(int groupId, Object[] cells) {
+            int offset = groupId * width;
+            long nulls = keys[offset + toLong.length];
+            for (int i = 0; i < toLong.length; i++) {
+                cells[i] = (nulls & (1L << i)) == 0 ? fromLong[i].apply(keys[offset + i]) : null;
+            }
+        }
+    }
+
+    private static final class CompositeKey {
+
+        private final Object[] values;
+        private int hash;
+
+        CompositeKey(Object[] values) {
+            this.values = values;
+        }
+
+        void updateHash() {
+            hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            CompositeKey other = (CompositeKey) obj;
+            return hash == other.hash && Arrays.equals(values, other.values);
+        }
+    }
+}
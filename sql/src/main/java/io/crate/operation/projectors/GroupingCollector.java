@@ -19,10 +19,8 @@
  * software solely pursuant to the terms of the relevant commercial
  * agreement.
  */
-
 package io.crate.operation.projectors;
 
-import com.google.common.collect.Iterables;
 import io.crate.analyze.symbol.AggregateMode;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.breaker.SizeEstimator;
@@ -31,7 +29,10 @@ import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.ColumnarStates;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.projectors.spill.SpillFile;
+import io.crate.operation.projectors.spill.SpillFiles;
 import io.crate.types.DataType;
 
 import javax.annotation.Nullable;
@@ -46,111 +47,124 @@ import java.util.stream.Collector;
  * Collector implementation which uses {@link Aggregator}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
  *
- * @param <K> type of the key
+ * Groups are identified by consecutive ids assigned by a {@link GroupIdTable}, which is specialized
+ * for the type of the key.
+ *
+ * If {@link SpillFiles} are provided and the query circuit breaker is about to reach its limit, the keys and
+ * partial aggregation states of all groups are written to {@link #NUM_PARTITIONS} files, partitioned by the
+ * hash of the key. Once all rows are consumed the partitions are aggregated one after another.
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector implements Collector<Row, GroupingCollector.Groups, Iterable<Row>> {
+
+    static final int NUM_PARTITIONS = 16;
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
     private final AggregateMode mode;
     private final Input[][] inputs;
     private final RamAccountingContext ramAccountingContext;
-    private final BiConsumer<K, Object[]> applyKeyToCells;
     private final int numKeyColumns;
-    private final SizeEstimator<K> keySizeEstimator;
-    private final Function<Row, K> keyExtractor;
-
-    static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
-                                               AggregateMode mode,
-                                               AggregationFunction[] aggregations,
-                                               Input[][] inputs,
-                                               RamAccountingContext ramAccountingContext,
-                                               Input<?> keyInput,
-                                               DataType keyType) {
-        return new GroupingCollector<>(
+    private final List<? extends DataType> keyTypes;
+    private final SizeEstimator<Object> keySizeEstimator;
+    private final Supplier<GroupIdTable> groupIdTableSupplier;
+
+    @Nullable
+    private final SpillFiles spillFiles;
+
+    static GroupingCollector singleKey(CollectExpression<Row, ?>[] expressions,
+                                       AggregateMode mode,
+                                       AggregationFunction[] aggregations,
+                                       Input[][] inputs,
+                                       RamAccountingContext ramAccountingContext,
+                                       Input<?> keyInput,
+                                       DataType keyType,
+                                       @Nullable SpillFiles spillFiles) {
+        List<Input<?>> keyInputs = Collections.singletonList(keyInput);
+        List<DataType> keyTypes = Collections.singletonList(keyType);
+        return new GroupingCollector(
             expressions,
             aggregations,
             mode,
             inputs,
             ramAccountingContext,
-            (key, cells) -> cells[0] = key,
-            1,
+            keyTypes,
             SizeEstimatorFactory.create(keyType),
-            row -> keyInput.value()
+            () -> GroupIdTable.create(keyInputs, keyTypes),
+            spillFiles
         );
     }
 
-    static GroupingCollector<List<Object>> manyKeys(CollectExpression<Row, ?>[] expressions,
-                                                    AggregateMode mode,
-                                                    AggregationFunction[] aggregations,
-                                                    Input[][] inputs,
-                                                    RamAccountingContext ramAccountingContext,
-                                                    List<Input<?>> keyInputs,
-                                                    List<? extends DataType> keyTypes) {
-        return new GroupingCollector<>(
+    static GroupingCollector manyKeys(CollectExpression<Row, ?>[] expressions,
+                                      AggregateMode mode,
+                                      AggregationFunction[] aggregations,
+                                      Input[][] inputs,
+                                      RamAccountingContext ramAccountingContext,
+                                      List<Input<?>> keyInputs,
+                                      List<? extends DataType> keyTypes,
+                                      @Nullable SpillFiles spillFiles) {
+        return new GroupingCollector(
             expressions,
             aggregations,
             mode,
             inputs,
             ramAccountingContext,
-            GroupingCollector::applyKeysToCells,
-            keyInputs.size(),
+            keyTypes,
             new MultiSizeEstimator(keyTypes),
-            row -> evalKeyInputs(keyInputs)
+            () -> GroupIdTable.create(keyInputs, keyTypes),
+            spillFiles
         );
     }
 
-    private static List<Object> evalKeyInputs(List<Input<?>> keyInputs) {
-        List<Object> key = new ArrayList<>(keyInputs.size());
-        for (Input<?> keyInput : keyInputs) {
-            key.add(keyInput.value());
-        }
-        return key;
-    }
-
-    private static void applyKeysToCells(List<Object> keys, Object[] cells) {
-        for (int i = 0; i < keys.size(); i++) {
-            cells[i] = keys.get(i);
-        }
-    }
-
     private GroupingCollector(CollectExpression<Row, ?>[] expressions,
                               AggregationFunction[] aggregations,
                               AggregateMode mode,
                               Input[][] inputs,
                               RamAccountingContext ramAccountingContext,
-                              BiConsumer<K, Object[]> applyKeyToCells,
-                              int numKeyColumns,
-                              SizeEstimator<K> keySizeEstimator,
-                              Function<Row, K> keyExtractor) {
+                              List<? extends DataType> keyTypes,
+                              SizeEstimator<?> keySizeEstimator,
+                              Supplier<GroupIdTable> groupIdTableSupplier,
+                              @Nullable SpillFiles spillFiles) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
         this.inputs = inputs;
         this.ramAccountingContext = ramAccountingContext;
-        this.applyKeyToCells = applyKeyToCells;
-        this.numKeyColumns = numKeyColumns;
-        this.keySizeEstimator = keySizeEstimator;
-        this.keyExtractor = keyExtractor;
+        this.numKeyColumns = keyTypes.size();
+        this.keyTypes = keyTypes;
+        //noinspection unchecked
+        this.keySizeEstimator = (SizeEstimator<Object>) keySizeEstimator;
+        this.groupIdTableSupplier = groupIdTableSupplier;
+        this.spillFiles = spillFiles;
     }
 
     @Override
-    public Supplier<Map<K, Object[]>> supplier() {
-        return HashMap::new;
+    public Supplier<Groups> supplier() {
+        return () -> new Groups(groupIdTableSupplier.get(), newStates(), ramAccountingContext.newChild());
+    }
+
+    private ColumnarStates[] newStates() {
+        ColumnarStates[] states = new ColumnarStates[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            states[i] = ColumnarStates.of(aggregations[i]);
+        }
+        return states;
     }
 
     @Override
-    public BiConsumer<Map<K, Object[]>, Row> accumulator() {
-        return this::onNextRow;
+    public BiConsumer<Groups, Row> accumulator() {
+        if (spillFiles == null) {
+            return this::onNextRow;
+        }
+        return this::onNextRowMaybeSpill;
     }
 
     @Override
-    public BinaryOperator<Map<K, Object[]>> combiner() {
+    public BinaryOperator<Groups> combiner() {
         return (state1, state2) -> { throw new UnsupportedOperationException("combine not supported"); };
     }
 
     @Override
-    public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
+    public Function<Groups, Iterable<Row>> finisher() {
         return this::mapToRows;
     }
 
@@ -159,59 +173,205 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         return Collections.emptySet();
     }
 
-    private void onNextRow(Map<K, Object[]> statesByKey, Row row) {
+    private void onNextRow(Groups groups, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
         }
-        K key = keyExtractor.apply(row);
-        Object[] states = statesByKey.get(key);
-        if (states == null) {
-            addNewEntry(statesByKey, key);
-        } else {
+        int numGroups = groups.groupIds.size();
+        int groupId = groups.groupIds.add();
+        if (groupId == numGroups) {
+            addNewEntry(groups, groupId);
+        }
+        ColumnarStates[] states = groups.states;
+        for (int i = 0; i < states.length; i++) {
+            mode.onRow(groups.ramAccountingContext, states[i], groupId, inputs[i]);
+        }
+    }
+
+    private void onNextRowMaybeSpill(Groups groups, Row row) {
+        assert spillFiles != null : "spillFiles must not be null if spilling is enabled";
+        onNextRow(groups, row);
+        if (spillFiles.shouldSpill(groups.ramAccountingContext.totalBytes())) {
+            spill(groups);
+        }
+    }
+
+    private void addNewEntry(Groups groups, int groupId) {
+        for (ColumnarStates states : groups.states) {
+            states.addGroup(groups.ramAccountingContext);
+        }
+        groups.ramAccountingContext.addBytes( // key size + 8 bytes for the hash table entry
+            RamAccountingContext.roundUp(keySizeEstimator.estimateSize(groups.groupIds.key(groupId)) + 8L));
+    }
+
+    /**
+     * Write the keys and partial states of all groups into the partition files and reset the groups.
+     */
+    private void spill(Groups groups) {
+        assert spillFiles != null : "spillFiles must not be null if spilling is enabled";
+        if (groups.partitions == null) {
+            List<DataType> columnTypes = new ArrayList<>(numKeyColumns + aggregations.length);
+            columnTypes.addAll(keyTypes);
+            for (AggregationFunction aggregation : aggregations) {
+                columnTypes.add(aggregation.partialType());
+            }
+            groups.partitions = new SpillFile[NUM_PARTITIONS];
+            for (int i = 0; i < NUM_PARTITIONS; i++) {
+                groups.partitions[i] = spillFiles.newFile(columnTypes);
+            }
+        }
+        Object[] cells = new Object[numKeyColumns + aggregations.length];
+        for (int groupId = 0; groupId < groups.groupIds.size(); groupId++) {
+            groups.groupIds.writeKey(groupId, cells);
             for (int i = 0; i < aggregations.length; i++) {
-                states[i] = mode.onRow(ramAccountingContext, aggregations[i], states[i], inputs[i]);
+                cells[numKeyColumns + i] = groups.states[i].partialState(groupId);
             }
+            groups.partitions[partition(cells)].write(cells);
         }
+        groups.groupIds = groupIdTableSupplier.get();
+        groups.states = newStates();
+        groups.ramAccountingContext.releaseBytes(groups.ramAccountingContext.totalBytes());
     }
 
-    private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
-        Object[] states;
-        states = new Object[aggregations.length];
-        for (int i = 0; i < aggregations.length; i++) {
-            AggregationFunction aggregation = aggregations[i];
-            states[i] = mode.onRow(
-                ramAccountingContext, aggregation, aggregation.newState(ramAccountingContext), inputs[i]);
+    private int partition(Object[] cells) {
+        int hash = 1;
+        for (int i = 0; i < numKeyColumns; i++) {
+            hash = 31 * hash + Objects.hashCode(cells[i]);
+        }
+        hash ^= hash >>> 16;
+        return hash & (NUM_PARTITIONS - 1);
+    }
+
+    private Iterable<Row> mapToRows(Groups groups) {
+        if (groups.partitions == null) {
+            return () -> new GroupsIterator(groups);
+        }
+        spill(groups);
+        for (SpillFile partition : groups.partitions) {
+            partition.finishWriting();
         }
-        ramAccountingContext.addBytes( // key size + 32 bytes for entry + 4 bytes for increased capacity
-            RamAccountingContext.roundUp(keySizeEstimator.estimateSize(key) + 36L));
-        statesByKey.put(key, states);
+        return () -> new SpilledGroupsIterator(groups.partitions);
     }
 
-    private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
-        return Iterables.transform(statesByKey.entrySet(), new com.google.common.base.Function<Map.Entry<K, Object[]>, Row>() {
+    /**
+     * Aggregate the spilled partial states of a partition. All groups of the partition are held in memory.
+     */
+    private Groups mergePartition(SpillFile partition) {
+        Object[][] currentRow = new Object[1][];
+        List<Input<?>> keyInputs = new ArrayList<>(numKeyColumns);
+        for (int i = 0; i < numKeyColumns; i++) {
+            int idx = i;
+            keyInputs.add(() -> currentRow[0][idx]);
+        }
+        Groups groups = new Groups(
+            GroupIdTable.create(keyInputs, keyTypes), newStates(), ramAccountingContext.newChild());
+        for (Object[] row : partition.rows()) {
+            currentRow[0] = row;
+            int numGroups = groups.groupIds.size();
+            int groupId = groups.groupIds.add();
+            if (groupId == numGroups) {
+                addNewEntry(groups, groupId);
+            }
+            for (int i = 0; i < aggregations.length; i++) {
+                groups.states[i].reduce(groups.ramAccountingContext, groupId, row[numKeyColumns + i]);
+            }
+        }
+        return groups;
+    }
+
+    private class GroupsIterator implements Iterator<Row> {
 
-            RowN row = new RowN(numKeyColumns + aggregations.length);
-            Object[] cells = new Object[row.numColumns()];
+        private final Groups groups;
+        private final RowN row = new RowN(numKeyColumns + aggregations.length);
+        private final Object[] cells = new Object[row.numColumns()];
+        private int groupId = 0;
+
+        GroupsIterator(Groups groups) {
+            this.groups = groups;
+            row.cells(cells);
+        }
 
-            {
-                row.cells(cells);
+        @Override
+        public boolean hasNext() {
+            return groupId < groups.groupIds.size();
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator is exhausted");
             }
+            groups.groupIds.writeKey(groupId, cells);
+            int c = numKeyColumns;
+            for (ColumnarStates states : groups.states) {
+                cells[c] = mode.finishCollect(groups.ramAccountingContext, states, groupId);
+                c++;
+            }
+            groupId++;
+            return row;
+        }
+    }
+
+    private class SpilledGroupsIterator implements Iterator<Row> {
 
-            @Nullable
-            @Override
-            public Row apply(@Nullable Map.Entry<K, Object[]> input) {
-                assert input != null : "input must not be null";
-
-                applyKeyToCells.accept(input.getKey(), cells);
-                int c = numKeyColumns;
-                Object[] states = input.getValue();
-                for (int i = 0; i < states.length; i++) {
-                    cells[c] = mode.finishCollect(ramAccountingContext, aggregations[i], states[i]);
-                    c++;
+        private final SpillFile[] partitions;
+        private int partitionIdx = 0;
+        private Iterator<Row> current = Collections.emptyIterator();
+        @Nullable
+        private Groups currentGroups;
+
+        SpilledGroupsIterator(SpillFile[] partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (currentGroups != null) {
+                    currentGroups.ramAccountingContext.close();
+                    currentGroups = null;
+                }
+                if (partitionIdx == partitions.length) {
+                    return false;
                 }
-                return row;
+                currentGroups = mergePartition(partitions[partitionIdx]);
+                current = new GroupsIterator(currentGroups);
+                partitionIdx++;
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator is exhausted");
             }
-        });
+            return current.next();
+        }
+    }
+
+    /**
+     * The group ids and the aggregation states (one {@link ColumnarStates} per aggregation), indexed by group id.
+     */
+    static class Groups {
+
+        private GroupIdTable groupIds;
+        private ColumnarStates[] states;
+
+        /**
+         * child of the collector's context: other operations may account on the same context at the same time,
+         * so only the bytes counted here can be released once the groups are written to disk.
+         */
+        private final RamAccountingContext ramAccountingContext;
+
+        @Nullable
+        private SpillFile[] partitions;
+
+        Groups(GroupIdTable groupIds, ColumnarStates[] states, RamAccountingContext ramAccountingContext) {
+            this.groupIds = groupIds;
+            this.states = states;
+            this.ramAccountingContext = ramAccountingContext;
+        }
     }
 
 
@@ -27,23 +27,40 @@ import io.crate.data.*;
 import io.crate.operation.AggregationContext;
 import io.crate.operation.aggregation.AggregationFunction;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.projectors.spill.SpillFiles;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class GroupingProjector implements Projector {
 
-    private final GroupingCollector<Object> collector;
+    private final List<? extends DataType> keyTypes;
+    private final List<Input<?>> keyInputs;
+    private final CollectExpression<Row, ?>[] collectExpressions;
+    private final AggregateMode mode;
+    private final AggregationFunction[] functions;
+    private final Input[][] inputs;
+    private final RamAccountingContext ramAccountingContext;
+    @Nullable
+    private final Path spillDirectory;
     private final int numCols;
 
 
+    /**
+     * @param spillDirectory directory to write the groups to if the query circuit breaker is about to trip;
+     *                       null if the groups must be kept in memory.
+     */
     public GroupingProjector(List<? extends DataType> keyTypes,
                              List<Input<?>> keyInputs,
                              CollectExpression<Row, ?>[] collectExpressions,
                              AggregateMode mode,
                              AggregationContext[] aggregations,
-                             RamAccountingContext ramAccountingContext) {
+                             RamAccountingContext ramAccountingContext,
+                             @Nullable Path spillDirectory) {
         assert keyTypes.size() == keyInputs.size() : "number of key types must match with number of key inputs";
         assert allTypesKnown(keyTypes) : "must have a known type for each key input";
 
@@ -55,38 +72,58 @@ public class GroupingProjector implements Projector {
             functions[i] = aggregation.function();
             inputs[i] = aggregation.inputs();
         }
+        this.keyTypes = keyTypes;
+        this.keyInputs = keyInputs;
+        this.collectExpressions = collectExpressions;
+        this.mode = mode;
+        this.functions = functions;
+        this.inputs = inputs;
+        this.ramAccountingContext = ramAccountingContext;
+        this.spillDirectory = spillDirectory;
+        numCols = keyInputs.size() + functions.length;
+    }
+
+    private static boolean allTypesKnown(List<? extends DataType> keyTypes) {
+        return keyTypes.stream().noneMatch(input -> input.equals(DataTypes.UNDEFINED));
+    }
+
+    private GroupingCollector createCollector(@Nullable SpillFiles spillFiles) {
         if (keyInputs.size() == 1) {
-            collector = GroupingCollector.singleKey(
+            return GroupingCollector.singleKey(
                 collectExpressions,
                 mode,
                 functions,
                 inputs,
                 ramAccountingContext,
                 keyInputs.get(0),
-                keyTypes.get(0)
-            );
-        } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
-                collectExpressions,
-                mode,
-                functions,
-                inputs,
-                ramAccountingContext,
-                keyInputs,
-                keyTypes
+                keyTypes.get(0),
+                spillFiles
             );
         }
-        numCols = keyInputs.size() + functions.length;
-    }
-
-    private static boolean allTypesKnown(List<? extends DataType> keyTypes) {
-        return keyTypes.stream().noneMatch(input -> input.equals(DataTypes.UNDEFINED));
+        return GroupingCollector.manyKeys(
+            collectExpressions,
+            mode,
+            functions,
+            inputs,
+            ramAccountingContext,
+            keyInputs,
+            keyTypes,
+            spillFiles
+        );
     }
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector, numCols);
+        if (spillDirectory == null) {
+            return CollectingBatchIterator.newInstance(batchIterator, createCollector(null), numCols);
+        }
+        SpillFiles spillFiles = new SpillFiles(spillDirectory, ramAccountingContext);
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        closed.whenComplete((r, t) -> spillFiles.close());
+        return new ListenableBatchIterator(
+            CollectingBatchIterator.newInstance(batchIterator, createCollector(spillFiles), numCols),
+            closed
+        );
     }
 
     @Override
@@ -26,6 +26,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchConsumer;
 import io.crate.data.BatchIterator;
 import io.crate.data.Projector;
+import io.crate.jobs.PhaseProfile;
 import io.crate.planner.projection.Projection;
 
 import javax.annotation.Nullable;
@@ -53,6 +54,8 @@ public class ProjectingBatchConsumer implements BatchConsumer {
 
     private final BatchConsumer consumer;
     private final List<Projector> projectors;
+    @Nullable
+    private final List<PhaseProfile.ProjectorProfile> projectorProfiles;
     private boolean requiresScroll;
 
     public static BatchConsumer create(BatchConsumer lastConsumer,
@@ -60,24 +63,42 @@ public class ProjectingBatchConsumer implements BatchConsumer {
                                        UUID jobId,
                                        RamAccountingContext ramAccountingContext,
                                        ProjectorFactory projectorFactory) {
+        return create(lastConsumer, projections, jobId, ramAccountingContext, projectorFactory, null);
+    }
+
+    /**
+     * @param phaseProfile if not null the rows flowing into and out of each projector are counted
+     */
+    public static BatchConsumer create(BatchConsumer lastConsumer,
+                                       Collection<? extends Projection> projections,
+                                       UUID jobId,
+                                       RamAccountingContext ramAccountingContext,
+                                       ProjectorFactory projectorFactory,
+                                       @Nullable PhaseProfile phaseProfile) {
         if (projections.isEmpty()) {
             return lastConsumer;
         }
-        return new ProjectingBatchConsumer(lastConsumer, projections, jobId, ramAccountingContext, projectorFactory);
+        return new ProjectingBatchConsumer(
+            lastConsumer, projections, jobId, ramAccountingContext, projectorFactory, phaseProfile);
     }
 
     private ProjectingBatchConsumer(BatchConsumer consumer,
                                     Collection<? extends Projection> projections,
                                     UUID jobId,
                                     RamAccountingContext ramAccountingContext,
-                                    ProjectorFactory projectorFactory) {
+                                    ProjectorFactory projectorFactory,
+                                    @Nullable PhaseProfile phaseProfile) {
         this.consumer = consumer;
         projectors = new ArrayList<>(projections.size());
+        projectorProfiles = phaseProfile == null ? null : new ArrayList<>(projections.size());
 
         boolean projectorsSupportIndependentScrolling = false;
         for (Projection projection : projections) {
             Projector projector = projectorFactory.create(projection, ramAccountingContext, jobId);
             projectors.add(projector);
+            if (phaseProfile != null) {
+                projectorProfiles.add(phaseProfile.addProjector(projection.projectionType().toString()));
+            }
 
             if (projector.providesIndependentScroll()) {
                 projectorsSupportIndependentScrolling = true;
@@ -93,9 +114,17 @@ public class ProjectingBatchConsumer implements BatchConsumer {
     @Override
     public void accept(BatchIterator iterator, @Nullable Throwable failure) {
         if (failure == null) {
-            for (Projector projector : projectors) {
+            for (int i = 0; i < projectors.size(); i++) {
+                Projector projector = projectors.get(i);
                 try {
-                    iterator = projector.apply(iterator);
+                    if (projectorProfiles == null) {
+                        iterator = projector.apply(iterator);
+                    } else {
+                        PhaseProfile.ProjectorProfile profile = projectorProfiles.get(i);
+                        iterator = new RowCountingBatchIterator(
+                            projector.apply(new RowCountingBatchIterator(iterator, profile.rowsIn())),
+                            profile.rowsOut());
+                    }
                 } catch (Throwable t) {
                     consumer.accept(null, t);
                     return;
@@ -50,8 +50,13 @@ import io.crate.operation.projectors.fetch.FetchProjector;
 import io.crate.operation.projectors.fetch.FetchProjectorContext;
 import io.crate.operation.projectors.fetch.TransportFetchOperation;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
+import io.crate.operation.projectors.spill.SpillFiles;
 import io.crate.operation.reference.StaticTableDefinition;
 import io.crate.operation.reference.sys.SysRowUpdater;
+import io.crate.operation.vector.ColumnBatch;
+import io.crate.operation.vector.ColumnVector;
+import io.crate.operation.vector.VectorExpression;
+import io.crate.operation.vector.VectorExpressionCompiler;
 import io.crate.planner.projection.AggregationProjection;
 import io.crate.planner.projection.ColumnIndexWriterProjection;
 import io.crate.planner.projection.DeleteProjection;
@@ -68,6 +73,7 @@ import io.crate.planner.projection.SysUpdateProjection;
 import io.crate.planner.projection.TopNProjection;
 import io.crate.planner.projection.UpdateProjection;
 import io.crate.planner.projection.WriterProjection;
+import io.crate.types.DataType;
 import io.crate.types.StringType;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
@@ -75,6 +81,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -100,6 +107,8 @@ public class ProjectionToProjectorVisitor
     private final Function<TableIdent, StaticTableDefinition<?>> staticTableDefinitionGetter;
     @Nullable
     private final ShardId shardId;
+    @Nullable
+    private final Path spillDirectory;
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
                                         NodeJobsCounter nodeJobsCounter,
@@ -123,6 +132,7 @@ public class ProjectionToProjectorVisitor
         this.sysUpdaterGetter = sysUpdaterGetter;
         this.staticTableDefinitionGetter = staticTableDefinitionGetter;
         this.shardId = shardId;
+        this.spillDirectory = SpillFiles.directory(settings);
     }
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -181,12 +191,18 @@ public class ProjectionToProjectorVisitor
                 projection.offset()
             );
         }
+        List<DataType> inputTypes = new ArrayList<>(inputs.size());
+        inputTypes.addAll(Symbols.extractTypes(projection.outputs()));
+        inputTypes.addAll(Symbols.extractTypes(projection.orderBy()));
         return new SortingProjector(
             inputs,
             ctx.expressions(),
             numOutputs,
             OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-            projection.offset()
+            projection.offset(),
+            inputTypes,
+            context.ramAccountingContext,
+            spillDirectory
         );
     }
 
@@ -221,7 +237,8 @@ public class ProjectionToProjectorVisitor
             Iterables.toArray(ctx.expressions(), CollectExpression.class),
             projection.mode(),
             ctx.aggregations().toArray(new AggregationContext[0]),
-            context.ramAccountingContext
+            context.ramAccountingContext,
+            spillDirectory
         );
     }
 
@@ -369,7 +386,9 @@ public class ProjectionToProjectorVisitor
     @Override
     public Projector visitFilterProjection(FilterProjection projection, Context context) {
         Predicate<Row> rowFilter = RowFilter.create(inputFactory, projection.query());
-        return new FilterProjector(rowFilter);
+        VectorExpression<ColumnVector.Booleans> vectorizedFilter =
+            new VectorExpressionCompiler(inputFactory, ColumnBatch.DEFAULT_CAPACITY).compileCondition(projection.query());
+        return new FilterProjector(rowFilter, vectorizedFilter);
     }
 
     @Override
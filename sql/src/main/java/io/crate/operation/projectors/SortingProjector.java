@@ -22,12 +22,31 @@
 package io.crate.operation.projectors;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
 import io.crate.data.*;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.merge.KeyIterable;
+import io.crate.operation.merge.SortedPagingIterator;
+import io.crate.operation.projectors.spill.SpillFile;
+import io.crate.operation.projectors.spill.SpillFiles;
+import io.crate.types.DataType;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -36,6 +55,9 @@ import java.util.stream.Collectors;
  * <p>
  * Compared to {@link SortingTopNProjector} this projector does not support limiting,
  * while the {@link SortingTopNProjector} does not work WITHOUT a limit.
+ * <p>
+ * If a spill directory is given, sorted runs of rows are written to disk once the query circuit breaker
+ * is about to reach its limit. The runs are merged using a {@link SortedPagingIterator}.
  */
 class SortingProjector implements Projector {
 
@@ -46,6 +68,13 @@ class SortingProjector implements Projector {
     private final int offset;
     private final int numOutputs;
 
+    @Nullable
+    private final List<? extends DataType> inputTypes;
+    @Nullable
+    private final RamAccountingContext ramAccountingContext;
+    @Nullable
+    private final Path spillDirectory;
+
     /**
      * @param inputs             contains output {@link Input}s and orderBy {@link Input}s
      * @param collectExpressions gathered from outputs and orderBy inputs
@@ -58,17 +87,47 @@ class SortingProjector implements Projector {
                      int numOutputs,
                      Comparator<Object[]> comparator,
                      int offset) {
+        this(inputs, collectExpressions, numOutputs, comparator, offset, null, null, null);
+    }
+
+    /**
+     * @param inputTypes           the types of the <code>inputs</code>, required for spilling
+     * @param ramAccountingContext used to account for the rows, required for spilling
+     * @param spillDirectory       directory for the sorted runs; null if rows must not be written to disk
+     */
+    SortingProjector(Collection<? extends Input<?>> inputs,
+                     Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                     int numOutputs,
+                     Comparator<Object[]> comparator,
+                     int offset,
+                     @Nullable List<? extends DataType> inputTypes,
+                     @Nullable RamAccountingContext ramAccountingContext,
+                     @Nullable Path spillDirectory) {
         Preconditions.checkArgument(offset >= 0, "invalid offset %s", offset);
         this.numOutputs = numOutputs;
         this.inputs = inputs;
         this.collectExpressions = collectExpressions;
         this.comparator = comparator;
         this.offset = offset;
+        this.inputTypes = inputTypes;
+        this.ramAccountingContext = ramAccountingContext;
+        this.spillDirectory = spillDirectory;
     }
 
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
+        if (spillDirectory != null) {
+            assert inputTypes != null && ramAccountingContext != null
+                : "inputTypes and ramAccountingContext are required for spilling";
+            SpillFiles spillFiles = new SpillFiles(spillDirectory, ramAccountingContext);
+            CompletableFuture<Void> closed = new CompletableFuture<>();
+            closed.whenComplete((r, t) -> spillFiles.close());
+            return new ListenableBatchIterator(
+                CollectingBatchIterator.newInstance(batchIterator, new ExternalSortCollector(spillFiles), numOutputs),
+                closed
+            );
+        }
         Collector<Row, ?, Bucket> collector = Collectors.mapping(
             this::getCells,
             Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
@@ -99,4 +158,110 @@ class SortingProjector implements Projector {
         }
         return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
     }
+
+    private Iterable<Row> rowsOf(Iterable<Object[]> sortedRows) {
+        return () -> {
+            Iterator<Object[]> it = sortedRows.iterator();
+            Iterators.advance(it, offset);
+            RowN row = new RowN(numOutputs);
+            return Iterators.transform(it, cells -> {
+                row.cells(cells);
+                return row;
+            });
+        };
+    }
+
+    /**
+     * State of the {@link ExternalSortCollector}: the rows in memory and the sorted runs on disk.
+     */
+    private static class SortedRuns {
+
+        private final ArrayList<Object[]> rows = new ArrayList<>();
+        private final List<SpillFile> runs = new ArrayList<>();
+
+        /**
+         * child of the projector's context: other operations may account on the same context at the same time,
+         * so only the bytes counted here can be released once the rows are written to disk.
+         */
+        private final RamAccountingContext ramAccountingContext;
+        private final RowAccounting rowAccounting;
+
+        SortedRuns(RamAccountingContext ramAccountingContext, List<? extends DataType> inputTypes) {
+            this.ramAccountingContext = ramAccountingContext;
+            this.rowAccounting = new RowAccounting(inputTypes, ramAccountingContext);
+        }
+    }
+
+    private class ExternalSortCollector implements Collector<Row, SortedRuns, Iterable<Row>> {
+
+        private final SpillFiles spillFiles;
+        private final RowN accountedRow;
+        private final Comparator<Object[]> rowOrdering = comparator.reversed();
+
+        ExternalSortCollector(SpillFiles spillFiles) {
+            this.spillFiles = spillFiles;
+            this.accountedRow = new RowN(inputTypes.size());
+        }
+
+        @Override
+        public Supplier<SortedRuns> supplier() {
+            return () -> new SortedRuns(ramAccountingContext.newChild(), inputTypes);
+        }
+
+        @Override
+        public BiConsumer<SortedRuns, Row> accumulator() {
+            return this::onNextRow;
+        }
+
+        @Override
+        public BinaryOperator<SortedRuns> combiner() {
+            return (state1, state2) -> { throw new UnsupportedOperationException("combine not supported"); };
+        }
+
+        @Override
+        public Function<SortedRuns, Iterable<Row>> finisher() {
+            return this::merge;
+        }
+
+        @Override
+        public Set<Characteristics> characteristics() {
+            return Collections.emptySet();
+        }
+
+        private void onNextRow(SortedRuns state, Row row) {
+            Object[] cells = getCells(row);
+            accountedRow.cells(cells);
+            state.rowAccounting.accountForAndMaybeBreak(accountedRow);
+            state.rows.add(cells);
+            if (spillFiles.shouldSpill(state.ramAccountingContext.totalBytes())) {
+                state.rows.sort(rowOrdering);
+                SpillFile run = spillFiles.newFile(inputTypes);
+                for (Object[] sortedCells : state.rows) {
+                    run.write(sortedCells);
+                }
+                run.finishWriting();
+                state.runs.add(run);
+                state.rows.clear();
+                state.ramAccountingContext.releaseBytes(state.ramAccountingContext.totalBytes());
+            }
+        }
+
+        private Iterable<Row> merge(SortedRuns state) {
+            state.rows.sort(rowOrdering);
+            if (state.runs.isEmpty()) {
+                return rowsOf(state.rows);
+            }
+            List<KeyIterable<Integer, Object[]>> iterables = new ArrayList<>(state.runs.size() + 1);
+            iterables.add(new KeyIterable<>(0, state.rows));
+            for (int i = 0; i < state.runs.size(); i++) {
+                iterables.add(new KeyIterable<>(i + 1, state.runs.get(i).rows()));
+            }
+            return rowsOf(() -> {
+                SortedPagingIterator<Integer, Object[]> mergeIterator = new SortedPagingIterator<>(rowOrdering, false);
+                mergeIterator.merge(iterables);
+                mergeIterator.finish();
+                return mergeIterator;
+            });
+        }
+    }
 }
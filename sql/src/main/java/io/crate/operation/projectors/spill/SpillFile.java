@@ -0,0 +1,150 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors.spill;
+
+import io.crate.Streamer;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file containing rows which have been written to disk to free memory.
+ *
+ * Rows are appended using {@link #write(Object[])}; after {@link #finishWriting()} they can be read
+ * (multiple times) using {@link #rows()}. The file is deleted on {@link #close()}.
+ */
+public class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Streamer<?>[] streamers;
+
+    private final List<StreamInput> openInputs = new ArrayList<>();
+
+    private StreamOutput out;
+    private int numRows = 0;
+
+    SpillFile(Path path, Streamer<?>[] streamers) throws IOException {
+        this.path = path;
+        this.streamers = streamers;
+        this.out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+    }
+
+    public void write(Object[] row) {
+        assert out != null : "SpillFile must not be written to after finishWriting has been called";
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                streamers[i].writeValueTo(out, row[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    public void finishWriting() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            out = null;
+        }
+    }
+
+    public int numRows() {
+        return numRows;
+    }
+
+    /**
+     * @return the rows in the order they've been written. Each row is a new array.
+     */
+    public Iterable<Object[]> rows() {
+        assert out == null : "finishWriting must be called before the rows can be read";
+        return () -> new Iterator<Object[]>() {
+
+            StreamInput in;
+            int rowIdx = 0;
+
+            @Override
+            public boolean hasNext() {
+                return rowIdx < numRows;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("SpillFile has no more rows");
+                }
+                try {
+                    if (in == null) {
+                        in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+                        openInputs.add(in);
+                    }
+                    Object[] row = new Object[streamers.length];
+                    for (int i = 0; i < streamers.length; i++) {
+                        row[i] = streamers[i].readValueFrom(in);
+                    }
+                    rowIdx++;
+                    if (rowIdx == numRows) {
+                        openInputs.remove(in);
+                        in.close();
+                    }
+                    return row;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            IOUtils.close(openInputs);
+            openInputs.clear();
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
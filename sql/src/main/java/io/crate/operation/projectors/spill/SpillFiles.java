@@ -0,0 +1,127 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors.spill;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@link SpillFile}s of an operation (like a sort or a grouping) which writes rows to disk instead of
+ * failing with a {@link org.elasticsearch.common.breaker.CircuitBreakingException} if the query circuit breaker
+ * is about to reach its limit.
+ *
+ * All files are deleted on {@link #close()}.
+ */
+public class SpillFiles implements Closeable {
+
+    public static final Setting<Boolean> SPILL_TO_DISK_SETTING = Setting.boolSetting(
+        "node.sql.spill_to_disk",
+        false,
+        Setting.Property.NodeScope);
+
+    /**
+     * Rows are spilled once the used bytes of the query breaker reach this ratio of its limit.
+     */
+    private static final double SPILL_LIMIT_RATIO = 0.8;
+
+    private static final Logger LOGGER = Loggers.getLogger(SpillFiles.class);
+
+    private final Path directory;
+    private final RamAccountingContext ramAccountingContext;
+    private final List<SpillFile> files = new ArrayList<>();
+
+    /**
+     * @return the directory for spill files ({@code spill} within the first data path)
+     *         or null if spilling to disk is disabled.
+     */
+    @Nullable
+    public static Path directory(Settings settings) {
+        if (SPILL_TO_DISK_SETTING.get(settings)) {
+            return new Environment(settings).dataFiles()[0].resolve("spill");
+        }
+        return null;
+    }
+
+    public SpillFiles(Path directory, RamAccountingContext ramAccountingContext) {
+        this.directory = directory;
+        this.ramAccountingContext = ramAccountingContext;
+    }
+
+    /**
+     * @param usedBytes the bytes currently accounted for by the operation which could be spilled
+     * @return true if the operation should write its rows to disk
+     */
+    public boolean shouldSpill(long usedBytes) {
+        // operations using less memory than the flush buffer never spill, this avoids creating a lot of tiny files
+        // if the breaker is filled up by other operations.
+        return usedBytes >= RamAccountingContext.FLUSH_BUFFER_SIZE
+               && ramAccountingContext.reachedLimitRatio(SPILL_LIMIT_RATIO);
+    }
+
+    public SpillFile newFile(Collection<? extends DataType> columnTypes) {
+        try {
+            Files.createDirectories(directory);
+            Path path = Files.createTempFile(directory, ramAccountingContext.contextId().replaceAll("\\W", "_"), ".spill");
+            SpillFile file = new SpillFile(path, DataTypes.getStreamers(columnTypes));
+            files.add(file);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("context: {} spills rows to {}", ramAccountingContext.contextId(), path);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        for (SpillFile file : files) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't delete spill file", e);
+            }
+        }
+        files.clear();
+    }
+}
@@ -27,7 +27,6 @@ import io.crate.metadata.doc.DocSysColumns;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.common.xcontent.XContentHelper;
-import org.elasticsearch.search.lookup.SourceLookup;
 
 import java.util.Map;
 
@@ -63,11 +62,6 @@ public class DocCollectorExpression extends LuceneCollectorExpression<Map<String
         final String fqn = Joiner.on(".").join(reference.ident().columnIdent().path());
         return new ChildDocCollectorExpression(fqn) {
 
-            @Override
-            public void startCollect(CollectorContext context) {
-                super.startCollect(context);
-            }
-
             @Override
             public Object value() {
                 // need to make sure it has the correct type;
@@ -82,7 +76,7 @@ public class DocCollectorExpression extends LuceneCollectorExpression<Map<String
     public abstract static class ChildDocCollectorExpression<ReturnType> extends
         LuceneCollectorExpression<ReturnType> {
 
-        protected SourceLookup sourceLookup;
+        protected PartialSourceLookup sourceLookup;
         private LeafReaderContext context;
 
         ChildDocCollectorExpression(String columnName) {
@@ -102,6 +96,7 @@ public class DocCollectorExpression extends LuceneCollectorExpression<Map<String
         @Override
         public void startCollect(CollectorContext context) {
             sourceLookup = context.sourceLookup();
+            sourceLookup.register(columnName);
         }
     }
 }
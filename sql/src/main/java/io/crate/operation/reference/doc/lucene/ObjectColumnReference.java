@@ -23,13 +23,12 @@ package io.crate.operation.reference.doc.lucene;
 
 
 import org.apache.lucene.index.LeafReaderContext;
-import org.elasticsearch.search.lookup.SourceLookup;
 
 import java.util.Map;
 
 public class ObjectColumnReference extends LuceneCollectorExpression<Map<String, Object>> {
 
-    private SourceLookup sourceLookup;
+    private PartialSourceLookup sourceLookup;
     private LeafReaderContext context;
     private Map<String, Object> value;
 
@@ -56,5 +55,6 @@ public class ObjectColumnReference extends LuceneCollectorExpression<Map<String,
     @Override
     public void startCollect(CollectorContext context) {
         sourceLookup = context.sourceLookup();
+        sourceLookup.register(columnName);
     }
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Like {@link org.elasticsearch.search.lookup.SourceLookup} but the source of a document is only parsed for the
+ * columns which have been registered, see {@link SourceParser}.
+ * <p>
+ * All columns must be registered before values are extracted.
+ */
+public final class PartialSourceLookup {
+
+    private final SourceParser sourceParser = new SourceParser();
+
+    private LeafReader reader;
+    private int doc = -1;
+    private Map<String, Object> source;
+
+    public void register(String path) {
+        sourceParser.register(path);
+        source = null;
+    }
+
+    public void setSegmentAndDocument(LeafReaderContext context, int doc) {
+        if (this.reader == context.reader() && this.doc == doc) {
+            return;
+        }
+        this.reader = context.reader();
+        this.doc = doc;
+        this.source = null;
+    }
+
+    public Object extractValue(String path) {
+        return XContentMapValues.extractValue(path, source());
+    }
+
+    private Map<String, Object> source() {
+        if (source == null) {
+            FieldsVisitor fieldsVisitor = new FieldsVisitor(true);
+            try {
+                reader.document(doc, fieldsVisitor);
+            } catch (IOException e) {
+                throw new ElasticsearchParseException("failed to parse / load source", e);
+            }
+            BytesReference sourceBytes = fieldsVisitor.source();
+            source = sourceBytes == null ? Collections.emptyMap() : sourceParser.parse(sourceBytes);
+        }
+        return source;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the _source of a document into a map which only contains the registered columns.
+ * <p>
+ * The source is streamed through a pull parser once; sub-objects which don't contain a registered column are
+ * skipped without being materialized. The values of registered columns are read the same way as
+ * {@link XContentHelper#convertToMap(BytesReference, boolean)} would read them, so extracting a registered column
+ * from the partial map with {@link org.elasticsearch.common.xcontent.support.XContentMapValues#extractValue(String, Map)}
+ * returns the same value as extracting it from the fully parsed source.
+ */
+public final class SourceParser {
+
+    /**
+     * Marks a column whose whole value is required
+     */
+    private static final Object REQUIRED = new Object();
+
+    /**
+     * Tree of the required columns, values are either {@link #REQUIRED} or a map for the required children.
+     */
+    private final Map<String, Object> requiredColumns = new HashMap<>();
+
+    /**
+     * @param path the dotted path of the column, e.g. {@code "o.x"}
+     */
+    @SuppressWarnings("unchecked")
+    public void register(String path) {
+        String[] parts = path.split("\\.");
+        Map<String, Object> level = requiredColumns;
+        for (int i = 0; i < parts.length - 1; i++) {
+            Object child = level.get(parts[i]);
+            if (child == REQUIRED) {
+                // the whole parent is already required
+                return;
+            }
+            if (child == null) {
+                child = new HashMap<String, Object>();
+                level.put(parts[i], child);
+            }
+            level = (Map<String, Object>) child;
+        }
+        level.put(parts[parts.length - 1], REQUIRED);
+    }
+
+    public Map<String, Object> parse(BytesReference source) {
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY, source)) {
+            XContentParser.Token token = parser.nextToken();
+            if (token != XContentParser.Token.START_OBJECT) {
+                throw new ElasticsearchParseException("Failed to parse source, expected an object but got " + token);
+            }
+            return parseObject(parser, requiredColumns);
+        } catch (IOException e) {
+            throw new ElasticsearchParseException("Failed to parse source", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parseObject(XContentParser parser, Map<String, Object> required) throws IOException {
+        Map<String, Object> values = new HashMap<>();
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            token = parser.nextToken();
+            Object requiredChildren = required.get(fieldName);
+            if (requiredChildren == null) {
+                parser.skipChildren();
+            } else if (requiredChildren != REQUIRED && token == XContentParser.Token.START_OBJECT) {
+                values.put(fieldName, parseObject(parser, (Map<String, Object>) requiredChildren));
+            } else {
+                // arrays are read as a whole, even if only a child column is required,
+                // as extracting a child column of an array of objects collects the values of all elements
+                values.put(fieldName, readValue(parser, token));
+            }
+        }
+        return values;
+    }
+
+    private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return parser.text();
+            case VALUE_NUMBER:
+                switch (parser.numberType()) {
+                    case INT:
+                        return parser.intValue();
+                    case LONG:
+                        return parser.longValue();
+                    case FLOAT:
+                        return parser.floatValue();
+                    case DOUBLE:
+                        return parser.doubleValue();
+                    default:
+                        return null;
+                }
+            case VALUE_BOOLEAN:
+                return parser.booleanValue();
+            case START_OBJECT:
+                return parser.map();
+            case START_ARRAY:
+                return parser.list();
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+            default:
+                return null;
+        }
+    }
+}
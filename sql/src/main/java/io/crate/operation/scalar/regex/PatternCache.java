@@ -0,0 +1,130 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.scalar.regex;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.RegExp;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Node-wide cache of compiled regular expressions.
+ *
+ * <p>
+ * Patterns which aren't literals, e.g. {@code name LIKE other_column}, would otherwise be compiled for every row.
+ * {@link Pattern} and {@link ByteRunAutomaton} are immutable and can be shared between threads.
+ * </p>
+ *
+ * <p>
+ * Both caches are bounded by an estimate of the memory used by their entries, as a single pattern can compile
+ * into a large automaton.
+ * </p>
+ */
+public final class PatternCache {
+
+    private static final long MAX_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * A {@link Pattern} doesn't expose its size; the nodes it compiles into take roughly this much per char.
+     */
+    private static final int PATTERN_BYTES_PER_CHAR = 64;
+
+    private static final Cache<Key, Pattern> PATTERNS = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_BYTES)
+        .<Key, Pattern>weigher((key, pattern) -> ramBytesUsed(key.regex) + key.regex.length() * PATTERN_BYTES_PER_CHAR)
+        .build();
+
+    private static final Cache<String, ByteRunAutomaton> RUN_AUTOMATONS = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_BYTES)
+        .<String, ByteRunAutomaton>weigher((regex, automaton) -> ramBytesUsed(regex) + ramBytesUsed(automaton))
+        .build();
+
+    private PatternCache() {
+    }
+
+    /**
+     * Same as {@link Pattern#compile(String, int)}, but returns a cached instance if the pattern was compiled before.
+     */
+    public static Pattern compile(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        Pattern pattern = PATTERNS.getIfPresent(key);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex, flags);
+            PATTERNS.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns a run automaton for a lucene {@link RegExp} with all its optional features enabled.
+     */
+    public static ByteRunAutomaton runAutomaton(String regex) {
+        ByteRunAutomaton automaton = RUN_AUTOMATONS.getIfPresent(regex);
+        if (automaton == null) {
+            automaton = new ByteRunAutomaton(new RegExp(regex).toAutomaton());
+            RUN_AUTOMATONS.put(regex, automaton);
+        }
+        return automaton;
+    }
+
+    private static int ramBytesUsed(String regex) {
+        return regex.length() * Character.BYTES;
+    }
+
+    /**
+     * Estimates the size of the transition table of the automaton, which holds an entry per state and char interval.
+     */
+    static int ramBytesUsed(ByteRunAutomaton automaton) {
+        long states = automaton.getSize();
+        long intervals = automaton.getCharIntervals().length;
+        long bytes = states * intervals * Integer.BYTES + states + intervals * Integer.BYTES;
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static final class Key {
+
+        private final String regex;
+        private final int flags;
+
+        Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return flags == key.flags && regex.equals(key.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class RegexMatcher {
     private final boolean globalFlag;
 
     public RegexMatcher(String regex, int flags, boolean globalFlag) {
-        Pattern pattern = Pattern.compile(regex, flags);
+        Pattern pattern = PatternCache.compile(regex, flags);
         this.matcher = pattern.matcher(utf16);
         this.globalFlag = globalFlag;
     }
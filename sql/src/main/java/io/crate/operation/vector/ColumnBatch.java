@@ -0,0 +1,85 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+import io.crate.data.Columns;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+
+/**
+ * A batch of rows buffered from a {@link io.crate.data.BatchIterator} so that expressions can be evaluated on all of
+ * them at once, see {@link VectorExpression}.
+ */
+public final class ColumnBatch {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Object[][] rows;
+    private final RowN row;
+    private int size = 0;
+
+    public ColumnBatch(int capacity, int numColumns) {
+        this.rows = new Object[capacity][numColumns];
+        this.row = new RowN(numColumns);
+    }
+
+    public int capacity() {
+        return rows.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == rows.length;
+    }
+
+    /**
+     * Copies the current values of the columns into the batch
+     */
+    public void add(Columns columns) {
+        assert size < rows.length : "batch is full";
+        Object[] cells = rows[size];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = columns.get(i).value();
+        }
+        size++;
+    }
+
+    public Object get(int rowIdx, int column) {
+        return rows[rowIdx][column];
+    }
+
+    /**
+     * @return a shared row instance which points to the row with the given index.
+     */
+    public Row row(int rowIdx) {
+        row.cells(rows[rowIdx]);
+        return row;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+/**
+ * The values of one column or expression for all rows of a {@link ColumnBatch}, stored in a primitive array.
+ * <p>
+ * {@code isNull[i]} is true if the value of row i is null, {@code values[i]} is undefined in that case.
+ * Vectors are allocated once with the batch capacity and re-used for every batch.
+ */
+public abstract class ColumnVector {
+
+    public final boolean[] isNull;
+
+    ColumnVector(int capacity) {
+        this.isNull = new boolean[capacity];
+    }
+
+    /**
+     * Holds the values of all integral types and timestamps.
+     */
+    public static final class Longs extends ColumnVector {
+
+        public final long[] values;
+
+        Longs(int capacity) {
+            super(capacity);
+            values = new long[capacity];
+        }
+    }
+
+    /**
+     * Holds the values of float and double types.
+     */
+    public static final class Doubles extends ColumnVector {
+
+        public final double[] values;
+
+        Doubles(int capacity) {
+            super(capacity);
+            values = new double[capacity];
+        }
+    }
+
+    public static final class Booleans extends ColumnVector {
+
+        public final boolean[] values;
+
+        Booleans(int capacity) {
+            super(capacity);
+            values = new boolean[capacity];
+        }
+
+        /**
+         * @return true if the value of the row is true; null is treated as false.
+         */
+        public boolean matches(int row) {
+            return values[row] && !isNull[row];
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+/**
+ * An expression which is evaluated for all rows of a {@link ColumnBatch} at once.
+ * Evaluating a tight loop over primitive arrays avoids the boxing and the virtual call chain of nested
+ * {@link io.crate.data.Input}s which a row-at-a-time evaluation has.
+ * <p>
+ * Implementations may return the same vector instance on every call, the result is only valid until the next call.
+ */
+public interface VectorExpression<V extends ColumnVector> {
+
+    V evaluate(ColumnBatch batch);
+}
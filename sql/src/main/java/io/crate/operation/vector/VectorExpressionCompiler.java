@@ -0,0 +1,353 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitor;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.operation.InputFactory;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.GteOperator;
+import io.crate.operation.operator.LtOperator;
+import io.crate.operation.operator.LteOperator;
+import io.crate.operation.operator.OrOperator;
+import io.crate.operation.predicate.NotPredicate;
+import io.crate.operation.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.operation.scalar.cast.CastFunctionResolver;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles symbols which are based on {@link InputColumn}s into {@link VectorExpression}s.
+ * <p>
+ * Arithmetic, comparisons, casts between numeric types and boolean logic on numeric and boolean values are vectorized.
+ * Any other function is evaluated row-at-a-time for all rows of the batch and its result is loaded into a vector,
+ * so that the vectorized parts of an expression still benefit.
+ */
+public final class VectorExpressionCompiler {
+
+    private enum Kind {
+        LONG,
+        DOUBLE,
+        BOOLEAN
+    }
+
+    private static final Set<DataType> LONG_TYPES = ImmutableSet.of(
+        DataTypes.BYTE, DataTypes.SHORT, DataTypes.INTEGER, DataTypes.LONG, DataTypes.TIMESTAMP);
+    private static final Set<DataType> DOUBLE_TYPES = ImmutableSet.of(DataTypes.FLOAT, DataTypes.DOUBLE);
+
+    private static final Map<String, VectorExpressions.ArithmeticOp> ARITHMETIC_OPS =
+        ImmutableMap.<String, VectorExpressions.ArithmeticOp>builder()
+            .put(ArithmeticFunctions.Names.ADD, VectorExpressions.ArithmeticOp.ADD)
+            .put(ArithmeticFunctions.Names.SUBTRACT, VectorExpressions.ArithmeticOp.SUBTRACT)
+            .put(ArithmeticFunctions.Names.MULTIPLY, VectorExpressions.ArithmeticOp.MULTIPLY)
+            .put(ArithmeticFunctions.Names.DIVIDE, VectorExpressions.ArithmeticOp.DIVIDE)
+            .put(ArithmeticFunctions.Names.MODULUS, VectorExpressions.ArithmeticOp.MODULUS)
+            .build();
+
+    private static final Map<String, VectorExpressions.CmpOp> CMP_OPS =
+        ImmutableMap.<String, VectorExpressions.CmpOp>builder()
+            .put(EqOperator.NAME, VectorExpressions.CmpOp.EQ)
+            .put(LtOperator.NAME, VectorExpressions.CmpOp.LT)
+            .put(LteOperator.NAME, VectorExpressions.CmpOp.LTE)
+            .put(GtOperator.NAME, VectorExpressions.CmpOp.GT)
+            .put(GteOperator.NAME, VectorExpressions.CmpOp.GTE)
+            .build();
+
+    private final InputFactory inputFactory;
+    private final int capacity;
+    private final Visitor visitor = new Visitor();
+    private boolean vectorized;
+
+    public VectorExpressionCompiler(InputFactory inputFactory, int capacity) {
+        this.inputFactory = inputFactory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the vectorized condition or null if neither the top-level function nor any arithmetic, comparison or
+     *         cast within the condition can be vectorized, in which case evaluating it row-at-a-time is cheaper.
+     */
+    @Nullable
+    public VectorExpression<ColumnVector.Booleans> compileCondition(Symbol condition) {
+        if (!(condition instanceof Function) || kind(condition.valueType()) != Kind.BOOLEAN) {
+            return null;
+        }
+        vectorized = false;
+        //noinspection unchecked
+        VectorExpression<ColumnVector.Booleans> expression =
+            (VectorExpression<ColumnVector.Booleans>) visitor.process(condition, null);
+        return vectorized ? expression : null;
+    }
+
+    @Nullable
+    private static Kind kind(DataType type) {
+        if (LONG_TYPES.contains(type)) {
+            return Kind.LONG;
+        }
+        if (DOUBLE_TYPES.contains(type)) {
+            return Kind.DOUBLE;
+        }
+        if (type.equals(DataTypes.BOOLEAN)) {
+            return Kind.BOOLEAN;
+        }
+        return null;
+    }
+
+    /**
+     * Compiles the symbol, falling back to a row-at-a-time evaluation if it can't be vectorized.
+     *
+     * @return the expression or null if the type of the symbol isn't supported.
+     */
+    @Nullable
+    private VectorExpression<?> compile(Symbol symbol) {
+        Kind kind = kind(symbol.valueType());
+        if (kind == null) {
+            return null;
+        }
+        VectorExpression<?> expression = visitor.process(symbol, null);
+        if (expression != null) {
+            return expression;
+        }
+        return load(kind, rowWise(symbol));
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private VectorExpression<ColumnVector.Longs> compileLongs(Symbol symbol) {
+        if (kind(symbol.valueType()) != Kind.LONG) {
+            return null;
+        }
+        return (VectorExpression<ColumnVector.Longs>) compile(symbol);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private VectorExpression<ColumnVector.Doubles> compileDoubles(Symbol symbol) {
+        Kind kind = kind(symbol.valueType());
+        if (kind == Kind.DOUBLE) {
+            return (VectorExpression<ColumnVector.Doubles>) compile(symbol);
+        }
+        if (kind == Kind.LONG) {
+            return new VectorExpressions.LongsToDoubles(compileLongs(symbol), capacity);
+        }
+        return null;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private VectorExpression<ColumnVector.Booleans> compileBooleans(Symbol symbol) {
+        if (kind(symbol.valueType()) != Kind.BOOLEAN) {
+            return null;
+        }
+        return (VectorExpression<ColumnVector.Booleans>) compile(symbol);
+    }
+
+    private VectorExpression<?> load(Kind kind, VectorExpressions.RowValues rowValues) {
+        switch (kind) {
+            case LONG:
+                return new VectorExpressions.LoadLongs(rowValues, capacity);
+            case DOUBLE:
+                return new VectorExpressions.LoadDoubles(rowValues, capacity);
+            case BOOLEAN:
+                return new VectorExpressions.LoadBooleans(rowValues, capacity);
+            default:
+                throw new AssertionError("Unsupported kind: " + kind);
+        }
+    }
+
+    private VectorExpressions.RowValues rowWise(Symbol symbol) {
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns();
+        Input<?> input = ctx.add(symbol);
+        List<CollectExpression<Row, ?>> expressions = ctx.expressions();
+        return (batch, rowIdx) -> {
+            Row row = batch.row(rowIdx);
+            //noinspection ForLoopReplaceableByForEach // avoids iterator allocation - invoked per row
+            for (int i = 0; i < expressions.size(); i++) {
+                expressions.get(i).setNextRow(row);
+            }
+            return input.value();
+        };
+    }
+
+    private class Visitor extends SymbolVisitor<Void, VectorExpression<?>> {
+
+        @Override
+        public VectorExpression<?> visitInputColumn(InputColumn inputColumn, Void context) {
+            Kind kind = kind(inputColumn.valueType());
+            if (kind == null) {
+                return null;
+            }
+            int column = inputColumn.index();
+            return load(kind, (batch, rowIdx) -> batch.get(rowIdx, column));
+        }
+
+        @Override
+        public VectorExpression<?> visitLiteral(Literal symbol, Void context) {
+            Kind kind = kind(symbol.valueType());
+            if (kind == null) {
+                return null;
+            }
+            Object value = symbol.value();
+            switch (kind) {
+                case LONG:
+                    return VectorExpressions.Constant.ofLong(value == null ? null : ((Number) value).longValue(), capacity);
+                case DOUBLE:
+                    return VectorExpressions.Constant.ofDouble(value == null ? null : ((Number) value).doubleValue(), capacity);
+                case BOOLEAN:
+                    return VectorExpressions.Constant.ofBoolean((Boolean) value, capacity);
+                default:
+                    throw new AssertionError("Unsupported kind: " + kind);
+            }
+        }
+
+        @Override
+        public VectorExpression<?> visitFunction(Function function, Void context) {
+            String name = function.info().ident().name();
+            List<Symbol> args = function.arguments();
+            switch (name) {
+                case AndOperator.NAME:
+                case OrOperator.NAME:
+                    return booleanLogic(name, args.get(0), args.get(1));
+
+                case NotPredicate.NAME:
+                    VectorExpression<ColumnVector.Booleans> arg = compileBooleans(args.get(0));
+                    return arg == null ? null : new VectorExpressions.Not(arg, capacity);
+
+                default:
+                    VectorExpressions.CmpOp cmpOp = CMP_OPS.get(name);
+                    if (cmpOp != null) {
+                        return comparison(cmpOp, args.get(0), args.get(1));
+                    }
+                    VectorExpressions.ArithmeticOp arithmeticOp = ARITHMETIC_OPS.get(name);
+                    if (arithmeticOp != null) {
+                        return arithmetic(arithmeticOp, function.valueType(), args.get(0), args.get(1));
+                    }
+                    if (args.size() == 1) {
+                        return cast(name, args.get(0));
+                    }
+                    return null;
+            }
+        }
+
+        @Nullable
+        private VectorExpression<?> booleanLogic(String name, Symbol left, Symbol right) {
+            VectorExpression<ColumnVector.Booleans> l = compileBooleans(left);
+            VectorExpression<ColumnVector.Booleans> r = compileBooleans(right);
+            if (l == null || r == null) {
+                return null;
+            }
+            if (name.equals(AndOperator.NAME)) {
+                return new VectorExpressions.And(l, r, capacity);
+            }
+            return new VectorExpressions.Or(l, r, capacity);
+        }
+
+        @Nullable
+        private VectorExpression<?> comparison(VectorExpressions.CmpOp op, Symbol left, Symbol right) {
+            Kind leftKind = kind(left.valueType());
+            Kind rightKind = kind(right.valueType());
+            if (leftKind != rightKind || (leftKind != Kind.LONG && leftKind != Kind.DOUBLE)) {
+                return null;
+            }
+            vectorized = true;
+            if (leftKind == Kind.LONG) {
+                VectorExpression<ColumnVector.Longs> l = compileLongs(left);
+                VectorExpression<ColumnVector.Longs> r = compileLongs(right);
+                return l == null || r == null ? null : new VectorExpressions.LongComparison(op, l, r, capacity);
+            }
+            VectorExpression<ColumnVector.Doubles> l = compileDoubles(left);
+            VectorExpression<ColumnVector.Doubles> r = compileDoubles(right);
+            return l == null || r == null ? null : new VectorExpressions.DoubleComparison(op, l, r, capacity);
+        }
+
+        @Nullable
+        private VectorExpression<?> arithmetic(VectorExpressions.ArithmeticOp op,
+                                               DataType returnType,
+                                               Symbol left,
+                                               Symbol right) {
+            if (returnType.equals(DataTypes.LONG)) {
+                vectorized = true;
+                VectorExpression<ColumnVector.Longs> l = compileLongs(left);
+                VectorExpression<ColumnVector.Longs> r = compileLongs(right);
+                return l == null || r == null ? null : new VectorExpressions.LongArithmetic(op, l, r, capacity);
+            }
+            // float arithmetic is done with float precision, only double is vectorized
+            if (returnType.equals(DataTypes.DOUBLE)) {
+                vectorized = true;
+                VectorExpression<ColumnVector.Doubles> l = compileDoubles(left);
+                VectorExpression<ColumnVector.Doubles> r = compileDoubles(right);
+                return l == null || r == null ? null : new VectorExpressions.DoubleArithmetic(op, l, r, capacity);
+            }
+            return null;
+        }
+
+        @Nullable
+        private VectorExpression<?> cast(String name, Symbol arg) {
+            boolean tryCast = name.startsWith(CastFunctionResolver.TRY_CAST_PREFIX);
+            if (tryCast) {
+                name = name.substring(CastFunctionResolver.TRY_CAST_PREFIX.length());
+            }
+            Kind argKind = kind(arg.valueType());
+            if (argKind != Kind.LONG && argKind != Kind.DOUBLE) {
+                return null;
+            }
+            switch (name) {
+                case CastFunctionResolver.FunctionNames.TO_LONG:
+                    vectorized = true;
+                    if (argKind == Kind.LONG) {
+                        return compileLongs(arg);
+                    }
+                    return new VectorExpressions.DoublesToLongs(compileDoubles(arg), capacity);
+
+                case CastFunctionResolver.FunctionNames.TO_DOUBLE:
+                    vectorized = true;
+                    return compileDoubles(arg);
+
+                case CastFunctionResolver.FunctionNames.TO_INTEGER:
+                    vectorized = true;
+                    if (argKind == Kind.LONG) {
+                        return new VectorExpressions.LongsToInts(compileLongs(arg), tryCast, capacity);
+                    }
+                    return new VectorExpressions.DoublesToInts(compileDoubles(arg), tryCast, capacity);
+
+                default:
+                    return null;
+            }
+        }
+    }
+}
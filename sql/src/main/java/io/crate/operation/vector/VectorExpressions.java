@@ -0,0 +1,632 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+import io.crate.exceptions.ConversionException;
+import io.crate.types.DataTypes;
+
+import java.util.Arrays;
+
+/**
+ * {@link VectorExpression} implementations.
+ * <p>
+ * The semantics must match the row-at-a-time implementations of the functions, e.g.
+ * {@link io.crate.operation.scalar.arithmetic.BinaryScalar} or {@link io.crate.operation.operator.CmpOperator}:
+ * any null argument results in null, with the exception of the three-valued logic of AND and OR.
+ */
+final class VectorExpressions {
+
+    private VectorExpressions() {
+    }
+
+    /**
+     * Provides the (boxed) value of a row which is loaded into a vector.
+     */
+    interface RowValues {
+        Object get(ColumnBatch batch, int row);
+    }
+
+    static final class LoadLongs implements VectorExpression<ColumnVector.Longs> {
+
+        private final RowValues rowValues;
+        private final ColumnVector.Longs result;
+
+        LoadLongs(RowValues rowValues, int capacity) {
+            this.rowValues = rowValues;
+            this.result = new ColumnVector.Longs(capacity);
+        }
+
+        @Override
+        public ColumnVector.Longs evaluate(ColumnBatch batch) {
+            long[] values = result.values;
+            boolean[] isNull = result.isNull;
+            for (int i = 0; i < batch.size(); i++) {
+                Object value = rowValues.get(batch, i);
+                if (value == null) {
+                    isNull[i] = true;
+                } else {
+                    isNull[i] = false;
+                    values[i] = value instanceof Number ? ((Number) value).longValue() : DataTypes.LONG.value(value);
+                }
+            }
+            return result;
+        }
+    }
+
+    static final class LoadDoubles implements VectorExpression<ColumnVector.Doubles> {
+
+        private final RowValues rowValues;
+        private final ColumnVector.Doubles result;
+
+        LoadDoubles(RowValues rowValues, int capacity) {
+            this.rowValues = rowValues;
+            this.result = new ColumnVector.Doubles(capacity);
+        }
+
+        @Override
+        public ColumnVector.Doubles evaluate(ColumnBatch batch) {
+            double[] values = result.values;
+            boolean[] isNull = result.isNull;
+            for (int i = 0; i < batch.size(); i++) {
+                Object value = rowValues.get(batch, i);
+                if (value == null) {
+                    isNull[i] = true;
+                } else {
+                    isNull[i] = false;
+                    values[i] = value instanceof Number ? ((Number) value).doubleValue() : DataTypes.DOUBLE.value(value);
+                }
+            }
+            return result;
+        }
+    }
+
+    static final class LoadBooleans implements VectorExpression<ColumnVector.Booleans> {
+
+        private final RowValues rowValues;
+        private final ColumnVector.Booleans result;
+
+        LoadBooleans(RowValues rowValues, int capacity) {
+            this.rowValues = rowValues;
+            this.result = new ColumnVector.Booleans(capacity);
+        }
+
+        @Override
+        public ColumnVector.Booleans evaluate(ColumnBatch batch) {
+            boolean[] values = result.values;
+            boolean[] isNull = result.isNull;
+            for (int i = 0; i < batch.size(); i++) {
+                Object value = rowValues.get(batch, i);
+                if (value == null) {
+                    isNull[i] = true;
+                    values[i] = false;
+                } else {
+                    isNull[i] = false;
+                    values[i] = (Boolean) value;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A constant vector; filled once as vectors are never modified by their consumers.
+     */
+    static final class Constant<V extends ColumnVector> implements VectorExpression<V> {
+
+        private final V vector;
+
+        private Constant(V vector) {
+            this.vector = vector;
+        }
+
+        static Constant<ColumnVector.Longs> ofLong(Long value, int capacity) {
+            ColumnVector.Longs vector = new ColumnVector.Longs(capacity);
+            if (value == null) {
+                Arrays.fill(vector.isNull, true);
+            } else {
+                Arrays.fill(vector.values, value);
+            }
+            return new Constant<>(vector);
+        }
+
+        static Constant<ColumnVector.Doubles> ofDouble(Double value, int capacity) {
+            ColumnVector.Doubles vector = new ColumnVector.Doubles(capacity);
+            if (value == null) {
+                Arrays.fill(vector.isNull, true);
+            } else {
+                Arrays.fill(vector.values, value);
+            }
+            return new Constant<>(vector);
+        }
+
+        static Constant<ColumnVector.Booleans> ofBoolean(Boolean value, int capacity) {
+            ColumnVector.Booleans vector = new ColumnVector.Booleans(capacity);
+            if (value == null) {
+                Arrays.fill(vector.isNull, true);
+            } else {
+                Arrays.fill(vector.values, value);
+            }
+            return new Constant<>(vector);
+        }
+
+        @Override
+        public V evaluate(ColumnBatch batch) {
+            return vector;
+        }
+    }
+
+    enum ArithmeticOp {
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        DIVIDE,
+        MODULUS
+    }
+
+    private static void orNulls(boolean[] result, boolean[] left, boolean[] right, int size) {
+        for (int i = 0; i < size; i++) {
+            result[i] = left[i] || right[i];
+        }
+    }
+
+    static final class LongArithmetic implements VectorExpression<ColumnVector.Longs> {
+
+        private final ArithmeticOp op;
+        private final VectorExpression<ColumnVector.Longs> left;
+        private final VectorExpression<ColumnVector.Longs> right;
+        private final ColumnVector.Longs result;
+
+        LongArithmetic(ArithmeticOp op,
+                       VectorExpression<ColumnVector.Longs> left,
+                       VectorExpression<ColumnVector.Longs> right,
+                       int capacity) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+            this.result = new ColumnVector.Longs(capacity);
+        }
+
+        @Override
+        public ColumnVector.Longs evaluate(ColumnBatch batch) {
+            ColumnVector.Longs l = left.evaluate(batch);
+            ColumnVector.Longs r = right.evaluate(batch);
+            int size = batch.size();
+            long[] a = l.values;
+            long[] b = r.values;
+            long[] out = result.values;
+            boolean[] isNull = result.isNull;
+            orNulls(isNull, l.isNull, r.isNull, size);
+            switch (op) {
+                case ADD:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] + b[i];
+                    }
+                    break;
+                case SUBTRACT:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] - b[i];
+                    }
+                    break;
+                case MULTIPLY:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] * b[i];
+                    }
+                    break;
+                case DIVIDE:
+                    // skip null rows, their values are undefined and might be 0
+                    for (int i = 0; i < size; i++) {
+                        if (!isNull[i]) {
+                            out[i] = a[i] / b[i];
+                        }
+                    }
+                    break;
+                case MODULUS:
+                    for (int i = 0; i < size; i++) {
+                        if (!isNull[i]) {
+                            out[i] = a[i] % b[i];
+                        }
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unsupported arithmetic operation: " + op);
+            }
+            return result;
+        }
+    }
+
+    static final class DoubleArithmetic implements VectorExpression<ColumnVector.Doubles> {
+
+        private final ArithmeticOp op;
+        private final VectorExpression<ColumnVector.Doubles> left;
+        private final VectorExpression<ColumnVector.Doubles> right;
+        private final ColumnVector.Doubles result;
+
+        DoubleArithmetic(ArithmeticOp op,
+                         VectorExpression<ColumnVector.Doubles> left,
+                         VectorExpression<ColumnVector.Doubles> right,
+                         int capacity) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+            this.result = new ColumnVector.Doubles(capacity);
+        }
+
+        @Override
+        public ColumnVector.Doubles evaluate(ColumnBatch batch) {
+            ColumnVector.Doubles l = left.evaluate(batch);
+            ColumnVector.Doubles r = right.evaluate(batch);
+            int size = batch.size();
+            double[] a = l.values;
+            double[] b = r.values;
+            double[] out = result.values;
+            orNulls(result.isNull, l.isNull, r.isNull, size);
+            switch (op) {
+                case ADD:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] + b[i];
+                    }
+                    break;
+                case SUBTRACT:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] - b[i];
+                    }
+                    break;
+                case MULTIPLY:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] * b[i];
+                    }
+                    break;
+                case DIVIDE:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] / b[i];
+                    }
+                    break;
+                case MODULUS:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] % b[i];
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unsupported arithmetic operation: " + op);
+            }
+            return result;
+        }
+    }
+
+    enum CmpOp {
+        EQ,
+        LT,
+        LTE,
+        GT,
+        GTE
+    }
+
+    static final class LongComparison implements VectorExpression<ColumnVector.Booleans> {
+
+        private final CmpOp op;
+        private final VectorExpression<ColumnVector.Longs> left;
+        private final VectorExpression<ColumnVector.Longs> right;
+        private final ColumnVector.Booleans result;
+
+        LongComparison(CmpOp op,
+                       VectorExpression<ColumnVector.Longs> left,
+                       VectorExpression<ColumnVector.Longs> right,
+                       int capacity) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+            this.result = new ColumnVector.Booleans(capacity);
+        }
+
+        @Override
+        public ColumnVector.Booleans evaluate(ColumnBatch batch) {
+            ColumnVector.Longs l = left.evaluate(batch);
+            ColumnVector.Longs r = right.evaluate(batch);
+            int size = batch.size();
+            long[] a = l.values;
+            long[] b = r.values;
+            boolean[] out = result.values;
+            orNulls(result.isNull, l.isNull, r.isNull, size);
+            switch (op) {
+                case EQ:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] == b[i];
+                    }
+                    break;
+                case LT:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] < b[i];
+                    }
+                    break;
+                case LTE:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] <= b[i];
+                    }
+                    break;
+                case GT:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] > b[i];
+                    }
+                    break;
+                case GTE:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = a[i] >= b[i];
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unsupported comparison: " + op);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Uses {@link Double#compare(double, double)} like the boxed {@link Double#compareTo(Double)} and
+     * {@link Double#equals(Object)} of the row-at-a-time operators; NaN is equal to itself and greater than any value.
+     */
+    static final class DoubleComparison implements VectorExpression<ColumnVector.Booleans> {
+
+        private final CmpOp op;
+        private final VectorExpression<ColumnVector.Doubles> left;
+        private final VectorExpression<ColumnVector.Doubles> right;
+        private final ColumnVector.Booleans result;
+
+        DoubleComparison(CmpOp op,
+                         VectorExpression<ColumnVector.Doubles> left,
+                         VectorExpression<ColumnVector.Doubles> right,
+                         int capacity) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+            this.result = new ColumnVector.Booleans(capacity);
+        }
+
+        @Override
+        public ColumnVector.Booleans evaluate(ColumnBatch batch) {
+            ColumnVector.Doubles l = left.evaluate(batch);
+            ColumnVector.Doubles r = right.evaluate(batch);
+            int size = batch.size();
+            double[] a = l.values;
+            double[] b = r.values;
+            boolean[] out = result.values;
+            orNulls(result.isNull, l.isNull, r.isNull, size);
+            switch (op) {
+                case EQ:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = Double.compare(a[i], b[i]) == 0;
+                    }
+                    break;
+                case LT:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = Double.compare(a[i], b[i]) < 0;
+                    }
+                    break;
+                case LTE:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = Double.compare(a[i], b[i]) <= 0;
+                    }
+                    break;
+                case GT:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = Double.compare(a[i], b[i]) > 0;
+                    }
+                    break;
+                case GTE:
+                    for (int i = 0; i < size; i++) {
+                        out[i] = Double.compare(a[i], b[i]) >= 0;
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unsupported comparison: " + op);
+            }
+            return result;
+        }
+    }
+
+    static final class And implements VectorExpression<ColumnVector.Booleans> {
+
+        private final VectorExpression<ColumnVector.Booleans> left;
+        private final VectorExpression<ColumnVector.Booleans> right;
+        private final ColumnVector.Booleans result;
+
+        And(VectorExpression<ColumnVector.Booleans> left, VectorExpression<ColumnVector.Booleans> right, int capacity) {
+            this.left = left;
+            this.right = right;
+            this.result = new ColumnVector.Booleans(capacity);
+        }
+
+        @Override
+        public ColumnVector.Booleans evaluate(ColumnBatch batch) {
+            ColumnVector.Booleans l = left.evaluate(batch);
+            ColumnVector.Booleans r = right.evaluate(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                boolean leftFalse = !l.isNull[i] && !l.values[i];
+                boolean rightFalse = !r.isNull[i] && !r.values[i];
+                // false and null -> false; true and null -> null
+                boolean isNull = !leftFalse && !rightFalse && (l.isNull[i] || r.isNull[i]);
+                result.isNull[i] = isNull;
+                result.values[i] = !leftFalse && !rightFalse && !isNull;
+            }
+            return result;
+        }
+    }
+
+    static final class Or implements VectorExpression<ColumnVector.Booleans> {
+
+        private final VectorExpression<ColumnVector.Booleans> left;
+        private final VectorExpression<ColumnVector.Booleans> right;
+        private final ColumnVector.Booleans result;
+
+        Or(VectorExpression<ColumnVector.Booleans> left, VectorExpression<ColumnVector.Booleans> right, int capacity) {
+            this.left = left;
+            this.right = right;
+            this.result = new ColumnVector.Booleans(capacity);
+        }
+
+        @Override
+        public ColumnVector.Booleans evaluate(ColumnBatch batch) {
+            ColumnVector.Booleans l = left.evaluate(batch);
+            ColumnVector.Booleans r = right.evaluate(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                boolean anyTrue = l.matches(i) || r.matches(i);
+                // true or null -> true; false or null -> null
+                result.isNull[i] = !anyTrue && (l.isNull[i] || r.isNull[i]);
+                result.values[i] = anyTrue;
+            }
+            return result;
+        }
+    }
+
+    static final class Not implements VectorExpression<ColumnVector.Booleans> {
+
+        private final VectorExpression<ColumnVector.Booleans> arg;
+        private final ColumnVector.Booleans result;
+
+        Not(VectorExpression<ColumnVector.Booleans> arg, int capacity) {
+            this.arg = arg;
+            this.result = new ColumnVector.Booleans(capacity);
+        }
+
+        @Override
+        public ColumnVector.Booleans evaluate(ColumnBatch batch) {
+            ColumnVector.Booleans v = arg.evaluate(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                result.isNull[i] = v.isNull[i];
+                result.values[i] = !v.values[i] && !v.isNull[i];
+            }
+            return result;
+        }
+    }
+
+    static final class LongsToDoubles implements VectorExpression<ColumnVector.Doubles> {
+
+        private final VectorExpression<ColumnVector.Longs> arg;
+        private final ColumnVector.Doubles result;
+
+        LongsToDoubles(VectorExpression<ColumnVector.Longs> arg, int capacity) {
+            this.arg = arg;
+            this.result = new ColumnVector.Doubles(capacity);
+        }
+
+        @Override
+        public ColumnVector.Doubles evaluate(ColumnBatch batch) {
+            ColumnVector.Longs v = arg.evaluate(batch);
+            System.arraycopy(v.isNull, 0, result.isNull, 0, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                result.values[i] = (double) v.values[i];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Truncates like {@link Number#longValue()} which is used by {@link io.crate.types.LongType#value(Object)}
+     */
+    static final class DoublesToLongs implements VectorExpression<ColumnVector.Longs> {
+
+        private final VectorExpression<ColumnVector.Doubles> arg;
+        private final ColumnVector.Longs result;
+
+        DoublesToLongs(VectorExpression<ColumnVector.Doubles> arg, int capacity) {
+            this.arg = arg;
+            this.result = new ColumnVector.Longs(capacity);
+        }
+
+        @Override
+        public ColumnVector.Longs evaluate(ColumnBatch batch) {
+            ColumnVector.Doubles v = arg.evaluate(batch);
+            System.arraycopy(v.isNull, 0, result.isNull, 0, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                result.values[i] = (long) v.values[i];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Cast to integer, see {@link io.crate.types.IntegerType#value(Object)}.
+     * Values out of the integer range fail the cast or, for try_cast, result in null.
+     */
+    static final class LongsToInts implements VectorExpression<ColumnVector.Longs> {
+
+        private final VectorExpression<ColumnVector.Longs> arg;
+        private final boolean tryCast;
+        private final ColumnVector.Longs result;
+
+        LongsToInts(VectorExpression<ColumnVector.Longs> arg, boolean tryCast, int capacity) {
+            this.arg = arg;
+            this.tryCast = tryCast;
+            this.result = new ColumnVector.Longs(capacity);
+        }
+
+        @Override
+        public ColumnVector.Longs evaluate(ColumnBatch batch) {
+            ColumnVector.Longs v = arg.evaluate(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                long value = v.values[i];
+                boolean isNull = v.isNull[i];
+                if (!isNull && (value < Integer.MIN_VALUE || Integer.MAX_VALUE < value)) {
+                    if (!tryCast) {
+                        throw new ConversionException(value, DataTypes.INTEGER);
+                    }
+                    isNull = true;
+                }
+                result.isNull[i] = isNull;
+                result.values[i] = (int) value;
+            }
+            return result;
+        }
+    }
+
+    static final class DoublesToInts implements VectorExpression<ColumnVector.Longs> {
+
+        private final VectorExpression<ColumnVector.Doubles> arg;
+        private final boolean tryCast;
+        private final ColumnVector.Longs result;
+
+        DoublesToInts(VectorExpression<ColumnVector.Doubles> arg, boolean tryCast, int capacity) {
+            this.arg = arg;
+            this.tryCast = tryCast;
+            this.result = new ColumnVector.Longs(capacity);
+        }
+
+        @Override
+        public ColumnVector.Longs evaluate(ColumnBatch batch) {
+            ColumnVector.Doubles v = arg.evaluate(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                double value = v.values[i];
+                long longValue = (long) value;
+                boolean isNull = v.isNull[i];
+                if (!isNull && (longValue < Integer.MIN_VALUE || Integer.MAX_VALUE < longValue)) {
+                    if (!tryCast) {
+                        throw new ConversionException(value, DataTypes.INTEGER);
+                    }
+                    isNull = true;
+                }
+                result.isNull[i] = isNull;
+                result.values[i] = (int) value;
+            }
+            return result;
+        }
+    }
+}
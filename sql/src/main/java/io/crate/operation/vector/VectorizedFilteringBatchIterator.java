@@ -0,0 +1,128 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Columns;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.Input;
+
+/**
+ * A filtering BatchIterator which buffers the rows of the source into a {@link ColumnBatch} and evaluates the
+ * condition for the whole batch at once. Only the rows for which the condition is true are emitted.
+ */
+public class VectorizedFilteringBatchIterator extends ForwardingBatchIterator {
+
+    private final BatchIterator delegate;
+    private final VectorExpression<ColumnVector.Booleans> condition;
+    private final ColumnBatch batch;
+    private final Columns rowData;
+
+    private ColumnVector.Booleans matches = null;
+    private int position = -1;
+
+    public VectorizedFilteringBatchIterator(BatchIterator delegate,
+                                            VectorExpression<ColumnVector.Booleans> condition,
+                                            int batchSize) {
+        this.delegate = delegate;
+        this.condition = condition;
+        int numColumns = delegate.rowData().size();
+        this.batch = new ColumnBatch(batchSize, numColumns);
+        this.rowData = new BatchColumns(numColumns);
+    }
+
+    @Override
+    protected BatchIterator delegate() {
+        return delegate;
+    }
+
+    @Override
+    public Columns rowData() {
+        return rowData;
+    }
+
+    @Override
+    public void moveToStart() {
+        delegate.moveToStart();
+        batch.clear();
+        matches = null;
+        position = -1;
+    }
+
+    @Override
+    public boolean moveNext() {
+        while (true) {
+            if (matches != null) {
+                while (++position < batch.size()) {
+                    if (matches.matches(position)) {
+                        return true;
+                    }
+                }
+                matches = null;
+            }
+            if (!fillBatch()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Buffers up to batchSize rows of the delegate and evaluates the condition on them.
+     * A partial batch is evaluated if the delegate needs to load more data.
+     */
+    private boolean fillBatch() {
+        batch.clear();
+        while (!batch.isFull() && delegate.moveNext()) {
+            batch.add(delegate.rowData());
+        }
+        if (batch.size() == 0) {
+            return false;
+        }
+        matches = condition.evaluate(batch);
+        position = -1;
+        return true;
+    }
+
+    private class BatchColumns implements Columns {
+
+        private final Input<?>[] inputs;
+
+        BatchColumns(int numColumns) {
+            inputs = new Input[numColumns];
+            for (int i = 0; i < numColumns; i++) {
+                final int column = i;
+                inputs[i] = () -> batch.get(position, column);
+            }
+        }
+
+        @Override
+        public Input<?> get(int index) {
+            return inputs[index];
+        }
+
+        @Override
+        public int size() {
+            return inputs.length;
+        }
+    }
+}
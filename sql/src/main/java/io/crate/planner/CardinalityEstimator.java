@@ -0,0 +1,303 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.QueriedTableRelation;
+import io.crate.analyze.TwoTableJoin;
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.AbstractTableRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TableIdent;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.GteOperator;
+import io.crate.operation.operator.LikeOperator;
+import io.crate.operation.operator.LtOperator;
+import io.crate.operation.operator.LteOperator;
+import io.crate.operation.operator.OrOperator;
+import io.crate.operation.predicate.IsNullPredicate;
+import io.crate.operation.predicate.NotPredicate;
+import io.crate.statistics.ColumnStats;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Estimates the number of rows a relation produces and the selectivity of predicates,
+ * based on the number of docs of the tables and the column statistics collected by {@code ANALYZE}.
+ * <p>
+ * If there are no column statistics, the default selectivities of PostgreSQL are used.
+ * </p>
+ */
+public class CardinalityEstimator {
+
+    static final double DEFAULT_EQ_SELECTIVITY = 0.005;
+    static final double DEFAULT_RANGE_SELECTIVITY = 1.0 / 3.0;
+    static final double DEFAULT_MATCH_SELECTIVITY = 0.005;
+    static final double DEFAULT_SELECTIVITY = 0.5;
+
+    private final TableStats tableStats;
+
+    public CardinalityEstimator(TableStats tableStats) {
+        this.tableStats = tableStats;
+    }
+
+    /**
+     * Returns the estimated number of rows of the relation or -1 if it cannot be estimated.
+     */
+    public double estimatedRows(AnalyzedRelation relation) {
+        double rows;
+        if (relation instanceof QueriedTableRelation) {
+            QueriedTableRelation<?> tableRelation = (QueriedTableRelation<?>) relation;
+            rows = tableStats.numDocs(tableRelation.tableRelation().tableInfo().ident());
+            if (rows < 0) {
+                return -1;
+            }
+        } else if (relation instanceof TwoTableJoin) {
+            TwoTableJoin join = (TwoTableJoin) relation;
+            double leftRows = estimatedRows(join.left());
+            double rightRows = estimatedRows(join.right());
+            if (leftRows < 0 || rightRows < 0) {
+                return -1;
+            }
+            rows = leftRows * rightRows;
+            Symbol joinCondition = join.joinPair().condition();
+            if (joinCondition != null) {
+                rows *= selectivity(joinCondition);
+            }
+        } else {
+            return -1;
+        }
+        QueriedRelation queriedRelation = (QueriedRelation) relation;
+        WhereClause where = queriedRelation.querySpec().where();
+        if (where.noMatch()) {
+            return 0;
+        }
+        if (where.hasQuery()) {
+            rows *= selectivity(where.query());
+        }
+        Optional<Symbol> limit = queriedRelation.querySpec().limit();
+        if (limit.isPresent() && limit.get() instanceof Literal && ((Literal) limit.get()).value() instanceof Number) {
+            rows = Math.min(rows, ((Number) ((Literal) limit.get()).value()).doubleValue());
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the estimated fraction of rows which match the predicate.
+     */
+    public double selectivity(Symbol predicate) {
+        return Math.min(1.0, Math.max(0.0, estimateSelectivity(predicate)));
+    }
+
+    private double estimateSelectivity(Symbol predicate) {
+        if (predicate instanceof Literal) {
+            return Boolean.TRUE.equals(((Literal) predicate).value()) ? 1.0 : 0.0;
+        }
+        if (!(predicate instanceof Function)) {
+            return DEFAULT_SELECTIVITY;
+        }
+        Function function = (Function) predicate;
+        List<Symbol> args = function.arguments();
+        switch (function.info().ident().name()) {
+            case AndOperator.NAME:
+                return selectivity(args.get(0)) * selectivity(args.get(1));
+
+            case OrOperator.NAME:
+                double s1 = selectivity(args.get(0));
+                double s2 = selectivity(args.get(1));
+                return s1 + s2 - s1 * s2;
+
+            case NotPredicate.NAME:
+                return 1.0 - selectivity(args.get(0));
+
+            case IsNullPredicate.NAME:
+                ColumnStats stats = columnStats(args.get(0));
+                return stats == null ? DEFAULT_EQ_SELECTIVITY : stats.nullFraction();
+
+            case EqOperator.NAME:
+                return eqSelectivity(args.get(0), args.get(1));
+
+            case LtOperator.NAME:
+            case LteOperator.NAME:
+            case GtOperator.NAME:
+            case GteOperator.NAME:
+                return rangeSelectivity(function.info().ident().name(), args.get(0), args.get(1));
+
+            case LikeOperator.NAME:
+                return DEFAULT_MATCH_SELECTIVITY;
+
+            default:
+                return DEFAULT_SELECTIVITY;
+        }
+    }
+
+    private double eqSelectivity(Symbol left, Symbol right) {
+        if (right instanceof Literal) {
+            return eqLiteralSelectivity(left);
+        }
+        if (left instanceof Literal) {
+            return eqLiteralSelectivity(right);
+        }
+        // join condition like t1.a = t2.b: every value of the side with less distinct values finds its match
+        double leftDistinct = numDistinct(left);
+        double rightDistinct = numDistinct(right);
+        double distinct = Math.max(leftDistinct, rightDistinct);
+        return distinct > 0 ? 1.0 / distinct : DEFAULT_EQ_SELECTIVITY;
+    }
+
+    private double eqLiteralSelectivity(Symbol column) {
+        ColumnStats stats = columnStats(column);
+        if (stats == null || stats.approxDistinct() < 1.0) {
+            return DEFAULT_EQ_SELECTIVITY;
+        }
+        return (1.0 - stats.nullFraction()) / stats.approxDistinct();
+    }
+
+    private double rangeSelectivity(String operator, Symbol left, Symbol right) {
+        if (left instanceof Literal && !(right instanceof Literal)) {
+            return rangeSelectivity(invert(operator), right, left);
+        }
+        ColumnStats stats = columnStats(left);
+        if (stats == null || stats.histogram().isEmpty() || !(right instanceof Literal)) {
+            return DEFAULT_RANGE_SELECTIVITY;
+        }
+        Literal literal = (Literal) right;
+        if (literal.value() == null || !literal.valueType().equals(stats.type())) {
+            return DEFAULT_RANGE_SELECTIVITY;
+        }
+        boolean inclusive = operator.equals(LteOperator.NAME) || operator.equals(GteOperator.NAME);
+        boolean lowerThan = operator.equals(LtOperator.NAME) || operator.equals(LteOperator.NAME);
+        double fraction = lowerThan
+            ? fractionBelow(stats, literal.value(), inclusive)
+            : 1.0 - fractionBelow(stats, literal.value(), !inclusive);
+        return fraction * (1.0 - stats.nullFraction());
+    }
+
+    /**
+     * Returns the fraction of the histogram bounds which are lower than (or equal to if inclusive) the value.
+     * As the histogram is equi-depth, this approximates the fraction of non-null rows.
+     */
+    @SuppressWarnings("unchecked")
+    private static double fractionBelow(ColumnStats stats, Object value, boolean inclusive) {
+        DataType type = stats.type();
+        List<Object> histogram = stats.histogram();
+        int numBelow = 0;
+        for (Object bound : histogram) {
+            int cmp = type.compareValueTo(bound, value);
+            if (cmp < 0 || (inclusive && cmp == 0)) {
+                numBelow++;
+            }
+        }
+        return (double) numBelow / histogram.size();
+    }
+
+    private static String invert(String operator) {
+        switch (operator) {
+            case LtOperator.NAME:
+                return GtOperator.NAME;
+            case LteOperator.NAME:
+                return GteOperator.NAME;
+            case GtOperator.NAME:
+                return LtOperator.NAME;
+            case GteOperator.NAME:
+                return LteOperator.NAME;
+            default:
+                return operator;
+        }
+    }
+
+    /**
+     * Returns the number of distinct values of the column, falling back to the number of docs of its table
+     * if the column hasn't been analyzed, or -1 if neither is known.
+     */
+    private double numDistinct(Symbol symbol) {
+        ColumnRef column = resolveColumn(symbol);
+        if (column == null) {
+            return -1;
+        }
+        ColumnStats stats = tableStats.columnStats(column.table, column.column);
+        if (stats != null && stats.approxDistinct() >= 1.0) {
+            return stats.approxDistinct();
+        }
+        return tableStats.numDocs(column.table);
+    }
+
+    @Nullable
+    private ColumnStats columnStats(Symbol symbol) {
+        ColumnRef column = resolveColumn(symbol);
+        return column == null ? null : tableStats.columnStats(column.table, column.column);
+    }
+
+    /**
+     * Resolves a reference or a field, following the outputs of the relations it points to, to a table column.
+     */
+    @Nullable
+    private static ColumnRef resolveColumn(Symbol symbol) {
+        while (symbol instanceof Field) {
+            Field field = (Field) symbol;
+            AnalyzedRelation relation = field.relation();
+            if (relation instanceof AbstractTableRelation) {
+                if (field.path() instanceof ColumnIdent) {
+                    return new ColumnRef(
+                        ((AbstractTableRelation<?>) relation).tableInfo().ident(), (ColumnIdent) field.path());
+                }
+                return null;
+            }
+            if (!(relation instanceof QueriedRelation)) {
+                return null;
+            }
+            int idx = relation.fields().indexOf(field);
+            if (idx < 0) {
+                return null;
+            }
+            symbol = ((QueriedRelation) relation).querySpec().outputs().get(idx);
+        }
+        if (symbol instanceof Reference) {
+            Reference ref = (Reference) symbol;
+            return new ColumnRef(ref.ident().tableIdent(), ref.ident().columnIdent());
+        }
+        return null;
+    }
+
+    private static class ColumnRef {
+
+        private final TableIdent table;
+        private final ColumnIdent column;
+
+        ColumnRef(TableIdent table, ColumnIdent column) {
+            this.table = table;
+            this.column = column;
+        }
+    }
+}
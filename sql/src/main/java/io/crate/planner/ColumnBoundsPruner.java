@@ -0,0 +1,211 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.GteOperator;
+import io.crate.operation.operator.LtOperator;
+import io.crate.operation.operator.LteOperator;
+import io.crate.operation.operator.OrOperator;
+import io.crate.operation.operator.any.AnyEqOperator;
+import io.crate.statistics.ColumnBounds;
+import io.crate.statistics.ColumnBoundsMetaData;
+import io.crate.statistics.IndexColumnBounds;
+import io.crate.types.CollectionType;
+import io.crate.types.DataType;
+import org.elasticsearch.cluster.ClusterState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Removes the shards from a routing whose {@link ColumnBounds} prove that they contain no row matching the query.
+ * <p>
+ * The query is evaluated conservatively against the bounds: only conjunctions, disjunctions and comparisons of a
+ * column with a literal of the same type are considered, any other expression is assumed to match.
+ * Bounds are only used as long as they are valid, see {@link IndexColumnBounds#isValid(ClusterState, String)}.
+ */
+final class ColumnBoundsPruner {
+
+    private ColumnBoundsPruner() {
+    }
+
+    static Routing prune(Routing routing, WhereClause where, ClusterState state) {
+        if (!where.hasQuery() || !routing.hasLocations()) {
+            return routing;
+        }
+        ColumnBoundsMetaData columnBounds = state.metaData().custom(ColumnBoundsMetaData.TYPE);
+        if (columnBounds == null || columnBounds.indices().isEmpty()) {
+            return routing;
+        }
+        boolean pruned = false;
+        Map<String, Map<String, List<Integer>>> locations = new TreeMap<>();
+        for (Map.Entry<String, Map<String, List<Integer>>> nodeEntry : routing.locations().entrySet()) {
+            Map<String, List<Integer>> shardsByIndex = new TreeMap<>();
+            for (Map.Entry<String, List<Integer>> indexEntry : nodeEntry.getValue().entrySet()) {
+                String index = indexEntry.getKey();
+                IndexColumnBounds indexBounds = columnBounds.indices().get(index);
+                if (indexBounds == null || !indexBounds.isValid(state, index)) {
+                    shardsByIndex.put(index, indexEntry.getValue());
+                    continue;
+                }
+                List<Integer> shards = new ArrayList<>(indexEntry.getValue().size());
+                for (Integer shardId : indexEntry.getValue()) {
+                    Map<ColumnIdent, ColumnBounds> shardBounds = indexBounds.shards().get(shardId);
+                    if (shardBounds == null || canMatch(where.query(), shardBounds)) {
+                        shards.add(shardId);
+                    } else {
+                        pruned = true;
+                    }
+                }
+                if (!shards.isEmpty()) {
+                    shardsByIndex.put(index, shards);
+                }
+            }
+            if (!shardsByIndex.isEmpty()) {
+                locations.put(nodeEntry.getKey(), shardsByIndex);
+            }
+        }
+        return pruned ? new Routing(locations) : routing;
+    }
+
+    /**
+     * @return false if no row within {@code bounds} can match {@code query}
+     */
+    static boolean canMatch(Symbol query, Map<ColumnIdent, ColumnBounds> bounds) {
+        if (query instanceof Literal) {
+            Object value = ((Literal) query).value();
+            return value != null && !Boolean.FALSE.equals(value);
+        }
+        if (!(query instanceof Function)) {
+            return true;
+        }
+        Function function = (Function) query;
+        List<Symbol> args = function.arguments();
+        String name = function.info().ident().name();
+        switch (name) {
+            case AndOperator.NAME:
+                return canMatch(args.get(0), bounds) && canMatch(args.get(1), bounds);
+
+            case OrOperator.NAME:
+                return canMatch(args.get(0), bounds) || canMatch(args.get(1), bounds);
+
+            case EqOperator.NAME:
+            case GtOperator.NAME:
+            case GteOperator.NAME:
+            case LtOperator.NAME:
+            case LteOperator.NAME:
+                if (args.get(0) instanceof Reference && args.get(1) instanceof Literal) {
+                    return canCompare(name, (Reference) args.get(0), (Literal) args.get(1), bounds);
+                }
+                if (args.get(0) instanceof Literal && args.get(1) instanceof Reference) {
+                    return canCompare(swap(name), (Reference) args.get(1), (Literal) args.get(0), bounds);
+                }
+                return true;
+
+            case AnyEqOperator.NAME:
+                if (args.get(0) instanceof Reference && args.get(1) instanceof Literal) {
+                    return canMatchAny((Reference) args.get(0), (Literal) args.get(1), bounds);
+                }
+                return true;
+
+            default:
+                return true;
+        }
+    }
+
+    private static String swap(String operator) {
+        switch (operator) {
+            case GtOperator.NAME:
+                return LtOperator.NAME;
+            case GteOperator.NAME:
+                return LteOperator.NAME;
+            case LtOperator.NAME:
+                return GtOperator.NAME;
+            case LteOperator.NAME:
+                return GteOperator.NAME;
+            default:
+                return operator;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean canCompare(String operator,
+                                      Reference column,
+                                      Literal literal,
+                                      Map<ColumnIdent, ColumnBounds> bounds) {
+        ColumnBounds columnBounds = bounds.get(column.ident().columnIdent());
+        Object value = literal.value();
+        if (columnBounds == null || value == null || !columnBounds.type().equals(literal.valueType())) {
+            return true;
+        }
+        DataType type = columnBounds.type();
+        int cmpMin = type.compareValueTo(columnBounds.min(), value);
+        int cmpMax = type.compareValueTo(columnBounds.max(), value);
+        switch (operator) {
+            case EqOperator.NAME:
+                return cmpMin <= 0 && cmpMax >= 0;
+            case GtOperator.NAME:
+                return cmpMax > 0;
+            case GteOperator.NAME:
+                return cmpMax >= 0;
+            case LtOperator.NAME:
+                return cmpMin < 0;
+            case LteOperator.NAME:
+                return cmpMin <= 0;
+            default:
+                return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean canMatchAny(Reference column, Literal literal, Map<ColumnIdent, ColumnBounds> bounds) {
+        ColumnBounds columnBounds = bounds.get(column.ident().columnIdent());
+        if (columnBounds == null ||
+            !(literal.valueType() instanceof CollectionType) ||
+            !columnBounds.type().equals(((CollectionType) literal.valueType()).innerType()) ||
+            !(literal.value() instanceof Object[])) {
+            return true;
+        }
+        DataType type = columnBounds.type();
+        for (Object value : (Object[]) literal.value()) {
+            if (value != null &&
+                type.compareValueTo(columnBounds.min(), value) <= 0 &&
+                type.compareValueTo(columnBounds.max(), value) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
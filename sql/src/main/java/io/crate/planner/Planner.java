@@ -114,7 +114,7 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
 
     public static class Context {
 
-        private final RoutingBuilder routingBuilder = new RoutingBuilder();
+        private final RoutingBuilder routingBuilder;
         private final Planner planner;
         private final ClusterService clusterService;
         private final UUID jobId;
@@ -143,6 +143,7 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
             this.softLimit = softLimit;
             this.fetchSize = fetchSize;
             this.handlerNode = clusterService.localNode().getId();
+            this.routingBuilder = new RoutingBuilder(clusterService.state());
         }
 
         public EvaluatingNormalizer normalizer() {
@@ -396,7 +397,8 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
 
     @Override
     public Plan visitExplainStatement(ExplainAnalyzedStatement explainAnalyzedStatement, Context context) {
-        return new ExplainPlan(process(explainAnalyzedStatement.statement(), context));
+        Plan subPlan = process(explainAnalyzedStatement.statement(), context);
+        return new ExplainPlan(subPlan, explainAnalyzedStatement.isAnalyze());
     }
 
     private UpsertById processInsertStatement(InsertFromValuesAnalyzedStatement analysis, Context context) {
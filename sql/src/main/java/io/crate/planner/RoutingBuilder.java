@@ -29,8 +29,10 @@ import io.crate.action.sql.SessionContext;
 import io.crate.analyze.WhereClause;
 import io.crate.metadata.Routing;
 import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.TableInfo;
 import io.crate.planner.fetch.IndexBaseBuilder;
+import org.elasticsearch.cluster.ClusterState;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -43,8 +45,13 @@ final class RoutingBuilder {
 
     final Map<TableIdent, List<TableRouting>> routingListByTable = new HashMap<>();
 
+    private final ClusterState clusterState;
     private ReaderAllocations readerAllocations;
 
+    RoutingBuilder(ClusterState clusterState) {
+        this.clusterState = clusterState;
+    }
+
     @VisibleForTesting
     final static class TableRouting {
         final WhereClause where;
@@ -68,7 +75,7 @@ final class RoutingBuilder {
         Routing existing = tryFindMatchInExisting(where, preference, existingRoutings);
         if (existing != null) return existing;
 
-        Routing routing = tableInfo.getRouting(where, preference, sessionContext);
+        Routing routing = getRouting(tableInfo, where, preference, sessionContext);
         existingRoutings.add(new TableRouting(where, preference, routing));
         // ensure all routings of this table are allocated
         // and update new routing by merging with existing ones
@@ -97,11 +104,25 @@ final class RoutingBuilder {
                                        SessionContext sessionContext) {
         List<TableRouting> existingRoutings = new ArrayList<>();
         routingListByTable.put(tableInfo.ident(), existingRoutings);
-        Routing routing = tableInfo.getRouting(where, preference, sessionContext);
+        Routing routing = getRouting(tableInfo, where, preference, sessionContext);
         existingRoutings.add(new TableRouting(where, preference, routing));
         return routing;
     }
 
+    /**
+     * The routing of the table, without the shards which can't contain rows matching {@code where}
+     * according to their column bounds.
+     */
+    private Routing getRouting(TableInfo tableInfo, WhereClause where,
+                               @Nullable String preference,
+                               SessionContext sessionContext) {
+        Routing routing = tableInfo.getRouting(where, preference, sessionContext);
+        if (tableInfo instanceof DocTableInfo) {
+            return ColumnBoundsPruner.prune(routing, where, clusterState);
+        }
+        return routing;
+    }
+
     ReaderAllocations buildReaderAllocations() {
         if (readerAllocations != null) {
             return readerAllocations;
@@ -24,11 +24,18 @@ package io.crate.planner;
 
 import com.carrotsearch.hppc.ObjectLongHashMap;
 import com.carrotsearch.hppc.ObjectLongMap;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.TableIdent;
+import io.crate.statistics.ColumnStats;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
 
 public class TableStats {
 
     private volatile ObjectLongMap<TableIdent> tableStats = new ObjectLongHashMap<>(0);
+    private volatile Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats = Collections.emptyMap();
 
     public void updateTableStats(ObjectLongMap<TableIdent> tableStats) {
         this.tableStats = tableStats;
@@ -45,4 +52,22 @@ public class TableStats {
     public long numDocs(TableIdent tableIdent) {
         return tableStats.getOrDefault(tableIdent, -1);
     }
+
+    public void updateColumnStats(Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats) {
+        this.columnStats = columnStats;
+    }
+
+    /**
+     * Returns the statistics of a column as collected by the last {@code ANALYZE}
+     * or null if the column hasn't been analyzed.
+     */
+    @Nullable
+    public ColumnStats columnStats(TableIdent tableIdent, ColumnIdent columnIdent) {
+        Map<ColumnIdent, ColumnStats> columns = columnStats.get(tableIdent);
+        return columns == null ? null : columns.get(columnIdent);
+    }
+
+    public Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats() {
+        return columnStats;
+    }
 }
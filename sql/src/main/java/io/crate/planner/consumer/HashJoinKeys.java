@@ -0,0 +1,218 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.metadata.ReplaceMode;
+import io.crate.metadata.ReplacingSymbolVisitor;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a join condition (already converted to {@link InputColumn}s of the combined left + right row)
+ * into equality predicates which can be used as keys for a hash join and a remaining condition.
+ *
+ * <pre>
+ *     a.x = b.y AND a.z + 1 = b.w AND a.q > b.r
+ *
+ *     leftKeys:  [a.x, a.z + 1]
+ *     rightKeys: [b.y, b.w]        (InputColumns relative to the right row)
+ *     remaining: a.q > b.r         (InputColumns relative to the combined row)
+ * </pre>
+ */
+final class HashJoinKeys {
+
+    /**
+     * Types where {@code Object.equals} matches the semantics of the {@code =} operator.
+     * Floating point types are excluded because of {@code -0.0 = 0.0} and {@code NaN}
+     */
+    private static final Set<DataType> HASHABLE_TYPES = ImmutableSet.of(
+        DataTypes.BYTE,
+        DataTypes.BOOLEAN,
+        DataTypes.STRING,
+        DataTypes.IP,
+        DataTypes.SHORT,
+        DataTypes.INTEGER,
+        DataTypes.LONG,
+        DataTypes.TIMESTAMP
+    );
+
+    private final List<Symbol> leftKeys;
+    private final List<Symbol> rightKeys;
+
+    @Nullable
+    private final Symbol remainingCondition;
+
+    private HashJoinKeys(List<Symbol> leftKeys, List<Symbol> rightKeys, @Nullable Symbol remainingCondition) {
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.remainingCondition = remainingCondition;
+    }
+
+    List<Symbol> leftKeys() {
+        return leftKeys;
+    }
+
+    List<Symbol> rightKeys() {
+        return rightKeys;
+    }
+
+    @Nullable
+    Symbol remainingCondition() {
+        return remainingCondition;
+    }
+
+    /**
+     * @return true if there is a key pair which refers to plain columns of both sides.
+     *         The rows of both sides can then be distributed by these columns.
+     */
+    boolean canPartition() {
+        return partitionKeyIdx() > -1;
+    }
+
+    /**
+     * @return the index of the column of the left rows which can be used to distribute the left side.
+     */
+    int leftPartitionColumn() {
+        return ((InputColumn) leftKeys.get(partitionKeyIdx())).index();
+    }
+
+    /**
+     * @return the index of the column of the right rows which can be used to distribute the right side.
+     */
+    int rightPartitionColumn() {
+        return ((InputColumn) rightKeys.get(partitionKeyIdx())).index();
+    }
+
+    private int partitionKeyIdx() {
+        for (int i = 0; i < leftKeys.size(); i++) {
+            if (leftKeys.get(i) instanceof InputColumn && rightKeys.get(i) instanceof InputColumn) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the hash join keys or null if the joinCondition doesn't contain any usable equality predicate.
+     */
+    @Nullable
+    static HashJoinKeys of(@Nullable Symbol joinCondition, int numLeftOutputs) {
+        if (joinCondition == null) {
+            return null;
+        }
+        List<Symbol> conjunctions = new ArrayList<>();
+        splitConjunctions(joinCondition, conjunctions);
+
+        List<Symbol> leftKeys = new ArrayList<>();
+        List<Symbol> rightKeys = new ArrayList<>();
+        List<Symbol> remaining = new ArrayList<>();
+        for (Symbol conjunction : conjunctions) {
+            if (!addKeys(conjunction, numLeftOutputs, leftKeys, rightKeys)) {
+                remaining.add(conjunction);
+            }
+        }
+        if (leftKeys.isEmpty()) {
+            return null;
+        }
+        return new HashJoinKeys(leftKeys, rightKeys, remaining.isEmpty() ? null : AndOperator.join(remaining));
+    }
+
+    private static void splitConjunctions(Symbol symbol, List<Symbol> conjunctions) {
+        if (symbol instanceof Function && ((Function) symbol).info().ident().name().equals(AndOperator.NAME)) {
+            for (Symbol arg : ((Function) symbol).arguments()) {
+                splitConjunctions(arg, conjunctions);
+            }
+        } else {
+            conjunctions.add(symbol);
+        }
+    }
+
+    private static boolean addKeys(Symbol symbol,
+                                   int numLeftOutputs,
+                                   List<Symbol> leftKeys,
+                                   List<Symbol> rightKeys) {
+        if (!(symbol instanceof Function)) {
+            return false;
+        }
+        Function function = (Function) symbol;
+        if (!function.info().ident().name().equals(EqOperator.NAME)) {
+            return false;
+        }
+        Symbol first = function.arguments().get(0);
+        Symbol second = function.arguments().get(1);
+        if (!first.valueType().equals(second.valueType()) || !HASHABLE_TYPES.contains(first.valueType())) {
+            return false;
+        }
+        if (isLeftOnly(first, numLeftOutputs) && isRightOnly(second, numLeftOutputs)) {
+            leftKeys.add(first);
+            rightKeys.add(RightInputColumnShifter.shift(second, numLeftOutputs));
+            return true;
+        }
+        if (isLeftOnly(second, numLeftOutputs) && isRightOnly(first, numLeftOutputs)) {
+            leftKeys.add(second);
+            rightKeys.add(RightInputColumnShifter.shift(first, numLeftOutputs));
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isLeftOnly(Symbol symbol, int numLeftOutputs) {
+        return SymbolVisitors.any(s -> s instanceof InputColumn, symbol)
+               && !SymbolVisitors.any(s -> s instanceof InputColumn && ((InputColumn) s).index() >= numLeftOutputs, symbol);
+    }
+
+    private static boolean isRightOnly(Symbol symbol, int numLeftOutputs) {
+        return SymbolVisitors.any(s -> s instanceof InputColumn, symbol)
+               && !SymbolVisitors.any(s -> s instanceof InputColumn && ((InputColumn) s).index() < numLeftOutputs, symbol);
+    }
+
+    private static class RightInputColumnShifter extends ReplacingSymbolVisitor<Integer> {
+
+        private static final RightInputColumnShifter INSTANCE = new RightInputColumnShifter();
+
+        private RightInputColumnShifter() {
+            super(ReplaceMode.COPY);
+        }
+
+        static Symbol shift(Symbol symbol, int numLeftOutputs) {
+            return INSTANCE.process(symbol, numLeftOutputs);
+        }
+
+        @Override
+        public Symbol visitInputColumn(InputColumn inputColumn, Integer numLeftOutputs) {
+            return new InputColumn(inputColumn.index() - numLeftOutputs, inputColumn.valueType());
+        }
+    }
+}
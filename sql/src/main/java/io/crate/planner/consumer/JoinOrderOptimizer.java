@@ -0,0 +1,255 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.planner.CardinalityEstimator;
+import io.crate.sql.tree.QualifiedName;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Picks the order in which the relations of a multi table join are joined, using the estimated number of rows
+ * of the relations and the estimated selectivity of the join conditions.
+ * <p>
+ * The join tree is built left-deep, so the cost of an order is the sum of the sizes of the intermediate results.
+ * Up to {@link #MAX_RELATIONS_EXHAUSTIVE} relations all orders are considered using dynamic programming over the
+ * subsets of the relations, beyond that the order is built greedily by always joining the relation which results
+ * in the smallest intermediate result next.
+ * </p>
+ */
+final class JoinOrderOptimizer {
+
+    static final int MAX_RELATIONS_EXHAUSTIVE = 10;
+
+    private final List<QualifiedName> names;
+    private final double[] relationRows;
+    private final int[] conditionMasks;
+    private final double[] conditionSelectivities;
+
+    private JoinOrderOptimizer(List<QualifiedName> names,
+                               double[] relationRows,
+                               int[] conditionMasks,
+                               double[] conditionSelectivities) {
+        this.names = names;
+        this.relationRows = relationRows;
+        this.conditionMasks = conditionMasks;
+        this.conditionSelectivities = conditionSelectivities;
+    }
+
+    /**
+     * @param sources        the relations to join
+     * @param joinConditions the join conditions, mapped by the relations they apply to
+     * @param preSorted      relations the order must start with, in this order
+     * @return the cheapest order or null if the number of rows of one of the relations is unknown
+     *         or there are too many relations to represent them as a bit set
+     */
+    @Nullable
+    static List<QualifiedName> optimize(Map<QualifiedName, AnalyzedRelation> sources,
+                                        Map<Set<QualifiedName>, Symbol> joinConditions,
+                                        Collection<QualifiedName> preSorted,
+                                        CardinalityEstimator estimator) {
+        List<QualifiedName> names = new ArrayList<>(sources.keySet());
+        if (names.size() >= Integer.SIZE) {
+            return null;
+        }
+        double[] relationRows = new double[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            relationRows[i] = estimator.estimatedRows(sources.get(names.get(i)));
+            if (relationRows[i] < 0) {
+                return null;
+            }
+        }
+        int[] conditionMasks = new int[joinConditions.size()];
+        double[] conditionSelectivities = new double[joinConditions.size()];
+        int conditionIdx = 0;
+        for (Map.Entry<Set<QualifiedName>, Symbol> entry : joinConditions.entrySet()) {
+            int mask = 0;
+            for (QualifiedName name : entry.getKey()) {
+                int idx = names.indexOf(name);
+                if (idx < 0) {
+                    return null;
+                }
+                mask |= 1 << idx;
+            }
+            conditionMasks[conditionIdx] = mask;
+            conditionSelectivities[conditionIdx] = estimator.selectivity(entry.getValue());
+            conditionIdx++;
+        }
+        JoinOrderOptimizer optimizer =
+            new JoinOrderOptimizer(names, relationRows, conditionMasks, conditionSelectivities);
+
+        int startMask = 0;
+        List<Integer> start = new ArrayList<>(preSorted.size());
+        for (QualifiedName name : preSorted) {
+            int idx = names.indexOf(name);
+            if (idx < 0) {
+                return null;
+            }
+            start.add(idx);
+            startMask |= 1 << idx;
+        }
+        List<Integer> order = names.size() <= MAX_RELATIONS_EXHAUSTIVE
+            ? optimizer.exhaustive(start, startMask)
+            : optimizer.greedy(start, startMask);
+        List<QualifiedName> orderedNames = new ArrayList<>(order.size());
+        for (Integer idx : order) {
+            orderedNames.add(names.get(idx));
+        }
+        return orderedNames;
+    }
+
+    /**
+     * Returns the estimated number of rows of the result of joining relation {@code idx} to the relations of
+     * {@code mask} which result in {@code rows} rows.
+     */
+    private double joinedRows(int mask, double rows, int idx) {
+        int newMask = mask | (1 << idx);
+        double joinedRows = rows * relationRows[idx];
+        for (int i = 0; i < conditionMasks.length; i++) {
+            int conditionMask = conditionMasks[i];
+            if ((conditionMask & newMask) == conditionMask && (conditionMask & mask) != conditionMask) {
+                joinedRows *= conditionSelectivities[i];
+            }
+        }
+        return joinedRows;
+    }
+
+    private List<Integer> exhaustive(List<Integer> start, int startMask) {
+        int numRelations = names.size();
+        int numSubsets = 1 << numRelations;
+        double[] cost = new double[numSubsets];
+        double[] rows = new double[numSubsets];
+        int[] last = new int[numSubsets];
+        boolean[] reachable = new boolean[numSubsets];
+
+        if (start.isEmpty()) {
+            for (int i = 0; i < numRelations; i++) {
+                int mask = 1 << i;
+                reachable[mask] = true;
+                rows[mask] = joinedRows(0, 1.0, i);
+                last[mask] = i;
+            }
+        } else {
+            int mask = 0;
+            double startRows = 1.0;
+            double startCost = 0.0;
+            for (Integer idx : start) {
+                startRows = joinedRows(mask, startRows, idx);
+                if (mask != 0) {
+                    startCost += startRows;
+                }
+                mask |= 1 << idx;
+            }
+            reachable[startMask] = true;
+            rows[startMask] = startRows;
+            cost[startMask] = startCost;
+            last[startMask] = -1;
+        }
+
+        // subsets are visited in ascending order, so every subset is complete before it is extended
+        for (int mask = 1; mask < numSubsets; mask++) {
+            if (!reachable[mask]) {
+                continue;
+            }
+            for (int i = 0; i < numRelations; i++) {
+                int bit = 1 << i;
+                if ((mask & bit) != 0) {
+                    continue;
+                }
+                int newMask = mask | bit;
+                double newRows = joinedRows(mask, rows[mask], i);
+                double newCost = cost[mask] + newRows;
+                if (!reachable[newMask] || newCost < cost[newMask]) {
+                    reachable[newMask] = true;
+                    rows[newMask] = newRows;
+                    cost[newMask] = newCost;
+                    last[newMask] = i;
+                }
+            }
+        }
+
+        LinkedList<Integer> order = new LinkedList<>();
+        int mask = numSubsets - 1;
+        while (mask != startMask && Integer.bitCount(mask) > 1) {
+            order.addFirst(last[mask]);
+            mask &= ~(1 << last[mask]);
+        }
+        if (start.isEmpty()) {
+            order.addFirst(last[mask]);
+        } else {
+            order.addAll(0, start);
+        }
+        return order;
+    }
+
+    private List<Integer> greedy(List<Integer> start, int startMask) {
+        List<Integer> order = new ArrayList<>(names.size());
+        int mask = startMask;
+        double rows = 1.0;
+        if (start.isEmpty()) {
+            int smallest = 0;
+            for (int i = 1; i < names.size(); i++) {
+                if (joinedRows(0, 1.0, i) < joinedRows(0, 1.0, smallest)) {
+                    smallest = i;
+                }
+            }
+            start = Collections.singletonList(smallest);
+            mask = 1 << smallest;
+            rows = joinedRows(0, 1.0, smallest);
+        } else {
+            int startedMask = 0;
+            for (Integer idx : start) {
+                rows = joinedRows(startedMask, rows, idx);
+                startedMask |= 1 << idx;
+            }
+        }
+        order.addAll(start);
+        while (order.size() < names.size()) {
+            int next = -1;
+            double nextRows = Double.MAX_VALUE;
+            for (int i = 0; i < names.size(); i++) {
+                if ((mask & (1 << i)) != 0) {
+                    continue;
+                }
+                double joinedRows = joinedRows(mask, rows, i);
+                if (next == -1 || joinedRows < nextRows) {
+                    next = i;
+                    nextRows = joinedRows;
+                }
+            }
+            order.add(next);
+            mask |= 1 << next;
+            rows = nextRows;
+        }
+        return order;
+    }
+}
@@ -49,9 +49,11 @@ import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.table.Operation;
 import io.crate.operation.operator.AndOperator;
+import io.crate.planner.CardinalityEstimator;
 import io.crate.planner.Merge;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
+import io.crate.planner.TableStats;
 import io.crate.planner.fetch.FetchPushDown;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.sql.tree.QualifiedName;
@@ -79,8 +81,8 @@ public class ManyTableConsumer implements Consumer {
 
     private final Visitor visitor;
 
-    ManyTableConsumer() {
-        this.visitor = new Visitor();
+    ManyTableConsumer(TableStats tableStats) {
+        this.visitor = new Visitor(new CardinalityEstimator(tableStats));
     }
 
     @Override
@@ -174,14 +176,42 @@ public class ManyTableConsumer implements Consumer {
         return orderByOrder;
     }
 
-    private static Collection<QualifiedName> getOrderedRelationNames(MultiSourceSelect statement,
-                                                                     Set<? extends Set<QualifiedName>> relationPairs) {
-        Collection<QualifiedName> orderedRelations = ImmutableList.of();
+    private static Collection<QualifiedName> getOrderByRelationNames(MultiSourceSelect statement) {
         Optional<OrderBy> orderBy = statement.querySpec().orderBy();
         if (orderBy.isPresent()) {
-            orderedRelations = getNamesFromOrderBy(orderBy.get());
+            return getNamesFromOrderBy(orderBy.get());
+        }
+        return ImmutableList.of();
+    }
+
+    private static Collection<QualifiedName> getOrderedRelationNames(MultiSourceSelect statement,
+                                                                     Set<? extends Set<QualifiedName>> relationPairs) {
+        return orderByJoinConditions(
+            statement.sources().keySet(), relationPairs, statement.joinPairs(), getOrderByRelationNames(statement));
+    }
+
+    /**
+     * Returns the relations in the order with the lowest estimated cost.
+     * Falls back to {@link #orderByJoinConditions} if the statement contains outer joins, which must not be
+     * re-ordered freely, or if the number of rows of a relation cannot be estimated.
+     */
+    private static Collection<QualifiedName> getOrderedRelationNames(MultiSourceSelect statement,
+                                                                     Map<Set<QualifiedName>, Symbol> splitQuery,
+                                                                     CardinalityEstimator estimator) {
+        List<JoinPair> joinPairs = statement.joinPairs();
+        if (JoinPairs.outerJoinRelations(joinPairs).isEmpty()) {
+            Map<Set<QualifiedName>, Symbol> joinConditions = buildJoinConditionsMap(joinPairs);
+            for (Map.Entry<Set<QualifiedName>, Symbol> entry : splitQuery.entrySet()) {
+                joinConditions.merge(entry.getKey(), entry.getValue(),
+                                     (a, b) -> AndOperator.join(Arrays.asList(a, b)));
+            }
+            List<QualifiedName> orderedRelations = JoinOrderOptimizer.optimize(
+                statement.sources(), joinConditions, getOrderByRelationNames(statement), estimator);
+            if (orderedRelations != null) {
+                return orderedRelations;
+            }
         }
-        return orderByJoinConditions(statement.sources().keySet(), relationPairs, statement.joinPairs(), orderedRelations);
+        return getOrderedRelationNames(statement, splitQuery.keySet());
     }
 
     /**
@@ -220,13 +250,17 @@ public class ManyTableConsumer implements Consumer {
      * </code>
      */
     static TwoTableJoin buildTwoTableJoinTree(MultiSourceSelect mss) {
+        return buildTwoTableJoinTree(mss, new CardinalityEstimator(new TableStats()));
+    }
+
+    static TwoTableJoin buildTwoTableJoinTree(MultiSourceSelect mss, CardinalityEstimator estimator) {
         Map<Set<QualifiedName>, Symbol> splitQuery = ImmutableMap.of();
         if (mss.querySpec().where().hasQuery()) {
             splitQuery = QuerySplitter.split(mss.querySpec().where().query());
             mss.querySpec().where(WhereClause.MATCH_ALL);
         }
 
-        Collection<QualifiedName> orderedRelationNames = getOrderedRelationNames(mss, splitQuery.keySet());
+        Collection<QualifiedName> orderedRelationNames = getOrderedRelationNames(mss, splitQuery, estimator);
         Iterator<QualifiedName> it = orderedRelationNames.iterator();
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("relations={} orderedRelations={}", mss.sources().keySet(), orderedRelationNames);
@@ -469,6 +503,12 @@ public class ManyTableConsumer implements Consumer {
 
     private static class Visitor extends RelationPlanningVisitor {
 
+        private final CardinalityEstimator estimator;
+
+        Visitor(CardinalityEstimator estimator) {
+            this.estimator = estimator;
+        }
+
         @Override
         public Plan visitMultiSourceSelect(MultiSourceSelect mss, ConsumerContext context) {
             if (isUnsupportedStatement(mss, context)) return null;
@@ -498,11 +538,11 @@ public class ManyTableConsumer implements Consumer {
             return new QueryThenFetch(plan,  phaseAndProjection.phase);
         }
 
-        private static Plan getPlan(MultiSourceSelect mss, ConsumerContext context) {
+        private Plan getPlan(MultiSourceSelect mss, ConsumerContext context) {
             if (mss.sources().size() == 2) {
                 return planSubRelation(context, twoTableJoin(mss));
             }
-            return planSubRelation(context, buildTwoTableJoinTree(mss));
+            return planSubRelation(context, buildTwoTableJoinTree(mss, estimator));
         }
 
 
@@ -30,10 +30,10 @@ import io.crate.analyze.relations.QueriedDocTable;
 import io.crate.analyze.relations.QueriedRelation;
 import io.crate.analyze.symbol.*;
 import io.crate.collections.Lists2;
-import io.crate.metadata.TableIdent;
 import io.crate.operation.projectors.TopN;
 import io.crate.planner.*;
 import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.planner.node.dql.join.NestedLoop;
@@ -53,6 +53,12 @@ import java.util.List;
 class NestedLoopConsumer implements Consumer {
 
     private final static Logger LOGGER = Loggers.getLogger(NestedLoopConsumer.class);
+
+    /**
+     * Minimum number of docs both tables of a hash join must have to re-distribute both sides by the join key
+     * instead of broadcasting one side.
+     */
+    static final long PARTITIONED_JOIN_MIN_DOCS = 100_000L;
     private final Visitor visitor;
 
     NestedLoopConsumer(ClusterService clusterService, TableStats tableStats) {
@@ -67,11 +73,11 @@ class NestedLoopConsumer implements Consumer {
     private static class Visitor extends RelationPlanningVisitor {
 
         private final ClusterService clusterService;
-        private final TableStats tableStats;
+        private final CardinalityEstimator estimator;
 
         public Visitor(ClusterService clusterService, TableStats tableStats) {
             this.clusterService = clusterService;
-            this.tableStats = tableStats;
+            this.estimator = new CardinalityEstimator(tableStats);
         }
 
         @Override
@@ -81,6 +87,7 @@ class NestedLoopConsumer implements Consumer {
             QueriedRelation left = statement.left();
             QueriedRelation right = statement.right();
             List<Symbol> nlOutputs = Lists2.concat(left.fields(), right.fields());
+            int numLeftFields = left.fields().size();
 
             // for nested loops we are fine to remove pushed down orders
             OrderBy orderByBeforeSplit = querySpec.orderBy().orElse(null);
@@ -119,8 +126,55 @@ class NestedLoopConsumer implements Consumer {
 
             ResultDescription leftResultDesc = leftPlan.resultDescription();
             ResultDescription rightResultDesc = rightPlan.resultDescription();
-            isDistributed = isDistributed &&
-                            (!leftResultDesc.nodeIds().isEmpty() && !rightResultDesc.nodeIds().isEmpty());
+            boolean hasUpstreamNodes = !leftResultDesc.nodeIds().isEmpty() && !rightResultDesc.nodeIds().isEmpty();
+
+            HashJoinKeys hashJoinKeys = null;
+            if (joinCondition != null && joinType != JoinType.CROSS) {
+                hashJoinKeys = HashJoinKeys.of(InputColumns.create(joinCondition, nlOutputs), numLeftFields);
+            }
+            /*
+             * If both sides are large, broadcasting one of them to all nodes is more expensive than re-distributing
+             * both sides by the join key. Every node then only joins its own hash partition.
+             * This also works for outer joins as all rows with the same key end up on the same node.
+             */
+            boolean isPartitioned = hasUpstreamNodes
+                                    && hashJoinKeys != null
+                                    && hashJoinKeys.canPartition()
+                                    && isPartitionedJoinBeneficial(left, right);
+            Collection<String> nlExecutionNodes = ImmutableSet.of(clusterService.localNode().getId());
+            MergePhase leftMerge = null;
+            MergePhase rightMerge = null;
+            isDistributed = isDistributed && hasUpstreamNodes && !isPartitioned;
+            if (isPartitioned) {
+                nlExecutionNodes = ImmutableSet.<String>builder()
+                    .addAll(leftResultDesc.nodeIds())
+                    .addAll(rightResultDesc.nodeIds())
+                    .build();
+                leftPlan.setDistributionInfo(new DistributionInfo(DistributionType.MODULO, hashJoinKeys.leftPartitionColumn()));
+                rightPlan.setDistributionInfo(new DistributionInfo(DistributionType.MODULO, hashJoinKeys.rightPartitionColumn()));
+                leftMerge = new MergePhase(
+                    context.plannerContext().jobId(),
+                    context.plannerContext().nextExecutionPhaseId(),
+                    "hash-join-merge",
+                    leftResultDesc.nodeIds().size(),
+                    nlExecutionNodes,
+                    leftResultDesc.streamOutputs(),
+                    Collections.emptyList(),
+                    DistributionInfo.DEFAULT_SAME_NODE,
+                    PositionalOrderBy.of(left.querySpec().orderBy().orElse(null), left.querySpec().outputs())
+                );
+                rightMerge = new MergePhase(
+                    context.plannerContext().jobId(),
+                    context.plannerContext().nextExecutionPhaseId(),
+                    "hash-join-merge",
+                    rightResultDesc.nodeIds().size(),
+                    nlExecutionNodes,
+                    rightResultDesc.streamOutputs(),
+                    Collections.emptyList(),
+                    DistributionInfo.DEFAULT_SAME_NODE,
+                    PositionalOrderBy.of(right.querySpec().orderBy().orElse(null), right.querySpec().outputs())
+                );
+            }
             boolean broadcastLeftTable = false;
             if (isDistributed) {
                 broadcastLeftTable = isLeftSmallerThanRight(left, right);
@@ -137,14 +191,11 @@ class NestedLoopConsumer implements Consumer {
                     rightResultDesc = rightPlan.resultDescription();
                 }
             }
-            Collection<String> nlExecutionNodes = ImmutableSet.of(clusterService.localNode().getId());
 
-            MergePhase leftMerge = null;
-            MergePhase rightMerge = null;
             if (isDistributed) {
                 leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
                 nlExecutionNodes = leftResultDesc.nodeIds();
-            } else {
+            } else if (isPartitioned == false) {
                 leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
                 if (isMergePhaseNeeded(nlExecutionNodes, leftResultDesc.nodeIds(), false)) {
                     leftMerge = new MergePhase(
@@ -160,7 +211,9 @@ class NestedLoopConsumer implements Consumer {
                     );
                 }
             }
-            if (nlExecutionNodes.size() == 1
+            if (isPartitioned) {
+                // both sides are already distributed by the join key
+            } else if (nlExecutionNodes.size() == 1
                 && nlExecutionNodes.equals(rightResultDesc.nodeIds())) {
                 // if the left and the right plan are executed on the same single node the mergePhase
                 // should be omitted. This is the case if the left and right table have only one shards which
@@ -193,6 +246,8 @@ class NestedLoopConsumer implements Consumer {
                 leftResultDesc = leftPlan.resultDescription();
                 rightResultDesc = rightPlan.resultDescription();
             }
+            // the join is executed on multiple nodes, so the final limit, offset and order must be applied on the handler
+            boolean distributedResult = isDistributed || isPartitioned;
             List<Projection> projections = new ArrayList<>();
 
             if (filterNeeded) {
@@ -204,10 +259,13 @@ class NestedLoopConsumer implements Consumer {
                 assert !SymbolVisitors.any(Symbols.IS_COLUMN, joinCondition)
                     : "Processed joinCondition must not contain column symbols.\njoinCondition="
                       + joinCondition + " nlOutputs=" + nlOutputs;
+                if (hashJoinKeys != null) {
+                    joinCondition = hashJoinKeys.remainingCondition();
+                }
             }
 
             List<Symbol> postNLOutputs = Lists.newArrayList(querySpec.outputs());
-            if (orderByBeforeSplit != null && isDistributed) {
+            if (orderByBeforeSplit != null && distributedResult) {
                 for (Symbol symbol : orderByBeforeSplit.orderBySymbols()) {
                     if (postNLOutputs.indexOf(symbol) == -1) {
                         postNLOutputs.add(symbol);
@@ -220,20 +278,21 @@ class NestedLoopConsumer implements Consumer {
                 orderBy = orderByBeforeSplit;
             }
 
-            int limit = isDistributed ? limits.limitAndOffset() : limits.finalLimit();
+            int limit = distributedResult ? limits.limitAndOffset() : limits.finalLimit();
             Projection topN = ProjectionBuilder.topNOrEval(
                 nlOutputs,
                 orderBy,
-                isDistributed ? 0 : limits.offset(),
+                distributedResult ? 0 : limits.offset(),
                 limit,
                 postNLOutputs
             );
             projections.add(topN);
 
+            String phaseName = hashJoinKeys == null ? "nested-loop" : "hash-join";
             NestedLoopPhase nl = new NestedLoopPhase(
                 context.plannerContext().jobId(),
                 context.plannerContext().nextExecutionPhaseId(),
-                isDistributed ? "distributed-nested-loop" : "nested-loop",
+                distributedResult ? "distributed-" + phaseName : phaseName,
                 projections,
                 leftMerge,
                 rightMerge,
@@ -241,12 +300,17 @@ class NestedLoopConsumer implements Consumer {
                 joinType,
                 joinCondition,
                 left.querySpec().outputs().size(),
-                right.querySpec().outputs().size()
+                right.querySpec().outputs().size(),
+                hashJoinKeys == null ? Collections.emptyList() : hashJoinKeys.leftKeys(),
+                hashJoinKeys == null ? Collections.emptyList() : hashJoinKeys.rightKeys(),
+                hashJoinKeys == null
+                    ? Collections.emptyList()
+                    : Symbols.extractTypes(nlOutputs.subList(numLeftFields, nlOutputs.size()))
             );
 
              // postNLOutputs includes orderBy only symbols, these need to be stripped in the handlerMerge
             int postMergeNumOutput = querySpec.outputs().size();
-            if (isDistributed) {
+            if (distributedResult) {
                 return new NestedLoop(
                     nl,
                     leftPlan,
@@ -262,24 +326,32 @@ class NestedLoopConsumer implements Consumer {
             }
         }
 
-        private boolean isLeftSmallerThanRight(QueriedRelation qrLeft, QueriedRelation qrRight) {
-            if (qrLeft instanceof QueriedTableRelation && qrRight instanceof QueriedTableRelation) {
-                return isLeftSmallerThanRight(
-                    ((QueriedTableRelation) qrLeft).tableRelation().tableInfo().ident(),
-                    ((QueriedTableRelation) qrRight).tableRelation().tableInfo().ident()
-                );
+        private boolean isPartitionedJoinBeneficial(QueriedRelation qrLeft, QueriedRelation qrRight) {
+            if (qrLeft instanceof QueriedDocTable && qrRight instanceof QueriedDocTable) {
+                double leftRows = estimator.estimatedRows(qrLeft);
+                double rightRows = estimator.estimatedRows(qrRight);
+                if (leftRows >= PARTITIONED_JOIN_MIN_DOCS && rightRows >= PARTITIONED_JOIN_MIN_DOCS) {
+                    LOGGER.debug("Left side has an estimated number of {} rows and right side {} rows. " +
+                                 "Will re-distribute both sides by the join key", leftRows, rightRows);
+                    return true;
+                }
             }
             return false;
         }
 
-        private boolean isLeftSmallerThanRight(TableIdent leftIdent, TableIdent rightIdent) {
-            long leftNumDocs = tableStats.numDocs(leftIdent);
-            long rightNumDocs = tableStats.numDocs(rightIdent);
-
-            if (leftNumDocs < rightNumDocs) {
-                LOGGER.debug("Right table is larger with {} docs (left has {}. Will change left plan to broadcast its result",
-                    rightNumDocs, leftNumDocs);
-                return true;
+        /**
+         * Compares the estimated number of rows, which takes the filters of the relations into account,
+         * so that the side which is left after filtering is broadcast even if its table is larger.
+         */
+        private boolean isLeftSmallerThanRight(QueriedRelation qrLeft, QueriedRelation qrRight) {
+            if (qrLeft instanceof QueriedTableRelation && qrRight instanceof QueriedTableRelation) {
+                double leftRows = estimator.estimatedRows(qrLeft);
+                double rightRows = estimator.estimatedRows(qrRight);
+                if (leftRows >= 0 && rightRows >= 0 && leftRows < rightRows) {
+                    LOGGER.debug("Right side is larger with an estimated number of {} rows (left has {}). " +
+                                 "Will change left plan to broadcast its result", rightRows, leftRows);
+                    return true;
+                }
             }
             return false;
         }
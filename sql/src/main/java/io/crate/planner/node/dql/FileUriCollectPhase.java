@@ -44,6 +44,7 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
     private final List<Symbol> toCollect;
     private final String compression;
     private final Boolean sharedStorage;
+    private final long splitSize;
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
     public FileUriCollectPhase(UUID jobId,
@@ -54,13 +55,15 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
                                List<Symbol> toCollect,
                                List<Projection> projections,
                                String compression,
-                               Boolean sharedStorage) {
+                               Boolean sharedStorage,
+                               long splitSize) {
         super(jobId, phaseId, name, projections);
         this.executionNodes = executionNodes;
         this.targetUri = targetUri;
         this.toCollect = toCollect;
         this.compression = compression;
         this.sharedStorage = sharedStorage;
+        this.splitSize = splitSize;
         outputTypes = extractOutputTypes(toCollect, projections);
     }
 
@@ -96,6 +99,7 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         super(in);
         compression = in.readOptionalString();
         sharedStorage = in.readOptionalBoolean();
+        splitSize = in.readVLong();
         targetUri = Symbols.fromStream(in);
 
         int numNodes = in.readVInt();
@@ -112,6 +116,7 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         super.writeTo(out);
         out.writeOptionalString(compression);
         out.writeOptionalBoolean(sharedStorage);
+        out.writeVLong(splitSize);
         Symbols.toStream(targetUri, out);
         out.writeVInt(executionNodes.size());
         for (String node : executionNodes) {
@@ -129,6 +134,7 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
             .add("outputTypes", outputTypes)
             .add("compression", compression)
             .add("sharedStorageDefault", sharedStorage)
+            .add("splitSize", splitSize)
             .toString();
     }
 
@@ -137,6 +143,13 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         return sharedStorage;
     }
 
+    /**
+     * @return the size of the byte ranges files are split into, 0 if files are read as a whole
+     */
+    public long splitSize() {
+        return splitSize;
+    }
+
     @Override
     public DistributionInfo distributionInfo() {
         return distributionInfo;
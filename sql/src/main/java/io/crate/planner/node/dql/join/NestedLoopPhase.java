@@ -32,12 +32,16 @@ import io.crate.planner.node.ExecutionPhaseVisitor;
 import io.crate.planner.node.dql.AbstractProjectionsPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.projection.Projection;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
@@ -54,6 +58,19 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
     private final int numLeftOutputs;
     private final int numRightOutputs;
 
+    /**
+     * If not empty the join is executed as hash join using these keys.
+     * leftJoinKeys are evaluated against the left rows, rightJoinKeys against the right rows.
+     * {@link #joinCondition} then only contains the remaining (non-equi) condition.
+     */
+    private final List<Symbol> leftJoinKeys;
+    private final List<Symbol> rightJoinKeys;
+
+    /**
+     * Types of the right rows. Only set for hash joins, used to account the memory of the hash table.
+     */
+    private final List<DataType> rightInputTypes;
+
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
     public NestedLoopPhase(UUID jobId,
@@ -67,7 +84,27 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
                            @Nullable Symbol joinCondition,
                            int numLeftOutputs,
                            int numRightOutputs) {
+        this(jobId, executionNodeId, name, projections, leftMergePhase, rightMergePhase, executionNodes, joinType,
+            joinCondition, numLeftOutputs, numRightOutputs, Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyList());
+    }
+
+    public NestedLoopPhase(UUID jobId,
+                           int executionNodeId,
+                           String name,
+                           List<Projection> projections,
+                           @Nullable MergePhase leftMergePhase,
+                           @Nullable MergePhase rightMergePhase,
+                           Collection<String> executionNodes,
+                           JoinType joinType,
+                           @Nullable Symbol joinCondition,
+                           int numLeftOutputs,
+                           int numRightOutputs,
+                           List<Symbol> leftJoinKeys,
+                           List<Symbol> rightJoinKeys,
+                           List<DataType> rightInputTypes) {
         super(jobId, executionNodeId, name, projections);
+        assert leftJoinKeys.size() == rightJoinKeys.size() : "number of left and right join keys must match";
         Projection lastProjection = Iterables.getLast(projections, null);
         assert lastProjection != null : "lastProjection must not be null";
         outputTypes = Symbols.extractTypes(lastProjection.outputs());
@@ -78,6 +115,9 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         this.joinCondition = joinCondition;
         this.numLeftOutputs = numLeftOutputs;
         this.numRightOutputs = numRightOutputs;
+        this.leftJoinKeys = leftJoinKeys;
+        this.rightJoinKeys = rightJoinKeys;
+        this.rightInputTypes = rightInputTypes;
     }
 
     @Override
@@ -121,6 +161,22 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         return numRightOutputs;
     }
 
+    public List<Symbol> leftJoinKeys() {
+        return leftJoinKeys;
+    }
+
+    public List<Symbol> rightJoinKeys() {
+        return rightJoinKeys;
+    }
+
+    public List<DataType> rightInputTypes() {
+        return rightInputTypes;
+    }
+
+    public boolean isHashJoin() {
+        return !leftJoinKeys.isEmpty();
+    }
+
     @Override
     public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
         return visitor.visitNestedLoopPhase(this, context);
@@ -151,6 +207,13 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         joinType = JoinType.values()[in.readVInt()];
         numLeftOutputs = in.readVInt();
         numRightOutputs = in.readVInt();
+        leftJoinKeys = Symbols.listFromStream(in);
+        rightJoinKeys = Symbols.listFromStream(in);
+        int numRightInputTypes = in.readVInt();
+        rightInputTypes = new ArrayList<>(numRightInputTypes);
+        for (int i = 0; i < numRightInputTypes; i++) {
+            rightInputTypes.add(DataTypes.fromStream(in));
+        }
     }
 
     @Override
@@ -181,6 +244,12 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         out.writeVInt(joinType.ordinal());
         out.writeVInt(numLeftOutputs);
         out.writeVInt(numRightOutputs);
+        Symbols.toStream(leftJoinKeys, out);
+        Symbols.toStream(rightJoinKeys, out);
+        out.writeVInt(rightInputTypes.size());
+        for (DataType rightInputType : rightInputTypes) {
+            DataTypes.toStream(rightInputType, out);
+        }
     }
 
     @Override
@@ -190,6 +259,8 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
             .add("name", name())
             .add("joinType", joinType)
             .add("joinCondition", joinCondition)
+            .add("leftJoinKeys", leftJoinKeys)
+            .add("rightJoinKeys", rightJoinKeys)
             .add("outputTypes", outputTypes)
             .add("jobId", jobId())
             .add("executionNodes", executionNodes);
@@ -31,9 +31,11 @@ import java.util.UUID;
 public class ExplainPlan extends UnnestablePlan {
 
     private final Plan subPlan;
+    private final boolean doAnalyze;
 
-    public ExplainPlan(Plan subPlan) {
+    public ExplainPlan(Plan subPlan, boolean doAnalyze) {
         this.subPlan = subPlan;
+        this.doAnalyze = doAnalyze;
     }
 
     @Override
@@ -49,4 +51,8 @@ public class ExplainPlan extends UnnestablePlan {
     public Plan subPlan() {
         return subPlan;
     }
+
+    public boolean doAnalyze() {
+        return doAnalyze;
+    }
 }
@@ -133,17 +133,26 @@ public class CopyStatementPlanner {
         // the partitionedBy-inputColumns created for the projection are still valid because the positions are not changed
         rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
 
-        DiscoveryNodes allNodes = clusterService.state().nodes();
+        Collection<String> executionNodes;
+        if (copyFrom.copyInStreamId() == null) {
+            DiscoveryNodes allNodes = clusterService.state().nodes();
+            executionNodes = getExecutionNodes(
+                allNodes, copyFrom.settings().getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate());
+        } else {
+            // COPY FROM STDIN: the data is only available on the node the client is connected to
+            executionNodes = Collections.singletonList(clusterService.localNode().getId());
+        }
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(allNodes, copyFrom.settings().getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate()),
+            executionNodes,
             copyFrom.uri(),
             toCollect,
             projections,
             copyFrom.settings().get("compression", null),
-            copyFrom.settings().getAsBoolean("shared", null)
+            copyFrom.settings().getAsBoolean("shared", null),
+            CopyFromAnalyzedStatement.SPLIT_SIZE_SETTING.extractBytes(copyFrom.settings())
         );
 
         Collect collect = new Collect(collectPhase, TopN.NO_LIMIT, 0, 1, 1, null);
@@ -32,6 +32,9 @@ import io.crate.planner.TableStats;
 import io.crate.planner.TableStatsService;
 import io.crate.protocols.postgres.PostgresNetty;
 import io.crate.protocols.ssl.SslContextProvider;
+import io.crate.statistics.ColumnStatsService;
+import io.crate.statistics.TransportColumnBoundsNodeAction;
+import io.crate.statistics.TransportPublishColumnStatsAction;
 import org.elasticsearch.common.inject.AbstractModule;
 
 
@@ -46,6 +49,9 @@ public class SQLModule extends AbstractModule {
         bind(Planner.class).asEagerSingleton();
         bind(TableStats.class).asEagerSingleton();
         bind(TableStatsService.class).asEagerSingleton();
+        bind(ColumnStatsService.class).asEagerSingleton();
+        bind(TransportPublishColumnStatsAction.class).asEagerSingleton();
+        bind(TransportColumnBoundsNodeAction.class).asEagerSingleton();
         bind(UserDefinedFunctionService.class).asEagerSingleton();
         bind(TransportCreateUserDefinedFunctionAction.class).asEagerSingleton();
         bind(TransportDropUserDefinedFunctionAction.class).asEagerSingleton();
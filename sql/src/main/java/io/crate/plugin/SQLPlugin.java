@@ -44,9 +44,13 @@ import io.crate.monitor.MonitorModule;
 import io.crate.operation.aggregation.impl.AggregationImplModule;
 import io.crate.operation.auth.AuthSettings;
 import io.crate.operation.collect.CollectOperationModule;
+import io.crate.operation.collect.ShardResultCache;
 import io.crate.operation.collect.files.FileCollectModule;
+import io.crate.operation.collect.sources.ShardCollectSource;
+import io.crate.operation.compiler.ExpressionCompiler;
 import io.crate.operation.operator.OperatorModule;
 import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.projectors.spill.SpillFiles;
 import io.crate.operation.reference.sys.check.SysChecksModule;
 import io.crate.operation.reference.sys.check.node.SysNodeChecksModule;
 import io.crate.operation.reference.sys.cluster.SysClusterExpressionModule;
@@ -58,6 +62,8 @@ import io.crate.protocols.postgres.PostgresNetty;
 import io.crate.protocols.ssl.SslConfigSettings;
 import io.crate.rest.action.RestSQLAction;
 import io.crate.settings.CrateSetting;
+import io.crate.statistics.ColumnBoundsMetaData;
+import io.crate.statistics.ColumnStatsMetaData;
 import io.crate.user.UserExtension;
 import io.crate.user.UserFallbackModule;
 import org.elasticsearch.action.bulk.BulkModule;
@@ -121,6 +127,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         List<Setting<?>> settings = new ArrayList<>();
         settings.add(AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP);
         settings.add(SQLOperations.NODE_READ_ONLY_SETTING);
+        settings.add(SpillFiles.SPILL_TO_DISK_SETTING);
+        settings.add(ShardResultCache.RESULT_CACHE_ENABLED_SETTING);
+        settings.add(ShardResultCache.RESULT_CACHE_SIZE_SETTING);
+        settings.add(ShardCollectSource.SEGMENT_CONCURRENCY_SETTING);
+        settings.add(ExpressionCompiler.COMPILE_EXPRESSIONS_SETTING);
 
         // Postgres settings are node settings
         settings.add(PostgresNetty.PSQL_ENABLED_SETTING.setting());
@@ -222,6 +233,26 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
             UserDefinedFunctionsMetaData.TYPE,
             UserDefinedFunctionsMetaData::readDiffFrom
         ));
+        entries.add(new NamedWriteableRegistry.Entry(
+            MetaData.Custom.class,
+            ColumnStatsMetaData.TYPE,
+            ColumnStatsMetaData::new
+        ));
+        entries.add(new NamedWriteableRegistry.Entry(
+            NamedDiff.class,
+            ColumnStatsMetaData.TYPE,
+            ColumnStatsMetaData::readDiffFrom
+        ));
+        entries.add(new NamedWriteableRegistry.Entry(
+            MetaData.Custom.class,
+            ColumnBoundsMetaData.TYPE,
+            ColumnBoundsMetaData::new
+        ));
+        entries.add(new NamedWriteableRegistry.Entry(
+            NamedDiff.class,
+            ColumnBoundsMetaData.TYPE,
+            ColumnBoundsMetaData::readDiffFrom
+        ));
         if (userExtension != null) {
             entries.addAll(userExtension.getNamedWriteables());
         }
@@ -236,6 +267,16 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
             new ParseField(UserDefinedFunctionsMetaData.TYPE),
             UserDefinedFunctionsMetaData::fromXContent
         ));
+        entries.add(new NamedXContentRegistry.Entry(
+            ColumnStatsMetaData.class,
+            new ParseField(ColumnStatsMetaData.TYPE),
+            ColumnStatsMetaData::fromXContent
+        ));
+        entries.add(new NamedXContentRegistry.Entry(
+            ColumnBoundsMetaData.class,
+            new ParseField(ColumnBoundsMetaData.TYPE),
+            ColumnBoundsMetaData::fromXContent
+        ));
         if (userExtension != null) {
             entries.addAll(userExtension.getNamedXContent());
         }
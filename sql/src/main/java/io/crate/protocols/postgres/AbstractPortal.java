@@ -26,6 +26,8 @@ import io.crate.action.sql.SessionContext;
 import io.crate.analyze.Analyzer;
 import io.crate.executor.Executor;
 
+import javax.annotation.Nullable;
+
 abstract class AbstractPortal implements Portal {
 
     protected final String name;
@@ -45,6 +47,12 @@ abstract class AbstractPortal implements Portal {
         this.sessionContext = sessionContext;
     }
 
+    @Override
+    @Nullable
+    public String getCopyInStreamId() {
+        return null;
+    }
+
     @Override
     public void close() {
     }
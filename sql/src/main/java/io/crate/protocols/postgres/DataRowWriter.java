@@ -0,0 +1,109 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Encodes DataRow messages of a result set into a shared buffer instead of allocating and writing
+ * a buffer per row.
+ * <p>
+ * The {@link PGType} and {@link FormatCodes.FormatCode} of each column are resolved once.
+ * Once the buffer exceeds {@link #BATCH_SIZE_IN_BYTES} it is written and flushed as a whole.
+ * Any remaining rows are written by {@link #writePending()} which must be called before any other
+ * message is sent on the channel.
+ */
+class DataRowWriter {
+
+    static final int BATCH_SIZE_IN_BYTES = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    private final Channel channel;
+    private final PGType[] pgTypes;
+    private final FormatCodes.FormatCode[] formatCodes;
+
+    @Nullable
+    private ByteBuf buffer;
+
+    DataRowWriter(Channel channel, List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+        this.channel = channel;
+        this.pgTypes = pgTypes(columnTypes);
+        this.formatCodes = formatCodes(formatCodes, columnTypes.size());
+    }
+
+    void write(Row row) {
+        assert pgTypes.length == row.numColumns()
+            : "Number of columns in the row must match number of columnTypes. Row: " + row;
+        if (buffer == null) {
+            buffer = channel.alloc().buffer(INITIAL_CAPACITY);
+        }
+        int rowStartIdx = buffer.writerIndex();
+        try {
+            Messages.writeDataRow(buffer, row, pgTypes, formatCodes);
+        } catch (Throwable t) {
+            // discard the partially encoded row, the rows before it are still valid
+            buffer.writerIndex(rowStartIdx);
+            throw t;
+        }
+        if (buffer.readableBytes() >= BATCH_SIZE_IN_BYTES) {
+            ByteBuf batch = buffer;
+            buffer = null;
+            channel.writeAndFlush(batch);
+        }
+    }
+
+    /**
+     * Writes the rows which are buffered so far, without flushing the channel.
+     */
+    void writePending() {
+        if (buffer != null) {
+            ByteBuf batch = buffer;
+            buffer = null;
+            channel.write(batch);
+        }
+    }
+
+    static PGType[] pgTypes(List<? extends DataType> columnTypes) {
+        PGType[] pgTypes = new PGType[columnTypes.size()];
+        for (int i = 0; i < pgTypes.length; i++) {
+            pgTypes[i] = PGTypes.get(columnTypes.get(i));
+        }
+        return pgTypes;
+    }
+
+    static FormatCodes.FormatCode[] formatCodes(@Nullable FormatCodes.FormatCode[] formatCodes, int numColumns) {
+        FormatCodes.FormatCode[] resolved = new FormatCodes.FormatCode[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            resolved[i] = FormatCodes.getFormatCode(formatCodes, i);
+        }
+        return resolved;
+    }
+}
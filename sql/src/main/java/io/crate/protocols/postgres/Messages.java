@@ -286,30 +286,42 @@ public class Messages {
      * The value of the column, in the format indicated by the associated format code. n is the above length.
      */
     static void sendDataRow(Channel channel, Row row, List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
-        int length = 4 + 2;
         assert columnTypes.size() == row.numColumns()
             : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
 
         ByteBuf buffer = channel.alloc().buffer();
+        writeDataRow(buffer, row, DataRowWriter.pgTypes(columnTypes), DataRowWriter.formatCodes(formatCodes, row.numColumns()));
+        channel.write(buffer);
+    }
+
+    /**
+     * Encodes a DataRow message (see {@link #sendDataRow(Channel, Row, List, FormatCodes.FormatCode[])}) into
+     * the buffer, starting at its current writerIndex.
+     *
+     * @param pgTypes     the PGType of each column
+     * @param formatCodes the resolved formatCode of each column
+     */
+    static void writeDataRow(ByteBuf buffer, Row row, PGType[] pgTypes, FormatCodes.FormatCode[] formatCodes) {
+        int length = 4 + 2;
+        int numColumns = pgTypes.length;
+        int lengthIdx = buffer.writerIndex() + 1;
         buffer.writeByte('D');
         buffer.writeInt(0); // will be set at the end
-        buffer.writeShort(row.numColumns());
+        buffer.writeShort(numColumns);
 
-        for (int i = 0; i < row.numColumns(); i++) {
-            DataType dataType = columnTypes.get(i);
-            PGType pgType = PGTypes.get(dataType);
+        for (int i = 0; i < numColumns; i++) {
             Object value = row.get(i);
             if (value == null) {
                 buffer.writeInt(-1);
                 length += 4;
             } else {
-                FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
+                FormatCodes.FormatCode formatCode = formatCodes[i];
                 switch (formatCode) {
                     case TEXT:
-                        length += pgType.writeAsText(buffer, value);
+                        length += pgTypes[i].writeAsText(buffer, value);
                         break;
                     case BINARY:
-                        length += pgType.writeAsBinary(buffer, value);
+                        length += pgTypes[i].writeAsBinary(buffer, value);
                         break;
 
                     default:
@@ -318,8 +330,7 @@ public class Messages {
             }
         }
 
-        buffer.setInt(1, length);
-        channel.write(buffer);
+        buffer.setInt(lengthIdx, length);
     }
 
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
@@ -424,6 +435,24 @@ public class Messages {
         sendShortMsg(channel, 's', "sentPortalSuspended");
     }
 
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16[numColumns] formatCodes |
+     * <p>
+     * The data is expected as text, one JSON object per line, so no column formats are sent.
+     */
+    static void sendCopyInResponse(Channel channel) {
+        ByteBuf buffer = channel.alloc().buffer(8);
+        buffer.writeByte('G');
+        buffer.writeInt(7);
+        buffer.writeByte(0);
+        buffer.writeShort(0);
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace("sentCopyInResponse"));
+        }
+    }
+
     /**
      * CloseComplete
      * | '3' | int32 len |
@@ -41,6 +41,12 @@ public interface Portal {
 
     String getLastQuery();
 
+    /**
+     * @return the id of the stream the bound statement reads from if it is a COPY FROM STDIN statement, otherwise null.
+     */
+    @Nullable
+    String getCopyInStreamId();
+
     /**
      * If bind() is called on a synced portal, all pending result receiving operations must be stopped.
      * This is primarily relevant for the UNNAMED simple portal.
@@ -54,6 +60,13 @@ public interface Portal {
 
     CompletableFuture<?> sync(Planner planner, JobsLogs jobsLogs);
 
+    /**
+     * Continues to push rows to the result receiver if the execution was suspended because {@code maxRows} were reached.
+     */
+    default void resume() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be resumed");
+    }
+
     void close();
 
     /**
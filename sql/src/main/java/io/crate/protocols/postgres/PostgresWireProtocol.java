@@ -30,6 +30,7 @@ import io.crate.analyze.symbol.Symbols;
 import io.crate.operation.auth.Authentication;
 import io.crate.operation.auth.AuthenticationMethod;
 import io.crate.operation.auth.Protocol;
+import io.crate.operation.collect.files.CopyInStream;
 import io.crate.operation.user.User;
 import io.crate.protocols.http.CrateNettyHttpServerTransport;
 import io.crate.protocols.postgres.types.PGType;
@@ -55,6 +56,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 
 import static io.crate.protocols.SSL.getSession;
@@ -120,6 +122,27 @@ import static io.crate.protocols.postgres.PostgresWireProtocol.State.STARTUP_HEA
  *          |     ReadyForQuery                |
  *          |<---------------------------------|
  *
+ * Simple Query with COPY FROM STDIN:
+ *
+ *          +                                  +
+ *          |   Q (query)                      |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CopyInResponse               |
+ *          |<---------------------------------|
+ *          |                                  |
+ *          |   CopyData                       |
+ *          |--------------------------------->|
+ *          |   CopyData                       |
+ *          |--------------------------------->|
+ *          |   CopyDone or CopyFail           |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CommandComplete              |
+ *          |<---------------------------------|
+ *          |     ReadyForQuery                |
+ *          |<---------------------------------|
+ *
  * Extended Query
  *
  *          +                                  +
@@ -177,6 +200,12 @@ class PostgresWireProtocol {
     private SQLOperations.Session session;
     private boolean ignoreTillSync = false;
 
+    /**
+     * The stream receiving the CopyData messages, set between CopyInResponse and CopyDone/CopyFail
+     */
+    @Nullable
+    private CopyInStream copyIn;
+
     enum State {
         PRE_STARTUP,
         STARTUP_HEADER,
@@ -314,6 +343,15 @@ class PostgresWireProtocol {
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -339,6 +377,10 @@ class PostgresWireProtocol {
         @Override
         public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
             LOGGER.trace("channelDisconnected");
+            if (copyIn != null) {
+                copyIn.fail(new IllegalStateException("Connection closed during COPY FROM STDIN"));
+                copyIn = null;
+            }
             closeSession();
             super.channelUnregistered(ctx);
         }
@@ -542,6 +584,9 @@ class PostgresWireProtocol {
             Messages.sendEmptyQueryResponse(channel);
             return;
         }
+        if (session.isCopyFromStdin(portalName)) {
+            throw new UnsupportedOperationException("COPY FROM STDIN is only supported using the simple query protocol");
+        }
         List<? extends DataType> outputTypes = session.getOutputTypes(portalName);
         ResultReceiver resultReceiver;
         if (outputTypes == null) {
@@ -582,6 +627,44 @@ class PostgresWireProtocol {
         Messages.sendCloseComplete(channel);
     }
 
+    /**
+     * CopyData (F)
+     * | 'd' | int32 len | byteN data |
+     */
+    private void handleCopyData(ByteBuf buffer) {
+        if (copyIn == null) {
+            // COPY FROM STDIN failed before the client noticed it
+            buffer.skipBytes(msgLength);
+            return;
+        }
+        byte[] data = new byte[msgLength];
+        buffer.readBytes(data);
+        copyIn.write(data);
+    }
+
+    /**
+     * CopyDone (F)
+     * | 'c' | int32 len |
+     */
+    private void handleCopyDone() {
+        if (copyIn != null) {
+            copyIn.finish();
+            copyIn = null;
+        }
+    }
+
+    /**
+     * CopyFail (F)
+     * | 'f' | int32 len | str errorMessage |
+     */
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        if (copyIn != null) {
+            copyIn.fail(new IllegalStateException("COPY FROM STDIN failed: " + message));
+            copyIn = null;
+        }
+    }
+
     @VisibleForTesting
     void handleSimpleQuery(ByteBuf buffer, final Channel channel) {
         String query = readCString(buffer);
@@ -592,12 +675,18 @@ class PostgresWireProtocol {
             Messages.sendReadyForQuery(channel);
             return;
         }
+        CopyInStream copyInStream = null;
         try {
             session.parse("", query, Collections.<DataType>emptyList());
             session.bind("", "", Collections.emptyList(), null);
             List<Field> fields = session.describe('P', "");
             if (fields == null) {
                 RowCountReceiver rowCountReceiver = new RowCountReceiver(query, channel, session.sessionContext());
+                if (session.isCopyFromStdin("")) {
+                    copyInStream = session.createCopyInStream("", autoRead -> channel.config().setAutoRead(autoRead));
+                    copyIn = copyInStream;
+                    Messages.sendCopyInResponse(channel);
+                }
                 session.execute("", 0, rowCountReceiver);
             } else {
                 Messages.sendRowDescription(channel, fields, null);
@@ -606,8 +695,18 @@ class PostgresWireProtocol {
                 session.execute("", 0, resultSetReceiver);
             }
             ReadyForQueryCallback readyForQueryCallback = new ReadyForQueryCallback(channel);
-            session.sync().whenComplete(readyForQueryCallback);
+            CompletableFuture<?> result = session.sync();
+            if (copyInStream != null) {
+                // discard the data which may still be buffered or sent if the execution finished early
+                CopyInStream stream = copyInStream;
+                result = result.whenComplete((r, t) -> stream.close());
+            }
+            result.whenComplete(readyForQueryCallback);
         } catch (Throwable t) {
+            if (copyInStream != null) {
+                // CopyData messages are still discarded until CopyDone or CopyFail is received
+                copyInStream.close();
+            }
             session.clearState();
             Messages.sendErrorResponse(channel, t);
             Messages.sendReadyForQuery(channel);
@@ -38,10 +38,7 @@ class ResultSetReceiver extends BaseResultReceiver {
     private final String query;
     private final Channel channel;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
-    private final List<? extends DataType> columnTypes;
-
-    @Nullable
-    private final FormatCodes.FormatCode[] formatCodes;
+    private final DataRowWriter dataRowWriter;
 
     private long rowCount = 0;
 
@@ -53,24 +50,25 @@ class ResultSetReceiver extends BaseResultReceiver {
         this.query = query;
         this.channel = channel;
         this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
-        this.columnTypes = columnTypes;
-        this.formatCodes = formatCodes;
+        this.dataRowWriter = new DataRowWriter(channel, columnTypes, formatCodes);
     }
 
     @Override
     public void setNextRow(Row row) {
         rowCount++;
-        Messages.sendDataRow(channel, row, columnTypes, formatCodes);
+        dataRowWriter.write(row);
     }
 
     @Override
     public void batchFinished() {
+        dataRowWriter.writePending();
         Messages.sendPortalSuspended(channel);
         Messages.sendReadyForQuery(channel);
     }
 
     @Override
     public void allFinished(boolean interrupted) {
+        dataRowWriter.writePending();
         if (interrupted) {
             super.allFinished(true);
         } else {
@@ -80,6 +78,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void fail(@Nonnull Throwable throwable) {
+        dataRowWriter.writePending();
         Messages.sendErrorResponse(channel, SQLExceptions.createSQLActionException(throwable, exceptionAuthorizedValidator))
             .addListener(f -> super.fail(throwable));
     }
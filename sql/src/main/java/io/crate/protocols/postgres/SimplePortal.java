@@ -27,6 +27,7 @@ import io.crate.action.sql.ResultReceiver;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.Analysis;
 import io.crate.analyze.Analyzer;
+import io.crate.analyze.CopyFromAnalyzedStatement;
 import io.crate.analyze.ParameterContext;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.symbol.Field;
@@ -93,6 +94,15 @@ public class SimplePortal extends AbstractPortal {
         return this.query;
     }
 
+    @Override
+    @Nullable
+    public String getCopyInStreamId() {
+        if (analysis != null && analysis.analyzedStatement() instanceof CopyFromAnalyzedStatement) {
+            return ((CopyFromAnalyzedStatement) analysis.analyzedStatement()).copyInStreamId();
+        }
+        return null;
+    }
+
     @Override
     public Portal bind(String statementName,
                        String query,
@@ -192,6 +202,13 @@ public class SimplePortal extends AbstractPortal {
         );
     }
 
+    @Override
+    public void resume() {
+        if (!resumeIfSuspended()) {
+            throw new IllegalStateException("Portal " + name + " is not suspended");
+        }
+    }
+
     @Override
     public void close() {
         if (consumer != null) {
@@ -42,12 +42,14 @@ import io.crate.operation.auth.AuthSettings;
 import io.crate.operation.user.ExceptionAuthorizedValidator;
 import io.crate.operation.user.User;
 import io.crate.operation.user.UserManager;
+import io.netty.channel.Channel;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.http.netty4.Netty4HttpRequest;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
@@ -72,6 +74,7 @@ public class RestSQLAction extends BaseRestHandler {
     private static final String REQUEST_HEADER_USER = "User";
     private static final String REQUEST_HEADER_SCHEMA = "Default-Schema";
     private static final int DEFAULT_SOFT_LIMIT = 10_000;
+    private static final String STREAM_PORTAL = "stream";
 
     private final SQLOperations sqlOperations;
     private final UserManager userManager;
@@ -132,7 +135,7 @@ public class RestSQLAction extends BaseRestHandler {
 
     @Override
     protected Set<String> responseParams() {
-        return ImmutableSet.of("types");
+        return ImmutableSet.of("types", "stream");
     }
 
     private static Set<Option> toOptions(RestRequest request) {
@@ -153,30 +156,38 @@ public class RestSQLAction extends BaseRestHandler {
     }
 
     private RestChannelConsumer executeSimpleRequest(SQLXContentSourceContext context, final RestRequest request) {
+        // streaming needs access to the netty channel to write chunks
+        boolean stream = request.paramAsBoolean("stream", false) && request instanceof Netty4HttpRequest;
         SQLOperations.Session session = sqlOperations.createSession(
             request.header(REQUEST_HEADER_SCHEMA),
             userFromRequest(request),
             toOptions(request),
-            DEFAULT_SOFT_LIMIT);
+            // the soft limit protects the memory of the handler node, a streamed result isn't held in memory
+            stream ? 0 : DEFAULT_SOFT_LIMIT);
+        // the unnamed portal is removed on sync, but a streamed execution must be resumed after the sync
+        String portalName = stream ? STREAM_PORTAL : UNNAMED;
         try {
             final long startTime = System.nanoTime();
             session.parse(UNNAMED, context.stmt(), Collections.emptyList());
             List<Object> args = context.args() == null ? Collections.emptyList() : Arrays.asList(context.args());
-            session.bind(UNNAMED, UNNAMED, args, null);
-            List<Field> outputFields = session.describe('P', UNNAMED);
+            session.bind(portalName, UNNAMED, args, null);
+            List<Field> outputFields = session.describe('P', portalName);
             if (outputFields == null) {
                 return channel -> {
                     try {
                         ResultReceiver resultReceiver = new RestRowCountReceiver(
                             channel, session.sessionContext(), startTime,
                             request.paramAsBoolean("types", false));
-                        session.execute(UNNAMED, 0, resultReceiver);
+                        session.execute(portalName, 0, resultReceiver);
                         session.sync();
                     } catch (Throwable t) {
                         errorResponse(channel, t, session.sessionContext());
                     }
                 };
             }
+            if (stream) {
+                return channel -> executeStreaming(session, outputFields, startTime, request, channel);
+            }
             return channel -> {
                 try {
                     ResultReceiver resultReceiver = new RestResultSetReceiver(
@@ -199,6 +210,30 @@ public class RestSQLAction extends BaseRestHandler {
         }
     }
 
+    private void executeStreaming(SQLOperations.Session session,
+                                  List<Field> outputFields,
+                                  long startTime,
+                                  RestRequest request,
+                                  RestChannel channel) {
+        try {
+            Channel nettyChannel = ((Netty4HttpRequest) request).getChannel();
+            ResultReceiver resultReceiver = new RestStreamingResultSetReceiver(
+                channel,
+                nettyChannel,
+                session.sessionContext(),
+                outputFields,
+                startTime,
+                () -> session.resume(STREAM_PORTAL),
+                request.paramAsBoolean("types", false));
+            // stops a suspended execution if the client disconnects
+            nettyChannel.closeFuture().addListener(f -> session.close());
+            session.execute(STREAM_PORTAL, RestStreamingResultSetReceiver.ROWS_PER_CHUNK, resultReceiver);
+            session.sync();
+        } catch (Throwable t) {
+            errorResponse(channel, t, session.sessionContext());
+        }
+    }
+
     private RestChannelConsumer executeBulkRequest(SQLXContentSourceContext context, final RestRequest request) {
         SQLOperations.Session session = sqlOperations.createSession(
             request.header(REQUEST_HEADER_SCHEMA),
@@ -0,0 +1,212 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLActionException;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.operation.user.ExceptionAuthorizedValidator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.rest.RestChannel;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+
+import static io.crate.exceptions.Exceptions.userFriendlyMessage;
+import static io.crate.exceptions.SQLExceptions.createSQLActionException;
+
+/**
+ * ResultReceiver which streams the result to the client using chunked transfer-encoding.
+ * <p>
+ * The execution must be suspended after every {@link #ROWS_PER_CHUNK} rows (maxRows); the rows received so far
+ * are then written as one chunk and the execution is resumed once the chunk has been written to the socket.
+ * So at most one chunk is held in memory and a slow client slows down the execution instead of
+ * letting the response pile up on the handler node.
+ * <p>
+ * The response is the same JSON document {@link RestResultSetReceiver} would send. If the execution fails before
+ * the first chunk has been sent, a regular error response is sent. Afterwards the status code can't be changed
+ * anymore, so the rows array is closed and an {@code error} object is appended instead of {@code rowcount}.
+ * <p>
+ * The connection is closed after the response because the response bypasses the response handling
+ * (and with it pipelining) of the HTTP transport.
+ */
+class RestStreamingResultSetReceiver extends BaseResultReceiver {
+
+    static final int ROWS_PER_CHUNK = 1000;
+
+    private static final Logger LOGGER = Loggers.getLogger(RestStreamingResultSetReceiver.class);
+
+    private final RestChannel restChannel;
+    private final Channel channel;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final int numColumns;
+    private final long startTime;
+    private final Runnable resume;
+    private final ByteBufOutputStream out;
+    private final XContentBuilder xContentBuilder;
+    private final ResultToXContentBuilder builder;
+
+    private boolean headerSent = false;
+    private long rowCount;
+
+    /**
+     * @param resume resumes the suspended execution; it is called on the event loop of the channel.
+     */
+    RestStreamingResultSetReceiver(RestChannel restChannel,
+                                   Channel channel,
+                                   ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                                   List<Field> outputFields,
+                                   long startTime,
+                                   Runnable resume,
+                                   boolean includeTypesOnResponse) throws IOException {
+        this.restChannel = restChannel;
+        this.channel = channel;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.numColumns = outputFields.size();
+        this.startTime = startTime;
+        this.resume = resume;
+        this.out = new ByteBufOutputStream(channel.alloc().buffer());
+        xContentBuilder = XContentFactory.jsonBuilder(out);
+        if (restChannel.request().hasParam("pretty")) {
+            xContentBuilder.prettyPrint();
+        }
+        builder = ResultToXContentBuilder.builder(xContentBuilder);
+        builder.cols(outputFields);
+        if (includeTypesOnResponse) {
+            builder.colTypes(outputFields);
+        }
+        builder.startRows();
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        try {
+            builder.addRow(row, numColumns);
+            rowCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        ChannelFuture future;
+        try {
+            future = writeChunk(false);
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        future.addListener((ChannelFutureListener) f -> {
+            if (f.isSuccess()) {
+                // resume via a new task to not grow the stack if the write completed immediately
+                channel.eventLoop().execute(resume);
+            } else {
+                LOGGER.debug("Failed to write chunk, client probably disconnected", f.cause());
+                f.channel().close();
+            }
+        });
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        if (!channel.isActive()) {
+            // interrupted because the client disconnected
+            out.buffer().release();
+            super.allFinished(interrupted);
+            return;
+        }
+        try {
+            builder
+                .finishRows()
+                .rowCount(rowCount)
+                .duration(startTime)
+                .build();
+            writeChunk(true).addListener(ChannelFutureListener.CLOSE);
+            super.allFinished(interrupted);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        SQLActionException sqlActionException = createSQLActionException(t, exceptionAuthorizedValidator);
+        try {
+            if (headerSent) {
+                builder
+                    .finishRows()
+                    .error(userFriendlyMessage(sqlActionException), sqlActionException.errorCode())
+                    .build();
+                writeChunk(true).addListener(ChannelFutureListener.CLOSE);
+            } else {
+                out.buffer().release();
+                restChannel.sendResponse(new CrateThrowableRestResponse(restChannel, sqlActionException));
+            }
+        } catch (Throwable e) {
+            LOGGER.error("failed to send failure response", e);
+            channel.close();
+        } finally {
+            super.fail(t);
+        }
+    }
+
+    private ChannelFuture writeChunk(boolean last) throws IOException {
+        if (!headerSent) {
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=UTF-8");
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+            HttpUtil.setTransferEncodingChunked(response, true);
+            channel.write(response);
+            headerSent = true;
+        }
+        xContentBuilder.flush();
+        // copy so that the buffer can be re-used for the next chunk while this one is written
+        ByteBuf chunk = out.buffer().copy();
+        out.buffer().clear();
+        if (last) {
+            out.buffer().release();
+            return channel.writeAndFlush(new DefaultLastHttpContent(chunk));
+        }
+        return channel.writeAndFlush(new DefaultHttpContent(chunk));
+    }
+}
@@ -43,17 +43,24 @@ class ResultToXContentBuilder {
         static final String ROW_COUNT = "rowcount";
         static final String DURATION = "duration";
         static final String ERROR_MESSAGE = "error_message";
+        static final String ERROR = "error";
+        static final String ERROR_MESSAGE_FIELD = "message";
+        static final String ERROR_CODE = "code";
     }
 
     private final XContentBuilder builder;
 
-    private ResultToXContentBuilder(RestChannel channel) throws IOException {
-        builder = channel.newBuilder();
+    private ResultToXContentBuilder(XContentBuilder builder) throws IOException {
+        this.builder = builder;
         builder.startObject();
     }
 
     static ResultToXContentBuilder builder(RestChannel channel) throws IOException {
-        return new ResultToXContentBuilder(channel);
+        return new ResultToXContentBuilder(channel.newBuilder());
+    }
+
+    static ResultToXContentBuilder builder(XContentBuilder builder) throws IOException {
+        return new ResultToXContentBuilder(builder);
     }
 
     ResultToXContentBuilder cols(List<Field> fields) throws IOException {
@@ -144,6 +151,17 @@ class ResultToXContentBuilder {
         return this;
     }
 
+    /**
+     * error() can be used to report a failure after rows have already been sent
+     */
+    ResultToXContentBuilder error(String message, int code) throws IOException {
+        builder.startObject(FIELDS.ERROR);
+        builder.field(FIELDS.ERROR_MESSAGE_FIELD, message);
+        builder.field(FIELDS.ERROR_CODE, code);
+        builder.endObject();
+        return this;
+    }
+
     XContentBuilder build() throws IOException {
         builder.endObject();
         return builder;
@@ -0,0 +1,204 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.exceptions.UnhandledServerException;
+import io.crate.operation.udf.UserDefinedFunctionMetaData.DataTypeXContent;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.PointValues;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * The exact minimum and maximum value of a numeric column within a shard.
+ * <p>
+ * The bounds are read from the points of the column, which Lucene keeps per segment and recomputes on merges,
+ * so they are available without reading any documents. They include the values of deleted documents and
+ * therefore enclose, but may be wider than, the values of the live documents.
+ */
+public final class ColumnBounds implements Writeable, ToXContent {
+
+    private final DataType type;
+    private final Object min;
+    private final Object max;
+
+    public ColumnBounds(DataType type, Object min, Object max) {
+        this.type = type;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return true if the bounds of columns of this type can be read from the points of the column
+     */
+    public static boolean isSupported(DataType type) {
+        return type.equals(DataTypes.TIMESTAMP) || DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(type);
+    }
+
+    /**
+     * @return the bounds of {@code field}, or null if the reader contains no values of it
+     */
+    @Nullable
+    public static ColumnBounds fromPoints(IndexReader reader, String field, DataType type) throws IOException {
+        byte[] min = PointValues.getMinPackedValue(reader, field);
+        byte[] max = PointValues.getMaxPackedValue(reader, field);
+        if (min == null || max == null) {
+            return null;
+        }
+        return new ColumnBounds(type, decode(type, min), decode(type, max));
+    }
+
+    private static Object decode(DataType type, byte[] packedValue) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+                return type.value(IntPoint.decodeDimension(packedValue, 0));
+            case LongType.ID:
+            case TimestampType.ID:
+                return LongPoint.decodeDimension(packedValue, 0);
+            case FloatType.ID:
+                return FloatPoint.decodeDimension(packedValue, 0);
+            case DoubleType.ID:
+                return DoublePoint.decodeDimension(packedValue, 0);
+            default:
+                throw new IllegalArgumentException("Cannot read the bounds of a column of type " + type);
+        }
+    }
+
+    public DataType type() {
+        return type;
+    }
+
+    public Object min() {
+        return min;
+    }
+
+    public Object max() {
+        return max;
+    }
+
+    public ColumnBounds(StreamInput in) throws IOException {
+        type = DataTypes.fromStream(in);
+        min = type.streamer().readValueFrom(in);
+        max = type.streamer().readValueFrom(in);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeTo(StreamOutput out) throws IOException {
+        DataTypes.toStream(type, out);
+        type.streamer().writeValueTo(out, min);
+        type.streamer().writeValueTo(out, max);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("type");
+        DataTypeXContent.toXContent(type, builder, params);
+        builder.field("min", min);
+        builder.field("max", max);
+        builder.endObject();
+        return builder;
+    }
+
+    static ColumnBounds fromXContent(XContentParser parser) throws IOException {
+        XContentParser.Token token;
+        DataType type = null;
+        Object min = null;
+        Object max = null;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token != XContentParser.Token.FIELD_NAME) {
+                throw new UnhandledServerException("failed to parse column bounds");
+            }
+            if ("type".equals(parser.currentName())) {
+                type = DataTypeXContent.fromXContent(parser);
+            } else if ("min".equals(parser.currentName())) {
+                min = parseValue(parser);
+            } else if ("max".equals(parser.currentName())) {
+                max = parseValue(parser);
+            } else {
+                throw new UnhandledServerException("failed to parse column bounds");
+            }
+        }
+        if (type == null || min == null || max == null) {
+            throw new UnhandledServerException("failed to parse column bounds");
+        }
+        return new ColumnBounds(type, type.value(min), type.value(max));
+    }
+
+    private static Object parseValue(XContentParser parser) throws IOException {
+        XContentParser.Token token = parser.nextToken();
+        if (token == XContentParser.Token.VALUE_NUMBER) {
+            return parser.numberValue();
+        }
+        if (token == XContentParser.Token.VALUE_STRING) {
+            // NaN and infinite floating point values are written as strings
+            return parser.text();
+        }
+        throw new UnhandledServerException("failed to parse column bounds");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ColumnBounds that = (ColumnBounds) o;
+        return type.equals(that.type) &&
+               min.equals(that.min) &&
+               max.equals(that.max);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, min, max);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnBounds{" + type + ", min=" + min + ", max=" + max + '}';
+    }
+}
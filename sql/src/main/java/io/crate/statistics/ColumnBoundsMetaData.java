@@ -0,0 +1,133 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.exceptions.UnhandledServerException;
+import org.elasticsearch.cluster.AbstractNamedDiffable;
+import org.elasticsearch.cluster.NamedDiff;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Column bounds of the write-blocked indices, as collected by the last {@code ANALYZE}.
+ */
+public class ColumnBoundsMetaData extends AbstractNamedDiffable<MetaData.Custom> implements MetaData.Custom {
+
+    public static final String TYPE = "column_bounds";
+
+    private final Map<String, IndexColumnBounds> indices;
+
+    public ColumnBoundsMetaData(Map<String, IndexColumnBounds> indices) {
+        this.indices = indices;
+    }
+
+    public static NamedDiff<MetaData.Custom> readDiffFrom(StreamInput in) throws IOException {
+        return readDiffFrom(MetaData.Custom.class, TYPE, in);
+    }
+
+    /**
+     * The bounds by index name
+     */
+    public Map<String, IndexColumnBounds> indices() {
+        return indices;
+    }
+
+    public ColumnBoundsMetaData(StreamInput in) throws IOException {
+        int numIndices = in.readVInt();
+        Map<String, IndexColumnBounds> indices = new HashMap<>(numIndices);
+        for (int i = 0; i < numIndices; i++) {
+            indices.put(in.readString(), new IndexColumnBounds(in));
+        }
+        this.indices = Collections.unmodifiableMap(indices);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(indices.size());
+        for (Map.Entry<String, IndexColumnBounds> index : indices.entrySet()) {
+            out.writeString(index.getKey());
+            index.getValue().writeTo(out);
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("indices");
+        for (Map.Entry<String, IndexColumnBounds> index : indices.entrySet()) {
+            builder.field(index.getKey());
+            index.getValue().toXContent(builder, params);
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public static ColumnBoundsMetaData fromXContent(XContentParser parser) throws IOException {
+        Map<String, IndexColumnBounds> indices = new HashMap<>();
+        if (parser.nextToken() == XContentParser.Token.FIELD_NAME && Objects.equals(parser.currentName(), "indices")) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                throw new UnhandledServerException("failed to parse column bounds");
+            }
+            while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                String index = parser.currentName();
+                parser.nextToken();
+                indices.put(index, IndexColumnBounds.fromXContent(parser));
+            }
+        }
+        return new ColumnBoundsMetaData(Collections.unmodifiableMap(indices));
+    }
+
+    @Override
+    public EnumSet<MetaData.XContentContext> context() {
+        // bounds are bound to the index uuid, which changes on restore, so they are not part of snapshots
+        return EnumSet.of(MetaData.XContentContext.GATEWAY);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ColumnBoundsMetaData that = (ColumnBoundsMetaData) o;
+        return indices.equals(that.indices);
+    }
+
+    @Override
+    public int hashCode() {
+        return indices.hashCode();
+    }
+
+    @Override
+    public String getWriteableName() {
+        return TYPE;
+    }
+}
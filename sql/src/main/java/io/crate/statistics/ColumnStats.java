@@ -0,0 +1,289 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.exceptions.UnhandledServerException;
+import io.crate.operation.udf.UserDefinedFunctionMetaData.DataTypeXContent;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.lucene.BytesRefs;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Statistics of a single column, estimated from a random sample of the rows of a table.
+ * <p>
+ * The histogram is equi-depth: each pair of adjacent bounds encloses roughly the same number of rows.
+ * Its first and last bound are the minimum and maximum value of the sample.
+ * String bounds are truncated to {@link #MAX_BOUND_BYTES}, as the statistics are part of the cluster state.
+ */
+public final class ColumnStats implements Writeable, ToXContent {
+
+    static final int MAX_BOUND_BYTES = 64;
+
+    private final DataType type;
+    private final double nullFraction;
+    private final double approxDistinct;
+    private final List<Object> histogram;
+
+    public ColumnStats(DataType type, double nullFraction, double approxDistinct, List<Object> histogram) {
+        this.type = type;
+        this.nullFraction = nullFraction;
+        this.approxDistinct = approxDistinct;
+        this.histogram = histogram;
+    }
+
+    /**
+     * @param type the type of the column
+     * @param samples the values of the column of the sampled rows, including nulls
+     * @param numRows the total number of rows of the table
+     * @param maxBuckets the maximum number of buckets of the histogram
+     */
+    @SuppressWarnings("unchecked")
+    public static ColumnStats fromSample(DataType type, List<Object> samples, long numRows, int maxBuckets) {
+        List<Object> values = new ArrayList<>(samples.size());
+        for (Object sample : samples) {
+            if (sample != null) {
+                values.add(sample);
+            }
+        }
+        if (samples.isEmpty()) {
+            return new ColumnStats(type, 0.0, 0.0, Collections.emptyList());
+        }
+        double nullFraction = (double) (samples.size() - values.size()) / samples.size();
+        if (values.isEmpty()) {
+            return new ColumnStats(type, nullFraction, 0.0, Collections.emptyList());
+        }
+        values.sort(type::compareValueTo);
+
+        int distinct = 1;
+        int singletons = 0;
+        int runLength = 1;
+        for (int i = 1; i < values.size(); i++) {
+            if (type.compareValueTo(values.get(i - 1), values.get(i)) == 0) {
+                runLength++;
+            } else {
+                distinct++;
+                if (runLength == 1) {
+                    singletons++;
+                }
+                runLength = 1;
+            }
+        }
+        if (runLength == 1) {
+            singletons++;
+        }
+        double numNonNullRows = Math.max(values.size(), numRows * (1.0 - nullFraction));
+        double approxDistinct = estimateDistinct(values.size(), distinct, singletons, numNonNullRows);
+
+        int numBuckets = Math.min(maxBuckets, values.size() - 1);
+        List<Object> histogram = new ArrayList<>(numBuckets + 1);
+        if (numBuckets == 0) {
+            histogram.add(truncate(values.get(0)));
+        } else {
+            for (int i = 0; i <= numBuckets; i++) {
+                histogram.add(truncate(values.get((int) ((long) i * (values.size() - 1) / numBuckets))));
+            }
+        }
+        return new ColumnStats(type, nullFraction, approxDistinct, histogram);
+    }
+
+    /**
+     * Truncates a string to a prefix of at most {@link #MAX_BOUND_BYTES} without splitting a UTF-8 sequence.
+     * The prefix sorts before or equal to the value, so truncated bounds keep the order of the histogram.
+     */
+    static Object truncate(Object value) {
+        if (value instanceof BytesRef == false || ((BytesRef) value).length <= MAX_BOUND_BYTES) {
+            return value;
+        }
+        BytesRef bytes = (BytesRef) value;
+        int length = MAX_BOUND_BYTES;
+        // 10xxxxxx marks a continuation byte of a multi-byte sequence
+        while (length > 0 && (bytes.bytes[bytes.offset + length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return new BytesRef(Arrays.copyOfRange(bytes.bytes, bytes.offset, bytes.offset + length));
+    }
+
+    /**
+     * Duj1 estimator of Haas and Stokes: scales the number of distinct values of the sample up,
+     * depending on how many of them have been seen only once.
+     */
+    static double estimateDistinct(int sampleSize, int distinct, int singletons, double numRows) {
+        if (sampleSize >= numRows || singletons == 0) {
+            return distinct;
+        }
+        double estimate = (double) sampleSize * distinct /
+                          (sampleSize - singletons + (double) singletons * sampleSize / numRows);
+        return Math.min(Math.max(estimate, distinct), numRows);
+    }
+
+    public DataType type() {
+        return type;
+    }
+
+    /**
+     * The fraction of rows in which the column is null
+     */
+    public double nullFraction() {
+        return nullFraction;
+    }
+
+    /**
+     * The estimated number of distinct non-null values
+     */
+    public double approxDistinct() {
+        return approxDistinct;
+    }
+
+    @Nullable
+    public Object min() {
+        return histogram.isEmpty() ? null : histogram.get(0);
+    }
+
+    @Nullable
+    public Object max() {
+        return histogram.isEmpty() ? null : histogram.get(histogram.size() - 1);
+    }
+
+    public List<Object> histogram() {
+        return histogram;
+    }
+
+    public ColumnStats(StreamInput in) throws IOException {
+        type = DataTypes.fromStream(in);
+        nullFraction = in.readDouble();
+        approxDistinct = in.readDouble();
+        int numBounds = in.readVInt();
+        histogram = new ArrayList<>(numBounds);
+        for (int i = 0; i < numBounds; i++) {
+            histogram.add(type.streamer().readValueFrom(in));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeTo(StreamOutput out) throws IOException {
+        DataTypes.toStream(type, out);
+        out.writeDouble(nullFraction);
+        out.writeDouble(approxDistinct);
+        out.writeVInt(histogram.size());
+        for (Object bound : histogram) {
+            type.streamer().writeValueTo(out, bound);
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("type");
+        DataTypeXContent.toXContent(type, builder, params);
+        builder.field("null_fraction", nullFraction);
+        builder.field("approx_distinct", approxDistinct);
+        builder.startArray("histogram");
+        for (Object bound : histogram) {
+            builder.value(bound instanceof BytesRef ? BytesRefs.toString(bound) : bound);
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    static ColumnStats fromXContent(XContentParser parser) throws IOException {
+        XContentParser.Token token;
+        DataType type = null;
+        double nullFraction = 0.0;
+        double approxDistinct = 0.0;
+        List<Object> rawHistogram = new ArrayList<>();
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                if ("type".equals(parser.currentName())) {
+                    type = DataTypeXContent.fromXContent(parser);
+                } else if ("null_fraction".equals(parser.currentName())) {
+                    parser.nextToken();
+                    nullFraction = parser.doubleValue();
+                } else if ("approx_distinct".equals(parser.currentName())) {
+                    parser.nextToken();
+                    approxDistinct = parser.doubleValue();
+                } else if ("histogram".equals(parser.currentName())) {
+                    if (parser.nextToken() != XContentParser.Token.START_ARRAY) {
+                        throw new UnhandledServerException("failed to parse column statistics");
+                    }
+                    while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                        if (token == XContentParser.Token.VALUE_STRING) {
+                            rawHistogram.add(parser.text());
+                        } else if (token == XContentParser.Token.VALUE_NUMBER) {
+                            rawHistogram.add(parser.numberValue());
+                        } else if (token == XContentParser.Token.VALUE_BOOLEAN) {
+                            rawHistogram.add(parser.booleanValue());
+                        } else {
+                            throw new UnhandledServerException("failed to parse column statistics");
+                        }
+                    }
+                } else {
+                    throw new UnhandledServerException("failed to parse column statistics");
+                }
+            } else {
+                throw new UnhandledServerException("failed to parse column statistics");
+            }
+        }
+        if (type == null) {
+            throw new UnhandledServerException("failed to parse column statistics");
+        }
+        List<Object> histogram = new ArrayList<>(rawHistogram.size());
+        for (Object bound : rawHistogram) {
+            histogram.add(type.value(bound));
+        }
+        return new ColumnStats(type, nullFraction, approxDistinct, histogram);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ColumnStats that = (ColumnStats) o;
+        return Double.compare(that.nullFraction, nullFraction) == 0 &&
+               Double.compare(that.approxDistinct, approxDistinct) == 0 &&
+               type.equals(that.type) &&
+               histogram.equals(that.histogram);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, nullFraction, approxDistinct, histogram);
+    }
+}
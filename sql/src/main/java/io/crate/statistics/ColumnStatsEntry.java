@@ -0,0 +1,68 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.TableIdent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The statistics of a column together with its table, the rows of {@code pg_catalog.pg_stats}.
+ */
+public class ColumnStatsEntry {
+
+    private final TableIdent tableIdent;
+    private final ColumnIdent columnIdent;
+    private final ColumnStats stats;
+
+    ColumnStatsEntry(TableIdent tableIdent, ColumnIdent columnIdent, ColumnStats stats) {
+        this.tableIdent = tableIdent;
+        this.columnIdent = columnIdent;
+        this.stats = stats;
+    }
+
+    public static List<ColumnStatsEntry> entries(Map<TableIdent, Map<ColumnIdent, ColumnStats>> tables) {
+        List<ColumnStatsEntry> entries = new ArrayList<>();
+        for (Map.Entry<TableIdent, Map<ColumnIdent, ColumnStats>> table : tables.entrySet()) {
+            for (Map.Entry<ColumnIdent, ColumnStats> column : table.getValue().entrySet()) {
+                entries.add(new ColumnStatsEntry(table.getKey(), column.getKey(), column.getValue()));
+            }
+        }
+        return entries;
+    }
+
+    public TableIdent tableIdent() {
+        return tableIdent;
+    }
+
+    public ColumnIdent columnIdent() {
+        return columnIdent;
+    }
+
+    public ColumnStats stats() {
+        return stats;
+    }
+}
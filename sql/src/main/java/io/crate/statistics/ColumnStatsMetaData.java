@@ -0,0 +1,179 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.exceptions.UnhandledServerException;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.TableIdent;
+import org.elasticsearch.cluster.AbstractNamedDiffable;
+import org.elasticsearch.cluster.NamedDiff;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Column statistics of all tables, as collected by the last {@code ANALYZE}.
+ */
+public class ColumnStatsMetaData extends AbstractNamedDiffable<MetaData.Custom> implements MetaData.Custom {
+
+    public static final String TYPE = "column_stats";
+
+    private final Map<TableIdent, Map<ColumnIdent, ColumnStats>> tables;
+
+    public ColumnStatsMetaData(Map<TableIdent, Map<ColumnIdent, ColumnStats>> tables) {
+        this.tables = tables;
+    }
+
+    public static NamedDiff<MetaData.Custom> readDiffFrom(StreamInput in) throws IOException {
+        return readDiffFrom(MetaData.Custom.class, TYPE, in);
+    }
+
+    public Map<TableIdent, Map<ColumnIdent, ColumnStats>> tables() {
+        return tables;
+    }
+
+    public ColumnStatsMetaData(StreamInput in) throws IOException {
+        int numTables = in.readVInt();
+        Map<TableIdent, Map<ColumnIdent, ColumnStats>> tables = new HashMap<>(numTables);
+        for (int i = 0; i < numTables; i++) {
+            TableIdent tableIdent = new TableIdent(in);
+            int numColumns = in.readVInt();
+            Map<ColumnIdent, ColumnStats> columns = new HashMap<>(numColumns);
+            for (int j = 0; j < numColumns; j++) {
+                columns.put(new ColumnIdent(in), new ColumnStats(in));
+            }
+            tables.put(tableIdent, Collections.unmodifiableMap(columns));
+        }
+        this.tables = Collections.unmodifiableMap(tables);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(tables.size());
+        for (Map.Entry<TableIdent, Map<ColumnIdent, ColumnStats>> table : tables.entrySet()) {
+            table.getKey().writeTo(out);
+            out.writeVInt(table.getValue().size());
+            for (Map.Entry<ColumnIdent, ColumnStats> column : table.getValue().entrySet()) {
+                column.getKey().writeTo(out);
+                column.getValue().writeTo(out);
+            }
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startArray("tables");
+        for (Map.Entry<TableIdent, Map<ColumnIdent, ColumnStats>> table : tables.entrySet()) {
+            builder.startObject();
+            builder.field("schema", table.getKey().schema());
+            builder.field("name", table.getKey().name());
+            builder.startObject("columns");
+            for (Map.Entry<ColumnIdent, ColumnStats> column : table.getValue().entrySet()) {
+                builder.field(column.getKey().fqn());
+                column.getValue().toXContent(builder, params);
+            }
+            builder.endObject();
+            builder.endObject();
+        }
+        builder.endArray();
+        return builder;
+    }
+
+    public static ColumnStatsMetaData fromXContent(XContentParser parser) throws IOException {
+        Map<TableIdent, Map<ColumnIdent, ColumnStats>> tables = new HashMap<>();
+        if (parser.nextToken() == XContentParser.Token.FIELD_NAME && Objects.equals(parser.currentName(), "tables")) {
+            if (parser.nextToken() == XContentParser.Token.START_ARRAY) {
+                XContentParser.Token token;
+                while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY && token != null) {
+                    parseTable(parser, tables);
+                }
+            }
+        }
+        return new ColumnStatsMetaData(Collections.unmodifiableMap(tables));
+    }
+
+    private static void parseTable(XContentParser parser,
+                                   Map<TableIdent, Map<ColumnIdent, ColumnStats>> tables) throws IOException {
+        XContentParser.Token token;
+        String schema = null;
+        String name = null;
+        Map<ColumnIdent, ColumnStats> columns = new HashMap<>();
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token != XContentParser.Token.FIELD_NAME) {
+                throw new UnhandledServerException("failed to parse column statistics");
+            }
+            if ("schema".equals(parser.currentName())) {
+                parser.nextToken();
+                schema = parser.text();
+            } else if ("name".equals(parser.currentName())) {
+                parser.nextToken();
+                name = parser.text();
+            } else if ("columns".equals(parser.currentName())) {
+                if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                    throw new UnhandledServerException("failed to parse column statistics");
+                }
+                while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                    ColumnIdent column = ColumnIdent.fromPath(parser.currentName());
+                    parser.nextToken();
+                    columns.put(column, ColumnStats.fromXContent(parser));
+                }
+            } else {
+                throw new UnhandledServerException("failed to parse column statistics");
+            }
+        }
+        tables.put(new TableIdent(schema, name), Collections.unmodifiableMap(columns));
+    }
+
+    @Override
+    public EnumSet<MetaData.XContentContext> context() {
+        return EnumSet.of(MetaData.XContentContext.GATEWAY, MetaData.XContentContext.SNAPSHOT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ColumnStatsMetaData that = (ColumnStatsMetaData) o;
+        return tables.equals(that.tables);
+    }
+
+    @Override
+    public int hashCode() {
+        return tables.hashCode();
+    }
+
+    @Override
+    public String getWriteableName() {
+        return TYPE;
+    }
+}
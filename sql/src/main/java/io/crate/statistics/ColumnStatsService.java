@@ -0,0 +1,318 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.action.FutureActionListener;
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLOperations;
+import io.crate.data.Row;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
+import io.crate.planner.TableStats;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the column statistics of all tables for the {@code ANALYZE} statement.
+ * <p>
+ * For each table a random sample of at most {@link #SAMPLE_SIZE} rows is selected, from which the
+ * {@link ColumnStats} of all top-level columns of primitive types are computed. The result is stored in the
+ * cluster metadata and made available to the planner on every node using {@link TableStats}.
+ * <p>
+ * In addition the exact {@link ColumnBounds} of the numeric columns are read from every shard of the indices
+ * (tables or partitions) which are blocked for writes. They are used to skip shards and partitions during routing.
+ */
+@Singleton
+public class ColumnStatsService extends AbstractComponent implements ClusterStateListener {
+
+    static final int SAMPLE_SIZE = 30_000;
+    static final int NUM_HISTOGRAM_BUCKETS = 100;
+
+    private static final String STMT_NAME = "analyze";
+
+    private final ClusterService clusterService;
+    private final Schemas schemas;
+    private final SQLOperations sqlOperations;
+    private final TableStats tableStats;
+    private final TransportPublishColumnStatsAction publishColumnStatsAction;
+    private final TransportColumnBoundsNodeAction columnBoundsNodeAction;
+    private final Executor executor;
+
+    @Inject
+    public ColumnStatsService(Settings settings,
+                              ClusterService clusterService,
+                              ThreadPool threadPool,
+                              Schemas schemas,
+                              SQLOperations sqlOperations,
+                              TableStats tableStats,
+                              TransportPublishColumnStatsAction publishColumnStatsAction,
+                              TransportColumnBoundsNodeAction columnBoundsNodeAction) {
+        super(settings);
+        this.clusterService = clusterService;
+        this.schemas = schemas;
+        this.sqlOperations = sqlOperations;
+        this.tableStats = tableStats;
+        this.publishColumnStatsAction = publishColumnStatsAction;
+        this.columnBoundsNodeAction = columnBoundsNodeAction;
+        this.executor = threadPool.executor(ThreadPool.Names.GENERIC);
+        clusterService.addListener(this);
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (!event.metaDataChanged()) {
+            return;
+        }
+        ColumnStatsMetaData columnStats = event.state().metaData().custom(ColumnStatsMetaData.TYPE);
+        if (columnStats != event.previousState().metaData().custom(ColumnStatsMetaData.TYPE)) {
+            tableStats.updateColumnStats(columnStats == null ? Collections.emptyMap() : columnStats.tables());
+        }
+    }
+
+    /**
+     * Analyzes all tables and publishes the statistics.
+     *
+     * @return a future returning the number of analyzed tables
+     */
+    public CompletableFuture<Long> analyze() {
+        Map<TableIdent, Map<ColumnIdent, ColumnStats>> stats = new HashMap<>();
+        Map<String, IndexColumnBounds> bounds = new HashMap<>();
+        CompletableFuture<?> analyzed = CompletableFuture.completedFuture(null);
+        // tables are analyzed one after another to limit the load on the cluster
+        for (DocTableInfo table : tablesToAnalyze()) {
+            List<Reference> columns = columnsToAnalyze(table);
+            if (columns.isEmpty()) {
+                continue;
+            }
+            analyzed = analyzed
+                .thenComposeAsync(ignored -> analyze(table.ident(), columns), executor)
+                .thenAccept(columnStats -> stats.put(table.ident(), columnStats))
+                .thenCompose(ignored -> collectBounds(table))
+                .thenAccept(bounds::putAll);
+        }
+        return analyzed.thenCompose(ignored -> {
+            FutureActionListener<PublishColumnStatsResponse, Long> listener =
+                new FutureActionListener<>(r -> (long) stats.size());
+            publishColumnStatsAction.execute(
+                new PublishColumnStatsRequest(
+                    new ColumnStatsMetaData(Collections.unmodifiableMap(stats)),
+                    new ColumnBoundsMetaData(Collections.unmodifiableMap(bounds))),
+                listener);
+            return listener;
+        });
+    }
+
+    private List<DocTableInfo> tablesToAnalyze() {
+        List<DocTableInfo> tables = new ArrayList<>();
+        for (SchemaInfo schemaInfo : schemas) {
+            if (!(schemaInfo instanceof DocSchemaInfo)) {
+                continue;
+            }
+            for (TableInfo tableInfo : schemaInfo) {
+                DocTableInfo table = (DocTableInfo) tableInfo;
+                if (!table.isAlias() && !table.isClosed()) {
+                    tables.add(table);
+                }
+            }
+        }
+        return tables;
+    }
+
+    static List<Reference> columnsToAnalyze(DocTableInfo table) {
+        List<Reference> columns = new ArrayList<>();
+        for (Reference column : table.columns()) {
+            if (column.ident().columnIdent().isColumn() && DataTypes.isPrimitive(column.valueType())) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    static Map<ColumnIdent, DataType> boundedColumns(DocTableInfo table) {
+        Map<ColumnIdent, DataType> columns = new HashMap<>();
+        for (Reference column : table.columns()) {
+            if (column.ident().columnIdent().isColumn() &&
+                column.indexType() != Reference.IndexType.NO &&
+                ColumnBounds.isSupported(column.valueType())) {
+                columns.put(column.ident().columnIdent(), column.valueType());
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Reads the bounds of all shards of the write-blocked indices of {@code table} from the nodes holding the
+     * primaries. Failures are logged and result in missing bounds, which only disables the pruning of the shards.
+     */
+    private CompletableFuture<Map<String, IndexColumnBounds>> collectBounds(DocTableInfo table) {
+        Map<ColumnIdent, DataType> columns = boundedColumns(table);
+        ClusterState state = clusterService.state();
+        Map<String, IndexMetaData> indices = new HashMap<>();
+        Map<String, List<String>> indicesByNode = new HashMap<>();
+        for (String index : table.concreteIndices()) {
+            IndexMetaData indexMetaData = state.metaData().index(index);
+            if (indexMetaData == null || !state.blocks().indexBlocked(ClusterBlockLevel.WRITE, index)) {
+                continue;
+            }
+            indices.put(index, indexMetaData);
+            for (ShardRouting shardRouting : state.routingTable().allShards(index)) {
+                if (shardRouting.primary() && shardRouting.started()) {
+                    List<String> nodeIndices =
+                        indicesByNode.computeIfAbsent(shardRouting.currentNodeId(), k -> new ArrayList<>());
+                    if (!nodeIndices.contains(index)) {
+                        nodeIndices.add(index);
+                    }
+                }
+            }
+        }
+        if (columns.isEmpty() || indicesByNode.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        List<CompletableFuture<NodeColumnBoundsResponse>> responses = new ArrayList<>(indicesByNode.size());
+        for (Map.Entry<String, List<String>> entry : indicesByNode.entrySet()) {
+            FutureActionListener<NodeColumnBoundsResponse, NodeColumnBoundsResponse> listener =
+                FutureActionListener.newInstance();
+            columnBoundsNodeAction.execute(
+                entry.getKey(), new NodeColumnBoundsRequest(entry.getValue(), columns), listener);
+            responses.add(listener);
+        }
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> toIndexColumnBounds(indices, responses.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList())))
+            .exceptionally(t -> {
+                logger.warn("failed to collect the column bounds of table " + table.ident().sqlFqn(), t);
+                return Collections.emptyMap();
+            });
+    }
+
+    static Map<String, IndexColumnBounds> toIndexColumnBounds(Map<String, IndexMetaData> indices,
+                                                              List<NodeColumnBoundsResponse> responses) {
+        Map<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> shardsByIndex = new HashMap<>();
+        for (NodeColumnBoundsResponse response : responses) {
+            for (Map.Entry<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> entry : response.bounds().entrySet()) {
+                shardsByIndex.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).putAll(entry.getValue());
+            }
+        }
+        Map<String, IndexColumnBounds> bounds = new HashMap<>(shardsByIndex.size());
+        for (Map.Entry<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> entry : shardsByIndex.entrySet()) {
+            IndexMetaData indexMetaData = indices.get(entry.getKey());
+            if (indexMetaData != null) {
+                bounds.put(entry.getKey(), new IndexColumnBounds(
+                    indexMetaData.getIndexUUID(),
+                    indexMetaData.getVersion(),
+                    Collections.unmodifiableMap(entry.getValue())));
+            }
+        }
+        return bounds;
+    }
+
+    private CompletableFuture<Map<ColumnIdent, ColumnStats>> analyze(TableIdent table, List<Reference> columns) {
+        return execute("select count(*) from " + table.sqlFqn(), Collections.emptyList())
+            .thenComposeAsync(countRows -> {
+                long numRows = (long) countRows.get(0)[0];
+                double sampleRate = numRows > SAMPLE_SIZE ? (double) SAMPLE_SIZE / numRows : 1.0;
+                // no limit: it would cut the sample short with the rows of the shards which respond first
+                String stmt = String.format(Locale.ENGLISH, "select %s from %s where random() < ?",
+                    columns.stream()
+                        .map(c -> c.ident().columnIdent().quotedOutputName())
+                        .collect(Collectors.joining(", ")),
+                    table.sqlFqn());
+                return execute(stmt, Collections.singletonList(sampleRate))
+                    .thenApply(sample -> toColumnStats(columns, sample, numRows));
+            }, executor);
+    }
+
+    static Map<ColumnIdent, ColumnStats> toColumnStats(List<Reference> columns, List<Object[]> sample, long numRows) {
+        Map<ColumnIdent, ColumnStats> columnStats = new HashMap<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            List<Object> values = new ArrayList<>(sample.size());
+            for (Object[] row : sample) {
+                values.add(row[i]);
+            }
+            Reference column = columns.get(i);
+            columnStats.put(
+                column.ident().columnIdent(),
+                ColumnStats.fromSample(column.valueType(), values, numRows, NUM_HISTOGRAM_BUCKETS));
+        }
+        return Collections.unmodifiableMap(columnStats);
+    }
+
+    private CompletableFuture<List<Object[]>> execute(String stmt, List<Object> params) {
+        RowsReceiver receiver = new RowsReceiver();
+        try {
+            sqlOperations.createSQLDirectExecutor(Schemas.DEFAULT_SCHEMA_NAME, STMT_NAME, stmt, SAMPLE_SIZE)
+                .execute(receiver, params);
+        } catch (Throwable t) {
+            CompletableFuture<List<Object[]>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t);
+            return failed;
+        }
+        return receiver.completionFuture().thenApply(ignored -> receiver.rows);
+    }
+
+    private static class RowsReceiver extends BaseResultReceiver {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        @Override
+        public void setNextRow(Row row) {
+            Object[] cells = row.materialize();
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] instanceof BytesRef) {
+                    cells[i] = BytesRef.deepCopyOf((BytesRef) cells[i]);
+                }
+            }
+            rows.add(cells);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.exceptions.UnhandledServerException;
+import io.crate.metadata.ColumnIdent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@link ColumnBounds} of the shards of an index (a table or a partition).
+ * <p>
+ * Bounds are only collected for indices which are blocked for writes, and are only valid as long as the
+ * index is unchanged: they record the uuid and the metadata version of the index at the time they were
+ * collected. Unblocking an index changes its metadata version, which invalidates its bounds for good.
+ */
+public final class IndexColumnBounds implements Writeable, ToXContent {
+
+    private final String indexUUID;
+    private final long indexVersion;
+    private final Map<Integer, Map<ColumnIdent, ColumnBounds>> shards;
+
+    public IndexColumnBounds(String indexUUID, long indexVersion, Map<Integer, Map<ColumnIdent, ColumnBounds>> shards) {
+        this.indexUUID = indexUUID;
+        this.indexVersion = indexVersion;
+        this.shards = shards;
+    }
+
+    /**
+     * @return true if the bounds still describe the contents of the index {@code indexName} in {@code state}
+     */
+    public boolean isValid(ClusterState state, String indexName) {
+        IndexMetaData indexMetaData = state.metaData().index(indexName);
+        return indexMetaData != null &&
+               indexMetaData.getIndexUUID().equals(indexUUID) &&
+               indexMetaData.getVersion() == indexVersion &&
+               state.blocks().indexBlocked(ClusterBlockLevel.WRITE, indexName);
+    }
+
+    public String indexUUID() {
+        return indexUUID;
+    }
+
+    public long indexVersion() {
+        return indexVersion;
+    }
+
+    /**
+     * The bounds per shard id; shards of which no bounds are known are missing.
+     */
+    public Map<Integer, Map<ColumnIdent, ColumnBounds>> shards() {
+        return shards;
+    }
+
+    public IndexColumnBounds(StreamInput in) throws IOException {
+        indexUUID = in.readString();
+        indexVersion = in.readVLong();
+        int numShards = in.readVInt();
+        Map<Integer, Map<ColumnIdent, ColumnBounds>> shards = new HashMap<>(numShards);
+        for (int i = 0; i < numShards; i++) {
+            int shardId = in.readVInt();
+            int numColumns = in.readVInt();
+            Map<ColumnIdent, ColumnBounds> columns = new HashMap<>(numColumns);
+            for (int j = 0; j < numColumns; j++) {
+                columns.put(new ColumnIdent(in), new ColumnBounds(in));
+            }
+            shards.put(shardId, Collections.unmodifiableMap(columns));
+        }
+        this.shards = Collections.unmodifiableMap(shards);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(indexUUID);
+        out.writeVLong(indexVersion);
+        out.writeVInt(shards.size());
+        for (Map.Entry<Integer, Map<ColumnIdent, ColumnBounds>> shard : shards.entrySet()) {
+            out.writeVInt(shard.getKey());
+            out.writeVInt(shard.getValue().size());
+            for (Map.Entry<ColumnIdent, ColumnBounds> column : shard.getValue().entrySet()) {
+                column.getKey().writeTo(out);
+                column.getValue().writeTo(out);
+            }
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("uuid", indexUUID);
+        builder.field("version", indexVersion);
+        builder.startObject("shards");
+        for (Map.Entry<Integer, Map<ColumnIdent, ColumnBounds>> shard : shards.entrySet()) {
+            builder.startObject(String.valueOf(shard.getKey()));
+            for (Map.Entry<ColumnIdent, ColumnBounds> column : shard.getValue().entrySet()) {
+                builder.field(column.getKey().fqn());
+                column.getValue().toXContent(builder, params);
+            }
+            builder.endObject();
+        }
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    static IndexColumnBounds fromXContent(XContentParser parser) throws IOException {
+        XContentParser.Token token;
+        String indexUUID = null;
+        long indexVersion = -1L;
+        Map<Integer, Map<ColumnIdent, ColumnBounds>> shards = new HashMap<>();
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token != XContentParser.Token.FIELD_NAME) {
+                throw new UnhandledServerException("failed to parse column bounds");
+            }
+            if ("uuid".equals(parser.currentName())) {
+                parser.nextToken();
+                indexUUID = parser.text();
+            } else if ("version".equals(parser.currentName())) {
+                parser.nextToken();
+                indexVersion = parser.longValue();
+            } else if ("shards".equals(parser.currentName())) {
+                if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                    throw new UnhandledServerException("failed to parse column bounds");
+                }
+                while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                    int shardId = Integer.parseInt(parser.currentName());
+                    if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                        throw new UnhandledServerException("failed to parse column bounds");
+                    }
+                    Map<ColumnIdent, ColumnBounds> columns = new HashMap<>();
+                    while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                        ColumnIdent column = ColumnIdent.fromPath(parser.currentName());
+                        parser.nextToken();
+                        columns.put(column, ColumnBounds.fromXContent(parser));
+                    }
+                    shards.put(shardId, Collections.unmodifiableMap(columns));
+                }
+            } else {
+                throw new UnhandledServerException("failed to parse column bounds");
+            }
+        }
+        if (indexUUID == null) {
+            throw new UnhandledServerException("failed to parse column bounds");
+        }
+        return new IndexColumnBounds(indexUUID, indexVersion, Collections.unmodifiableMap(shards));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        IndexColumnBounds that = (IndexColumnBounds) o;
+        return indexVersion == that.indexVersion &&
+               indexUUID.equals(that.indexUUID) &&
+               shards.equals(that.shards);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(indexUUID, indexVersion, shards);
+    }
+}
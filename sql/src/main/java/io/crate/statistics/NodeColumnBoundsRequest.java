@@ -0,0 +1,87 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class NodeColumnBoundsRequest extends TransportRequest {
+
+    private List<String> indices;
+    private Map<ColumnIdent, DataType> columns;
+
+    public NodeColumnBoundsRequest() {
+    }
+
+    public NodeColumnBoundsRequest(List<String> indices, Map<ColumnIdent, DataType> columns) {
+        this.indices = indices;
+        this.columns = columns;
+    }
+
+    public List<String> indices() {
+        return indices;
+    }
+
+    public Map<ColumnIdent, DataType> columns() {
+        return columns;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        int numIndices = in.readVInt();
+        indices = new ArrayList<>(numIndices);
+        for (int i = 0; i < numIndices; i++) {
+            indices.add(in.readString());
+        }
+        int numColumns = in.readVInt();
+        columns = new HashMap<>(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            columns.put(new ColumnIdent(in), DataTypes.fromStream(in));
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(indices.size());
+        for (String index : indices) {
+            out.writeString(index);
+        }
+        out.writeVInt(columns.size());
+        for (Map.Entry<ColumnIdent, DataType> column : columns.entrySet()) {
+            column.getKey().writeTo(out);
+            DataTypes.toStream(column.getValue(), out);
+        }
+    }
+}
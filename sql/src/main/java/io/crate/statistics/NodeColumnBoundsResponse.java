@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.metadata.ColumnIdent;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportResponse;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class NodeColumnBoundsResponse extends TransportResponse {
+
+    private Map<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> bounds;
+
+    public NodeColumnBoundsResponse() {
+    }
+
+    public NodeColumnBoundsResponse(Map<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * The bounds of the primary shards of the node, by index name and shard id
+     */
+    public Map<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> bounds() {
+        return bounds;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        int numIndices = in.readVInt();
+        bounds = new HashMap<>(numIndices);
+        for (int i = 0; i < numIndices; i++) {
+            String index = in.readString();
+            int numShards = in.readVInt();
+            Map<Integer, Map<ColumnIdent, ColumnBounds>> shards = new HashMap<>(numShards);
+            for (int j = 0; j < numShards; j++) {
+                int shardId = in.readVInt();
+                int numColumns = in.readVInt();
+                Map<ColumnIdent, ColumnBounds> columns = new HashMap<>(numColumns);
+                for (int k = 0; k < numColumns; k++) {
+                    columns.put(new ColumnIdent(in), new ColumnBounds(in));
+                }
+                shards.put(shardId, columns);
+            }
+            bounds.put(index, shards);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(bounds.size());
+        for (Map.Entry<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> index : bounds.entrySet()) {
+            out.writeString(index.getKey());
+            out.writeVInt(index.getValue().size());
+            for (Map.Entry<Integer, Map<ColumnIdent, ColumnBounds>> shard : index.getValue().entrySet()) {
+                out.writeVInt(shard.getKey());
+                out.writeVInt(shard.getValue().size());
+                for (Map.Entry<ColumnIdent, ColumnBounds> column : shard.getValue().entrySet()) {
+                    column.getKey().writeTo(out);
+                    column.getValue().writeTo(out);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.ValidateActions;
+import org.elasticsearch.action.support.master.MasterNodeRequest;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+public class PublishColumnStatsRequest extends MasterNodeRequest<PublishColumnStatsRequest> {
+
+    private ColumnStatsMetaData columnStats;
+    private ColumnBoundsMetaData columnBounds;
+
+    public PublishColumnStatsRequest() {
+    }
+
+    public PublishColumnStatsRequest(ColumnStatsMetaData columnStats, ColumnBoundsMetaData columnBounds) {
+        this.columnStats = columnStats;
+        this.columnBounds = columnBounds;
+    }
+
+    public ColumnStatsMetaData columnStats() {
+        return columnStats;
+    }
+
+    public ColumnBoundsMetaData columnBounds() {
+        return columnBounds;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        if (columnStats == null) {
+            return ValidateActions.addValidationError("columnStats is missing", null);
+        }
+        if (columnBounds == null) {
+            return ValidateActions.addValidationError("columnBounds is missing", null);
+        }
+        return null;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        columnStats = new ColumnStatsMetaData(in);
+        columnBounds = new ColumnBoundsMetaData(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        columnStats.writeTo(out);
+        columnBounds.writeTo(out);
+    }
+}
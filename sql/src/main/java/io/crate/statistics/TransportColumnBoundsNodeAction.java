@@ -0,0 +1,137 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import io.crate.executor.transport.NodeAction;
+import io.crate.executor.transport.NodeActionRequestHandler;
+import io.crate.executor.transport.Transports;
+import io.crate.metadata.ColumnIdent;
+import io.crate.types.DataType;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads the {@link ColumnBounds} of the primary shards of a node.
+ */
+@Singleton
+public class TransportColumnBoundsNodeAction implements NodeAction<NodeColumnBoundsRequest, NodeColumnBoundsResponse> {
+
+    private static final String ACTION_NAME = "crate/sql/node/column_bounds";
+    private static final String EXECUTOR = ThreadPool.Names.MANAGEMENT;
+
+    private final Transports transports;
+    private final ClusterService clusterService;
+    private final IndicesService indicesService;
+
+    @Inject
+    public TransportColumnBoundsNodeAction(TransportService transportService,
+                                           Transports transports,
+                                           ClusterService clusterService,
+                                           IndicesService indicesService) {
+        this.transports = transports;
+        this.clusterService = clusterService;
+        this.indicesService = indicesService;
+        transportService.registerRequestHandler(
+            ACTION_NAME,
+            NodeColumnBoundsRequest::new,
+            EXECUTOR,
+            new NodeActionRequestHandler<>(this)
+        );
+    }
+
+    public void execute(String nodeId,
+                        NodeColumnBoundsRequest request,
+                        ActionListener<NodeColumnBoundsResponse> listener) {
+        transports.sendRequest(
+            ACTION_NAME,
+            nodeId,
+            request,
+            listener,
+            new ActionListenerResponseHandler<>(listener, NodeColumnBoundsResponse::new)
+        );
+    }
+
+    @Override
+    public CompletableFuture<NodeColumnBoundsResponse> nodeOperation(NodeColumnBoundsRequest request) {
+        Map<String, Map<Integer, Map<ColumnIdent, ColumnBounds>>> bounds = new HashMap<>();
+        try {
+            for (String indexName : request.indices()) {
+                IndexMetaData indexMetaData = clusterService.state().metaData().index(indexName);
+                if (indexMetaData == null) {
+                    continue;
+                }
+                IndexService indexService = indicesService.indexService(indexMetaData.getIndex());
+                if (indexService == null) {
+                    continue;
+                }
+                Map<Integer, Map<ColumnIdent, ColumnBounds>> shards = new HashMap<>();
+                for (IndexShard indexShard : indexService) {
+                    if (indexShard.routingEntry().primary() && indexShard.state() == IndexShardState.STARTED) {
+                        shards.put(indexShard.shardId().id(), readBounds(indexShard, request.columns()));
+                    }
+                }
+                if (!shards.isEmpty()) {
+                    bounds.put(indexName, shards);
+                }
+            }
+        } catch (Exception e) {
+            CompletableFuture<NodeColumnBoundsResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return CompletableFuture.completedFuture(new NodeColumnBoundsResponse(bounds));
+    }
+
+    private static Map<ColumnIdent, ColumnBounds> readBounds(IndexShard indexShard,
+                                                             Map<ColumnIdent, DataType> columns) throws IOException {
+        // the index is blocked for writes, a refresh makes the last written documents visible
+        indexShard.refresh("column_bounds");
+        Map<ColumnIdent, ColumnBounds> bounds = new HashMap<>(columns.size());
+        try (Engine.Searcher searcher = indexShard.acquireSearcher("column_bounds")) {
+            for (Map.Entry<ColumnIdent, DataType> column : columns.entrySet()) {
+                ColumnBounds columnBounds = ColumnBounds.fromPoints(
+                    searcher.reader(), column.getKey().fqn(), column.getValue());
+                if (columnBounds != null) {
+                    bounds.put(column.getKey(), columnBounds);
+                }
+            }
+        }
+        return bounds;
+    }
+}
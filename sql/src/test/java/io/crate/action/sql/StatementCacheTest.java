@@ -0,0 +1,138 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.sql.parser.ParsingException;
+import io.crate.sql.tree.Statement;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.testing.T3;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StatementCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private StatementCache cache;
+
+    @Before
+    public void setUpExecutor() throws Exception {
+        e = SQLExecutor.builder(clusterService).addDocTable(T3.T1_INFO).build();
+        cache = new StatementCache();
+    }
+
+    @Test
+    public void testParsedStatementIsReused() throws Exception {
+        Statement statement = cache.parse("select x from t1 where x = ?");
+        assertThat(cache.parse("select x from t1 where x = ?"), sameInstance(statement));
+        assertThat(cache.parse("select x from t1 where x = ? limit 1"), not(sameInstance(statement)));
+    }
+
+    @Test
+    public void testStatementsDifferingInWhitespaceShareAnEntry() throws Exception {
+        Statement statement = cache.parse("select x from t1 where x = ?");
+        assertThat(cache.parse("  select x\n  from t1   where x = ? "), sameInstance(statement));
+        assertThat(cache.numStatements(), is(1L));
+    }
+
+    @Test
+    public void testNormalizeKeepsQuotesAndComments() throws Exception {
+        assertThat(StatementCache.normalize(" select 'a  b', \"x  y\"  from t1 "),
+            is("select 'a  b', \"x  y\" from t1"));
+        assertThat(StatementCache.normalize("select 'it''s  a' from t1"), is("select 'it''s  a' from t1"));
+        assertThat(StatementCache.normalize("select 1 -- it's  a\n  , 2"), is("select 1 -- it's  a\n, 2"));
+        assertThat(StatementCache.normalize("select /* a  b */ 1"), is("select /* a  b */ 1"));
+    }
+
+    @Test
+    public void testInvalidStatementIsNotCached() throws Exception {
+        expectThrows(ParsingException.class, () -> cache.parse("select x frm t1"));
+        assertThat(cache.numStatements(), is(0L));
+    }
+
+    @Test
+    public void testLongStatementIsNotCached() throws Exception {
+        StringBuilder query = new StringBuilder("select x from t1 where x in (1");
+        while (query.length() <= StatementCache.MAX_QUERY_LENGTH) {
+            query.append(", 1");
+        }
+        query.append(")");
+        Statement statement = cache.parse(query.toString());
+        cache.unboundAnalyze(e.analyzer, query.toString(), statement, SessionContext.SYSTEM_SESSION,
+            Collections.emptyList());
+
+        assertThat(cache.numStatements(), is(0L));
+        assertThat(cache.numRelations(), is(0L));
+    }
+
+    @Test
+    public void testRelationIsCachedPerSchemaAndParamTypes() throws Exception {
+        String query = "select x from t1 where x = ?";
+        Statement statement = cache.parse(query);
+        List<DataType> paramTypes = Collections.singletonList(DataTypes.INTEGER);
+
+        AnalyzedRelation relation = cache.unboundAnalyze(
+            e.analyzer, query, statement, SessionContext.SYSTEM_SESSION, paramTypes);
+        assertThat(cache.unboundAnalyze(e.analyzer, query, statement, SessionContext.SYSTEM_SESSION, paramTypes),
+            sameInstance(relation));
+        assertThat(cache.unboundAnalyze(e.analyzer, query, statement, SessionContext.SYSTEM_SESSION,
+            Collections.singletonList(DataTypes.LONG)), not(sameInstance(relation)));
+    }
+
+    @Test
+    public void testRelationsAreInvalidatedOnMetaDataChange() throws Exception {
+        String query = "select x from t1";
+        Statement statement = cache.parse(query);
+        AnalyzedRelation relation = cache.unboundAnalyze(
+            e.analyzer, query, statement, SessionContext.SYSTEM_SESSION, Collections.emptyList());
+
+        ClusterChangedEvent event = mock(ClusterChangedEvent.class);
+        when(event.metaDataChanged()).thenReturn(true);
+        cache.clusterChanged(event);
+
+        assertThat(cache.unboundAnalyze(e.analyzer, query, statement, SessionContext.SYSTEM_SESSION, Collections.emptyList()),
+            not(sameInstance(relation)));
+    }
+
+    @Test
+    public void testStatementWithoutResultSetHasNoRelation() throws Exception {
+        String query = "refresh table t1";
+        AnalyzedRelation relation = cache.unboundAnalyze(
+            e.analyzer, query, cache.parse(query), SessionContext.SYSTEM_SESSION, Collections.emptyList());
+        assertThat(relation, nullValue());
+    }
+}
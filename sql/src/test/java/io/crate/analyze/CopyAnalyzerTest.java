@@ -64,6 +64,21 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(analysis.uri(), isLiteral("/some/distant/file.ext"));
     }
 
+    @Test
+    public void testCopyFromStdin() throws Exception {
+        CopyFromAnalyzedStatement analysis = e.analyze("copy users from stdin");
+        assertThat(analysis.table().ident(), is(USER_TABLE_IDENT));
+        assertThat(analysis.copyInStreamId(), notNullValue());
+        assertThat(analysis.uri(), isLiteral("stdin:///" + analysis.copyInStreamId()));
+    }
+
+    @Test
+    public void testCopyFromStdinWithCompressionIsNotSupported() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Setting \"compression\" is not supported for COPY FROM STDIN");
+        e.analyze("copy users from stdin with (compression='gzip')");
+    }
+
     @Test
     public void testCopyFromExistingPartitionedTable() throws Exception {
         CopyFromAnalyzedStatement analysis = e.analyze("copy parted from '/some/distant/file.ext'");
@@ -301,4 +316,17 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         expectedException.expectMessage("node_filters argument 'name' must be a String, not 20 (Long)");
         e.analyze("copy users from '/' with (node_filters={name=20})");
     }
+
+    @Test
+    public void testCopyFromWithSplitSize() throws Exception {
+        CopyFromAnalyzedStatement analysis = e.analyze("copy users from '/some/distant/file.ext' with (split_size='64mb')");
+        assertThat(CopyFromAnalyzedStatement.SPLIT_SIZE_SETTING.extractBytes(analysis.settings()), is(64L * 1024 * 1024));
+    }
+
+    @Test
+    public void testCopyFromWithNegativeSplitSize() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Setting \"split_size\" must not be negative");
+        e.analyze("copy users from '/some/distant/file.ext' with (split_size='-1')");
+    }
 }
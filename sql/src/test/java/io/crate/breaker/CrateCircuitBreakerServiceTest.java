@@ -108,8 +108,8 @@ public class CrateCircuitBreakerServiceTest extends CrateUnitTest {
             .build();
         clusterSettings.applySettings(newSettings);
 
-        // expecting 4 times because registerBreaker() is also called from constructor of CrateCircuitBreakerService 3 times
-        verify(esBreakerService, times(4)).registerBreaker(Matchers.any());
+        // expecting 5 times because registerBreaker() is also called from constructor of CrateCircuitBreakerService 4 times
+        verify(esBreakerService, times(5)).registerBreaker(Matchers.any());
 
         breaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
         assertThat(breaker.getLimit(), is(104_857_600L));
@@ -118,7 +118,7 @@ public class CrateCircuitBreakerServiceTest extends CrateUnitTest {
         // updating with same settings should not register a new breaker
         clusterSettings.applySettings(newSettings);
 
-        verify(esBreakerService, times(4)).registerBreaker(Matchers.any());
+        verify(esBreakerService, times(5)).registerBreaker(Matchers.any());
     }
 
     @Test
@@ -0,0 +1,64 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.breaker;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class RamAccountingContextTest extends CrateUnitTest {
+
+    @Test
+    public void testPeakBytesIsNotLoweredByReleasedBytes() throws Exception {
+        RamAccountingContext context = new RamAccountingContext("test", new NoopCircuitBreaker("dummy"));
+        context.addBytes(100);
+        context.addBytes(50);
+        context.releaseBytes(120);
+        context.addBytes(10);
+
+        assertThat(context.totalBytes(), is(40L));
+        assertThat(context.peakBytes(), is(150L));
+    }
+
+    @Test
+    public void testChildOnlyReleasesItsOwnBytes() throws Exception {
+        RamAccountingContext parent = new RamAccountingContext("test", new NoopCircuitBreaker("dummy"));
+        RamAccountingContext child1 = parent.newChild();
+        RamAccountingContext child2 = parent.newChild();
+        child1.addBytes(100);
+        child2.addBytes(30);
+        parent.addBytes(5);
+
+        assertThat(parent.totalBytes(), is(135L));
+        assertThat(child1.totalBytes(), is(100L));
+
+        child1.releaseBytes(child1.totalBytes());
+        assertThat(parent.totalBytes(), is(35L));
+        assertThat(child1.totalBytes(), is(0L));
+
+        child2.close();
+        assertThat(parent.totalBytes(), is(5L));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.integrationtests;
+
+import io.crate.action.sql.SQLActionException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+
+public class ExplainAnalyzeIntegrationTest extends SQLTransportIntegrationTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExplainAnalyzeReturnsPlanAndPhaseStats() throws Exception {
+        execute("create table t (id int, name string) clustered into 2 shards with (number_of_replicas = 0)");
+        ensureYellow();
+        execute("insert into t (id, name) values (1, 'Arthur'), (2, 'Trillian'), (3, 'Ford')");
+        execute("refresh table t");
+
+        execute("explain analyze select name, count(*) from t group by name order by 2 desc limit 2");
+        assertThat(response.rowCount(), is(1L));
+        Map<String, Object> result = (Map<String, Object>) response.rows()[0][0];
+        assertThat(result, hasKey("plan"));
+
+        Map<String, Object> analyze = (Map<String, Object>) result.get("analyze");
+        assertThat(analyze.get("rowCount"), is(2L));
+        List<Map<String, Object>> phases = (List<Map<String, Object>>) analyze.get("phases");
+        assertThat(phases.size(), greaterThan(0));
+        for (Map<String, Object> phase : phases) {
+            assertThat(phase, hasKey("node"));
+            assertThat(phase, hasKey("durationMs"));
+            assertThat(phase, hasKey("projections"));
+        }
+    }
+
+    @Test
+    public void testExplainAnalyzeOnInsertIsRejected() throws Exception {
+        execute("create table t (id int)");
+        expectedException.expect(SQLActionException.class);
+        expectedException.expectMessage("EXPLAIN ANALYZE is not supported for");
+        execute("explain analyze insert into t (id) values (1)");
+    }
+}
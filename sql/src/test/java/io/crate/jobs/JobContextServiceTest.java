@@ -31,15 +31,19 @@ import org.junit.Test;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Field;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 
 public class JobContextServiceTest extends CrateDummyClusterServiceUnitTest {
 
@@ -67,6 +71,58 @@ public class JobContextServiceTest extends CrateDummyClusterServiceUnitTest {
         assertThat(ctx1.getSubContext(1), is(subContext));
     }
 
+    @Test
+    public void testFinishProfilingWaitsForJobAndReturnsPhaseStats() throws Throwable {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId);
+        builder.enableProfiling();
+        DummySubContext subContext = new DummySubContext(1);
+        builder.addSubContext(subContext);
+        JobExecutionContext ctx = jobContextService.createContext(builder);
+        ctx.start();
+
+        CompletableFuture<List<Map<String, Object>>> future = jobContextService.finishProfiling(jobId);
+        assertThat(future.isDone(), is(false));
+        subContext.close();
+
+        List<Map<String, Object>> phases = future.get(5, TimeUnit.SECONDS);
+        assertThat(phases.size(), is(1));
+        assertThat(phases.get(0).get("id"), is(1));
+        assertThat(phases.get(0).get("name"), is("dummy 1"));
+        assertThat(phases.get(0).get("durationMs"), notNullValue());
+
+        // stats are removed once collected
+        assertThat(jobContextService.finishProfiling(jobId).get(5, TimeUnit.SECONDS), empty());
+    }
+
+    @Test
+    public void testFinishProfilingAfterJobFinishedReturnsPhaseStatsOnce() throws Throwable {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId);
+        builder.enableProfiling();
+        DummySubContext subContext = new DummySubContext(1);
+        builder.addSubContext(subContext);
+        jobContextService.createContext(builder).start();
+        subContext.close();
+
+        List<Map<String, Object>> phases = jobContextService.finishProfiling(jobId).get(5, TimeUnit.SECONDS);
+        assertThat(phases.size(), is(1));
+        assertThat(phases.get(0).get("id"), is(1));
+        assertThat(jobContextService.finishProfiling(jobId).get(5, TimeUnit.SECONDS), empty());
+    }
+
+    @Test
+    public void testFinishProfilingOfNotProfiledJobReturnsNoStats() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId);
+        DummySubContext subContext = new DummySubContext(1);
+        builder.addSubContext(subContext);
+        jobContextService.createContext(builder);
+        subContext.close();
+
+        assertThat(jobContextService.finishProfiling(jobId).get(5, TimeUnit.SECONDS), empty());
+    }
+
     @Test
     public void testGetContextsByCoordinatorNode() throws Exception {
         JobExecutionContext.Builder builder = jobContextService.newBuilder(UUID.randomUUID());
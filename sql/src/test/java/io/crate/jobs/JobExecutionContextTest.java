@@ -117,7 +117,8 @@ public class JobExecutionContextTest extends CrateUnitTest {
             mock(MapSideDataCollectOperation.class),
             mock(RamAccountingContext.class),
             new TestingBatchConsumer(),
-            mock(SharedShardContexts.class));
+            mock(SharedShardContexts.class),
+            null);
         TestingBatchConsumer batchConsumer = new TestingBatchConsumer();
         PageDownstreamContext pageDownstreamContext = spy(new PageDownstreamContext(
             Loggers.getLogger(PageDownstreamContext.class),
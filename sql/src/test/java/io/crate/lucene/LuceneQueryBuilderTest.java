@@ -87,9 +87,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 
+import static io.crate.testing.SymbolMatchers.isReference;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -110,6 +113,7 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
     public void prepare() throws Exception {
         DocTableInfo users = TestingTableInfo.builder(new TableIdent(null, "users"), null)
             .add("name", DataTypes.STRING)
+            .add("name_no_dv", DataTypes.STRING)
             .add("x", DataTypes.INTEGER, null, ColumnPolicy.DYNAMIC, Reference.IndexType.NOT_ANALYZED, false, false)
             .add("d", DataTypes.DOUBLE)
             .add("d_array", new ArrayType(DataTypes.DOUBLE))
@@ -139,6 +143,7 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
             .startObject("default")
                 .startObject("properties")
                     .startObject("name").field("type", "keyword").endObject()
+                    .startObject("name_no_dv").field("type", "keyword").field("doc_values", false).endObject()
                     .startObject("x").field("type", "integer").endObject()
                     .startObject("d").field("type", "double").endObject()
                     .startObject("point").field("type", "geo_point").endObject()
@@ -244,6 +249,30 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         assertThat(query, instanceOf(GenericFunctionQuery.class));
     }
 
+    @Test
+    public void testGenericFunctionQueryReadsColumnsWithDocValuesFromDocValues() throws Exception {
+        Query query = convert("name = name");
+        assertThat(query, instanceOf(GenericFunctionQuery.class));
+        assertThat(((GenericFunctionQuery) query).function().arguments(),
+            contains(isReference("name"), isReference("name")));
+    }
+
+    @Test
+    public void testGenericFunctionQueryReadsColumnsWithoutDocValuesFromSource() throws Exception {
+        Query query = convert("within(point, shape)");
+        assertThat(query, instanceOf(GenericFunctionQuery.class));
+        assertThat(((GenericFunctionQuery) query).function().arguments(),
+            contains(isReference("_doc['point']"), isReference("_doc['shape']")));
+    }
+
+    @Test
+    public void testGenericFunctionQueryReadsColumnsWithDocValuesDisabledFromSource() throws Exception {
+        Query query = convert("name_no_dv = name");
+        assertThat(query, instanceOf(GenericFunctionQuery.class));
+        assertThat(((GenericFunctionQuery) query).function().arguments(),
+            contains(isReference("_doc['name_no_dv']"), isReference("name")));
+    }
+
     @Test
     public void testLteQuery() throws Exception {
         Query query = convert("x <= 10");
@@ -319,6 +348,14 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         assertThat(scoreQuery.getQuery(), instanceOf(RegexpQuery.class));
     }
 
+    @Test
+    public void testAutomatonQueriesAreReused() throws Exception {
+        assertThat(convert("name like 'foo%bar'"), sameInstance(convert("name like 'foo%bar'")));
+        assertThat(
+            ((ConstantScoreQuery) convert("name ~ '[a-z]+'")).getQuery(),
+            sameInstance(((ConstantScoreQuery) convert("name ~ '[a-z]+'")).getQuery()));
+    }
+
     /**
      * When using PCRE features, switch to different
      * regex implementation on top of java.util.regex.
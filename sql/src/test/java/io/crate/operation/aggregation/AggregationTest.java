@@ -43,6 +43,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
 
 public abstract class AggregationTest extends CrateUnitTest {
 
@@ -90,9 +91,34 @@ public abstract class AggregationTest extends CrateUnitTest {
 
         }
         state = impl.terminatePartial(ramAccountingContext, state);
+        assertThat(executeColumnarAggregation(impl, bucket, inputs), is(state));
         return new Object[][]{{state}};
     }
 
+    /**
+     * Aggregates the rows into two groups (using every row for both) using {@link ColumnarStates},
+     * the result of the second group is the reduced partial state of the first group.
+     */
+    private Object executeColumnarAggregation(AggregationFunction impl,
+                                              ArrayBucket bucket,
+                                              InputCollectExpression[] inputs) {
+        ColumnarStates states = ColumnarStates.of(impl);
+        states.addGroup(ramAccountingContext);
+        states.addGroup(ramAccountingContext);
+        for (Row row : bucket) {
+            for (InputCollectExpression i : inputs) {
+                i.setNextRow(row);
+            }
+            states.iterate(ramAccountingContext, 0, inputs);
+        }
+        Object result = states.terminatePartial(ramAccountingContext, 0);
+        if (impl.newColumnarStates() != null) {
+            states.reduce(ramAccountingContext, 1, states.partialState(0));
+            assertThat(states.terminatePartial(ramAccountingContext, 1), is(result));
+        }
+        return result;
+    }
+
     protected Symbol normalize(String functionName, Object value, DataType type) {
         return normalize(functionName, Literal.of(type, value));
     }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.operation.aggregation.AggregationTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ApproxCountDistinctAggregationTest extends AggregationTest {
+
+    private static final String NAME = ApproxCountDistinctAggregation.NAME;
+
+    private Object[][] executeAggregation(DataType dataType, Object[][] data) throws Exception {
+        return executeAggregation(NAME, dataType, data);
+    }
+
+    @Test
+    public void testReturnType() throws Exception {
+        for (DataType dataType : DataTypes.PRIMITIVE_TYPES) {
+            assertThat(functions.getBuiltin(NAME, ImmutableList.of(dataType)).info().returnType(), is(DataTypes.LONG));
+            assertThat(functions.getBuiltin(NAME, ImmutableList.of(dataType, DataTypes.INTEGER)).info().returnType(),
+                is(DataTypes.LONG));
+        }
+    }
+
+    @Test
+    public void testAllTypesCountDistinctValues() throws Exception {
+        for (DataType dataType : DataTypes.NUMERIC_PRIMITIVE_TYPES) {
+            Object[][] rows = new Object[200][];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new Object[]{dataType.value(i % 100)};
+            }
+            assertThat((Long) executeAggregation(dataType, rows)[0][0],
+                allOf(greaterThanOrEqualTo(98L), lessThanOrEqualTo(102L)));
+        }
+    }
+
+    @Test
+    public void testString() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.STRING, new Object[][]{
+            {new BytesRef("Youri")}, {new BytesRef("Ruben")}, {new BytesRef("Youri")}, {null}});
+        assertThat(result[0][0], is(2L));
+    }
+
+    @Test
+    public void testBoolean() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.BOOLEAN, new Object[][]{{true}, {false}, {true}});
+        assertThat(result[0][0], is(2L));
+    }
+
+    @Test
+    public void testOnlyNullValues() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.LONG, new Object[][]{{null}, {null}});
+        assertThat(result[0][0], is(0L));
+    }
+
+    @Test
+    public void testWithPrecision() throws Exception {
+        Object[][] result = executeAggregation(NAME, DataTypes.LONG, new Object[][]{{1L, 10}, {2L, 10}, {1L, 10}},
+            ImmutableList.of(DataTypes.LONG, DataTypes.INTEGER));
+        assertThat(result[0][0], is(2L));
+    }
+
+    @Test
+    public void testInvalidPrecision() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("precision must be >= 4 and <= 18, got 19");
+        executeAggregation(NAME, DataTypes.LONG, new Object[][]{{1L, 19}},
+            ImmutableList.of(DataTypes.LONG, DataTypes.INTEGER));
+    }
+}
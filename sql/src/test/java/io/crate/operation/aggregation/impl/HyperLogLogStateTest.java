@@ -0,0 +1,88 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import io.crate.Streamer;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class HyperLogLogStateTest extends CrateUnitTest {
+
+    @Test
+    public void testCardinalityIsWithinStandardError() throws Exception {
+        HyperLogLogState state = new HyperLogLogState(HyperLogLogState.DEFAULT_PRECISION);
+        for (long i = 0; i < 1_000_000; i++) {
+            state.add(i);
+        }
+        // standard error for precision 14 is ~0.8%
+        assertThat((double) state.cardinality(), closeTo(1_000_000, 30_000));
+    }
+
+    @Test
+    public void testMergeIsEqualToUnion() throws Exception {
+        HyperLogLogState state1 = new HyperLogLogState(10);
+        HyperLogLogState state2 = new HyperLogLogState(10);
+        HyperLogLogState union = new HyperLogLogState(10);
+        for (long i = 0; i < 10_000; i++) {
+            state1.add(i);
+            union.add(i);
+        }
+        for (long i = 5_000; i < 20_000; i++) {
+            state2.add(i);
+            union.add(i);
+        }
+        state1.merge(state2);
+        assertThat(state1.cardinality(), is(union.cardinality()));
+    }
+
+    @Test
+    public void testMergeWithDifferentPrecisionFails() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cannot merge states with different precisions: 10 and 12");
+        new HyperLogLogState(10).merge(new HyperLogLogState(12));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        HyperLogLogState state1 = new HyperLogLogState(12);
+        for (long i = 0; i < 1_000; i++) {
+            state1.add(i);
+        }
+        Streamer streamer = HyperLogLogStateType.INSTANCE.create().streamer();
+        BytesStreamOutput out = new BytesStreamOutput();
+        streamer.writeValueTo(out, state1);
+        streamer.writeValueTo(out, new HyperLogLogState());
+        StreamInput in = out.bytes().streamInput();
+        HyperLogLogState state2 = (HyperLogLogState) streamer.readValueFrom(in);
+        HyperLogLogState empty = (HyperLogLogState) streamer.readValueFrom(in);
+
+        assertThat(state2.precision(), is(12));
+        assertThat(state2.cardinality(), is(state1.cardinality()));
+        assertThat(empty.isInitialized(), is(false));
+    }
+}
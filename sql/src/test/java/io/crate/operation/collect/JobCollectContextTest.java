@@ -62,7 +62,8 @@ public class JobCollectContextTest extends RandomizedTest {
             mock(MapSideDataCollectOperation.class),
             ramAccountingContext,
             new TestingBatchConsumer(),
-            mock(SharedShardContexts.class));
+            mock(SharedShardContexts.class),
+            null);
     }
 
     @Test
@@ -105,7 +106,8 @@ public class JobCollectContextTest extends RandomizedTest {
             collectOperationMock,
             ramAccountingContext,
             new TestingBatchConsumer(),
-            mock(SharedShardContexts.class));
+            mock(SharedShardContexts.class),
+            null);
 
         jobCtx.addSearcher(1, mock1);
         CrateCollector collectorMock1 = mock(CrateCollector.class);
@@ -0,0 +1,107 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class LuceneShardCollectorProviderTest extends CrateUnitTest {
+
+    private DirectoryReader reader;
+
+    @Before
+    public void prepareReader() throws Exception {
+        IndexWriter iw = new IndexWriter(new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int segmentSize : new int[] { 8, 5, 4, 3 }) {
+            for (long i = 0; i < segmentSize; i++) {
+                Document doc = new Document();
+                doc.add(new NumericDocValuesField("x", i));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+        reader = DirectoryReader.open(iw);
+        iw.close();
+    }
+
+    @After
+    public void closeReader() throws Exception {
+        reader.close();
+    }
+
+    @Test
+    public void testSingleSliceContainsAllLeaves() throws Exception {
+        List<LeafReaderContext> leaves = reader.leaves();
+        List<List<LeafReaderContext>> slices = LuceneShardCollectorProvider.slices(leaves, 1);
+        assertThat(slices.size(), is(1));
+        assertThat(slices.get(0), sameInstance(leaves));
+    }
+
+    @Test
+    public void testLeavesAreBalancedByNumberOfDocs() throws Exception {
+        List<LeafReaderContext> leaves = reader.leaves();
+        assertThat(leaves.size(), is(4));
+
+        List<List<LeafReaderContext>> slices = LuceneShardCollectorProvider.slices(leaves, 2);
+        assertThat(slices.size(), is(2));
+        assertThat(numDocs(slices.get(0)), is(11));
+        assertThat(numDocs(slices.get(1)), is(9));
+    }
+
+    @Test
+    public void testNumberOfSlicesIsLimitedByNumberOfLeaves() throws Exception {
+        List<LeafReaderContext> leaves = reader.leaves();
+        List<List<LeafReaderContext>> slices = LuceneShardCollectorProvider.slices(leaves, 10);
+        assertThat(slices.size(), is(4));
+        for (List<LeafReaderContext> slice : slices) {
+            assertThat(slice.size(), is(1));
+        }
+        assertThat(slices.stream().map(s -> s.get(0)).toArray(), arrayContainingInAnyOrder(leaves.toArray()));
+    }
+
+    private static int numDocs(List<LeafReaderContext> slice) {
+        int numDocs = 0;
+        for (LeafReaderContext leaf : slice) {
+            numDocs += leaf.reader().maxDoc();
+        }
+        return numDocs;
+    }
+}
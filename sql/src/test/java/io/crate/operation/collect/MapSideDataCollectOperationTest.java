@@ -25,6 +25,7 @@ import io.crate.analyze.symbol.Literal;
 import io.crate.data.CollectionBucket;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
+import io.crate.operation.collect.files.CopyInStreams;
 import io.crate.operation.collect.sources.CollectSourceResolver;
 import io.crate.operation.collect.sources.FileCollectSource;
 import io.crate.planner.node.dql.FileUriCollectPhase;
@@ -61,7 +62,8 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
         Functions functions = getFunctions();
         CollectSourceResolver collectSourceResolver = mock(CollectSourceResolver.class);
         when(collectSourceResolver.getService(any(RoutedCollectPhase.class)))
-            .thenReturn(new FileCollectSource(functions, clusterService, Collections.emptyMap()));
+            .thenReturn(new FileCollectSource(
+                functions, clusterService, Collections.emptyMap(), new CopyInStreams(), THREAD_POOL));
         MapSideDataCollectOperation collectOperation = new MapSideDataCollectOperation(
             collectSourceResolver,
             THREAD_POOL
@@ -84,7 +86,8 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
             ),
             Collections.emptyList(),
             null,
-            false
+            false,
+            0L
         );
         String threadPoolName = JobCollectContext.threadPoolName(collectNode);
 
@@ -0,0 +1,243 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.analyze.symbol.Aggregation;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowGranularity;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.projection.AggregationProjection;
+import io.crate.planner.projection.Projection;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ShardResultCacheTest extends CrateUnitTest {
+
+    private static final FunctionInfo COUNT_INFO = new FunctionInfo(
+        new FunctionIdent(CountAggregation.NAME, Collections.singletonList(DataTypes.STRING)), DataTypes.LONG);
+
+    private final ShardId shardId = new ShardId(new Index("t", UUID.randomUUID().toString()), 0);
+    private final ShardResultCache cache = new ShardResultCache(true, 1024 * 1024, new NoopCircuitBreaker("dummy"));
+
+    private static RoutedCollectPhase collectPhase(List<Symbol> toCollect, List<Projection> projections) {
+        return new RoutedCollectPhase(
+            UUID.randomUUID(),
+            0,
+            "collect",
+            new Routing(ImmutableMap.of()),
+            RowGranularity.DOC,
+            toCollect,
+            projections,
+            WhereClause.MATCH_ALL,
+            DistributionInfo.DEFAULT_BROADCAST,
+            null
+        );
+    }
+
+    private static Projection countProjection() {
+        return new AggregationProjection(Collections.singletonList(
+            new Aggregation(COUNT_INFO, DataTypes.LONG, Collections.singletonList(new InputColumn(0)))),
+            RowGranularity.SHARD,
+            AggregateMode.ITER_FINAL);
+    }
+
+    private static CrateCollector.Builder countingBuilder(AtomicInteger numCollects, Row row) {
+        return consumer -> {
+            numCollects.incrementAndGet();
+            return RowsCollector.forRows(Collections.singletonList(row), row.numColumns(), consumer);
+        };
+    }
+
+    private static String collect(CrateCollector.Builder builder) throws Exception {
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        builder.build(builder.applyProjections(consumer)).doCollect();
+        return printedTable(consumer.getBucket());
+    }
+
+    @Test
+    public void testOnlyShardAggregationsAreCacheable() throws Exception {
+        List<Symbol> toCollect = Collections.singletonList(createReference("name", DataTypes.STRING));
+        assertThat(ShardResultCache.isCacheable(collectPhase(toCollect, Collections.emptyList())), is(false));
+        assertThat(ShardResultCache.isCacheable(
+            collectPhase(toCollect, Collections.singletonList(countProjection()))), is(true));
+    }
+
+    @Test
+    public void testPhasesWithNonDeterministicFunctionsAreNotCacheable() throws Exception {
+        FunctionInfo randomInfo = new FunctionInfo(new FunctionIdent("random", Collections.emptyList()),
+            DataTypes.DOUBLE, FunctionInfo.Type.SCALAR, FunctionInfo.NO_FEATURES);
+        List<Symbol> toCollect = Collections.singletonList(new Function(randomInfo, Collections.emptyList()));
+        assertThat(ShardResultCache.isCacheable(
+            collectPhase(toCollect, Collections.singletonList(countProjection()))), is(false));
+    }
+
+    @Test
+    public void testResultIsServedFromCacheUntilReaderVersionChanges() throws Exception {
+        RoutedCollectPhase phase = collectPhase(
+            Collections.singletonList(createReference("name", DataTypes.STRING)),
+            Collections.singletonList(countProjection()));
+        AtomicInteger numCollects = new AtomicInteger(0);
+
+        assertThat(collect(cache.cachingBuilder(shardId, 1L, phase, countingBuilder(numCollects, new Row1(3L)))),
+            is("3\n"));
+        assertThat(collect(cache.cachingBuilder(shardId, 1L, phase, countingBuilder(numCollects, new Row1(3L)))),
+            is("3\n"));
+        assertThat(numCollects.get(), is(1));
+
+        assertThat(collect(cache.cachingBuilder(shardId, 2L, phase, countingBuilder(numCollects, new Row1(4L)))),
+            is("4\n"));
+        assertThat(numCollects.get(), is(2));
+
+        ShardResultCache.Stats stats = cache.stats();
+        assertThat(stats.hits(), is(1L));
+        assertThat(stats.misses(), is(2L));
+        assertThat(stats.entries(), is(2L));
+    }
+
+    @Test
+    public void testResultIsCachedUnderTheReaderVersionOfTheCollector() throws Exception {
+        RoutedCollectPhase phase = collectPhase(
+            Collections.singletonList(createReference("name", DataTypes.STRING)),
+            Collections.singletonList(countProjection()));
+        AtomicInteger numCollects = new AtomicInteger(0);
+        IndexWriter writer = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        writer.addDocument(new Document());
+        writer.commit();
+
+        try (DirectoryReader collectorReader = DirectoryReader.open(writer)) {
+            // the collector is built with the searcher of the job before the shard is refreshed
+            Engine.Searcher collectorSearcher = new Engine.Searcher("test", new IndexSearcher(collectorReader));
+            CrateCollector.Builder collector = countingBuilder(numCollects, new Row1(1L));
+            writer.addDocument(new Document());
+            writer.commit();
+
+            try (DirectoryReader refreshedReader = DirectoryReader.open(writer)) {
+                assertThat(refreshedReader.getVersion() == collectorReader.getVersion(), is(false));
+                assertThat(collect(cache.cachingBuilder(shardId, collectorSearcher, phase, collector)), is("1\n"));
+
+                // the result of the old snapshot must not be served for the refreshed reader
+                Engine.Searcher refreshedSearcher = new Engine.Searcher("test", new IndexSearcher(refreshedReader));
+                assertThat(collect(cache.cachingBuilder(
+                    shardId, refreshedSearcher, phase, countingBuilder(numCollects, new Row1(2L)))), is("2\n"));
+                assertThat(numCollects.get(), is(2));
+            }
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testResultsLargerThanTheCacheAreNotCached() throws Exception {
+        ShardResultCache smallCache = new ShardResultCache(true, 1, new NoopCircuitBreaker("dummy"));
+        RoutedCollectPhase phase = collectPhase(
+            Collections.singletonList(createReference("name", DataTypes.STRING)),
+            Collections.singletonList(countProjection()));
+
+        assertThat(collect(smallCache.cachingBuilder(
+            shardId, 1L, phase, countingBuilder(new AtomicInteger(0), new Row1(3L)))), is("3\n"));
+        assertThat(smallCache.stats().entries(), is(0L));
+        assertThat(smallCache.stats().sizeInBytes(), is(0L));
+    }
+
+    @Test
+    public void testCachedResultsAreAccountedOnTheBreaker() throws Exception {
+        CircuitBreaker breaker = new MemoryCircuitBreaker(
+            new ByteSizeValue(1, ByteSizeUnit.KB), 1.0d, Loggers.getLogger(getClass()));
+        ShardResultCache accountedCache = new ShardResultCache(true, 1024 * 1024, breaker);
+        RoutedCollectPhase phase = collectPhase(
+            Collections.singletonList(createReference("name", DataTypes.STRING)),
+            Collections.singletonList(countProjection()));
+
+        assertThat(collect(accountedCache.cachingBuilder(
+            shardId, 1L, phase, countingBuilder(new AtomicInteger(0), new Row1(3L)))), is("3\n"));
+        assertThat(accountedCache.stats().entries(), is(1L));
+        assertThat(breaker.getUsed(), is(accountedCache.stats().sizeInBytes()));
+
+        accountedCache.clear();
+        assertThat(breaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testResultsWhichWouldTripTheBreakerAreNotCached() throws Exception {
+        CircuitBreaker breaker = new MemoryCircuitBreaker(
+            new ByteSizeValue(1, ByteSizeUnit.BYTES), 1.0d, Loggers.getLogger(getClass()));
+        ShardResultCache accountedCache = new ShardResultCache(true, 1024 * 1024, breaker);
+        RoutedCollectPhase phase = collectPhase(
+            Collections.singletonList(createReference("name", DataTypes.STRING)),
+            Collections.singletonList(countProjection()));
+
+        assertThat(collect(accountedCache.cachingBuilder(
+            shardId, 1L, phase, countingBuilder(new AtomicInteger(0), new Row1(3L)))), is("3\n"));
+        assertThat(accountedCache.stats().entries(), is(0L));
+        assertThat(breaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testDisabledCacheReturnsGivenBuilder() throws Exception {
+        ShardResultCache disabledCache = new ShardResultCache(false, 1024, new NoopCircuitBreaker("dummy"));
+        CrateCollector.Builder builder = countingBuilder(new AtomicInteger(0), new Row1(1L));
+        RoutedCollectPhase phase = collectPhase(
+            Collections.singletonList(createReference("name", DataTypes.STRING)),
+            Collections.singletonList(countProjection()));
+        assertThat(disabledCache.cachingBuilder(shardId, null, phase, builder), sameInstance(builder));
+    }
+}
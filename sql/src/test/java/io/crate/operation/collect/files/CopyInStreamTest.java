@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.FunctionResolver;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Reference;
+import io.crate.operation.InputFactory;
+import io.crate.operation.reference.file.FileLineReferenceResolver;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CopyInStreamTest extends CrateUnitTest {
+
+    private final CopyInStreams copyInStreams = new CopyInStreams();
+    private final List<Boolean> autoReadCalls = new ArrayList<>();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String line(CopyInStream stream) {
+        byte[] line = stream.pollLine();
+        return line == null ? null : new String(line, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testLinesAreSplitAcrossChunks() throws Exception {
+        CopyInStream stream = copyInStreams.create("s1", autoReadCalls::add);
+        stream.write(bytes("{\"x\": 1}\n{\"x\""));
+        assertThat(line(stream), is("{\"x\": 1}"));
+        assertThat(line(stream), nullValue());
+
+        stream.write(bytes(": 2}\r\n\n{\"x\": 3}"));
+        assertThat(line(stream), is("{\"x\": 2}"));
+        assertThat(line(stream), nullValue());
+        assertThat(stream.isExhausted(), is(false));
+
+        stream.finish();
+        assertThat(line(stream), is("{\"x\": 3}"));
+        assertThat(stream.isExhausted(), is(true));
+    }
+
+    @Test
+    public void testAwaitLinesCompletesOnWrite() throws Exception {
+        CopyInStream stream = copyInStreams.create("s1", autoReadCalls::add);
+        CompletableFuture<Void> future = stream.awaitLines();
+        stream.write(bytes("{\"x\""));
+        assertThat(future.isDone(), is(false));
+        stream.write(bytes(": 1}\n"));
+        assertThat(future.isDone(), is(true));
+    }
+
+    @Test
+    public void testProducerIsPausedIfBufferIsFull() throws Exception {
+        CopyInStream stream = new CopyInStream(20, autoReadCalls::add, () -> {});
+        stream.write(bytes("0123456789\n0123456789\n"));
+        assertThat(autoReadCalls, contains(false));
+
+        stream.pollLine();
+        assertThat(autoReadCalls, contains(false));
+        stream.pollLine();
+        assertThat(autoReadCalls, contains(false, true));
+    }
+
+    @Test
+    public void testFailureIsRaisedOnPoll() throws Exception {
+        CopyInStream stream = copyInStreams.create("s1", autoReadCalls::add);
+        stream.write(bytes("{\"x\": 1}\n"));
+        stream.fail(new IllegalStateException("client aborted"));
+
+        assertThat(stream.isExhausted(), is(true));
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("client aborted");
+        stream.pollLine();
+    }
+
+    @Test
+    public void testClosedStreamIsUnregistered() throws Exception {
+        CopyInStream stream = copyInStreams.create("s1", autoReadCalls::add);
+        URI uri = URI.create(CopyInStreams.uri("s1"));
+        assertThat(copyInStreams.get(uri), is(stream));
+
+        stream.close();
+        expectedException.expect(IllegalStateException.class);
+        copyInStreams.get(uri);
+    }
+
+    @Test
+    public void testBatchIteratorConsumesLinesAsTheyArrive() throws Exception {
+        CopyInStream stream = copyInStreams.create("s1", autoReadCalls::add);
+        Functions functions = new Functions(
+            ImmutableMap.<FunctionIdent, FunctionImplementation>of(),
+            ImmutableMap.<String, FunctionResolver>of()
+        );
+        InputFactory.Context<LineCollectorExpression<?>> ctx =
+            new InputFactory(functions).ctxForRefs(FileLineReferenceResolver::getImplementation);
+        Reference raw = createReference("_raw", DataTypes.STRING);
+        List<Input<?>> inputs = Collections.singletonList(ctx.add(raw));
+        BatchIterator iterator = CopyInBatchIterator.newInstance(stream, inputs, ctx.expressions(), Runnable::run);
+
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(iterator, null);
+        stream.write(bytes("{\"x\": 1}\n"));
+        stream.write(bytes("{\"x\": 2}\n"));
+        stream.finish();
+
+        assertThat(consumer.getResult(), contains(
+            new Object[]{new BytesRef("{\"x\": 1}")},
+            new Object[]{new BytesRef("{\"x\": 2}")}
+        ));
+    }
+}
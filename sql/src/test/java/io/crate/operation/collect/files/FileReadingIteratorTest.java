@@ -40,6 +40,7 @@ import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -47,6 +48,7 @@ import java.util.List;
 import java.util.function.Supplier;
 
 import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 
 public class FileReadingIteratorTest extends CrateUnitTest {
 
@@ -86,7 +88,38 @@ public class FileReadingIteratorTest extends CrateUnitTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
 
+    @Test
+    public void testSplitFilesAreReadExactlyOnceByAllReaders() throws Exception {
+        String fileUri = tempFilePath.toUri().toString();
+        int numReaders = 3;
+        List<Object> lines = new ArrayList<>();
+        for (int splitSize = 1; splitSize < 120; splitSize++) {
+            lines.clear();
+            for (int readerNumber = 0; readerNumber < numReaders; readerNumber++) {
+                BatchIterator it = createBatchIterator(
+                    Collections.singletonList(fileUri), null, true, numReaders, readerNumber, splitSize);
+                while (it.moveNext()) {
+                    lines.add(((BytesRef) it.rowData().get(0).value()).utf8ToString());
+                }
+                it.close();
+            }
+            assertThat(lines, containsInAnyOrder(
+                "{\"name\": \"Arthur\", \"id\": 4, \"details\": {\"age\": 38}}",
+                "{\"id\": 5, \"name\": \"Trillian\", \"details\": {\"age\": 33}}"
+            ));
+        }
+    }
+
     private BatchIterator createBatchIterator(Collection<String> fileUris, String compression) {
+        return createBatchIterator(fileUris, compression, false, 1, 0, 0L);
+    }
+
+    private BatchIterator createBatchIterator(Collection<String> fileUris,
+                                              String compression,
+                                              boolean shared,
+                                              int numReaders,
+                                              int readerNumber,
+                                              long splitSize) {
         Reference raw = createReference("_raw", DataTypes.STRING);
         InputFactory.Context<LineCollectorExpression<?>> ctx =
             inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
@@ -98,9 +131,10 @@ public class FileReadingIteratorTest extends CrateUnitTest {
             compression,
             ImmutableMap.of(
                 LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
-            false,
-            1,
-            0
+            shared,
+            numReaders,
+            readerNumber,
+            splitSize
         );
     }
 }
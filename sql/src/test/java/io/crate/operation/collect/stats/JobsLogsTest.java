@@ -112,9 +112,9 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
 
         assertThat(stats.isEnabled(), is(true));
         assertThat(stats.jobsLogSize, is(100));
-        assertThat(stats.jobsLogSink, Matchers.instanceOf(QueueSink.class));
+        assertThat(stats.jobsLogSink, Matchers.instanceOf(RingBufferLogSink.class));
         assertThat(stats.operationsLogSize, is(100));
-        assertThat(stats.operationsLogSink, Matchers.instanceOf(QueueSink.class));
+        assertThat(stats.operationsLogSink, Matchers.instanceOf(RingBufferLogSink.class));
     }
 
     @Test
@@ -126,14 +126,9 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
             .build();
         JobsLogService stats = new JobsLogService(settings, clusterSettings, scheduler, breakerService);
 
-        // sinks are still of type QueueSink
-        assertThat(stats.jobsLogSink, Matchers.instanceOf(QueueSink.class));
-        assertThat(stats.operationsLogSink, Matchers.instanceOf(QueueSink.class));
-
-        assertThat(inspectRamAccountingQueue((QueueSink) stats.jobsLogSink),
-            Matchers.instanceOf(BlockingEvictingQueue.class));
-        assertThat(inspectRamAccountingQueue((QueueSink) stats.operationsLogSink),
-            Matchers.instanceOf(BlockingEvictingQueue.class));
+        // size based logs are backed by a ring buffer
+        assertThat(stats.jobsLogSink, Matchers.instanceOf(RingBufferLogSink.class));
+        assertThat(stats.operationsLogSink, Matchers.instanceOf(RingBufferLogSink.class));
 
         clusterSettings.applySettings(Settings.builder()
             .put(JobsLogService.STATS_JOBS_LOG_EXPIRATION_SETTING.getKey(), "10s")
@@ -161,12 +156,8 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
             .put(JobsLogService.STATS_OPERATIONS_LOG_SIZE_SETTING.getKey(), 200)
             .put(JobsLogService.STATS_ENABLED_SETTING.getKey(), true)
             .build());
-        assertThat(stats.jobsLogSink, Matchers.instanceOf(QueueSink.class));
-        assertThat(inspectRamAccountingQueue((QueueSink) stats.jobsLogSink),
-            Matchers.instanceOf(BlockingEvictingQueue.class));
-        assertThat(stats.operationsLogSink, Matchers.instanceOf(QueueSink.class));
-        assertThat(inspectRamAccountingQueue((QueueSink) stats.operationsLogSink),
-            Matchers.instanceOf(BlockingEvictingQueue.class));
+        assertThat(stats.jobsLogSink, Matchers.instanceOf(RingBufferLogSink.class));
+        assertThat(stats.operationsLogSink, Matchers.instanceOf(RingBufferLogSink.class));
 
         // disable stats
         clusterSettings.applySettings(Settings.builder()
@@ -243,6 +234,19 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(jobsLogEntries.get(0).errorMessage(), is("stmt error"));
     }
 
+    @Test
+    public void testLatencyIsRecordedIfStatsAreDisabled() {
+        JobsLogs jobsLogs = new JobsLogs(() -> false);
+        UUID jobId = UUID.randomUUID();
+        jobsLogs.logExecutionStart(jobId, "  (SELECT 1)", null);
+        jobsLogs.logExecutionEnd(jobId, null);
+
+        StatementLatencies latencies = jobsLogs.statementLatencies();
+        assertThat(latencies.snapshot(StatementLatencies.StatementType.SELECT).count(), is(1L));
+        assertThat(latencies.snapshot(StatementLatencies.StatementType.OTHER).count(), is(0L));
+        assertThat(latencies.overallSnapshot().count(), is(1L));
+    }
+
     @Test
     public void testUniqueOperationIdsInOperationsTable() {
         JobsLogs jobsLogs = new JobsLogs(() -> true);
@@ -0,0 +1,117 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import io.crate.operation.collect.stats.StatementLatencies.StatementType;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class LatencyHistogramTest extends CrateUnitTest {
+
+    private final AtomicLong clock = new AtomicLong(0L);
+    private final LatencyHistogram histogram = new LatencyHistogram(60_000L, 6, clock::get);
+
+    private void recordMs(long ms) {
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(0L));
+        assertThat(snapshot.percentileMs(99.0), is(0.0));
+        assertThat(snapshot.maxMs(), is(0.0));
+    }
+
+    @Test
+    public void testPercentiles() {
+        for (int i = 1; i <= 1000; i++) {
+            recordMs(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(1000L));
+        assertThat(snapshot.maxMs(), is(1000.0));
+        assertThat(snapshot.percentileMs(50.0), closeTo(500.0, 500.0 / 16));
+        assertThat(snapshot.percentileMs(95.0), closeTo(950.0, 950.0 / 16));
+        assertThat(snapshot.percentileMs(99.0), closeTo(990.0, 990.0 / 16));
+        assertThat(snapshot.percentileMs(99.9), is(1000.0));
+        assertThat(snapshot.percentileMs(100.0), is(1000.0));
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value : new long[] { 0L, 1L, 15L, 16L, 17L, 31L, 32L, 1000L, 123_456_789L }) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index, lessThan(LatencyHistogram.NUM_BUCKETS));
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+            assertThat(upperBound >= value, is(true));
+            assertThat(LatencyHistogram.bucketIndex(upperBound), is(index));
+            assertThat(LatencyHistogram.bucketIndex(upperBound + 1), is(index + 1));
+        }
+        assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE >>> 22), is(LatencyHistogram.NUM_BUCKETS - 1));
+    }
+
+    @Test
+    public void testValuesExpireAfterWindow() {
+        recordMs(5);
+        clock.set(30_000L);
+        recordMs(100);
+        assertThat(histogram.snapshot().count(), is(2L));
+
+        clock.set(65_000L);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(1L));
+        assertThat(snapshot.maxMs(), is(100.0));
+
+        clock.set(95_000L);
+        assertThat(histogram.snapshot().count(), is(0L));
+    }
+
+    @Test
+    public void testReusedSliceIsReset() {
+        recordMs(5);
+        clock.set(60_000L);
+        recordMs(1);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(1L));
+        assertThat(snapshot.maxMs(), is(1.0));
+    }
+
+    @Test
+    public void testClassifyStatementType() {
+        assertThat(StatementType.classify("select 1"), is(StatementType.SELECT));
+        assertThat(StatementType.classify("\n  (SELECT 1) union all (select 2)"), is(StatementType.SELECT));
+        assertThat(StatementType.classify("Insert into t (x) values (1)"), is(StatementType.INSERT));
+        assertThat(StatementType.classify("update t set x = 1"), is(StatementType.UPDATE));
+        assertThat(StatementType.classify("delete from t"), is(StatementType.DELETE));
+        assertThat(StatementType.classify("create table t (x int)"), is(StatementType.OTHER));
+        assertThat(StatementType.classify(""), is(StatementType.OTHER));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.breaker.SizeEstimator;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.crate.operation.collect.stats.RamAccountingQueueSinkTest.breaker;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RingBufferLogSinkTest extends CrateUnitTest {
+
+    private static final SizeEstimator<Integer> INT_ESTIMATOR = new SizeEstimator<Integer>() {
+        @Override
+        public long estimateSize(@Nullable Integer value) {
+            return 16L;
+        }
+    };
+
+    @Test
+    public void testEmptySink() {
+        RingBufferLogSink<Integer> sink = new RingBufferLogSink<>(3, breaker(), INT_ESTIMATOR);
+        assertThat(ImmutableList.copyOf(sink), is(empty()));
+    }
+
+    @Test
+    public void testOldestEntriesAreEvicted() {
+        RingBufferLogSink<Integer> sink = new RingBufferLogSink<>(3, breaker(), INT_ESTIMATOR);
+        sink.addAll(ImmutableList.of(1, 2));
+        assertThat(ImmutableList.copyOf(sink), contains(1, 2));
+
+        sink.addAll(ImmutableList.of(3, 4, 5));
+        assertThat(ImmutableList.copyOf(sink), contains(3, 4, 5));
+        sink.close();
+    }
+
+    @Test
+    public void testOldestEntriesAreEvictedIfBreakerLimitIsExceeded() {
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.getLimit()).thenReturn(0L);
+        RingBufferLogSink<Integer> sink = new RingBufferLogSink<>(5, breaker, INT_ESTIMATOR);
+        sink.addAll(ImmutableList.of(1, 2, 3));
+
+        // the log isn't cleared, the newest entry is always kept
+        assertThat(ImmutableList.copyOf(sink), contains(3));
+        sink.close();
+    }
+
+    @Test
+    public void testEntriesAccountedByOtherSinksOnTheBreakerDontCauseEvictions() {
+        CircuitBreaker breaker = new MemoryCircuitBreaker(
+            new ByteSizeValue(64, ByteSizeUnit.BYTES), 1.0, Loggers.getLogger(RingBufferLogSinkTest.class));
+        RingBufferLogSink<Integer> other = new RingBufferLogSink<>(5, breaker, INT_ESTIMATOR);
+        other.addAll(ImmutableList.of(1, 2, 3));
+        RingBufferLogSink<Integer> sink = new RingBufferLogSink<>(5, breaker, INT_ESTIMATOR);
+        sink.addAll(ImmutableList.of(4, 5, 6));
+
+        assertThat(ImmutableList.copyOf(sink), contains(4, 5, 6));
+        assertThat(breaker.getUsed(), is(96L));
+
+        // evicted entries are released on the breaker right away
+        sink.addAll(ImmutableList.of(7, 8));
+        assertThat(ImmutableList.copyOf(sink), contains(5, 6, 7, 8));
+        assertThat(breaker.getUsed(), is(112L));
+
+        sink.close();
+        other.close();
+        assertThat(breaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        RingBufferLogSink<Integer> sink = new RingBufferLogSink<>(15_000, breaker(), INT_ESTIMATOR);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Thread t = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    sink.add(j);
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(ImmutableList.copyOf(sink).size(), is(15_000));
+        sink.close();
+    }
+}
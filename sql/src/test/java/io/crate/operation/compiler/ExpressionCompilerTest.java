@@ -0,0 +1,173 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.TestingTableInfo;
+import io.crate.operation.InputFactory;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.planner.projection.builder.InputColumns;
+import io.crate.sql.tree.QualifiedName;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.SqlExpressions;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class ExpressionCompilerTest extends CrateUnitTest {
+
+    private static final List<String> COLUMNS = Arrays.asList("i", "l", "d", "f", "b", "s");
+
+    private static final List<Object[]> ROWS = Arrays.asList(
+        new Object[] { 1, 10L, 1.5d, 0.1f, true, new BytesRef("a") },
+        new Object[] { 0, -3L, -0.0d, Float.NaN, false, null },
+        new Object[] { null, 5L, null, 2.5f, null, new BytesRef("b") },
+        new Object[] { 20, null, Double.NaN, null, true, new BytesRef("c") },
+        new Object[] { -7, Long.MAX_VALUE, 0.0d, -1.25f, false, new BytesRef("a") }
+    );
+
+    private SqlExpressions sqlExpressions;
+    private List<Symbol> columns;
+
+    @Before
+    public void prepareExpressions() throws Exception {
+        DocTableInfo tableInfo = TestingTableInfo.builder(new TableIdent(DocSchemaInfo.NAME, "t"), null)
+            .add("i", DataTypes.INTEGER)
+            .add("l", DataTypes.LONG)
+            .add("d", DataTypes.DOUBLE)
+            .add("f", DataTypes.FLOAT)
+            .add("b", DataTypes.BOOLEAN)
+            .add("s", DataTypes.STRING)
+            .build();
+        sqlExpressions = new SqlExpressions(ImmutableMap.of(new QualifiedName("t"), new DocTableRelation(tableInfo)));
+        columns = new ArrayList<>(COLUMNS.size());
+        for (String column : COLUMNS) {
+            columns.add(sqlExpressions.asSymbol(column));
+        }
+    }
+
+    private void assertCompiledEqualsInterpreted(String expression, boolean isCompiled) {
+        Symbol symbol = InputColumns.create(sqlExpressions.normalize(sqlExpressions.asSymbol(expression)), columns);
+
+        InputFactory.Context<CollectExpression<Row, ?>> interpretedCtx =
+            new InputFactory(sqlExpressions.functions()).ctxForInputColumns();
+        Input<?> interpreted = interpretedCtx.add(symbol);
+        InputFactory.Context<CollectExpression<Row, ?>> compiledCtx =
+            new InputFactory(sqlExpressions.functions(), true).ctxForInputColumns();
+        Input<?> compiled = compiledCtx.add(symbol);
+
+        if (isCompiled) {
+            assertThat(expression, compiled, instanceOf(CompiledInput.class));
+        } else {
+            assertThat(expression, compiled, not(instanceOf(CompiledInput.class)));
+        }
+        for (Object[] cells : ROWS) {
+            Row row = new RowN(cells);
+            interpretedCtx.expressions().forEach(e -> e.setNextRow(row));
+            compiledCtx.expressions().forEach(e -> e.setNextRow(row));
+
+            Object expected;
+            try {
+                expected = interpreted.value();
+            } catch (Exception e) {
+                expectThrows(e.getClass(), compiled::value);
+                continue;
+            }
+            assertThat(expression + " " + Arrays.toString(cells), compiled.value(), is(expected));
+        }
+    }
+
+    @Test
+    public void testArithmetic() throws Exception {
+        assertCompiledEqualsInterpreted("i + l * 2", true);
+        assertCompiledEqualsInterpreted("l / i", true);
+        assertCompiledEqualsInterpreted("l % 3 - i", true);
+        assertCompiledEqualsInterpreted("d * 2.5 - f", true);
+        assertCompiledEqualsInterpreted("f + 1", true);
+        assertCompiledEqualsInterpreted("f / 3 * i", true);
+    }
+
+    @Test
+    public void testComparisonsAndLogicalOperators() throws Exception {
+        assertCompiledEqualsInterpreted("i > 10 and d < 1.5", true);
+        assertCompiledEqualsInterpreted("b or i = 1", true);
+        assertCompiledEqualsInterpreted("not (l <= 5)", true);
+        assertCompiledEqualsInterpreted("d = 0.0", true);
+        assertCompiledEqualsInterpreted("f >= 0.1", true);
+        assertCompiledEqualsInterpreted("d is null", true);
+        assertCompiledEqualsInterpreted("s is null", true);
+    }
+
+    @Test
+    public void testConditionalFunctions() throws Exception {
+        assertCompiledEqualsInterpreted("case when i > 0 then i * 2 + l else coalesce(l, 0) end", true);
+        assertCompiledEqualsInterpreted("if(b, d, d * 2)", true);
+        assertCompiledEqualsInterpreted("coalesce(d, 1.0)", true);
+    }
+
+    @Test
+    public void testCasts() throws Exception {
+        assertCompiledEqualsInterpreted("cast(i as double) + d", true);
+        assertCompiledEqualsInterpreted("cast(d as long) + 1", true);
+        assertCompiledEqualsInterpreted("cast(l as integer) + 1", true);
+    }
+
+    @Test
+    public void testExpressionsWhichOnlyDifferInTheirLiteralsShareTheTemplate() throws Exception {
+        assertCompiledEqualsInterpreted("i + l * 2 > 10", true);
+        long numTemplates = ExpressionCompiler.numCachedTemplates();
+        assertCompiledEqualsInterpreted("i + l * 3 > 5", true);
+        assertCompiledEqualsInterpreted("i + l * -4 > 0", true);
+        assertThat(ExpressionCompiler.numCachedTemplates(), is(numTemplates));
+
+        assertCompiledEqualsInterpreted("s = 'a' or i > 0", true);
+        numTemplates = ExpressionCompiler.numCachedTemplates();
+        assertCompiledEqualsInterpreted("s = 'c' or i > 7", true);
+        assertThat(ExpressionCompiler.numCachedTemplates(), is(numTemplates));
+    }
+
+    @Test
+    public void testUnsupportedFunctionsAreEvaluatedAsLeaves() throws Exception {
+        assertCompiledEqualsInterpreted("abs(i) + l", true);
+        assertCompiledEqualsInterpreted("s = 'a' or i > 0", true);
+        assertCompiledEqualsInterpreted("s = 'a'", false);
+        assertCompiledEqualsInterpreted("abs(i)", false);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.fetch;
+
+import com.carrotsearch.hppc.IntArrayList;
+import io.crate.Streamer;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.Matchers.is;
+
+public class FetchedRowsTest extends CrateUnitTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] { DataTypes.INTEGER.streamer() };
+
+    @Test
+    public void testSortByDocIdKeepsRequestedPositions() {
+        long[] docs = FetchedRows.sortByDocId(IntArrayList.from(42, 3, 17));
+
+        assertThat(FetchedRows.docId(docs[0]), is(3));
+        assertThat(FetchedRows.position(docs[0]), is(1));
+        assertThat(FetchedRows.docId(docs[1]), is(17));
+        assertThat(FetchedRows.position(docs[1]), is(2));
+        assertThat(FetchedRows.docId(docs[2]), is(42));
+        assertThat(FetchedRows.position(docs[2]), is(0));
+    }
+
+    @Test
+    public void testRowsOfAllPartsAreReturnedInRequestedOrder() throws Exception {
+        long[] docs = FetchedRows.sortByDocId(IntArrayList.from(42, 3, 17, 8));
+        FetchedRows fetchedRows = new FetchedRows(STREAMERS, docs.length, 2);
+
+        assertThat(collectPart(docs, 0, 2, 0, fetchedRows), is(false));
+        assertThat(collectPart(docs, 2, 4, 1, fetchedRows), is(true));
+
+        StreamBucket bucket = fetchedRows.toBucket();
+        assertThat(printedTable(bucket), is("42\n3\n17\n8\n"));
+    }
+
+    @Test
+    public void testBucketOfSlicesCanBeStreamed() throws Exception {
+        long[] docs = FetchedRows.sortByDocId(IntArrayList.from(1, 2, 9, 5));
+        FetchedRows fetchedRows = new FetchedRows(STREAMERS, docs.length, 2);
+        collectPart(docs, 0, 2, 0, fetchedRows);
+        collectPart(docs, 2, 4, 1, fetchedRows);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        fetchedRows.toBucket().writeTo(out);
+        StreamBucket bucket = new StreamBucket(STREAMERS);
+        bucket.readFrom(out.bytes().streamInput());
+        assertThat(printedTable(bucket), is("1\n2\n9\n5\n"));
+    }
+
+    /**
+     * Writes the docIds as row values, like the FetchCollector would write the fetched values.
+     */
+    private static boolean collectPart(long[] docs, int from, int to, int part, FetchedRows fetchedRows)
+        throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        for (int i = from; i < to; i++) {
+            int offset = out.size();
+            STREAMERS[0].writeValueTo(out, FetchedRows.docId(docs[i]));
+            fetchedRows.setRow(FetchedRows.position(docs[i]), part, offset, out.size() - offset);
+        }
+        return fetchedRows.finishPart(part, out.bytes());
+    }
+}
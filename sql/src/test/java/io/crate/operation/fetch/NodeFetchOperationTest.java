@@ -51,4 +51,12 @@ public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
 
         assertThat(Iterables.size(jobsLogs.activeOperations()), is(0));
     }
+
+    @Test
+    public void testLargeFetchesAreSplitIntoParts() throws Exception {
+        assertThat(NodeFetchOperation.numParts(0), is(1));
+        assertThat(NodeFetchOperation.numParts(2000), is(1));
+        assertThat(NodeFetchOperation.numParts(5000), is(2));
+        assertThat(NodeFetchOperation.numParts(1_000_000), is(4));
+    }
 }
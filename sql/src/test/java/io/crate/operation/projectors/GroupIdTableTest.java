@@ -0,0 +1,149 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.data.Input;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class GroupIdTableTest extends CrateUnitTest {
+
+    private static class ValueInput implements Input<Object> {
+
+        private Object value;
+
+        @Override
+        public Object value() {
+            return value;
+        }
+    }
+
+    @Test
+    public void testLongKeysAreAssignedConsecutiveIds() throws Exception {
+        ValueInput input = new ValueInput();
+        GroupIdTable table = GroupIdTable.forLongKey(input, DataTypes.INTEGER);
+
+        int[] expectedIds = new int[] { 0, 1, 0, 2, 1, 2 };
+        Object[] values = new Object[] { 10, 20, 10, null, 20, null };
+        for (int i = 0; i < values.length; i++) {
+            input.value = values[i];
+            assertThat(table.add(), is(expectedIds[i]));
+        }
+        assertThat(table.size(), is(3));
+        assertThat(table.key(0), is(10));
+        assertThat(table.key(1), is(20));
+        assertThat(table.key(2), nullValue());
+    }
+
+    @Test
+    public void testDoubleKeysKeepTheirValue() throws Exception {
+        ValueInput input = new ValueInput();
+        GroupIdTable table = GroupIdTable.forLongKey(input, DataTypes.DOUBLE);
+
+        input.value = 1.5d;
+        assertThat(table.add(), is(0));
+        input.value = -0.0d;
+        assertThat(table.add(), is(1));
+        input.value = 0.0d;
+        assertThat(table.add(), is(2));
+
+        Object[] cells = new Object[1];
+        table.writeKey(0, cells);
+        assertThat(cells[0], is(1.5d));
+    }
+
+    @Test
+    public void testObjectKeys() throws Exception {
+        ValueInput input = new ValueInput();
+        GroupIdTable table = GroupIdTable.forObjectKey(input);
+
+        input.value = new BytesRef("foo");
+        assertThat(table.add(), is(0));
+        input.value = new BytesRef("bar");
+        assertThat(table.add(), is(1));
+        input.value = new BytesRef("foo");
+        assertThat(table.add(), is(0));
+        assertThat(table.size(), is(2));
+        assertThat(table.key(1), is(new BytesRef("bar")));
+    }
+
+    @Test
+    public void testNumericCompositeKeysArePacked() throws Exception {
+        ValueInput first = new ValueInput();
+        ValueInput second = new ValueInput();
+        GroupIdTable table = GroupIdTable.create(
+            Arrays.<Input<?>>asList(first, second), Arrays.asList(DataTypes.INTEGER, DataTypes.DOUBLE));
+
+        int numGroups = 1000;
+        for (int i = 0; i < numGroups; i++) {
+            first.value = i;
+            second.value = i % 2 == 0 ? null : i * 0.5;
+            assertThat(table.add(), is(i));
+        }
+        first.value = null;
+        second.value = null;
+        assertThat(table.add(), is(numGroups));
+        first.value = 0;
+        assertThat(table.add(), is(0));
+        first.value = 7;
+        second.value = 3.5;
+        assertThat(table.add(), is(7));
+        assertThat(table.size(), is(numGroups + 1));
+
+        Object[] cells = new Object[2];
+        table.writeKey(7, cells);
+        assertThat(cells, is(new Object[] { 7, 3.5 }));
+        assertThat((Iterable<?>) table.key(8), contains(8, null));
+        assertThat((Iterable<?>) table.key(numGroups), contains(null, null));
+    }
+
+    @Test
+    public void testManyKeysAreNotChangedByReusedProbe() throws Exception {
+        ValueInput first = new ValueInput();
+        ValueInput second = new ValueInput();
+        GroupIdTable table = GroupIdTable.forManyKeys(Arrays.<Input<?>>asList(first, second));
+
+        first.value = 1L;
+        second.value = new BytesRef("a");
+        assertThat(table.add(), is(0));
+        first.value = 1L;
+        second.value = null;
+        assertThat(table.add(), is(1));
+        first.value = 1L;
+        second.value = new BytesRef("a");
+        assertThat(table.add(), is(0));
+
+        Object[] cells = new Object[2];
+        table.writeKey(0, cells);
+        assertThat(cells, is(new Object[] { 1L, new BytesRef("a") }));
+        assertThat((Iterable<?>) table.key(1), contains(1L, null));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.CollectionBucket;
+import io.crate.data.Input;
+import io.crate.data.RowsBatchIterator;
+import io.crate.operation.AggregationContext;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+
+public class GroupingProjectorTest extends CrateUnitTest {
+
+    private long originalFlushBufferSize;
+
+    @Before
+    public void reduceFlushBufferSize() throws Exception {
+        originalFlushBufferSize = RamAccountingContext.FLUSH_BUFFER_SIZE;
+        RamAccountingContext.FLUSH_BUFFER_SIZE = 20;
+    }
+
+    @After
+    public void resetFlushBufferSize() throws Exception {
+        RamAccountingContext.FLUSH_BUFFER_SIZE = originalFlushBufferSize;
+    }
+
+    @Test
+    public void testGroupsAreWrittenToDiskIfBreakerIsAboutToTrip() throws Exception {
+        RamAccountingContext ramAccountingContext = new RamAccountingContext(
+            "test",
+            new MemoryCircuitBreaker(new ByteSizeValue(2000, ByteSizeUnit.BYTES), 1, Loggers.getLogger(getClass())));
+        Path spillDirectory = createTempDir().resolve("spill");
+
+        // select x, sum(y) ... group by x
+        InputCollectExpression key = new InputCollectExpression(0);
+        InputCollectExpression value = new InputCollectExpression(1);
+        AggregationContext sum = new AggregationContext((AggregationFunction) getFunctions().getBuiltin(
+            SumAggregation.NAME, Collections.singletonList(DataTypes.LONG)));
+        sum.addInput(value);
+        GroupingProjector projector = new GroupingProjector(
+            Collections.singletonList(DataTypes.INTEGER),
+            Collections.<Input<?>>singletonList(key),
+            new CollectExpression[] { key, value },
+            AggregateMode.ITER_FINAL,
+            new AggregationContext[] { sum },
+            ramAccountingContext,
+            spillDirectory
+        );
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            rows.add(new Object[] { (int) (i % 100), i });
+        }
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(projector.apply(RowsBatchIterator.newInstance(new CollectionBucket(rows), 2)), null);
+        List<Object[]> result = consumer.getResult();
+
+        assertThat(result.size(), is(100));
+        result.sort(Comparator.comparingInt(row -> (int) row[0]));
+        for (int i = 0; i < 100; i++) {
+            assertThat(result.get(i)[0], is(i));
+            assertThat(result.get(i)[1], is(10.0 * i + 4500.0));
+        }
+        assertThat(Files.exists(spillDirectory), is(true));
+        try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+            assertThat("spill files must be deleted on close", spillFiles.count(), is(0L));
+        }
+    }
+}
@@ -31,9 +31,12 @@ import io.crate.analyze.symbol.Literal;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchConsumer;
 import io.crate.data.BatchIterator;
+import io.crate.data.CollectionBucket;
 import io.crate.data.RowsBatchIterator;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.executor.transport.TransportActionProvider;
+import io.crate.jobs.PhaseProfile;
+import io.crate.jobs.ProfilingContext;
 import io.crate.metadata.Functions;
 import io.crate.metadata.ReplaceMode;
 import io.crate.metadata.RowGranularity;
@@ -62,6 +65,8 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -127,6 +132,34 @@ public class ProjectingBatchConsumerTest extends CrateUnitTest {
     }
 
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRowsInAndOutOfProjectorsAreCountedIfProfiled() throws Exception {
+        EqOperator op =
+            (EqOperator) functions.getBuiltin(EqOperator.NAME, ImmutableList.of(DataTypes.INTEGER, DataTypes.INTEGER));
+        Function function = new Function(op.info(), Arrays.asList(Literal.of(2), new InputColumn(1)));
+        FilterProjection filterProjection = new FilterProjection(function,
+            Arrays.asList(new InputColumn(0), new InputColumn(1)));
+
+        PhaseProfile phaseProfile = new ProfilingContext().phase(1, "test");
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        BatchConsumer projectingConsumer = ProjectingBatchConsumer.create(consumer,
+            Collections.singletonList(filterProjection),
+            UUID.randomUUID(),
+            RAM_ACCOUNTING_CONTEXT,
+            projectorFactory,
+            phaseProfile);
+
+        List<Object[]> rows = Arrays.asList(new Object[]{1, 2}, new Object[]{2, 3}, new Object[]{3, 2});
+        projectingConsumer.accept(RowsBatchIterator.newInstance(new CollectionBucket(rows), 2), null);
+        assertThat(consumer.getResult().size(), is(2));
+
+        Map<String, Object> projection = ((List<Map<String, Object>>) phaseProfile.toMap().get("projections")).get(0);
+        assertThat(projection.get("type"), is("FILTER"));
+        assertThat(projection.get("rowsIn"), is(3L));
+        assertThat(projection.get("rowsOut"), is(2L));
+    }
+
     @Test
     public void testConsumerRequiresScrollAndProjectorsDontSupportScrolling() throws Exception {
         EqOperator op =
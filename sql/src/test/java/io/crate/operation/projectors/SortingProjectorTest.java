@@ -24,6 +24,7 @@ package io.crate.operation.projectors;
 
 import com.google.common.collect.ImmutableList;
 import io.crate.analyze.symbol.Literal;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
@@ -33,8 +34,17 @@ import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchConsumer;
 import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
 
@@ -82,6 +92,44 @@ public class SortingProjectorTest extends CrateUnitTest {
         }
     }
 
+    @Test
+    public void testOrderByWritesSortedRunsToDiskIfBreakerIsAboutToTrip() throws Exception {
+        long originalFlushBufferSize = RamAccountingContext.FLUSH_BUFFER_SIZE;
+        RamAccountingContext.FLUSH_BUFFER_SIZE = 20;
+        try {
+            RamAccountingContext ramAccountingContext = new RamAccountingContext(
+                "test",
+                new MemoryCircuitBreaker(new ByteSizeValue(2000, ByteSizeUnit.BYTES), 1, Loggers.getLogger(getClass())));
+            Path spillDirectory = createTempDir().resolve("spill");
+            InputCollectExpression input = new InputCollectExpression(0);
+            SortingProjector projector = new SortingProjector(
+                ImmutableList.of(input, Literal.of(true)),
+                ImmutableList.<CollectExpression<Row, ?>>of(input),
+                2,
+                OrderingByPosition.arrayOrdering(0, true, null),
+                10,
+                ImmutableList.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+                ramAccountingContext,
+                spillDirectory
+            );
+
+            consumer.accept(projector.apply(TestingBatchIterators.range(0, 1000)), null);
+            Bucket rows = consumer.getBucket();
+
+            assertThat(rows.size(), is(990));
+            int expected = 989;
+            for (Row row : rows) {
+                assertThat(row, isRow(expected--, true));
+            }
+            assertThat(Files.exists(spillDirectory), is(true));
+            try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+                assertThat("spill files must be deleted on close", spillFiles.count(), is(0L));
+            }
+        } finally {
+            RamAccountingContext.FLUSH_BUFFER_SIZE = originalFlushBufferSize;
+        }
+    }
+
     @Test
     public void testInvalidOffset() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
@@ -0,0 +1,96 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SourceParserTest extends CrateUnitTest {
+
+    private static final BytesReference SOURCE = new BytesArray(
+        "{" +
+        "\"x\": 10, " +
+        "\"name\": \"Arthur\", " +
+        "\"o\": {\"a\": 1, \"b\": {\"c\": 2.5, \"d\": [1, 2]}, \"skipped\": {\"deep\": {\"deeper\": true}}}, " +
+        "\"objects\": [{\"y\": 1}, {\"y\": 2}], " +
+        "\"nothing\": null" +
+        "}");
+
+    private static Map<String, Object> parse(String... paths) {
+        SourceParser parser = new SourceParser();
+        for (String path : paths) {
+            parser.register(path);
+        }
+        return parser.parse(SOURCE);
+    }
+
+    private static void assertSameValues(Map<String, Object> partialSource, String... paths) {
+        Map<String, Object> fullSource = XContentHelper.convertToMap(SOURCE, false).v2();
+        for (String path : paths) {
+            assertThat(XContentMapValues.extractValue(path, partialSource),
+                is(XContentMapValues.extractValue(path, fullSource)));
+        }
+    }
+
+    @Test
+    public void testOnlyRegisteredColumnsAreParsed() throws Exception {
+        Map<String, Object> source = parse("x", "o.b.c");
+        assertThat(source.size(), is(2));
+        assertThat(((Map) source.get("o")).size(), is(1));
+        assertSameValues(source, "x", "o.b.c");
+        assertThat(XContentMapValues.extractValue("name", source), nullValue());
+        assertThat(XContentMapValues.extractValue("o.a", source), nullValue());
+    }
+
+    @Test
+    public void testParentAndChildColumn() throws Exception {
+        assertSameValues(parse("o.b.c", "o"), "o", "o.b.c", "o.skipped.deep.deeper");
+        assertSameValues(parse("o", "o.b.c"), "o", "o.b.c", "o.skipped.deep.deeper");
+    }
+
+    @Test
+    public void testChildOfArrayOfObjects() throws Exception {
+        assertSameValues(parse("objects.y"), "objects.y");
+    }
+
+    @Test
+    public void testArrayAndNullValues() throws Exception {
+        assertSameValues(parse("o.b.d", "nothing", "name"), "o.b.d", "nothing", "name");
+    }
+
+    @Test
+    public void testMissingColumn() throws Exception {
+        Map<String, Object> source = parse("missing", "o.missing");
+        assertThat(XContentMapValues.extractValue("missing", source), nullValue());
+        assertThat(XContentMapValues.extractValue("o.missing", source), nullValue());
+    }
+}
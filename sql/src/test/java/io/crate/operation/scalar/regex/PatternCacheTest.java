@@ -0,0 +1,67 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.scalar.regex;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PatternCacheTest extends CrateUnitTest {
+
+    @Test
+    public void testCompiledPatternIsReused() throws Exception {
+        Pattern pattern = PatternCache.compile("^foo.*$", Pattern.DOTALL);
+        assertThat(PatternCache.compile("^foo.*$", Pattern.DOTALL), sameInstance(pattern));
+        assertThat(PatternCache.compile("^foo.*$", 0), not(sameInstance(pattern)));
+        assertThat(PatternCache.compile("^foo.*$", 0).flags(), is(0));
+    }
+
+    @Test
+    public void testRunAutomatonIsReused() throws Exception {
+        BytesRef term = new BytesRef("foobar");
+        assertThat(PatternCache.runAutomaton("foo.*").run(term.bytes, term.offset, term.length), is(true));
+        assertThat(PatternCache.runAutomaton("foo.*"), sameInstance(PatternCache.runAutomaton("foo.*")));
+    }
+
+    @Test
+    public void testRunAutomatonSizeGrowsWithItsStates() throws Exception {
+        int small = PatternCache.ramBytesUsed(PatternCache.runAutomaton("a"));
+        int large = PatternCache.ramBytesUsed(PatternCache.runAutomaton("[a-z]{1,20}[0-9]{1,20}"));
+        assertThat(small, greaterThan(0));
+        assertThat(large, greaterThan(small));
+    }
+
+    @Test
+    public void testInvalidPatternIsNotCached() throws Exception {
+        expectThrows(PatternSyntaxException.class, () -> PatternCache.compile("[", 0));
+        expectThrows(PatternSyntaxException.class, () -> PatternCache.compile("[", 0));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectionBucket;
+import io.crate.data.FilteringBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowBridging;
+import io.crate.data.RowsBatchIterator;
+import io.crate.exceptions.ConversionException;
+import io.crate.operation.InputFactory;
+import io.crate.operation.RowFilter;
+import io.crate.planner.projection.builder.InputColumns;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.SqlExpressions;
+import io.crate.testing.T3;
+import io.crate.testing.TestingBatchConsumer;
+import io.crate.testing.TestingHelpers;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class VectorExpressionCompilerTest extends CrateUnitTest {
+
+    private final SqlExpressions expressions = new SqlExpressions(ImmutableMap.of(T3.T1, T3.TR_1), T3.TR_1);
+    private final InputFactory inputFactory = new InputFactory(expressions.functions());
+    private final List<Symbol> inputs = Arrays.asList(
+        expressions.asSymbol("a"), expressions.asSymbol("x"), expressions.asSymbol("i"));
+
+    private Symbol condition(String expression) {
+        return InputColumns.create(expressions.asSymbol(expression), inputs);
+    }
+
+    private static List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (BytesRef a : Arrays.asList(new BytesRef("foo"), new BytesRef("bar"), null)) {
+            for (Integer x : Arrays.asList(null, -3, 0, 1, 7, Integer.MAX_VALUE)) {
+                for (Integer i : Arrays.asList(null, -1, 0, 2, 10)) {
+                    rows.add(new Object[]{a, x, i});
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static List<Object[]> consume(BatchIterator batchIterator) throws Exception {
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(batchIterator, null);
+        return consumer.getResult();
+    }
+
+    private void assertVectorizedFilterMatchesRowFilter(String expression) throws Exception {
+        Symbol condition = condition(expression);
+        VectorExpression<ColumnVector.Booleans> vectorized =
+            new VectorExpressionCompiler(inputFactory, 7).compileCondition(condition);
+        assertThat(vectorized, notNullValue());
+
+        Predicate<Row> rowFilter = RowFilter.create(inputFactory, condition);
+        List<Object[]> expected = consume(new FilteringBatchIterator(
+            RowsBatchIterator.newInstance(new CollectionBucket(rows()), 3),
+            columns -> {
+                Row row = RowBridging.toRow(columns);
+                return () -> rowFilter.test(row);
+            }));
+        List<Object[]> result = consume(new VectorizedFilteringBatchIterator(
+            RowsBatchIterator.newInstance(new CollectionBucket(rows()), 3), vectorized, 7));
+
+        assertThat(TestingHelpers.printRows(result), is(TestingHelpers.printRows(expected)));
+    }
+
+    @Test
+    public void testLongArithmeticAndComparison() throws Exception {
+        assertVectorizedFilterMatchesRowFilter("x * i > 10");
+        assertVectorizedFilterMatchesRowFilter("x + i >= 7");
+        assertVectorizedFilterMatchesRowFilter("x - i < 0");
+        assertVectorizedFilterMatchesRowFilter("x % 3 = 1");
+        assertVectorizedFilterMatchesRowFilter("x / 2 <= i");
+        assertVectorizedFilterMatchesRowFilter("x * 1000000000 > i");
+    }
+
+    @Test
+    public void testDoubleArithmeticAndComparison() throws Exception {
+        assertVectorizedFilterMatchesRowFilter("x / 2.0 <= i");
+        assertVectorizedFilterMatchesRowFilter("x * 1.5 = i * 1.5");
+        assertVectorizedFilterMatchesRowFilter("x % 0.0 = x % 0.0");
+    }
+
+    @Test
+    public void testBooleanLogicWithNulls() throws Exception {
+        assertVectorizedFilterMatchesRowFilter("x > 0 and i > 0");
+        assertVectorizedFilterMatchesRowFilter("x > 0 or i > 0");
+        assertVectorizedFilterMatchesRowFilter("not (x - 1 < i) or i = 0");
+        assertVectorizedFilterMatchesRowFilter("not (x > 0 and i > 0)");
+    }
+
+    @Test
+    public void testCasts() throws Exception {
+        assertVectorizedFilterMatchesRowFilter("cast(x / 3.0 as long) = 0");
+        assertVectorizedFilterMatchesRowFilter("cast(x as double) / 2 > 1");
+        assertVectorizedFilterMatchesRowFilter("try_cast(x * 2 as integer) > 0");
+    }
+
+    @Test
+    public void testUnsupportedFunctionsAreEvaluatedRowWise() throws Exception {
+        assertVectorizedFilterMatchesRowFilter("x + i > 1 and a = 'foo'");
+        assertVectorizedFilterMatchesRowFilter("char_length(a) > x");
+    }
+
+    @Test
+    public void testCastOutOfRangeFailsLikeRowEvaluation() throws Exception {
+        VectorExpression<ColumnVector.Booleans> vectorized =
+            new VectorExpressionCompiler(inputFactory, 7).compileCondition(condition("cast(x * 2 as integer) > 0"));
+
+        expectedException.expect(ConversionException.class);
+        expectedException.expectMessage("Cannot cast 4294967294 to type integer");
+        consume(new VectorizedFilteringBatchIterator(
+            RowsBatchIterator.newInstance(new CollectionBucket(rows()), 3), vectorized, 7));
+    }
+
+    @Test
+    public void testConditionWithoutVectorizableFunctionIsNotCompiled() throws Exception {
+        VectorExpressionCompiler compiler = new VectorExpressionCompiler(inputFactory, 7);
+        assertThat(compiler.compileCondition(condition("a = 'foo'")), nullValue());
+        assertThat(compiler.compileCondition(condition("a = 'foo' or a like 'b%'")), nullValue());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.vector;
+
+import io.crate.data.BatchIterator;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class VectorizedFilteringBatchIteratorTest {
+
+    private static VectorExpression<ColumnVector.Booleans> evenRows(int capacity) {
+        ColumnVector.Booleans result = new ColumnVector.Booleans(capacity);
+        return batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                result.values[i] = ((Integer) batch.get(i, 0)) % 2 == 0;
+            }
+            return result;
+        };
+    }
+
+    private static List<Object[]> expectedResult() {
+        return IntStream.iterate(0, l -> l + 2).limit(10).mapToObj(
+            l -> new Object[]{l}).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testVectorizedFilteringBatchIterator() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> new VectorizedFilteringBatchIterator(TestingBatchIterators.range(0, 20), evenRows(3), 3));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult());
+    }
+
+    @Test
+    public void testVectorizedFilteringBatchIteratorWithBatchedSource() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> {
+                BatchIterator source = new BatchSimulatingIterator(TestingBatchIterators.range(0, 20), 4, 5, null);
+                return new VectorizedFilteringBatchIterator(source, evenRows(3), 3);
+            });
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import com.carrotsearch.hppc.ObjectLongHashMap;
+import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.TableIdent;
+import io.crate.statistics.ColumnStats;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.SqlExpressions;
+import io.crate.testing.T3;
+import io.crate.types.DataTypes;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class CardinalityEstimatorTest extends CrateUnitTest {
+
+    private final SqlExpressions expressions = new SqlExpressions(T3.SOURCES);
+    private CardinalityEstimator estimator;
+
+    @Before
+    public void prepare() throws Exception {
+        List<Object> samples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            samples.add(i % 10);
+        }
+        ObjectLongHashMap<TableIdent> numDocs = new ObjectLongHashMap<>();
+        numDocs.put(T3.T1_INFO.ident(), 100L);
+        numDocs.put(T3.T2_INFO.ident(), 1000L);
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(numDocs);
+        tableStats.updateColumnStats(ImmutableMap.of(
+            T3.T1_INFO.ident(),
+            ImmutableMap.of(new ColumnIdent("x"), ColumnStats.fromSample(DataTypes.INTEGER, samples, 100L, 10))
+        ));
+        estimator = new CardinalityEstimator(tableStats);
+    }
+
+    private double selectivity(String expression) {
+        Symbol symbol = expressions.normalize(expressions.asSymbol(expression));
+        return estimator.selectivity(symbol);
+    }
+
+    @Test
+    public void testEqualsSelectivityUsesNumberOfDistinctValues() throws Exception {
+        assertThat(selectivity("t1.x = 4"), is(0.1));
+        assertThat(selectivity("t1.i = 4"), is(CardinalityEstimator.DEFAULT_EQ_SELECTIVITY));
+    }
+
+    @Test
+    public void testRangeSelectivityUsesHistogram() throws Exception {
+        assertThat(selectivity("t1.x < 5"), closeTo(0.5, 0.1));
+        assertThat(selectivity("t1.x >= 5"), closeTo(0.5, 0.1));
+        assertThat(selectivity("t1.x > 100"), is(0.0));
+        assertThat(selectivity("t1.i > 100"), is(CardinalityEstimator.DEFAULT_RANGE_SELECTIVITY));
+    }
+
+    @Test
+    public void testSelectivityOfLogicalOperators() throws Exception {
+        assertThat(selectivity("t1.x = 4 and t1.x = 5"), closeTo(0.01, 0.0001));
+        assertThat(selectivity("t1.x = 4 or t1.x = 5"), closeTo(0.19, 0.0001));
+        assertThat(selectivity("not t1.x = 4"), closeTo(0.9, 0.0001));
+        assertThat(selectivity("t1.x is null"), is(0.0));
+    }
+
+    @Test
+    public void testJoinConditionSelectivityFallsBackToNumberOfDocs() throws Exception {
+        // t1.x has 10 distinct values, t2.y has no statistics but t2 contains 1000 docs
+        assertThat(selectivity("t1.x = t2.y"), is(1.0 / 1000));
+    }
+}
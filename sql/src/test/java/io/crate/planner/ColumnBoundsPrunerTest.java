@@ -0,0 +1,149 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Routing;
+import io.crate.statistics.ColumnBounds;
+import io.crate.statistics.ColumnBoundsMetaData;
+import io.crate.statistics.IndexColumnBounds;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.SqlExpressions;
+import io.crate.testing.T3;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlocks;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ColumnBoundsPrunerTest extends CrateUnitTest {
+
+    private final SqlExpressions expressions = new SqlExpressions(T3.SOURCES, T3.TR_1);
+
+    private static final ColumnBoundsMetaData BOUNDS = new ColumnBoundsMetaData(ImmutableMap.of(
+        "t1", new IndexColumnBounds("uuid1", 1L, ImmutableMap.of(
+            0, ImmutableMap.of(new ColumnIdent("x"), new ColumnBounds(DataTypes.INTEGER, 1, 100)),
+            1, ImmutableMap.of(new ColumnIdent("x"), new ColumnBounds(DataTypes.INTEGER, 101, 200)),
+            2, ImmutableMap.of(new ColumnIdent("x"), new ColumnBounds(DataTypes.INTEGER, 201, 300))
+        ))
+    ));
+
+    private static ClusterState clusterState(boolean writeBlocked, long indexVersion) {
+        IndexMetaData indexMetaData = IndexMetaData.builder("t1")
+            .settings(Settings.builder()
+                .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetaData.SETTING_INDEX_UUID, "uuid1")
+                .put(IndexMetaData.SETTING_BLOCKS_WRITE, writeBlocked))
+            .numberOfShards(3)
+            .numberOfReplicas(0)
+            .version(indexVersion)
+            .build();
+        return ClusterState.builder(ClusterName.DEFAULT)
+            .metaData(MetaData.builder()
+                .put(indexMetaData, false)
+                .putCustom(ColumnBoundsMetaData.TYPE, BOUNDS))
+            .blocks(ClusterBlocks.builder().addBlocks(indexMetaData))
+            .build();
+    }
+
+    private static Routing routing() {
+        Map<String, Map<String, List<Integer>>> locations = new TreeMap<>();
+        Map<String, List<Integer>> n1 = new TreeMap<>();
+        n1.put("t1", Arrays.asList(0, 1));
+        locations.put("n1", n1);
+        Map<String, List<Integer>> n2 = new TreeMap<>();
+        n2.put("t1", Collections.singletonList(2));
+        locations.put("n2", n2);
+        return new Routing(locations);
+    }
+
+    private Routing prune(String expression, ClusterState state) {
+        Symbol query = expressions.normalize(expressions.asSymbol(expression));
+        return ColumnBoundsPruner.prune(routing(), new WhereClause(query), state);
+    }
+
+    @Test
+    public void testShardsOutsideOfTheRangeArePruned() throws Exception {
+        Routing routing = prune("t1.x > 150", clusterState(true, 1L));
+        assertThat(routing.locations().get("n1").get("t1"), is(Collections.singletonList(1)));
+        assertThat(routing.locations().get("n2").get("t1"), is(Collections.singletonList(2)));
+
+        routing = prune("t1.x >= 50 and t1.x <= 100", clusterState(true, 1L));
+        assertThat(routing.locations().get("n1").get("t1"), is(Collections.singletonList(0)));
+        assertThat(routing.nodes().contains("n2"), is(false));
+    }
+
+    @Test
+    public void testDisjunctionsAndInLists() throws Exception {
+        Routing routing = prune("t1.x = 5 or t1.x in (250, 301)", clusterState(true, 1L));
+        assertThat(routing.locations().get("n1").get("t1"), is(Collections.singletonList(0)));
+        assertThat(routing.locations().get("n2").get("t1"), is(Collections.singletonList(2)));
+    }
+
+    @Test
+    public void testAllShardsCanBePruned() throws Exception {
+        Routing routing = prune("t1.x > 300", clusterState(true, 1L));
+        assertThat(routing.hasLocations(), is(false));
+    }
+
+    @Test
+    public void testUnsupportedExpressionsAreAssumedToMatch() throws Exception {
+        ClusterState state = clusterState(true, 1L);
+        assertThat(prune("not t1.x > 150", state).locations(), is(routing().locations()));
+        assertThat(prune("t1.x + 1 > 500", state).locations(), is(routing().locations()));
+        assertThat(prune("t1.i > 500", state).locations(), is(routing().locations()));
+    }
+
+    @Test
+    public void testBoundsOfIndicesWhichAreNotWriteBlockedAreIgnored() throws Exception {
+        assertThat(prune("t1.x > 300", clusterState(false, 1L)).locations(), is(routing().locations()));
+    }
+
+    @Test
+    public void testBoundsOfChangedIndicesAreIgnored() throws Exception {
+        assertThat(prune("t1.x > 300", clusterState(true, 2L)).locations(), is(routing().locations()));
+    }
+
+    @Test
+    public void testRoutingWithoutQueryIsReturnedAsIs() throws Exception {
+        Routing routing = routing();
+        Routing pruned = ColumnBoundsPruner.prune(routing, WhereClause.MATCH_ALL, clusterState(true, 1L));
+        assertThat(pruned, sameInstance(routing));
+    }
+}
@@ -31,6 +31,8 @@ import io.crate.metadata.table.TableInfo;
 import io.crate.metadata.table.TestingTableInfo;
 import io.crate.operation.operator.EqOperator;
 import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -51,7 +53,7 @@ public class RoutingBuilderTest {
         TableInfo tableInfo2 =
             TestingTableInfo.builder(custom, shardRoutingForReplicas("t1")).add("id", DataTypes.INTEGER, null).build();
 
-        RoutingBuilder routingBuilder = new RoutingBuilder();
+        RoutingBuilder routingBuilder = new RoutingBuilder(ClusterState.builder(ClusterName.DEFAULT).build());
         WhereClause whereClause = new WhereClause(
             new Function(new FunctionInfo(
                 new FunctionIdent(EqOperator.NAME,
@@ -78,7 +80,7 @@ public class RoutingBuilderTest {
         TableIdent custom = new TableIdent("custom", "t1");
         TableInfo tableInfo = TestingTableInfo.builder(
             custom, shardRouting("t1")).add("id", DataTypes.INTEGER, null).build();
-        RoutingBuilder routingBuilder = new RoutingBuilder();
+        RoutingBuilder routingBuilder = new RoutingBuilder(ClusterState.builder(ClusterName.DEFAULT).build());
         routingBuilder.allocateRouting(tableInfo, WhereClause.MATCH_ALL, null, null);
 
         ReaderAllocations readerAllocations = routingBuilder.buildReaderAllocations();
@@ -0,0 +1,248 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.planner.CardinalityEstimator;
+import io.crate.planner.TableStats;
+import io.crate.sql.tree.QualifiedName;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class JoinOrderOptimizerTest extends CrateUnitTest {
+
+    /**
+     * Estimator which returns the configured number of rows and selectivities.
+     */
+    private static class FixedEstimator extends CardinalityEstimator {
+
+        private final Map<AnalyzedRelation, Double> rows = new HashMap<>();
+        private final Map<Symbol, Double> selectivities = new HashMap<>();
+
+        FixedEstimator() {
+            super(new TableStats());
+        }
+
+        @Override
+        public double estimatedRows(AnalyzedRelation relation) {
+            return rows.get(relation);
+        }
+
+        @Override
+        public double selectivity(Symbol predicate) {
+            return selectivities.get(predicate);
+        }
+    }
+
+    private final FixedEstimator estimator = new FixedEstimator();
+    private final Map<QualifiedName, AnalyzedRelation> sources = new LinkedHashMap<>();
+    private final Map<QualifiedName, Double> rows = new HashMap<>();
+    private final Map<Set<QualifiedName>, Symbol> joinConditions = new LinkedHashMap<>();
+
+    private QualifiedName relation(String name, double numRows) {
+        QualifiedName qualifiedName = new QualifiedName(name);
+        AnalyzedRelation relation = mock(AnalyzedRelation.class);
+        sources.put(qualifiedName, relation);
+        rows.put(qualifiedName, numRows);
+        estimator.rows.put(relation, numRows);
+        return qualifiedName;
+    }
+
+    private void joinCondition(QualifiedName left, QualifiedName right, double selectivity) {
+        Symbol condition = Literal.of(left + " = " + right);
+        joinConditions.put(ImmutableSet.of(left, right), condition);
+        estimator.selectivities.put(condition, selectivity);
+    }
+
+    private void padding(int numRelations) {
+        for (int i = 0; i < numRelations; i++) {
+            relation("pad" + i, 1000);
+        }
+    }
+
+    private List<QualifiedName> optimize(Collection<QualifiedName> preSorted) {
+        return JoinOrderOptimizer.optimize(sources, joinConditions, preSorted, estimator);
+    }
+
+    /**
+     * The sum of the intermediate result sizes of a left-deep join in the given order.
+     */
+    private double cost(List<QualifiedName> order) {
+        Set<QualifiedName> joined = new HashSet<>();
+        double resultRows = 1.0;
+        double cost = 0.0;
+        for (QualifiedName name : order) {
+            resultRows *= rows.get(name);
+            for (Map.Entry<Set<QualifiedName>, Symbol> entry : joinConditions.entrySet()) {
+                Set<QualifiedName> others = new HashSet<>(entry.getKey());
+                if (others.remove(name) && joined.containsAll(others)) {
+                    resultRows *= estimator.selectivities.get(entry.getValue());
+                }
+            }
+            if (!joined.isEmpty()) {
+                cost += resultRows;
+            }
+            joined.add(name);
+        }
+        return cost;
+    }
+
+    private static void permutations(List<QualifiedName> prefix,
+                                     List<QualifiedName> remaining,
+                                     List<List<QualifiedName>> result) {
+        if (remaining.isEmpty()) {
+            result.add(new ArrayList<>(prefix));
+            return;
+        }
+        for (int i = 0; i < remaining.size(); i++) {
+            List<QualifiedName> rest = new ArrayList<>(remaining);
+            prefix.add(rest.remove(i));
+            permutations(prefix, rest, result);
+            prefix.remove(prefix.size() - 1);
+        }
+    }
+
+    /**
+     * a is the smallest relation but isn't joined to any other relation, b and c are joined by a selective
+     * condition: the greedy order starts with a and b, the cheapest order starts with b and c.
+     */
+    private QualifiedName[] greedyTrap() {
+        QualifiedName a = relation("a", 10);
+        QualifiedName b = relation("b", 100);
+        QualifiedName c = relation("c", 200);
+        joinCondition(b, c, 0.0001);
+        return new QualifiedName[] { a, b, c };
+    }
+
+    @Test
+    public void testExhaustiveOrderIsTheCheapestOfAllOrders() throws Exception {
+        QualifiedName t1 = relation("t1", 1000);
+        QualifiedName t2 = relation("t2", 50);
+        QualifiedName t3 = relation("t3", 20000);
+        QualifiedName t4 = relation("t4", 300);
+        QualifiedName t5 = relation("t5", 7);
+        QualifiedName t6 = relation("t6", 4000);
+        joinCondition(t1, t2, 0.02);
+        joinCondition(t2, t3, 0.0001);
+        joinCondition(t3, t4, 0.003);
+        joinCondition(t1, t5, 0.1);
+        joinCondition(t4, t6, 0.00025);
+
+        List<QualifiedName> order = optimize(Collections.emptyList());
+        assertThat(order, containsInAnyOrder(t1, t2, t3, t4, t5, t6));
+
+        List<List<QualifiedName>> allOrders = new ArrayList<>();
+        permutations(new ArrayList<>(), new ArrayList<>(sources.keySet()), allOrders);
+        double minCost = Double.MAX_VALUE;
+        for (List<QualifiedName> candidate : allOrders) {
+            minCost = Math.min(minCost, cost(candidate));
+        }
+        assertThat(cost(order), closeTo(minCost, minCost * 1e-9));
+    }
+
+    @Test
+    public void testExhaustiveOrderAvoidsTheGreedyChoice() throws Exception {
+        QualifiedName[] abc = greedyTrap();
+        padding(JoinOrderOptimizer.MAX_RELATIONS_EXHAUSTIVE - abc.length);
+
+        List<QualifiedName> order = optimize(Collections.emptyList());
+        assertThat(order.size(), is(JoinOrderOptimizer.MAX_RELATIONS_EXHAUSTIVE));
+        assertThat(order.subList(0, 2), containsInAnyOrder(abc[1], abc[2]));
+        assertThat(order.get(2), is(abc[0]));
+    }
+
+    @Test
+    public void testGreedyOrderIsUsedBeyondTheExhaustiveLimit() throws Exception {
+        QualifiedName[] abc = greedyTrap();
+        padding(JoinOrderOptimizer.MAX_RELATIONS_EXHAUSTIVE + 1 - abc.length);
+
+        List<QualifiedName> order = optimize(Collections.emptyList());
+        assertThat(order, containsInAnyOrder(sources.keySet().toArray()));
+        assertThat(order.subList(0, 3), contains(abc[0], abc[1], abc[2]));
+    }
+
+    @Test
+    public void testDisconnectedJoinGraphJoinsEachComponentBeforeTheCrossJoin() throws Exception {
+        QualifiedName a = relation("a", 1000);
+        QualifiedName b = relation("b", 1000);
+        QualifiedName c = relation("c", 100);
+        QualifiedName d = relation("d", 100);
+        joinCondition(a, b, 0.001);
+        joinCondition(c, d, 0.01);
+
+        List<QualifiedName> order = optimize(Collections.emptyList());
+        assertThat(order.subList(0, 2), containsInAnyOrder(c, d));
+        assertThat(order.subList(2, 4), containsInAnyOrder(a, b));
+    }
+
+    @Test
+    public void testDisconnectedJoinGraphBeyondTheExhaustiveLimitContainsAllRelations() throws Exception {
+        QualifiedName a = relation("a", 1000);
+        QualifiedName b = relation("b", 1000);
+        joinCondition(a, b, 0.001);
+        padding(JoinOrderOptimizer.MAX_RELATIONS_EXHAUSTIVE);
+
+        List<QualifiedName> order = optimize(Collections.emptyList());
+        assertThat(order, containsInAnyOrder(sources.keySet().toArray()));
+        int aPos = order.indexOf(a);
+        int bPos = order.indexOf(b);
+        assertThat(Math.abs(aPos - bPos), is(1));
+    }
+
+    @Test
+    public void testPreSortedRelationStaysFirst() throws Exception {
+        QualifiedName[] abc = greedyTrap();
+
+        assertThat(optimize(Collections.singletonList(abc[2])), contains(abc[2], abc[1], abc[0]));
+        assertThat(optimize(Collections.singletonList(abc[0])).get(0), is(abc[0]));
+    }
+
+    @Test
+    public void testPreSortedRelationStaysFirstBeyondTheExhaustiveLimit() throws Exception {
+        QualifiedName[] abc = greedyTrap();
+        padding(JoinOrderOptimizer.MAX_RELATIONS_EXHAUSTIVE + 1 - abc.length);
+
+        List<QualifiedName> order = optimize(Collections.singletonList(abc[2]));
+        assertThat(order, containsInAnyOrder(sources.keySet().toArray()));
+        assertThat(order.subList(0, 3), contains(abc[2], abc[1], abc[0]));
+    }
+}
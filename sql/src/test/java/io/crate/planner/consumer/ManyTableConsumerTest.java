@@ -22,6 +22,7 @@
 
 package io.crate.planner.consumer;
 
+import com.carrotsearch.hppc.ObjectLongHashMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.crate.action.sql.SessionContext;
@@ -32,6 +33,9 @@ import io.crate.analyze.SelectAnalyzedStatement;
 import io.crate.analyze.TwoTableJoin;
 import io.crate.analyze.relations.JoinPair;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.TableIdent;
+import io.crate.planner.CardinalityEstimator;
+import io.crate.planner.TableStats;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.sql.parser.SqlParser;
 import io.crate.sql.tree.QualifiedName;
@@ -275,4 +279,19 @@ public class ManyTableConsumerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(joinConditions.get(ImmutableSet.of(T3.T1, T3.T2, T3.T3, T3.T4)),
                    isSQL("((doc.t2.b = doc.t3.c) OR (doc.t4.id = doc.t1.x))"));
     }
+
+    @Test
+    public void testJoinOrderIsChosenByEstimatedCost() throws Exception {
+        ObjectLongHashMap<TableIdent> numDocs = new ObjectLongHashMap<>();
+        numDocs.put(T3.T1_INFO.ident(), 1_000_000L);
+        numDocs.put(T3.T2_INFO.ident(), 1_000_000L);
+        numDocs.put(T3.T3_INFO.ident(), 10L);
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(numDocs);
+
+        // joining t1 and t2 first would create an intermediate result of about a million rows
+        MultiSourceSelect mss = analyze("select * from t1, t2, t3 where t1.a = t2.b and t2.b = t3.c");
+        TwoTableJoin root = ManyTableConsumer.buildTwoTableJoinTree(mss, new CardinalityEstimator(tableStats));
+        assertThat(root.toString(), is("join.join.doc.t2.doc.t3.doc.t1"));
+    }
 }
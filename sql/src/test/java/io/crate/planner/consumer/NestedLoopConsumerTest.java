@@ -44,6 +44,7 @@ import io.crate.planner.Plan;
 import io.crate.planner.Planner;
 import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.TableStats;
+import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CollectPhase;
@@ -77,6 +78,7 @@ import static io.crate.testing.TestingHelpers.isSQL;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.mock;
@@ -88,6 +90,18 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
         .add("nope", DataTypes.BOOLEAN)
         .build();
 
+    private final DocTableInfo largeTable1 = TestingTableInfo.builder(new TableIdent(DocSchemaInfo.NAME, "large1"),
+        TableDefinitions.shardRouting("large1"))
+        .add("id", DataTypes.LONG)
+        .add("name", DataTypes.STRING)
+        .build();
+
+    private final DocTableInfo largeTable2 = TestingTableInfo.builder(new TableIdent(DocSchemaInfo.NAME, "large2"),
+        TableDefinitions.shardRouting("large2"))
+        .add("id", DataTypes.LONG)
+        .add("name", DataTypes.STRING)
+        .build();
+
     private NestedLoopConsumer consumer;
     private Planner.Context plannerContext;
     private SQLExecutor e;
@@ -99,6 +113,8 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
             .enableDefaultTables()
             .setTableStats(tableStats)
             .addDocTable(emptyRoutingTable)
+            .addDocTable(largeTable1)
+            .addDocTable(largeTable2)
             .build();
         Functions functions = e.functions();
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions, ReplaceMode.COPY);
@@ -115,10 +131,12 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
     }
 
     private TableStats getTableStats() {
-        ObjectLongMap<TableIdent> stats = new ObjectLongHashMap<>(3);
+        ObjectLongMap<TableIdent> stats = new ObjectLongHashMap<>(5);
         stats.put(TableDefinitions.USER_TABLE_IDENT, 10L);
         stats.put(TableDefinitions.USER_TABLE_IDENT_MULTI_PK, 5000L);
         stats.put(emptyRoutingTable.ident(), 0L);
+        stats.put(largeTable1.ident(), NestedLoopConsumer.PARTITIONED_JOIN_MIN_DOCS);
+        stats.put(largeTable2.ident(), NestedLoopConsumer.PARTITIONED_JOIN_MIN_DOCS * 2);
         TableStats tableStats = new TableStats();
         tableStats.updateTableStats(stats);
         return tableStats;
@@ -397,4 +415,73 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
         // of fetch-propagation and mixing these two doesn't work
         // because the reader-allocation would be done twice which isn't possible
     }
+
+    private static NestedLoop unwrapNestedLoop(Plan plan) {
+        if (plan instanceof QueryThenFetch) {
+            plan = ((QueryThenFetch) plan).subPlan();
+        }
+        if (plan instanceof Merge) {
+            plan = ((Merge) plan).subPlan();
+        }
+        return (NestedLoop) plan;
+    }
+
+    @Test
+    public void testJoinWithEqualityConditionIsPlannedAsHashJoin() throws Exception {
+        NestedLoop nl = unwrapNestedLoop(plan("select u1.id, u2.id from users u1 " +
+                                              "join users u2 on u1.id = u2.id and u1.name > u2.name"));
+        NestedLoopPhase phase = nl.nestedLoopPhase();
+        assertThat(phase.isHashJoin(), is(true));
+        assertThat(phase.name(), is("hash-join"));
+        assertThat(phase.leftJoinKeys(), contains(isInputColumn(0)));
+        assertThat(phase.rightJoinKeys(), contains(isInputColumn(0)));
+        assertThat(phase.rightInputTypes().size(), is(phase.numRightOutputs()));
+        assertThat(phase.joinCondition(), isFunction("op_>"));
+    }
+
+    @Test
+    public void testOuterJoinWithOnlyEqualityConditionIsPlannedAsHashJoinWithoutRemainingCondition() throws Exception {
+        NestedLoop nl = unwrapNestedLoop(plan("select u1.id, u2.id from users u1 " +
+                                              "full outer join users u2 on u1.id = u2.id"));
+        NestedLoopPhase phase = nl.nestedLoopPhase();
+        assertThat(phase.isHashJoin(), is(true));
+        assertThat(phase.joinCondition(), nullValue());
+    }
+
+    @Test
+    public void testJoinWithoutEqualityConditionIsPlannedAsNestedLoop() throws Exception {
+        NestedLoop nl = unwrapNestedLoop(plan("select u1.id, u2.id from users u1 " +
+                                              "join users u2 on u1.id > u2.id"));
+        NestedLoopPhase phase = nl.nestedLoopPhase();
+        assertThat(phase.isHashJoin(), is(false));
+        assertThat(phase.name(), is("nested-loop"));
+        assertThat(phase.joinCondition(), isFunction("op_>"));
+    }
+
+    @Test
+    public void testHashJoinOfLargeTablesDistributesBothSidesByJoinKey() throws Exception {
+        NestedLoop nl = unwrapNestedLoop(plan("select l1.id, l2.id from large1 l1 " +
+                                              "left join large2 l2 on l1.id = l2.id"));
+        NestedLoopPhase phase = nl.nestedLoopPhase();
+        assertThat(phase.name(), is("distributed-hash-join"));
+        assertThat(phase.nodeIds(), containsInAnyOrder("nodeOne", "nodeTwo"));
+        assertThat(phase.leftMergePhase(), notNullValue());
+        assertThat(phase.rightMergePhase(), notNullValue());
+
+        DistributionInfo leftDistribution = ((Collect) nl.left()).collectPhase().distributionInfo();
+        assertThat(leftDistribution.distributionType(), is(DistributionType.MODULO));
+        assertThat(leftDistribution.distributeByColumn(), is(0));
+        DistributionInfo rightDistribution = ((Collect) nl.right()).collectPhase().distributionInfo();
+        assertThat(rightDistribution.distributionType(), is(DistributionType.MODULO));
+        assertThat(rightDistribution.distributeByColumn(), is(0));
+    }
+
+    @Test
+    public void testHashJoinWithSmallTableBroadcastsInsteadOfPartitioning() throws Exception {
+        NestedLoop nl = unwrapNestedLoop(plan("select l1.id, u.id from large1 l1 " +
+                                              "join users u on l1.id = u.id"));
+        assertThat(nl.nestedLoopPhase().isHashJoin(), is(true));
+        assertThat(((Collect) nl.right()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.BROADCAST));
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row1;
+import io.crate.data.RowN;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class DataRowWriterTest {
+
+    @Test
+    public void testRowsAreEncodedIntoASingleBuffer() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        DataRowWriter writer = new DataRowWriter(channel, Arrays.asList(DataTypes.INTEGER, DataTypes.STRING), null);
+        writer.write(new RowN($(10, null)));
+        writer.write(new RowN($(20, null)));
+        assertThat(channel.readOutbound(), nullValue());
+
+        writer.writePending();
+        channel.flush();
+        ByteBuf buffer = channel.readOutbound();
+        for (int i = 0; i < 2; i++) {
+            assertThat((char) buffer.readByte(), is('D'));
+            assertThat(buffer.readInt(), is(16));
+            buffer.skipBytes(12);
+        }
+        assertThat(buffer.readableBytes(), is(0));
+        assertThat(channel.readOutbound(), nullValue());
+        buffer.release();
+    }
+
+    @Test
+    public void testBufferIsWrittenOnceBatchSizeIsReached() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        DataRowWriter writer = new DataRowWriter(channel, Collections.singletonList(DataTypes.LONG), null);
+        // 'D' + int32 len + int16 numCols + int32 valueLen + 1 digit
+        int rowSize = 1 + 4 + 2 + 4 + 1;
+        int numRows = DataRowWriter.BATCH_SIZE_IN_BYTES / rowSize + 1;
+        for (int i = 0; i < numRows; i++) {
+            writer.write(new Row1(1L));
+        }
+        ByteBuf buffer = channel.readOutbound();
+        assertThat(buffer.readableBytes(), is(numRows * rowSize));
+        buffer.release();
+
+        writer.writePending();
+        channel.flush();
+        assertThat(channel.readOutbound(), nullValue());
+    }
+}
@@ -25,6 +25,7 @@ package io.crate.protocols.postgres;
 import io.crate.action.sql.SQLOperations;
 import io.crate.executor.Executor;
 import io.crate.operation.auth.AlwaysOKAuthentication;
+import io.crate.operation.collect.files.CopyInStreams;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.user.User;
 import io.crate.operation.user.UserManager;
@@ -75,7 +76,8 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
             new JobsLogs(() -> true),
             Settings.EMPTY,
             clusterService,
-            USER_MANAGER_PROVIDER
+            USER_MANAGER_PROVIDER,
+            new CopyInStreams()
         ) {
             @Override
             public Session createSession(@Nullable String defaultSchema, @Nullable User user) {
@@ -38,13 +38,23 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
 import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestRequest;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -77,6 +87,7 @@ public class RestActionReceiversTest extends CrateUnitTest {
         RestChannel channel = mock(RestChannel.class);
         XContentBuilder xContentBuilder = JsonXContent.contentBuilder();
         when(channel.newBuilder()).thenReturn(xContentBuilder);
+        when(channel.request()).thenReturn(mock(RestRequest.class));
         return channel;
     }
 
@@ -125,6 +136,67 @@ public class RestActionReceiversTest extends CrateUnitTest {
         assertXContentBuilder(actualBuilder, builder.build());
     }
 
+    private static String readContent(EmbeddedChannel channel, boolean expectLast) {
+        StringBuilder content = new StringBuilder();
+        HttpContent chunk;
+        while ((chunk = channel.readOutbound()) != null) {
+            content.append(chunk.content().toString(StandardCharsets.UTF_8));
+            assertThat(chunk instanceof LastHttpContent, is(expectLast && channel.outboundMessages().isEmpty()));
+            chunk.release();
+        }
+        return content.toString();
+    }
+
+    @Test
+    public void testRestStreamingResultSetReceiver() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        AtomicInteger resumed = new AtomicInteger(0);
+        RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+            newChannel(), channel, t -> {}, fields, 0L, resumed::incrementAndGet, true);
+        receiver.setNextRow(rows.get(0));
+        receiver.setNextRow(rows.get(1));
+        receiver.batchFinished();
+
+        HttpResponse response = channel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.OK));
+        assertThat(HttpUtil.isTransferEncodingChunked(response), is(true));
+        String content = readContent(channel, false);
+        channel.runPendingTasks();
+        assertThat(resumed.get(), is(1));
+
+        receiver.setNextRow(rows.get(2));
+        receiver.allFinished(false);
+        content += readContent(channel, true);
+        assertThat(channel.isOpen(), is(false));
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(newChannel());
+        builder.cols(fields);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+        assertEquals(stripDuration(builder.build().string()), stripDuration(content));
+    }
+
+    @Test
+    public void testRestStreamingResultSetReceiverFailureAfterFirstChunk() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+            newChannel(), channel, t -> {}, fields, 0L, () -> {}, false);
+        receiver.setNextRow(rows.get(0));
+        receiver.batchFinished();
+        receiver.fail(new IllegalStateException("dummy"));
+
+        channel.<HttpResponse>readOutbound();
+        String content = readContent(channel, true);
+        assertThat(content, is("{\"cols\":[\"col_a\",\"col_b\",\"col_c\"],\"rows\":[[\"foo\",1,true]]," +
+                               "\"error\":{\"message\":\"SQLActionException[IllegalStateException: dummy]\",\"code\":5000}}"));
+        assertThat(channel.isOpen(), is(false));
+    }
+
     @Test
     public void testRestBulkRowCountReceiver() throws Exception {
         RestBulkRowCountReceiver.Result[] results = new RestBulkRowCountReceiver.Result[] {
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.metadata.ColumnIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ColumnBoundsTest extends CrateUnitTest {
+
+    @Test
+    public void testBoundsFromPointsOfAllSegments() throws Exception {
+        IndexWriter writer = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (long orderId : new long[]{20L, 3L, 7L}) {
+            Document doc = new Document();
+            doc.add(new LongPoint("order_id", orderId));
+            doc.add(new IntPoint("quantity", (int) orderId * 2));
+            writer.addDocument(doc);
+            // every document ends up in its own segment
+            writer.commit();
+        }
+        writer.addDocument(new Document());
+        writer.commit();
+
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            assertThat(ColumnBounds.fromPoints(reader, "order_id", DataTypes.LONG),
+                is(new ColumnBounds(DataTypes.LONG, 3L, 20L)));
+            assertThat(ColumnBounds.fromPoints(reader, "quantity", DataTypes.SHORT),
+                is(new ColumnBounds(DataTypes.SHORT, (short) 6, (short) 40)));
+            assertThat(ColumnBounds.fromPoints(reader, "price", DataTypes.DOUBLE), nullValue());
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        ColumnBoundsMetaData metaData = createMetaData();
+        BytesStreamOutput out = new BytesStreamOutput();
+        metaData.writeTo(out);
+
+        StreamInput in = out.bytes().streamInput();
+        assertThat(new ColumnBoundsMetaData(in), is(metaData));
+    }
+
+    @Test
+    public void testToXContent() throws Exception {
+        ColumnBoundsMetaData metaData = createMetaData();
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+
+        // reflects the logic used to process custom metadata in the cluster state
+        builder.startObject();
+        metaData.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        builder.endObject();
+
+        XContentParser parser = JsonXContent.jsonXContent.createParser(xContentRegistry(), builder.bytes());
+        parser.nextToken(); // start object
+        assertThat(ColumnBoundsMetaData.fromXContent(parser), is(metaData));
+    }
+
+    private static ColumnBoundsMetaData createMetaData() {
+        IndexColumnBounds orders = new IndexColumnBounds("uuid1", 3L, ImmutableMap.of(
+            0, ImmutableMap.of(
+                new ColumnIdent("order_id"), new ColumnBounds(DataTypes.LONG, 1L, 100L),
+                new ColumnIdent("price"), new ColumnBounds(DataTypes.DOUBLE, 0.5, 99.5)),
+            1, ImmutableMap.of(
+                new ColumnIdent("order_id"), new ColumnBounds(DataTypes.LONG, 101L, 200L))
+        ));
+        return new ColumnBoundsMetaData(ImmutableMap.of("orders", orders));
+    }
+}
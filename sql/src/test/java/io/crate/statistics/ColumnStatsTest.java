@@ -0,0 +1,141 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.statistics;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.TableIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ColumnStatsTest extends CrateUnitTest {
+
+    @Test
+    public void testStringBoundsAreTruncatedWithoutSplittingChars() throws Exception {
+        StringBuilder longValue = new StringBuilder("a");
+        for (int i = 0; i < ColumnStats.MAX_BOUND_BYTES; i++) {
+            longValue.append('\u00e4');
+        }
+        List<Object> samples = Arrays.asList(new BytesRef("a"), new BytesRef(longValue));
+        ColumnStats stats = ColumnStats.fromSample(DataTypes.STRING, samples, samples.size(), 4);
+
+        BytesRef max = (BytesRef) stats.max();
+        assertThat(max.length, is(ColumnStats.MAX_BOUND_BYTES - 1));
+        assertThat(max.utf8ToString(), is(longValue.substring(0, (ColumnStats.MAX_BOUND_BYTES - 1) / 2 + 1)));
+        assertThat(stats.min(), is(new BytesRef("a")));
+    }
+
+    @Test
+    public void testStatsFromSample() throws Exception {
+        List<Object> samples = Arrays.asList(5L, null, 1L, 3L, 3L, null, 2L, 4L, 3L, 1L);
+        ColumnStats stats = ColumnStats.fromSample(DataTypes.LONG, samples, samples.size(), 4);
+
+        assertThat(stats.nullFraction(), is(0.2));
+        assertThat(stats.approxDistinct(), is(5.0));
+        assertThat(stats.histogram(), contains(1L, 1L, 3L, 3L, 5L));
+        assertThat(stats.min(), is(1L));
+        assertThat(stats.max(), is(5L));
+    }
+
+    @Test
+    public void testStatsFromSampleWithOnlyNulls() throws Exception {
+        ColumnStats stats = ColumnStats.fromSample(DataTypes.STRING, Arrays.asList(null, null), 100L, 10);
+
+        assertThat(stats.nullFraction(), is(1.0));
+        assertThat(stats.approxDistinct(), is(0.0));
+        assertThat(stats.min(), nullValue());
+        assertThat(stats.max(), nullValue());
+    }
+
+    @Test
+    public void testDistinctEstimateIsScaledUpForUniqueSamples() throws Exception {
+        List<Object> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(i);
+        }
+        ColumnStats stats = ColumnStats.fromSample(DataTypes.INTEGER, samples, 100_000L, 100);
+
+        // every sampled value is unique, so the column is most likely unique as well
+        assertThat(stats.approxDistinct(), is(100_000.0));
+        assertThat(stats.histogram().size(), is(101));
+    }
+
+    @Test
+    public void testDistinctEstimateIsNotScaledUpWithoutSingletons() throws Exception {
+        assertThat(ColumnStats.estimateDistinct(1000, 10, 0, 100_000), is(10.0));
+        assertThat(ColumnStats.estimateDistinct(1000, 500, 250, 100_000), closeTo(664.45, 0.01));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        ColumnStatsMetaData metaData = createMetaData();
+        BytesStreamOutput out = new BytesStreamOutput();
+        metaData.writeTo(out);
+
+        StreamInput in = out.bytes().streamInput();
+        assertThat(new ColumnStatsMetaData(in), is(metaData));
+    }
+
+    @Test
+    public void testToXContent() throws Exception {
+        ColumnStatsMetaData metaData = createMetaData();
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+
+        // reflects the logic used to process custom metadata in the cluster state
+        builder.startObject();
+        metaData.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        builder.endObject();
+
+        XContentParser parser = JsonXContent.jsonXContent.createParser(xContentRegistry(), builder.bytes());
+        parser.nextToken(); // start object
+        assertThat(ColumnStatsMetaData.fromXContent(parser), is(metaData));
+    }
+
+    private static ColumnStatsMetaData createMetaData() {
+        ColumnStats ids = ColumnStats.fromSample(DataTypes.LONG, Arrays.asList(1L, 2L, null, 4L), 40L, 10);
+        ColumnStats names = ColumnStats.fromSample(
+            DataTypes.STRING, Arrays.asList(new BytesRef("Arthur"), new BytesRef("Trillian")), 2L, 10);
+        return new ColumnStatsMetaData(ImmutableMap.of(
+            new TableIdent("doc", "users"),
+            ImmutableMap.of(new ColumnIdent("id"), ids, new ColumnIdent("name"), names)
+        ));
+    }
+}